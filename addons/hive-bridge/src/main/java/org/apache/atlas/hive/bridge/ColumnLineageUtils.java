@@ -41,9 +41,13 @@ public class ColumnLineageUtils {
         public final String inputColumn;
 
         HiveColumnLineageInfo(LineageInfo.Dependency d, String inputCol) {
-            depenendencyType = d.getType().name();
-            expr = d.getExpr();
-            inputColumn = inputCol;
+            this(d.getType().name(), d.getExpr(), inputCol);
+        }
+
+        public HiveColumnLineageInfo(String depenendencyType, String expr, String inputColumn) {
+            this.depenendencyType = depenendencyType;
+            this.expr = expr;
+            this.inputColumn = inputColumn;
         }
 
         @Override
@@ -19,8 +19,18 @@
 package org.apache.atlas.hive.bridge;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClient;
@@ -60,6 +70,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.jersey.api.client.ClientResponse;
 
 /**
@@ -79,15 +91,43 @@ public class HiveMetaStoreBridge {
 
     public static final String ATLAS_ENDPOINT = "atlas.rest.address";
 
+    public static final String IMPORT_CONF_PREFIX = "atlas.hive.import.";
+    public static final String IMPORT_THREADS = IMPORT_CONF_PREFIX + "threads";
+    public static final String IMPORT_BATCH_SIZE = IMPORT_CONF_PREFIX + "batchSize";
+    public static final String IMPORT_CHECKPOINT_FILE = IMPORT_CONF_PREFIX + "checkpointFile";
+    static final int DEFAULT_IMPORT_THREADS = 4;
+    static final int DEFAULT_IMPORT_BATCH_SIZE = 20;
+    // keeps the query string of a lookup within the server's request header limit
+    static final int MAX_LOOKUP_VALUES = 50;
+
     private static final Logger LOG = LoggerFactory.getLogger(HiveMetaStoreBridge.class);
 
     public final Hive hiveClient;
+    private final HiveConf hiveConf;
     private AtlasClient atlasClient = null;
 
+    private final int importThreads;
+    private final int importBatchSize;
+    private final String importCheckpointFile;
+
     HiveMetaStoreBridge(String clusterName, Hive hiveClient, AtlasClient atlasClient) {
+        this(clusterName, hiveClient, atlasClient, DEFAULT_IMPORT_THREADS, DEFAULT_IMPORT_BATCH_SIZE, null);
+    }
+
+    HiveMetaStoreBridge(String clusterName, Hive hiveClient, AtlasClient atlasClient, int importThreads,
+                        int importBatchSize, String importCheckpointFile) {
+        this(clusterName, hiveClient, null, atlasClient, importThreads, importBatchSize, importCheckpointFile);
+    }
+
+    private HiveMetaStoreBridge(String clusterName, Hive hiveClient, HiveConf hiveConf, AtlasClient atlasClient,
+                                int importThreads, int importBatchSize, String importCheckpointFile) {
         this.clusterName = clusterName;
         this.hiveClient = hiveClient;
+        this.hiveConf = hiveConf;
         this.atlasClient = atlasClient;
+        this.importThreads = Math.max(importThreads, 1);
+        this.importBatchSize = Math.max(importBatchSize, 1);
+        this.importCheckpointFile = importCheckpointFile;
     }
 
     public String getClusterName() {
@@ -107,7 +147,10 @@ public class HiveMetaStoreBridge {
      * @param hiveConf {@link HiveConf} for Hive component in the cluster
      */
     public HiveMetaStoreBridge(Configuration atlasProperties, HiveConf hiveConf, AtlasClient atlasClient) throws Exception {
-        this(atlasProperties.getString(HIVE_CLUSTER_NAME, DEFAULT_CLUSTER_NAME), Hive.get(hiveConf), atlasClient);
+        this(atlasProperties.getString(HIVE_CLUSTER_NAME, DEFAULT_CLUSTER_NAME), Hive.get(hiveConf), hiveConf,
+                atlasClient, atlasProperties.getInt(IMPORT_THREADS, DEFAULT_IMPORT_THREADS),
+                atlasProperties.getInt(IMPORT_BATCH_SIZE, DEFAULT_IMPORT_BATCH_SIZE),
+                atlasProperties.getString(IMPORT_CHECKPOINT_FILE));
     }
 
     AtlasClient getAtlasClient() {
@@ -119,14 +162,72 @@ public class HiveMetaStoreBridge {
         importDatabases(failOnError);
     }
 
+    /**
+     * Imports all databases and their tables. Tables are read from the metastore and registered in batches of
+     * {@link #IMPORT_BATCH_SIZE} by a pool of {@link #IMPORT_THREADS} workers; each batch is a single create or update
+     * call. Databases are recorded in the {@link #IMPORT_CHECKPOINT_FILE} as they complete, and skipped when a failed
+     * import is run again.
+     */
     private void importDatabases(boolean failOnError) throws Exception {
-        List<String> databases = hiveClient.getAllDatabases();
-        for (String databaseName : databases) {
-            Referenceable dbReference = registerDatabase(databaseName);
+        ImportCheckpoint checkpoint = new ImportCheckpoint(importCheckpointFile);
+        Map<String, List<String>> databaseTables = new LinkedHashMap<>();
+        int totalTables = 0;
+
+        for (String databaseName : hiveClient.getAllDatabases()) {
+            if (checkpoint.isCompleted(databaseName)) {
+                LOG.info("Skipping database {}, imported by a previous run", databaseName);
+                continue;
+            }
 
-            if (dbReference != null) {
-                importTables(dbReference, databaseName, failOnError);
+            List<String> tables = hiveClient.getAllTables(databaseName);
+            databaseTables.put(databaseName, tables);
+            totalTables += tables.size();
+        }
+
+        LOG.info("Importing {} tables from {} databases with {} threads", totalTables, databaseTables.size(),
+                importThreads);
+
+        ImportProgress progress = new ImportProgress(totalTables);
+        ExecutorService executor = Executors.newFixedThreadPool(importThreads, new ThreadFactoryBuilder()
+                .setNameFormat("Hive Import %d").setDaemon(true).setThreadFactory(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        return new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    runnable.run();
+                                } finally {
+                                    // the metastore client getHiveClient opened for this worker
+                                    Hive.closeCurrent();
+                                }
+                            }
+                        });
+                    }
+                }).build());
+        boolean allCompleted = true;
+
+        try {
+            for (Map.Entry<String, List<String>> entry : databaseTables.entrySet()) {
+                String databaseName = entry.getKey();
+                List<String> tables = entry.getValue();
+                Referenceable dbReference = registerDatabase(databaseName);
+
+                if (dbReference != null
+                        && importTables(executor, dbReference, databaseName, tables, progress, failOnError) == tables.size()) {
+                    checkpoint.markCompleted(databaseName);
+                } else {
+                    allCompleted = false;
+                }
             }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        progress.logCompletion();
+
+        if (allCompleted) {
+            checkpoint.clear();
         }
     }
 
@@ -247,15 +348,31 @@ public class HiveMetaStoreBridge {
      * @param databaseReferenceable
      * @param databaseName
      * @param failOnError
+     * @return number of tables imported
      * @throws Exception
      */
-    private int importTables(Referenceable databaseReferenceable, String databaseName, final boolean failOnError) throws Exception {
-        int tablesImported = 0;
-        List<String> hiveTables = hiveClient.getAllTables(databaseName);
+    private int importTables(ExecutorService executor, Referenceable databaseReferenceable, String databaseName,
+                             List<String> hiveTables, ImportProgress progress, final boolean failOnError) throws Exception {
         LOG.info("Importing tables {} for db {}", hiveTables.toString(), databaseName);
-        for (String tableName : hiveTables) {
-            int imported = importTable(databaseReferenceable, databaseName, tableName, failOnError);
-            tablesImported += imported;
+
+        List<Future<Integer>> batches = new ArrayList<>();
+        for (int start = 0; start < hiveTables.size(); start += importBatchSize) {
+            List<String> tableNames = hiveTables.subList(start, Math.min(start + importBatchSize, hiveTables.size()));
+            batches.add(executor.submit(new TableBatch(databaseReferenceable, databaseName, tableNames, progress,
+                    failOnError)));
+        }
+
+        int tablesImported = 0;
+        try {
+            for (Future<Integer> batch : batches) {
+                tablesImported += batch.get();
+            }
+        } catch (ExecutionException e) {
+            // batches only fail when failOnError is set
+            for (Future<Integer> batch : batches) {
+                batch.cancel(true);
+            }
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
         }
 
         if (tablesImported == hiveTables.size()) {
@@ -267,6 +384,135 @@ public class HiveMetaStoreBridge {
         return tablesImported;
     }
 
+    /**
+     * Reads a batch of tables from the metastore and registers them, with their columns, storage descriptors and
+     * the processes of external tables, in one call. The registered tables of the batch are looked up in one call,
+     * and updated from their entity so that the attributes the bridge doesn't set are kept. If the update fails and
+     * failOnError is not set, the tables are registered one at a time so that a single bad table does not fail the
+     * whole batch.
+     */
+    private class TableBatch implements Callable<Integer> {
+        private final Referenceable databaseReferenceable;
+        private final String databaseName;
+        private final List<String> tableNames;
+        private final ImportProgress progress;
+        private final boolean failOnError;
+
+        TableBatch(Referenceable databaseReferenceable, String databaseName, List<String> tableNames,
+                   ImportProgress progress, boolean failOnError) {
+            this.databaseReferenceable = databaseReferenceable;
+            this.databaseName = databaseName;
+            this.tableNames = tableNames;
+            this.progress = progress;
+            this.failOnError = failOnError;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            Hive hive = getHiveClient();
+            Map<String, Table> tables = new LinkedHashMap<>();
+
+            for (String tableName : tableNames) {
+                try {
+                    tables.put(tableName, hive.getTable(databaseName, tableName));
+                } catch (Exception e) {
+                    LOG.error("Import failed for hive_table {} ", tableName, e);
+                    if (failOnError) {
+                        throw e;
+                    }
+                }
+            }
+
+            Map<String, Referenceable> registeredTables;
+            try {
+                registeredTables = getTableReferences(tables.values());
+            } catch (Exception e) {
+                LOG.error("Import failed for hive_tables {}: looking up the registered tables failed", tables.keySet(),
+                        e);
+                if (failOnError) {
+                    throw e;
+                }
+                progress.tablesProcessed(tableNames.size(), 0);
+                return 0;
+            }
+
+            Map<String, List<Referenceable>> tableEntities = new LinkedHashMap<>();
+            for (Map.Entry<String, Table> table : tables.entrySet()) {
+                try {
+                    String tableQualifiedName = getTableQualifiedName(clusterName, table.getValue());
+                    tableEntities.put(table.getKey(), getTableEntities(databaseReferenceable, table.getValue(),
+                            registeredTables.get(tableQualifiedName)));
+                } catch (Exception e) {
+                    LOG.error("Import failed for hive_table {} ", table.getKey(), e);
+                    if (failOnError) {
+                        throw e;
+                    }
+                }
+            }
+
+            int imported = register(tableEntities);
+            progress.tablesProcessed(tableNames.size(), imported);
+            return imported;
+        }
+
+        private int register(Map<String, List<Referenceable>> tableEntities) throws Exception {
+            if (tableEntities.isEmpty()) {
+                return 0;
+            }
+
+            List<Referenceable> entities = new ArrayList<>();
+            for (List<Referenceable> tableEntity : tableEntities.values()) {
+                entities.addAll(tableEntity);
+            }
+
+            try {
+                getAtlasClient().updateEntities(entities);
+                return tableEntities.size();
+            } catch (Exception e) {
+                if (failOnError) {
+                    LOG.error("Import failed for hive_tables {} ", tableEntities.keySet(), e);
+                    throw e;
+                }
+                LOG.warn("Import failed for hive_tables {}, registering them one at a time", tableEntities.keySet(), e);
+            }
+
+            int imported = 0;
+            for (Map.Entry<String, List<Referenceable>> tableEntity : tableEntities.entrySet()) {
+                try {
+                    getAtlasClient().updateEntities(tableEntity.getValue());
+                    imported++;
+                } catch (Exception e) {
+                    LOG.error("Import failed for hive_table {} ", tableEntity.getKey(), e);
+                }
+            }
+            return imported;
+        }
+    }
+
+    /**
+     * The metastore client of the calling thread. Hive clients are not thread safe; Hive.get gives each import
+     * worker, and each thread of the hook sharing this bridge, its own.
+     */
+    public Hive getHiveClient() throws HiveException {
+        return hiveConf != null ? Hive.get(hiveConf) : hiveClient;
+    }
+
+    /**
+     * The entities that register a table: the table, with its columns and storage descriptor, and for external
+     * tables the process that created it from its location. A registered table is updated from its entity.
+     */
+    private List<Referenceable> getTableEntities(Referenceable dbReference, Table table,
+                                                 Referenceable registeredTable) throws Exception {
+        List<Referenceable> entities = new ArrayList<>();
+        Referenceable tableReferenceable = createOrUpdateTableInstance(dbReference, registeredTable, table);
+        entities.add(tableReferenceable);
+
+        if (table.getTableType() == TableType.EXTERNAL_TABLE) {
+            entities.add(createTableProcess(table, tableReferenceable));
+        }
+        return entities;
+    }
+
     @VisibleForTesting
     public int importTable(Referenceable databaseReferenceable, String databaseName, String tableName, final boolean failOnError) throws Exception {
         try {
@@ -277,30 +523,7 @@ public class HiveMetaStoreBridge {
                 Referenceable process = getProcessReference(tableQualifiedName);
                 if (process == null) {
                     LOG.info("Attempting to register create table process for {}", tableQualifiedName);
-                    Referenceable lineageProcess = new Referenceable(HiveDataTypes.HIVE_PROCESS.getName());
-                    ArrayList<Referenceable> sourceList = new ArrayList<>();
-                    ArrayList<Referenceable> targetList = new ArrayList<>();
-                    String tableLocation = table.getDataLocation().toString();
-                    Referenceable path = fillHDFSDataSet(tableLocation);
-                    String query = getCreateTableString(table, tableLocation);
-                    sourceList.add(path);
-                    targetList.add(tableReferenceable);
-                    lineageProcess.set("inputs", sourceList);
-                    lineageProcess.set("outputs", targetList);
-                    lineageProcess.set("userName", table.getOwner());
-                    lineageProcess.set("startTime", new Date(System.currentTimeMillis()));
-                    lineageProcess.set("endTime", new Date(System.currentTimeMillis()));
-                    lineageProcess.set("operationType", "CREATETABLE");
-                    lineageProcess.set("queryText", query);
-                    lineageProcess.set("queryId", query);
-                    lineageProcess.set("queryPlan", "{}");
-                    lineageProcess.set("clusterName", clusterName);
-                    List<String> recentQueries = new ArrayList<>(1);
-                    recentQueries.add(query);
-                    lineageProcess.set("recentQueries", recentQueries);
-                    String processQualifiedName = getTableProcessQualifiedName(clusterName, table);
-                    lineageProcess.set(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, processQualifiedName);
-                    lineageProcess.set(AtlasClient.NAME, query);
+                    Referenceable lineageProcess = createTableProcess(table, tableReferenceable);
                     registerInstance(lineageProcess);
                 } else {
                     LOG.info("Process {} is already registered", process.toString());
@@ -316,6 +539,34 @@ public class HiveMetaStoreBridge {
         }
     }
 
+    private Referenceable createTableProcess(Table table, Referenceable tableReferenceable) {
+        Referenceable lineageProcess = new Referenceable(HiveDataTypes.HIVE_PROCESS.getName());
+        ArrayList<Referenceable> sourceList = new ArrayList<>();
+        ArrayList<Referenceable> targetList = new ArrayList<>();
+        String tableLocation = table.getDataLocation().toString();
+        Referenceable path = fillHDFSDataSet(tableLocation);
+        String query = getCreateTableString(table, tableLocation);
+        sourceList.add(path);
+        targetList.add(tableReferenceable);
+        lineageProcess.set("inputs", sourceList);
+        lineageProcess.set("outputs", targetList);
+        lineageProcess.set("userName", table.getOwner());
+        lineageProcess.set("startTime", new Date(System.currentTimeMillis()));
+        lineageProcess.set("endTime", new Date(System.currentTimeMillis()));
+        lineageProcess.set("operationType", "CREATETABLE");
+        lineageProcess.set("queryText", query);
+        lineageProcess.set("queryId", query);
+        lineageProcess.set("queryPlan", "{}");
+        lineageProcess.set("clusterName", clusterName);
+        List<String> recentQueries = new ArrayList<>(1);
+        recentQueries.add(query);
+        lineageProcess.set("recentQueries", recentQueries);
+        String processQualifiedName = getTableProcessQualifiedName(clusterName, table);
+        lineageProcess.set(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, processQualifiedName);
+        lineageProcess.set(AtlasClient.NAME, query);
+        return lineageProcess;
+    }
+
     /**
      * Gets reference for the table
      *
@@ -331,6 +582,28 @@ public class HiveMetaStoreBridge {
         return getEntityReference(typeName, tblQualifiedName);
     }
 
+    /**
+     * Gets the registered tables among the given ones, in one call for up to {@link #MAX_LOOKUP_VALUES} tables.
+     *
+     * @return the table references by qualified name
+     */
+    private Map<String, Referenceable> getTableReferences(Collection<Table> hiveTables) throws Exception {
+        List<String> qualifiedNames = new ArrayList<>(hiveTables.size());
+        for (Table hiveTable : hiveTables) {
+            qualifiedNames.add(getTableQualifiedName(clusterName, hiveTable));
+        }
+
+        Map<String, Referenceable> tableReferences = new HashMap<>();
+        for (List<String> lookup : Lists.partition(qualifiedNames, MAX_LOOKUP_VALUES)) {
+            for (Referenceable tableReference : getAtlasClient().getEntities(HiveDataTypes.HIVE_TABLE.getName(),
+                    AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, lookup)) {
+                tableReferences.put((String) tableReference.get(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME),
+                        tableReference);
+            }
+        }
+        return tableReferences;
+    }
+
     private Referenceable getEntityReference(final String typeName, final String tblQualifiedName) throws AtlasServiceException {
         AtlasClient dgiClient = getAtlasClient();
         try {
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.bridge;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Records the databases a bulk import has completed in a local file, one name per line, so that a failed import
+ * can be run again and resume with the databases it had not completed. Without a file nothing is recorded.
+ */
+class ImportCheckpoint {
+    private static final Logger LOG = LoggerFactory.getLogger(ImportCheckpoint.class);
+
+    private final File file;
+    private final Set<String> completedDatabases = new HashSet<>();
+
+    ImportCheckpoint(String fileName) throws IOException {
+        this.file = fileName != null ? new File(fileName) : null;
+
+        if (file != null && file.exists()) {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    completedDatabases.add(line.trim());
+                }
+            }
+            LOG.info("Resuming import, {} databases were completed by a previous run", completedDatabases.size());
+        }
+    }
+
+    boolean isCompleted(String databaseName) {
+        return completedDatabases.contains(databaseName);
+    }
+
+    void markCompleted(String databaseName) throws IOException {
+        completedDatabases.add(databaseName);
+
+        if (file != null) {
+            Files.write(file.toPath(), Collections.singleton(databaseName), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Removes the checkpoint once every database has been imported, so that the next import starts over.
+     */
+    void clear() {
+        completedDatabases.clear();
+
+        if (file != null && file.exists() && !file.delete()) {
+            LOG.warn("Failed to delete import checkpoint {}", file);
+        }
+    }
+}
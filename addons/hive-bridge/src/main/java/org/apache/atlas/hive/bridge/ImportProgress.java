@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.bridge;
+
+import org.apache.commons.lang.time.DurationFormatUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the tables processed by a bulk import and periodically logs the throughput and the estimated time left.
+ */
+class ImportProgress {
+    private static final Logger LOG = LoggerFactory.getLogger(ImportProgress.class);
+
+    static final long LOG_INTERVAL_MS = 30 * 1000;
+
+    private final int totalTables;
+    private final long startTime;
+    private final AtomicInteger processedTables = new AtomicInteger();
+    private final AtomicInteger importedTables = new AtomicInteger();
+    private final AtomicLong lastLogTime;
+
+    ImportProgress(int totalTables) {
+        this.totalTables = totalTables;
+        this.startTime = System.currentTimeMillis();
+        this.lastLogTime = new AtomicLong(startTime);
+    }
+
+    /**
+     * @param processed tables read from the metastore, whether or not they were imported
+     * @param imported  tables registered in Atlas
+     */
+    void tablesProcessed(int processed, int imported) {
+        int done = processedTables.addAndGet(processed);
+        importedTables.addAndGet(imported);
+
+        long now = System.currentTimeMillis();
+        long last = lastLogTime.get();
+        if (now - last >= LOG_INTERVAL_MS && lastLogTime.compareAndSet(last, now)) {
+            LOG.info(describe(done, now));
+        }
+    }
+
+    int getImportedTables() {
+        return importedTables.get();
+    }
+
+    void logCompletion() {
+        long elapsed = System.currentTimeMillis() - startTime;
+        LOG.info("Imported {} of {} tables in {}", importedTables.get(), totalTables,
+                DurationFormatUtils.formatDurationHMS(elapsed));
+    }
+
+    String describe(int done, long now) {
+        long elapsed = Math.max(now - startTime, 1);
+        double tablesPerSecond = done * 1000.0 / elapsed;
+        String eta = "unknown";
+        if (done > 0) {
+            long remainingMs = (long) ((totalTables - done) * (double) elapsed / done);
+            eta = DurationFormatUtils.formatDurationHMS(remainingMs);
+        }
+
+        return String.format("Processed %d of %d tables (%.1f tables/s), estimated time left %s", done, totalTables,
+                tablesPerSecond, eta);
+    }
+}
@@ -0,0 +1,420 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.hook;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * A bounded first-in first-out queue of records kept in files under a directory. Records are appended to segment
+ * files of a limited size, read back in the order they were appended, and a segment is deleted once all its records
+ * have been removed. How far the oldest segment has been removed is written to an offset file on every remove, the
+ * same way records are written, without forcing it to disk. Segments left by an earlier process are read first,
+ * starting after the last removed record, so records that were not removed before a restart are read after it; a
+ * record read but not removed before the restart is read again.
+ *
+ * The directory is made readable by its owner only, and is locked while the journal is open, so that a second process
+ * configured with the same directory fails to open it rather than reading the same records.
+ *
+ * Not thread safe.
+ */
+class HiveEventJournal {
+    private static final Logger LOG = LoggerFactory.getLogger(HiveEventJournal.class);
+
+    private static final String SEGMENT_PREFIX = "hive-events-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int RECORD_HEADER_BYTES = 4;
+    private static final String OFFSET_FILE = "hive-events.offset";
+    private static final String LOCK_FILE = "hive-events.lock";
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private final File directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final File offsetFile;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private final Deque<File> segments = new ArrayDeque<>();
+    private long nextSegment;
+
+    private DataOutputStream writer;
+    private long writerBytes;
+
+    private DataInputStream reader;
+    private byte[] head;
+    // bytes of the oldest segment taken by removed records
+    private long headOffset;
+
+    private long records;
+    private long bytes;
+
+    HiveEventJournal(File directory, long maxBytes, long segmentBytes) throws IOException {
+        createDirectory(directory.toPath());
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+        this.offsetFile = new File(directory, OFFSET_FILE);
+        this.lockChannel = FileChannel.open(new File(directory, LOCK_FILE).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+
+        FileLock fileLock;
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another journal of this process
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            lockChannel.close();
+            throw new IOException("Journal " + directory + " is in use by another process");
+        }
+        this.lock = fileLock;
+
+        try {
+            recover();
+        } catch (IOException e) {
+            unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * @return false if the record doesn't fit in the journal
+     */
+    boolean append(byte[] record) throws IOException {
+        long recordBytes = RECORD_HEADER_BYTES + record.length;
+        if (bytes + recordBytes > maxBytes) {
+            return false;
+        }
+
+        if (writer == null || writerBytes >= segmentBytes) {
+            roll();
+        }
+
+        writer.writeInt(record.length);
+        writer.write(record);
+        writer.flush();
+
+        writerBytes += recordBytes;
+        records++;
+        bytes += recordBytes;
+        return true;
+    }
+
+    /**
+     * @return the oldest record, or null if the journal is empty
+     */
+    byte[] peek() throws IOException {
+        while (head == null && records > 0) {
+            if (reader == null) {
+                reader = new DataInputStream(new BufferedInputStream(new FileInputStream(segments.peekFirst())));
+                skip(reader, headOffset);
+            }
+
+            head = read(reader);
+
+            if (head == null) {
+                if (segments.size() == 1) {
+                    // the segment being written holds fewer records than counted, which happens when a record was
+                    // cut short by an earlier process
+                    LOG.warn("Journal {} has {} unreadable records", directory, records);
+                    clear();
+                } else {
+                    closeReader();
+                    deleteSegment(segments.removeFirst());
+                    headOffset = 0;
+                }
+            }
+        }
+        return head;
+    }
+
+    /**
+     * Removes the oldest record.
+     */
+    void remove() throws IOException {
+        if (peek() == null) {
+            return;
+        }
+
+        records--;
+        bytes -= RECORD_HEADER_BYTES + head.length;
+        headOffset += RECORD_HEADER_BYTES + head.length;
+        head = null;
+
+        if (records == 0) {
+            clear();
+        } else {
+            writeOffset();
+        }
+    }
+
+    boolean isEmpty() {
+        return records == 0;
+    }
+
+    long getRecords() {
+        return records;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    void close() throws IOException {
+        try {
+            closeReader();
+            closeWriter();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Creates the directory readable by its owner only, or takes away the permissions others have on an existing one.
+     */
+    private static void createDirectory(Path path) throws IOException {
+        boolean posix = Files.getFileStore(existingParent(path)).supportsFileAttributeView(PosixFileAttributeView.class);
+
+        if (!Files.isDirectory(path)) {
+            if (posix) {
+                Files.createDirectories(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            } else {
+                Files.createDirectories(path);
+            }
+        } else if (posix && !OWNER_ONLY.containsAll(Files.getPosixFilePermissions(path))) {
+            LOG.warn("Journal directory {} is accessible by other users; restricting it to its owner", path);
+            Files.setPosixFilePermissions(path, OWNER_ONLY);
+        }
+    }
+
+    private static Path existingParent(Path path) {
+        Path existing = path.toAbsolutePath();
+        while (existing.getParent() != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        return existing;
+    }
+
+    private void recover() throws IOException {
+        String[] names = directory.list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        Arrays.sort(names);
+
+        long offsetSegment = -1;
+        long offset = 0;
+        if (offsetFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new FileInputStream(offsetFile))) {
+                offsetSegment = in.readLong();
+                offset = in.readLong();
+                nextSegment = offsetSegment + 1;
+            } catch (IOException e) {
+                LOG.warn("Failed to read the offset of journal {}; reading it from the start", directory, e);
+                offsetSegment = -1;
+                offset = 0;
+            }
+        }
+
+        for (String name : names) {
+            File segment = new File(directory, name);
+            long segmentSequence = sequence(name);
+            long segmentOffset = segmentSequence == offsetSegment ? offset : 0;
+            long segmentRecords = 0;
+            long size = 0;
+
+            if (segmentSequence < offsetSegment) {
+                // all its records were removed, but it couldn't be deleted
+                deleteSegment(segment);
+                continue;
+            }
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment)))) {
+                long position = 0;
+                for (byte[] record = read(in); record != null; record = read(in)) {
+                    if (position >= segmentOffset) {
+                        segmentRecords++;
+                        size += RECORD_HEADER_BYTES + record.length;
+                    }
+                    position += RECORD_HEADER_BYTES + record.length;
+                }
+            }
+
+            if (segmentRecords == 0) {
+                deleteSegment(segment);
+                continue;
+            }
+
+            if (segments.isEmpty()) {
+                headOffset = segmentOffset;
+            }
+            segments.addLast(segment);
+            records += segmentRecords;
+            bytes += size;
+            nextSegment = Math.max(nextSegment, segmentSequence + 1);
+        }
+
+        if (segments.isEmpty()) {
+            deleteOffset();
+        }
+
+        if (records > 0) {
+            LOG.info("Recovered {} records ({} bytes) from journal {}", records, bytes, directory);
+        }
+    }
+
+    private void roll() throws IOException {
+        closeWriter();
+
+        File segment = new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(segment)));
+        writerBytes = 0;
+        segments.addLast(segment);
+    }
+
+    private void clear() throws IOException {
+        closeReader();
+        closeWriter();
+        head = null;
+        headOffset = 0;
+        records = 0;
+        bytes = 0;
+
+        // removed first, so that a segment left behind is read again rather than skipped
+        deleteOffset();
+
+        while (!segments.isEmpty()) {
+            deleteSegment(segments.removeFirst());
+        }
+    }
+
+    private void closeReader() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void unlock() throws IOException {
+        try {
+            if (lock.isValid()) {
+                lock.release();
+            }
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    private void writeOffset() throws IOException {
+        File temp = new File(directory, OFFSET_FILE + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+            out.writeLong(sequence(segments.peekFirst().getName()));
+            out.writeLong(headOffset);
+        }
+        Files.move(temp.toPath(), offsetFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteOffset() {
+        if (offsetFile.exists() && !offsetFile.delete()) {
+            LOG.warn("Failed to delete journal offset {}", offsetFile);
+        }
+    }
+
+    private void deleteSegment(File segment) {
+        if (!segment.delete()) {
+            LOG.warn("Failed to delete journal segment {}", segment);
+        }
+    }
+
+    /**
+     * @return the next record, or null at the end of the stream or of its complete records
+     */
+    private byte[] read(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length < 0 || length > maxBytes) {
+                LOG.warn("Ignoring the rest of a journal segment in {}, with a record of {} bytes", directory, length);
+                return null;
+            }
+
+            byte[] record = new byte[length];
+            in.readFully(record);
+            return record;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void skip(DataInputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                throw new EOFException("Journal segment ends before its offset");
+            }
+            count -= skipped;
+        }
+    }
+
+    private static long sequence(String name) {
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -20,6 +20,8 @@ package org.apache.atlas.hive.hook;
 
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasConstants;
@@ -74,7 +76,6 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -101,7 +102,7 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
     // wait time determines how long we wait before we exit the jvm on
     // shutdown. Pending requests after that will not be sent.
     private static final int WAIT_TIME = 3;
-    private static ExecutorService executor = null;
+    private static HiveHookQueue eventQueue = null;
 
     private static final int minThreadsDefault = 1;
     private static final int maxThreadsDefault = 5;
@@ -110,6 +111,10 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
 
     private static final HiveConf hiveConf;
 
+    // bridges are kept per HiveConf instance, instead of being created for every event
+    private static final Cache<HiveConf, HiveMetaStoreBridge> bridges = CacheBuilder.newBuilder().weakKeys().build();
+    private static final HiveMetadataCache metadataCache = HiveMetadataCache.create(atlasProperties);
+
     static {
         try {
             // initialize the async facility to process hook calls. We don't
@@ -122,19 +127,25 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
                 long keepAliveTime = atlasProperties.getLong(KEEP_ALIVE_TIME, keepAliveTimeDefault);
                 int queueSize = atlasProperties.getInt(QUEUE_SIZE, queueSizeDefault);
 
-                executor = new ThreadPoolExecutor(minThreads, maxThreads, keepAliveTime, TimeUnit.MILLISECONDS,
-                        new LinkedBlockingQueue<Runnable>(queueSize),
+                ThreadPoolExecutor executor = new ThreadPoolExecutor(minThreads, maxThreads, keepAliveTime,
+                        TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(queueSize),
                         new ThreadFactoryBuilder().setNameFormat("Atlas Logger %d").build());
 
+                eventQueue = HiveHookQueue.create(atlasProperties, executor, new HiveHookQueue.EventHandler() {
+                    @Override
+                    public void handle(HiveEventContext event) throws Exception {
+                        new HiveHook().fireAndForget(event);
+                    }
+                });
+
                 ShutdownHookManager.get().addShutdownHook(new Thread() {
                     @Override
                     public void run() {
                         try {
                             LOG.info("==> Shutdown of Atlas Hive Hook");
 
-                            executor.shutdown();
-                            executor.awaitTermination(WAIT_TIME, TimeUnit.SECONDS);
-                            executor = null;
+                            eventQueue.shutdown(WAIT_TIME);
+                            eventQueue = null;
                         } catch (InterruptedException ie) {
                             LOG.info("Interrupt received in shutdown.");
                         } finally {
@@ -187,19 +198,10 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
             event.setQueryType(hookContext.getQueryPlan().getQueryPlan().getQueryType());
             event.setLineageInfo(hookContext.getLinfo());
 
-            if (executor == null) {
+            if (eventQueue == null) {
                 fireAndForget(event);
             } else {
-                executor.submit(new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            fireAndForget(event);
-                        } catch (Throwable e) {
-                            LOG.error("Atlas hook failed due to error ", e);
-                        }
-                    }
-                });
+                eventQueue.submit(event);
             }
         } catch (Throwable t) {
             LOG.error("Submitting to thread pool failed due to error ", t);
@@ -212,7 +214,8 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
 
         LOG.info("Entered Atlas hook for hook type {} operation {}", event.getHookType(), event.getOperation());
 
-        HiveMetaStoreBridge dgiBridge = new HiveMetaStoreBridge(atlasProperties, hiveConf);
+        HiveMetaStoreBridge dgiBridge = getBridge(hiveConf);
+        invalidateMetadata(event);
 
         switch (event.getOperation()) {
         case CREATEDATABASE:
@@ -286,6 +289,59 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
         notifyEntities(event.getMessages());
     }
 
+    private static HiveMetaStoreBridge getBridge(HiveConf conf) throws Exception {
+        HiveMetaStoreBridge bridge = bridges.getIfPresent(conf);
+
+        if (bridge == null) {
+            bridge = new HiveMetaStoreBridge(atlasProperties, conf);
+            bridges.put(conf, bridge);
+        }
+        return bridge;
+    }
+
+    /**
+     * Drops the cached metadata of the databases and tables the operation writes to, and for renames of the tables
+     * it reads from, so that they are read again from the metastore.
+     */
+    private static void invalidateMetadata(HiveEventContext event) {
+        if (event.getOperation() == HiveOperation.ALTERTABLE_RENAME || event.getOperation() == HiveOperation.ALTERVIEW_RENAME) {
+            for (ReadEntity input : event.getInputs()) {
+                invalidateMetadata(input);
+            }
+        }
+
+        for (WriteEntity output : event.getOutputs()) {
+            invalidateMetadata(output);
+        }
+    }
+
+    private static void invalidateMetadata(Entity entity) {
+        switch (entity.getType()) {
+        case DATABASE:
+            metadataCache.invalidateDatabase(entity.getDatabase().getName());
+            break;
+
+        case TABLE:
+            metadataCache.invalidateTable(entity.getTable().getDbName(), entity.getTable().getTableName());
+            break;
+
+        case PARTITION:
+            Table table = entity.getPartition().getTable();
+            metadataCache.invalidateTable(table.getDbName(), table.getTableName());
+            break;
+
+        default:
+        }
+    }
+
+    private static Database getDatabase(HiveMetaStoreBridge dgiBridge, String dbName) throws HiveException {
+        return metadataCache.getDatabase(dgiBridge.getHiveClient(), dbName);
+    }
+
+    private static Table getTable(HiveMetaStoreBridge dgiBridge, String dbName, String tableName) throws HiveException {
+        return metadataCache.getTable(dgiBridge.getHiveClient(), dbName, tableName);
+    }
+
     private void deleteTable(HiveMetaStoreBridge dgiBridge, HiveEventContext event) {
         for (WriteEntity output : event.getOutputs()) {
             if (Type.TABLE.equals(output.getType())) {
@@ -360,7 +416,7 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
         Table oldTable = event.getInputs().iterator().next().getTable();
         List<FieldSchema> oldColList = oldTable.getAllCols();
         Table outputTbl = event.getOutputs().iterator().next().getTable();
-        outputTbl = dgiBridge.hiveClient.getTable(outputTbl.getDbName(), outputTbl.getTableName());
+        outputTbl = getTable(dgiBridge, outputTbl.getDbName(), outputTbl.getTableName());
         List<FieldSchema> newColList = outputTbl.getAllCols();
         assert oldColList.size() == newColList.size();
 
@@ -496,13 +552,13 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
 
         case TABLE:
             table = entity.getTable();
-            db = dgiBridge.hiveClient.getDatabase(table.getDbName());
+            db = getDatabase(dgiBridge, table.getDbName());
             break;
 
         case PARTITION:
             partition = entity.getPartition();
             table = partition.getTable();
-            db = dgiBridge.hiveClient.getDatabase(table.getDbName());
+            db = getDatabase(dgiBridge, table.getDbName());
             break;
 
         default:
@@ -510,7 +566,7 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
         }
 
         if (db != null) {
-            db = dgiBridge.hiveClient.getDatabase(db.getName());
+            db = getDatabase(dgiBridge, db.getName());
         }
 
         if (db != null) {
@@ -525,7 +581,7 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
                 if (existTable != null) {
                     table = existTable;
                 } else {
-                    table = dgiBridge.hiveClient.getTable(table.getDbName(), table.getTableName());
+                    table = getTable(dgiBridge, table.getDbName(), table.getTableName());
                 }
                 //If its an external table, even though the temp table skip flag is on,
                 // we create the table since we need the HDFS path to temp table lineage.
@@ -709,7 +765,7 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
 
         //Refresh to get the correct location
         if(hiveTable != null) {
-            hiveTable = dgiBridge.hiveClient.getTable(hiveTable.getDbName(), hiveTable.getTableName());
+            hiveTable = getTable(dgiBridge, hiveTable.getDbName(), hiveTable.getTableName());
         }
 
         if (hiveTable != null && TableType.EXTERNAL_TABLE.equals(hiveTable.getTableType())) {
@@ -849,7 +905,7 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
             if (entity != null) {
                 Table outTable = entity.getTable();
                 //refresh table
-                outTable = dgiBridge.hiveClient.getTable(outTable.getDbName(), outTable.getTableName());
+                outTable = getTable(dgiBridge, outTable.getDbName(), outTable.getTableName());
                 return HiveMetaStoreBridge.getTableProcessQualifiedName(dgiBridge.getClusterName(), outTable);
             }
         }
@@ -903,7 +959,7 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
                             LOG.debug("Skipping dfs dir input addition to process qualified name {} ", input.getName());
                         } else if (refs.containsKey(input)) {
                             if ( input.getType() == Type.PARTITION || input.getType() == Type.TABLE) {
-                                final Date createTime = HiveMetaStoreBridge.getTableCreatedTime(hiveBridge.hiveClient.getTable(input.getTable().getDbName(), input.getTable().getTableName()));
+                                final Date createTime = HiveMetaStoreBridge.getTableCreatedTime(getTable(hiveBridge, input.getTable().getDbName(), input.getTable().getTableName()));
                                 addDataset(buffer, refs.get(input), createTime.getTime());
                             } else {
                                 addDataset(buffer, refs.get(input));
@@ -947,7 +1003,7 @@ public class HiveHook extends AtlasHook implements ExecuteWithHookContext {
                             LOG.debug("Skipping dfs dir output addition to process qualified name {} ", output.getName());
                         } else if (refs.containsKey(output)) {
                             if ( output.getType() == Type.PARTITION || output.getType() == Type.TABLE) {
-                                final Date createTime = HiveMetaStoreBridge.getTableCreatedTime(hiveBridge.hiveClient.getTable(output.getTable().getDbName(), output.getTable().getTableName()));
+                                final Date createTime = HiveMetaStoreBridge.getTableCreatedTime(getTable(hiveBridge, output.getTable().getDbName(), output.getTable().getTableName()));
                                 addDataset(buffer, refs.get(output), createTime.getTime());
                             } else {
                                 addDataset(buffer, refs.get(output));
@@ -0,0 +1,340 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.hook;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands hive events over to the hook's thread pool. When the pool's queue is full, events are rejected and lost by
+ * default. With overflow enabled they are serialized to a bounded journal on local disk instead, and fed back to the
+ * pool in the order they arrived as it catches up; while the journal holds events, new events are appended to it so
+ * that they are not processed ahead of older ones. Events are only dropped when the journal is full too. Events still
+ * queued in memory when the hook shuts down are written to the journal, which is read again when the hook starts.
+ *
+ * Queue depth, spill volume and drop counts are exposed via JMX.
+ */
+public class HiveHookQueue implements HiveHookQueueMBean {
+    private static final Logger LOG = LoggerFactory.getLogger(HiveHookQueue.class);
+
+    public static final String OVERFLOW_ENABLED = HiveHook.CONF_PREFIX + "overflow.enabled";
+    public static final String OVERFLOW_DIR = HiveHook.CONF_PREFIX + "overflow.dir";
+    public static final String OVERFLOW_MAX_BYTES = HiveHook.CONF_PREFIX + "overflow.maxBytes";
+    public static final String OVERFLOW_SEGMENT_BYTES = HiveHook.CONF_PREFIX + "overflow.segmentBytes";
+
+    private static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+    private static final long DEFAULT_SEGMENT_BYTES = 16L * 1024 * 1024;
+    private static final long DRAIN_INTERVAL_MS = 100;
+
+    /**
+     * Processes an event on a thread of the pool.
+     */
+    interface EventHandler {
+        void handle(HiveHook.HiveEventContext event) throws Exception;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final HiveEventJournal journal;
+    private final EventHandler handler;
+    private final Thread drainer;
+    private volatile boolean stopped = false;
+
+    private final AtomicLong spilledEvents = new AtomicLong();
+    private final AtomicLong drainedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    HiveHookQueue(ThreadPoolExecutor executor, HiveEventJournal journal, EventHandler handler) {
+        this.executor = executor;
+        this.journal = journal;
+        this.handler = handler;
+
+        if (journal != null) {
+            drainer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            }, "Atlas Logger Overflow");
+            drainer.setDaemon(true);
+        } else {
+            drainer = null;
+        }
+    }
+
+    static HiveHookQueue create(Configuration configuration, ThreadPoolExecutor executor, EventHandler handler) {
+        HiveEventJournal journal = null;
+
+        if (configuration.getBoolean(OVERFLOW_ENABLED, false)) {
+            // no default: a shared directory such as java.io.tmpdir would let other users read or plant records
+            String directory = configuration.getString(OVERFLOW_DIR);
+            long maxBytes = configuration.getLong(OVERFLOW_MAX_BYTES, DEFAULT_MAX_BYTES);
+            long segmentBytes = configuration.getLong(OVERFLOW_SEGMENT_BYTES, DEFAULT_SEGMENT_BYTES);
+
+            if (StringUtils.isEmpty(directory)) {
+                LOG.error("{} is not set; events that don't fit in the queue are dropped", OVERFLOW_DIR);
+            } else {
+                try {
+                    journal = new HiveEventJournal(new File(directory), maxBytes, segmentBytes);
+                    LOG.info("Hive events that don't fit in the queue are written to {} (up to {} bytes)", directory,
+                            maxBytes);
+                } catch (IOException e) {
+                    LOG.error("Failed to open the overflow journal in {}; events that don't fit in the queue are "
+                            + "dropped", directory, e);
+                }
+            }
+        }
+
+        HiveHookQueue queue = new HiveHookQueue(executor, journal, handler);
+        queue.start();
+        queue.register();
+        return queue;
+    }
+
+    void start() {
+        if (drainer != null) {
+            drainer.start();
+        }
+    }
+
+    /**
+     * Queues the event for processing, writing it to the journal if the queue is full or the journal holds older
+     * events.
+     */
+    void submit(HiveHook.HiveEventContext event) {
+        if (journal == null) {
+            try {
+                executor.execute(new EventTask(event));
+            } catch (RejectedExecutionException e) {
+                droppedEvents.incrementAndGet();
+                LOG.error("Dropped hive event for query {}: the hook queue is full", event.getQueryId());
+            }
+            return;
+        }
+
+        synchronized (this) {
+            if (journal.isEmpty()) {
+                try {
+                    executor.execute(new EventTask(event));
+                    return;
+                } catch (RejectedExecutionException e) {
+                    LOG.debug("Hook queue is full, writing events to the overflow journal");
+                }
+            }
+            spill(event);
+        }
+    }
+
+    /**
+     * Waits for the queued events to be processed, then writes those that weren't to the journal.
+     */
+    void shutdown(long waitSeconds) throws InterruptedException {
+        stopped = true;
+        if (drainer != null) {
+            drainer.interrupt();
+            drainer.join(TimeUnit.SECONDS.toMillis(waitSeconds));
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(waitSeconds, TimeUnit.SECONDS);
+        List<Runnable> pending = executor.shutdownNow();
+
+        if (journal != null) {
+            synchronized (this) {
+                for (Runnable task : pending) {
+                    if (task instanceof EventTask) {
+                        spill(((EventTask) task).event);
+                    }
+                }
+
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    LOG.warn("Failed to close the overflow journal", e);
+                }
+            }
+        } else if (!pending.isEmpty()) {
+            droppedEvents.addAndGet(pending.size());
+            LOG.warn("Dropped {} hive events still queued at shutdown", pending.size());
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    @Override
+    public boolean isOverflowEnabled() {
+        return journal != null;
+    }
+
+    @Override
+    public long getSpilledEventCount() {
+        return spilledEvents.get();
+    }
+
+    @Override
+    public synchronized long getSpillDepth() {
+        return journal != null ? journal.getRecords() : 0;
+    }
+
+    @Override
+    public synchronized long getSpillBytes() {
+        return journal != null ? journal.getBytes() : 0;
+    }
+
+    @Override
+    public long getDrainedEventCount() {
+        return drainedEvents.get();
+    }
+
+    @Override
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    // must be called holding the lock
+    private void spill(HiveHook.HiveEventContext event) {
+        try {
+            if (journal.append(SpilledHiveEvent.serialize(event))) {
+                spilledEvents.incrementAndGet();
+            } else {
+                droppedEvents.incrementAndGet();
+                LOG.error("Dropped hive event for query {}: the overflow journal is full", event.getQueryId());
+            }
+        } catch (IOException e) {
+            droppedEvents.incrementAndGet();
+            LOG.error("Dropped hive event for query {}: failed to write it to the overflow journal",
+                    event.getQueryId(), e);
+        }
+    }
+
+    private void drain() {
+        while (!stopped) {
+            try {
+                drainNext();
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                LOG.error("Failed to read the overflow journal", e);
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(1));
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the oldest event of the journal to the queue, once the queue has room for it. The event is read and
+     * queued without holding the lock, so that submit() isn't blocked meanwhile; it stays in the journal until it is
+     * queued, which keeps newer events going to the journal behind it.
+     */
+    private void drainNext() throws InterruptedException, IOException {
+        byte[] record;
+
+        synchronized (this) {
+            while (!stopped && (journal.isEmpty() || executor.getQueue().remainingCapacity() == 0)) {
+                wait(DRAIN_INTERVAL_MS);
+            }
+
+            record = stopped ? null : journal.peek();
+        }
+
+        if (record == null) {
+            return;
+        }
+
+        HiveHook.HiveEventContext event;
+        try {
+            event = SpilledHiveEvent.deserialize(record);
+        } catch (IOException e) {
+            removeDrained();
+            droppedEvents.incrementAndGet();
+            LOG.error("Dropped a hive event that could not be read from the overflow journal", e);
+            return;
+        }
+
+        try {
+            executor.execute(new EventTask(event));
+        } catch (RejectedExecutionException e) {
+            // the queue filled up again; retry once it has room
+            return;
+        }
+
+        removeDrained();
+        drainedEvents.incrementAndGet();
+    }
+
+    // only the drainer removes events, so the oldest event is still the one it read
+    private synchronized void removeDrained() throws IOException {
+        journal.remove();
+    }
+
+    private void register() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.apache.atlas:type=HiveHookQueue");
+
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+
+            mBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            LOG.warn("Failed to register JMX bean for the hive hook queue", e);
+        }
+    }
+
+    private class EventTask implements Runnable {
+        private final HiveHook.HiveEventContext event;
+
+        EventTask(HiveHook.HiveEventContext event) {
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            try {
+                handler.handle(event);
+            } catch (Throwable e) {
+                LOG.error("Atlas hook failed due to error ", e);
+            }
+        }
+    }
+}
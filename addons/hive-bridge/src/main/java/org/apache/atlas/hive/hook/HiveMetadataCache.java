@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.hook;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.configuration.Configuration;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.ql.metadata.Hive;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database and table metadata read from the metastore by the hook. Consecutive queries mostly touch the same
+ * databases and tables, so these are kept for a short while instead of being read again for every query. Entries
+ * are dropped when the hook sees an operation that writes to them, and otherwise expire after the configured time,
+ * which bounds how stale metadata changed outside the hook can be.
+ */
+class HiveMetadataCache {
+    private static final Logger LOG = LoggerFactory.getLogger(HiveMetadataCache.class);
+
+    public static final String CACHE_SIZE = HiveHook.CONF_PREFIX + "metadataCache.size";
+    public static final String CACHE_TTL_SECONDS = HiveHook.CONF_PREFIX + "metadataCache.ttlSeconds";
+
+    private static final int CACHE_SIZE_DEFAULT = 10000;
+    private static final long CACHE_TTL_SECONDS_DEFAULT = 60;
+
+    private static final String SEP = ".";
+
+    private final Cache<String, Database> databases;
+    private final Cache<String, Table> tables;
+
+    HiveMetadataCache(int size, long ttlSeconds) {
+        this.databases = CacheBuilder.newBuilder().maximumSize(size).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        this.tables = CacheBuilder.newBuilder().maximumSize(size).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    static HiveMetadataCache create(Configuration atlasProperties) {
+        int size = CACHE_SIZE_DEFAULT;
+        long ttlSeconds = CACHE_TTL_SECONDS_DEFAULT;
+
+        if (atlasProperties != null) {
+            size = atlasProperties.getInt(CACHE_SIZE, CACHE_SIZE_DEFAULT);
+            ttlSeconds = atlasProperties.getLong(CACHE_TTL_SECONDS, CACHE_TTL_SECONDS_DEFAULT);
+        }
+
+        LOG.info("Caching up to {} databases and tables for {} seconds", size, ttlSeconds);
+        return new HiveMetadataCache(size, ttlSeconds);
+    }
+
+    /**
+     * @return the database, or null if it does not exist
+     */
+    Database getDatabase(Hive hiveClient, String dbName) throws HiveException {
+        String key = dbName.toLowerCase();
+        Database db = databases.getIfPresent(key);
+
+        if (db == null) {
+            db = hiveClient.getDatabase(dbName);
+            if (db != null) {
+                databases.put(key, db);
+            }
+        }
+        return db;
+    }
+
+    Table getTable(Hive hiveClient, String dbName, String tableName) throws HiveException {
+        String key = tableKey(dbName, tableName);
+        Table table = tables.getIfPresent(key);
+
+        if (table == null) {
+            table = hiveClient.getTable(dbName, tableName);
+            if (table != null) {
+                tables.put(key, table);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Drops the database and all of its tables.
+     */
+    void invalidateDatabase(String dbName) {
+        String key = dbName.toLowerCase();
+        databases.invalidate(key);
+
+        for (String tableKey : tables.asMap().keySet()) {
+            if (tableKey.startsWith(key + SEP)) {
+                tables.invalidate(tableKey);
+            }
+        }
+    }
+
+    void invalidateTable(String dbName, String tableName) {
+        tables.invalidate(tableKey(dbName, tableName));
+    }
+
+    private static String tableKey(String dbName, String tableName) {
+        return dbName.toLowerCase() + SEP + tableName.toLowerCase();
+    }
+}
@@ -0,0 +1,378 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.hook;
+
+import org.apache.atlas.hive.bridge.ColumnLineageUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.ql.hooks.Entity;
+import org.apache.hadoop.hive.ql.hooks.HookContext;
+import org.apache.hadoop.hive.ql.hooks.ReadEntity;
+import org.apache.hadoop.hive.ql.hooks.WriteEntity;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.metadata.Partition;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.apache.hadoop.hive.ql.plan.HiveOperation;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The serialized form of a {@link HiveHook.HiveEventContext}, for events kept on disk until they can be processed.
+ * Each field is written explicitly rather than with java serialization, so that reading a record can't create
+ * objects of other classes. Tables, partitions and databases are kept as their metastore objects in thrift's compact
+ * protocol, and the query plan as JSON text. The user group information isn't kept, since it is not used to process
+ * the event.
+ */
+final class SpilledHiveEvent {
+    private static final int FORMAT_VERSION = 1;
+    // bounds what a damaged record makes the reader allocate
+    private static final int MAX_FIELD_BYTES = 64 * 1024 * 1024;
+
+    private SpilledHiveEvent() {
+    }
+
+    static byte[] serialize(HiveHook.HiveEventContext event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+
+            Set<ReadEntity> inputs = event.getInputs();
+            out.writeInt(inputs != null ? inputs.size() : 0);
+            if (inputs != null) {
+                for (ReadEntity input : inputs) {
+                    new SpilledEntity(input, null, false).write(out);
+                }
+            }
+            Set<WriteEntity> outputs = event.getOutputs();
+            out.writeInt(outputs != null ? outputs.size() : 0);
+            if (outputs != null) {
+                for (WriteEntity output : outputs) {
+                    new SpilledEntity(output, output.getWriteType(), output.isTempURI()).write(out);
+                }
+            }
+
+            writeString(out, event.getUser());
+            writeEnum(out, event.getOperation());
+            writeEnum(out, event.getHookType());
+            writeString(out, event.getJsonPlan() != null ? event.getJsonPlan().toString() : null);
+            writeString(out, event.getQueryId());
+            writeString(out, event.getQueryStr());
+            out.writeBoolean(event.getQueryStartTime() != null);
+            if (event.getQueryStartTime() != null) {
+                out.writeLong(event.getQueryStartTime());
+            }
+            writeString(out, event.getQueryType());
+            writeLineage(out, event.lineageInfo);
+        }
+        return bytes.toByteArray();
+    }
+
+    static HiveHook.HiveEventContext deserialize(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes)))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unknown format version " + version + " of a spilled hive event");
+            }
+
+            HiveHook.HiveEventContext event = new HiveHook.HiveEventContext();
+
+            Set<ReadEntity> inputs = new LinkedHashSet<>();
+            for (int i = readCount(in); i > 0; i--) {
+                inputs.add(SpilledEntity.read(in).toReadEntity());
+            }
+            Set<WriteEntity> outputs = new LinkedHashSet<>();
+            for (int i = readCount(in); i > 0; i--) {
+                outputs.add(SpilledEntity.read(in).toWriteEntity());
+            }
+
+            event.setInputs(inputs);
+            event.setOutputs(outputs);
+            event.setUser(readString(in));
+            event.setOperation(readEnum(in, HiveOperation.class));
+            event.setHookType(readEnum(in, HookContext.HookType.class));
+            String jsonPlan = readString(in);
+            event.setJsonPlan(jsonPlan != null ? new JSONObject(jsonPlan) : null);
+            event.setQueryId(readString(in));
+            event.setQueryStr(readString(in));
+            event.setQueryStartTime(in.readBoolean() ? in.readLong() : null);
+            event.setQueryType(readString(in));
+            event.lineageInfo = readLineage(in);
+            return event;
+        } catch (HiveException | JSONException | IllegalArgumentException e) {
+            throw new IOException("Failed to restore a spilled hive event", e);
+        }
+    }
+
+    private static void writeLineage(DataOutputStream out,
+                                     Map<String, List<ColumnLineageUtils.HiveColumnLineageInfo>> lineageInfo)
+            throws IOException {
+        out.writeBoolean(lineageInfo != null);
+        if (lineageInfo == null) {
+            return;
+        }
+
+        out.writeInt(lineageInfo.size());
+        for (Map.Entry<String, List<ColumnLineageUtils.HiveColumnLineageInfo>> entry : lineageInfo.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (ColumnLineageUtils.HiveColumnLineageInfo info : entry.getValue()) {
+                writeString(out, info.depenendencyType);
+                writeString(out, info.expr);
+                writeString(out, info.inputColumn);
+            }
+        }
+    }
+
+    private static Map<String, List<ColumnLineageUtils.HiveColumnLineageInfo>> readLineage(DataInputStream in)
+            throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        Map<String, List<ColumnLineageUtils.HiveColumnLineageInfo>> lineageInfo = new HashMap<>();
+        for (int i = readCount(in); i > 0; i--) {
+            String column = readString(in);
+            List<ColumnLineageUtils.HiveColumnLineageInfo> infos = new ArrayList<>();
+            for (int j = readCount(in); j > 0; j--) {
+                infos.add(new ColumnLineageUtils.HiveColumnLineageInfo(readString(in), readString(in), readString(in)));
+            }
+            lineageInfo.put(column, infos);
+        }
+        return lineageInfo;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        writeString(out, value != null ? value.name() : null);
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> enumClass) throws IOException {
+        String name = readString(in);
+        return name != null ? Enum.valueOf(enumClass, name) : null;
+    }
+
+    private static void writeThrift(DataOutputStream out, TBase<?, ?> value) throws IOException {
+        try {
+            writeBytes(out, value != null ? new TSerializer(new TCompactProtocol.Factory()).serialize(value) : null);
+        } catch (TException e) {
+            throw new IOException("Failed to write " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static <T extends TBase<?, ?>> T readThrift(DataInputStream in, T value) throws IOException {
+        byte[] bytes = readBytes(in);
+        if (bytes == null) {
+            return null;
+        }
+
+        try {
+            new TDeserializer(new TCompactProtocol.Factory()).deserialize(value, bytes);
+            return value;
+        } catch (TException e) {
+            throw new IOException("Failed to read " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IOException("Field of " + bytes.length + " bytes is too large to spill");
+        }
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > MAX_FIELD_BYTES) {
+            throw new IOException("Invalid field length " + length + " in a spilled hive event");
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid count " + count + " in a spilled hive event");
+        }
+        return count;
+    }
+
+    /**
+     * An input or output of a hive event. The entity is rebuilt from its metastore objects, or from its location
+     * for directories.
+     */
+    private static class SpilledEntity {
+        private final Entity.Type type;
+        private final String name;
+        private final WriteEntity.WriteType writeType;
+        private final boolean tempURI;
+        private Database database;
+        private org.apache.hadoop.hive.metastore.api.Table table;
+        private org.apache.hadoop.hive.metastore.api.Partition partition;
+        private String location;
+
+        SpilledEntity(Entity entity, WriteEntity.WriteType writeType, boolean tempURI) {
+            this(entity.getType(), entity.getName(), writeType, tempURI);
+
+            switch (type) {
+            case DATABASE:
+                database = entity.getDatabase();
+                break;
+
+            case TABLE:
+                table = entity.getTable().getTTable();
+                break;
+
+            case PARTITION:
+                table = entity.getPartition().getTable().getTTable();
+                partition = entity.getPartition().getTPartition();
+                break;
+
+            case DFS_DIR:
+            case LOCAL_DIR:
+                location = String.valueOf(entity.getD());
+                break;
+
+            default:
+            }
+        }
+
+        private SpilledEntity(Entity.Type type, String name, WriteEntity.WriteType writeType, boolean tempURI) {
+            this.type = type;
+            this.name = name;
+            this.writeType = writeType;
+            this.tempURI = tempURI;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeEnum(out, type);
+            writeString(out, name);
+            writeEnum(out, writeType);
+            out.writeBoolean(tempURI);
+            writeThrift(out, database);
+            writeThrift(out, table);
+            writeThrift(out, partition);
+            writeString(out, location);
+        }
+
+        static SpilledEntity read(DataInputStream in) throws IOException {
+            Entity.Type type = readEnum(in, Entity.Type.class);
+            if (type == null) {
+                throw new IOException("Spilled hive entity without a type");
+            }
+
+            SpilledEntity entity = new SpilledEntity(type, readString(in), readEnum(in, WriteEntity.WriteType.class),
+                    in.readBoolean());
+            entity.database = readThrift(in, new Database());
+            entity.table = readThrift(in, new org.apache.hadoop.hive.metastore.api.Table());
+            entity.partition = readThrift(in, new org.apache.hadoop.hive.metastore.api.Partition());
+            entity.location = readString(in);
+            return entity;
+        }
+
+        ReadEntity toReadEntity() throws HiveException {
+            switch (type) {
+            case DATABASE:
+                return new ReadEntity(database);
+
+            case TABLE:
+                return new ReadEntity(new Table(table));
+
+            case PARTITION:
+                return new ReadEntity(new Partition(new Table(table), partition));
+
+            case DFS_DIR:
+            case LOCAL_DIR:
+                return new ReadEntity(new Path(location), type == Entity.Type.LOCAL_DIR);
+
+            default:
+                ReadEntity entity = new ReadEntity();
+                entity.setName(name);
+                entity.setTyp(type);
+                return entity;
+            }
+        }
+
+        WriteEntity toWriteEntity() throws HiveException {
+            switch (type) {
+            case DATABASE:
+                return new WriteEntity(database, writeType);
+
+            case TABLE:
+                return new WriteEntity(new Table(table), writeType);
+
+            case PARTITION:
+                return new WriteEntity(new Partition(new Table(table), partition), writeType);
+
+            case DFS_DIR:
+            case LOCAL_DIR:
+                WriteEntity directory = new WriteEntity(new Path(location), type == Entity.Type.LOCAL_DIR, tempURI);
+                directory.setWriteType(writeType);
+                return directory;
+
+            default:
+                WriteEntity entity = new WriteEntity();
+                entity.setName(name);
+                entity.setTyp(type);
+                entity.setWriteType(writeType);
+                return entity;
+            }
+        }
+    }
+}
@@ -42,12 +42,21 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import scala.actors.threadpool.Arrays;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.Mockito.anyCollectionOf;
+import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -96,10 +105,10 @@ public class HiveMetaStoreBridgeTest {
 
         returnExistingDatabase(TEST_DB_NAME, atlasClient, CLUSTER_NAME);
 
-        // return existing table
-        when(atlasClient.getEntity(HiveDataTypes.HIVE_TABLE.getName(),
-            AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, HiveMetaStoreBridge.getTableQualifiedName(CLUSTER_NAME, TEST_DB_NAME, TEST_TABLE_NAME)))
-            .thenReturn(getEntityReference(HiveDataTypes.HIVE_TABLE.getName(), "82e06b34-9151-4023-aa9d-b82103a50e77"));
+        // return existing table, with an attribute the bridge doesn't set
+        Referenceable existingTable = getTableEntityReference(TEST_TABLE_NAME, "82e06b34-9151-4023-aa9d-b82103a50e77");
+        existingTable.set(HiveMetaStoreBridge.DESCRIPTION_ATTR, "curated description");
+        returnExistingTables(existingTable);
         when(atlasClient.getEntity("82e06b34-9151-4023-aa9d-b82103a50e77")).thenReturn(createTableReference());
         String processQualifiedName = HiveMetaStoreBridge.getTableProcessQualifiedName(CLUSTER_NAME, hiveTables.get(0));
         when(atlasClient.getEntity(HiveDataTypes.HIVE_PROCESS.getName(),
@@ -108,10 +117,92 @@ public class HiveMetaStoreBridgeTest {
         HiveMetaStoreBridge bridge = new HiveMetaStoreBridge(CLUSTER_NAME, hiveClient, atlasClient);
         bridge.importHiveMetadata(true);
 
-        // verify update is called on table
-        verify(atlasClient).updateEntity(eq("82e06b34-9151-4023-aa9d-b82103a50e77"),
-                (Referenceable) argThat(new MatchesReferenceableProperty(HiveDataModelGenerator.TABLE_TYPE_ATTR,
-                        TableType.EXTERNAL_TABLE.name())));
+        // verify the table is submitted for update, starting from the registered entity
+        verify(atlasClient).updateEntities((Collection<Referenceable>) argThat(new ContainsReferenceableProperty(
+                HiveDataModelGenerator.TABLE_TYPE_ATTR, TableType.EXTERNAL_TABLE.name())));
+        verify(atlasClient).updateEntities((Collection<Referenceable>) argThat(new ContainsReferenceableProperty(
+                HiveMetaStoreBridge.DESCRIPTION_ATTR, "curated description")));
+    }
+
+    @Test
+    public void testImportSubmitsTablesInBatches() throws Exception {
+        setupDB(hiveClient, TEST_DB_NAME);
+        setupTables(hiveClient, TEST_DB_NAME, TEST_TABLE_NAME + "_1", TEST_TABLE_NAME + "_2", TEST_TABLE_NAME + "_3");
+        returnExistingDatabase(TEST_DB_NAME, atlasClient, CLUSTER_NAME);
+
+        HiveMetaStoreBridge bridge = new HiveMetaStoreBridge(CLUSTER_NAME, hiveClient, atlasClient, 2, 2, null);
+        bridge.importHiveMetadata(true);
+
+        // 3 tables in batches of 2, the registered tables of each batch looked up in one call
+        verify(atlasClient, times(2)).updateEntities(anyCollectionOf(Referenceable.class));
+        verify(atlasClient, times(2)).getEntities(eq(HiveDataTypes.HIVE_TABLE.getName()),
+                eq(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME), anyCollectionOf(String.class));
+        verify(atlasClient, never()).getEntity(eq(HiveDataTypes.HIVE_TABLE.getName()),
+                eq(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME), anyString());
+    }
+
+    @Test
+    public void testBatchIsNotRegisteredWhenLookupFails() throws Exception {
+        setupDB(hiveClient, TEST_DB_NAME);
+        setupTables(hiveClient, TEST_DB_NAME, TEST_TABLE_NAME);
+        returnExistingDatabase(TEST_DB_NAME, atlasClient, CLUSTER_NAME);
+        when(atlasClient.getEntities(eq(HiveDataTypes.HIVE_TABLE.getName()), eq(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME),
+                anyCollectionOf(String.class))).thenThrow(new AtlasServiceException(AtlasClient.API.GET_ENTITY,
+                new RuntimeException("Connection refused")));
+
+        HiveMetaStoreBridge bridge = new HiveMetaStoreBridge(CLUSTER_NAME, hiveClient, atlasClient);
+        bridge.importHiveMetadata(false);
+
+        // registering the tables without their entities would clear the attributes the bridge doesn't set
+        verify(atlasClient, never()).updateEntities(anyCollectionOf(Referenceable.class));
+    }
+
+    @Test
+    public void testImportResumesFromCheckpoint() throws Exception {
+        final String db2Name = TEST_DB_NAME + "_2";
+        when(hiveClient.getAllDatabases()).thenReturn(Arrays.asList(new String[]{TEST_DB_NAME, db2Name}));
+        when(hiveClient.getDatabase(db2Name)).thenReturn(new Database(db2Name, "Second database", "/user/hive/db2", null));
+        setupTables(hiveClient, db2Name, TEST_TABLE_NAME);
+        returnExistingDatabase(db2Name, atlasClient, CLUSTER_NAME);
+
+        File checkpoint = File.createTempFile("hive-import", ".checkpoint");
+        Files.write(checkpoint.toPath(), Collections.singleton(TEST_DB_NAME), StandardCharsets.UTF_8);
+
+        HiveMetaStoreBridge bridge = new HiveMetaStoreBridge(CLUSTER_NAME, hiveClient, atlasClient, 2, 2,
+                checkpoint.getAbsolutePath());
+        bridge.importHiveMetadata(true);
+
+        verify(hiveClient, never()).getAllTables(TEST_DB_NAME);
+        verify(hiveClient).getTable(db2Name, TEST_TABLE_NAME);
+        Assert.assertFalse(checkpoint.exists(), "checkpoint should be removed once all databases are imported");
+    }
+
+    @Test
+    public void testCheckpointKeepsCompletedDatabasesWhenImportFails() throws Exception {
+        final String db2Name = TEST_DB_NAME + "_2";
+        when(hiveClient.getAllDatabases()).thenReturn(Arrays.asList(new String[]{TEST_DB_NAME, db2Name}));
+        when(hiveClient.getDatabase(TEST_DB_NAME)).thenReturn(new Database(TEST_DB_NAME, "Default database", "/user/hive/default", null));
+        when(hiveClient.getDatabase(db2Name)).thenReturn(new Database(db2Name, "Second database", "/user/hive/db2", null));
+        when(hiveClient.getAllTables(TEST_DB_NAME)).thenReturn(Arrays.asList(new String[]{}));
+        setupTables(hiveClient, db2Name, TEST_TABLE_NAME);
+        when(hiveClient.getTable(db2Name, TEST_TABLE_NAME)).thenThrow(new RuntimeException("Timeout while reading data from hive metastore"));
+        returnExistingDatabase(TEST_DB_NAME, atlasClient, CLUSTER_NAME);
+        returnExistingDatabase(db2Name, atlasClient, CLUSTER_NAME);
+
+        File checkpoint = File.createTempFile("hive-import", ".checkpoint");
+        checkpoint.deleteOnExit();
+
+        HiveMetaStoreBridge bridge = new HiveMetaStoreBridge(CLUSTER_NAME, hiveClient, atlasClient, 2, 2,
+                checkpoint.getAbsolutePath());
+        try {
+            bridge.importHiveMetadata(true);
+            Assert.fail("Table registration is supposed to fail");
+        } catch (Exception e) {
+            //Expected
+        }
+
+        Assert.assertEquals(Files.readAllLines(checkpoint.toPath(), StandardCharsets.UTF_8),
+                Collections.singletonList(TEST_DB_NAME));
     }
 
     private void returnExistingDatabase(String databaseName, AtlasClient atlasClient, String clusterName)
@@ -147,9 +238,7 @@ public class HiveMetaStoreBridgeTest {
 
         returnExistingDatabase(TEST_DB_NAME, atlasClient, CLUSTER_NAME);
 
-        when(atlasClient.getEntity(HiveDataTypes.HIVE_TABLE.getName(), AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME,
-            HiveMetaStoreBridge.getTableQualifiedName(CLUSTER_NAME, TEST_DB_NAME, TEST_TABLE_NAME))).thenReturn(
-            getEntityReference(HiveDataTypes.HIVE_TABLE.getName(), "82e06b34-9151-4023-aa9d-b82103a50e77"));
+        returnExistingTables(getTableEntityReference(TEST_TABLE_NAME, "82e06b34-9151-4023-aa9d-b82103a50e77"));
         String processQualifiedName = HiveMetaStoreBridge.getTableProcessQualifiedName(CLUSTER_NAME, hiveTable);
         when(atlasClient.getEntity(HiveDataTypes.HIVE_PROCESS.getName(), AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME,
                 processQualifiedName)).thenReturn(getEntityReference(HiveDataTypes.HIVE_PROCESS.getName(), "82e06b34-9151-4023-aa9d-b82103a50e77"));
@@ -179,9 +268,7 @@ public class HiveMetaStoreBridgeTest {
         returnExistingDatabase(TEST_DB_NAME, atlasClient, CLUSTER_NAME);
         when(hiveClient.getTable(TEST_DB_NAME, TEST_TABLE_NAME)).thenThrow(new RuntimeException("Timeout while reading data from hive metastore"));
 
-        when(atlasClient.getEntity(HiveDataTypes.HIVE_TABLE.getName(), AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, HiveMetaStoreBridge.getTableQualifiedName(CLUSTER_NAME, TEST_DB_NAME,
-            table2Name))).thenReturn(
-            getEntityReference(HiveDataTypes.HIVE_TABLE.getName(), "82e06b34-9151-4023-aa9d-b82103a50e77"));
+        returnExistingTables(getTableEntityReference(table2Name, "82e06b34-9151-4023-aa9d-b82103a50e77"));
         when(atlasClient.getEntity("82e06b34-9151-4023-aa9d-b82103a50e77")).thenReturn(createTableReference());
         String processQualifiedName = HiveMetaStoreBridge.getTableProcessQualifiedName(CLUSTER_NAME, hiveTables.get(1));
         when(atlasClient.getEntity(HiveDataTypes.HIVE_PROCESS.getName(), AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME,
@@ -204,9 +291,7 @@ public class HiveMetaStoreBridgeTest {
         returnExistingDatabase(TEST_DB_NAME, atlasClient, CLUSTER_NAME);
         when(hiveClient.getTable(TEST_DB_NAME, TEST_TABLE_NAME)).thenThrow(new RuntimeException("Timeout while reading data from hive metastore"));
 
-        when(atlasClient.getEntity(HiveDataTypes.HIVE_TABLE.getName(), AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, HiveMetaStoreBridge.getTableQualifiedName(CLUSTER_NAME, TEST_DB_NAME,
-            table2Name))).thenReturn(
-            getEntityReference(HiveDataTypes.HIVE_TABLE.getName(), "82e06b34-9151-4023-aa9d-b82103a50e77"));
+        returnExistingTables(getTableEntityReference(table2Name, "82e06b34-9151-4023-aa9d-b82103a50e77"));
         when(atlasClient.getEntity("82e06b34-9151-4023-aa9d-b82103a50e77")).thenReturn(createTableReference());
         String processQualifiedName = HiveMetaStoreBridge.getTableQualifiedName(CLUSTER_NAME, hiveTables.get(1));
         when(atlasClient.getEntity(HiveDataTypes.HIVE_PROCESS.getName(), AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME,
@@ -225,6 +310,18 @@ public class HiveMetaStoreBridgeTest {
         return new Referenceable(id, typeName, null);
     }
 
+    private Referenceable getTableEntityReference(String tableName, String id) {
+        Referenceable tableReference = new Referenceable(id, HiveDataTypes.HIVE_TABLE.getName(), null);
+        tableReference.set(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME,
+                HiveMetaStoreBridge.getTableQualifiedName(CLUSTER_NAME, TEST_DB_NAME, tableName));
+        return tableReference;
+    }
+
+    private void returnExistingTables(Referenceable... tableReferences) throws Exception {
+        when(atlasClient.getEntities(eq(HiveDataTypes.HIVE_TABLE.getName()), eq(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME),
+                anyCollectionOf(String.class))).thenReturn(Arrays.asList(tableReferences));
+    }
+
     private Referenceable createTableReference() {
         Referenceable tableReference = new Referenceable(HiveDataTypes.HIVE_TABLE.getName());
         Referenceable sdReference = new Referenceable(HiveDataTypes.HIVE_STORAGEDESC.getName());
@@ -244,6 +341,24 @@ public class HiveMetaStoreBridgeTest {
         return table;
     }
 
+    private class ContainsReferenceableProperty extends ArgumentMatcher<Object> {
+        private final MatchesReferenceableProperty matcher;
+
+        public ContainsReferenceableProperty(String attrName, Object attrValue) {
+            this.matcher = new MatchesReferenceableProperty(attrName, attrValue);
+        }
+
+        @Override
+        public boolean matches(Object o) {
+            for (Object entity : (Collection) o) {
+                if (matcher.matches(entity)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     private class MatchesReferenceableProperty extends ArgumentMatcher<Object> {
         private final String attrName;
         private final Object attrValue;
@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.hook;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class HiveEventJournalTest {
+
+    private File directory;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("hive-event-journal").toFile();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        delete(directory);
+    }
+
+    @Test
+    public void testRecordsAreReadInOrderAcrossSegments() throws IOException {
+        HiveEventJournal journal = new HiveEventJournal(directory, 1024, 16);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(journal.append(record(i)));
+        }
+        assertTrue(segments().length > 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(journal.peek(), record(i));
+            journal.remove();
+        }
+        journal.append(record(10));
+
+        for (int i = 5; i <= 10; i++) {
+            assertEquals(journal.peek(), record(i));
+            journal.remove();
+        }
+
+        assertTrue(journal.isEmpty());
+        assertNull(journal.peek());
+        assertEquals(journal.getBytes(), 0);
+        assertEquals(segments().length, 0);
+    }
+
+    @Test
+    public void testJournalIsBounded() throws IOException {
+        HiveEventJournal journal = new HiveEventJournal(directory, 3 * (4 + 8), 1024);
+        assertTrue(journal.append(record(1)));
+        assertTrue(journal.append(record(2)));
+        assertTrue(journal.append(record(3)));
+        assertFalse(journal.append(record(4)));
+        assertEquals(journal.getRecords(), 3);
+
+        journal.remove();
+        assertTrue(journal.append(record(4)));
+    }
+
+    @Test
+    public void testRecordsAreRecoveredAfterRestart() throws IOException {
+        HiveEventJournal journal = new HiveEventJournal(directory, 1024, 16);
+        for (int i = 0; i < 6; i++) {
+            journal.append(record(i));
+        }
+        journal.remove();
+        journal.close();
+
+        HiveEventJournal recovered = new HiveEventJournal(directory, 1024, 16);
+        // the removed record is not read again, although its segment wasn't fully read
+        assertEquals(recovered.getRecords(), 5);
+        assertEquals(recovered.getBytes(), 5 * (4 + 8));
+        recovered.append(record(6));
+        for (int i = 1; i <= 6; i++) {
+            assertEquals(recovered.peek(), record(i));
+            recovered.remove();
+        }
+        assertTrue(recovered.isEmpty());
+        assertEquals(segments().length, 0);
+    }
+
+    @Test
+    public void testReadRecordIsRecoveredUntilRemoved() throws IOException {
+        HiveEventJournal journal = new HiveEventJournal(directory, 1024, 16);
+        for (int i = 0; i < 6; i++) {
+            journal.append(record(i));
+        }
+        for (int i = 0; i < 3; i++) {
+            journal.remove();
+        }
+        assertEquals(journal.peek(), record(3));
+        journal.close();
+
+        HiveEventJournal recovered = new HiveEventJournal(directory, 1024, 16);
+        assertEquals(recovered.getRecords(), 3);
+        assertEquals(recovered.peek(), record(3));
+        recovered.remove();
+        recovered.close();
+
+        recovered = new HiveEventJournal(directory, 1024, 16);
+        assertEquals(recovered.getRecords(), 2);
+        assertEquals(recovered.peek(), record(4));
+    }
+
+    @Test
+    public void testTruncatedRecordIsIgnored() throws IOException {
+        HiveEventJournal journal = new HiveEventJournal(directory, 1024, 1024);
+        journal.append(record(1));
+        journal.append(record(2));
+        journal.close();
+
+        File segment = segments()[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        HiveEventJournal recovered = new HiveEventJournal(directory, 1024, 1024);
+        assertEquals(recovered.getRecords(), 1);
+        assertEquals(recovered.peek(), record(1));
+    }
+
+    @Test
+    public void testJournalIsOpenedByOneOwnerAtATime() throws IOException {
+        HiveEventJournal journal = new HiveEventJournal(directory, 1024, 1024);
+        journal.append(record(1));
+
+        try {
+            new HiveEventJournal(directory, 1024, 1024);
+            fail("Expected the journal to be locked");
+        } catch (IOException e) {
+            // expected
+        }
+
+        journal.close();
+        HiveEventJournal reopened = new HiveEventJournal(directory, 1024, 1024);
+        assertEquals(reopened.peek(), record(1));
+        reopened.close();
+    }
+
+    @Test
+    public void testDirectoryIsRestrictedToItsOwner() throws IOException {
+        File created = new File(directory, "created");
+        new HiveEventJournal(created, 1024, 1024).close();
+        assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(created.toPath())), "rwx------");
+
+        File shared = new File(directory, "shared");
+        assertTrue(shared.mkdir());
+        Files.setPosixFilePermissions(shared.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+        new HiveEventJournal(shared, 1024, 1024).close();
+        assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(shared.toPath())), "rwx------");
+    }
+
+    private File[] segments() {
+        return directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".journal");
+            }
+        });
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static byte[] record(int i) {
+        return String.format("event-%02d", i).getBytes();
+    }
+}
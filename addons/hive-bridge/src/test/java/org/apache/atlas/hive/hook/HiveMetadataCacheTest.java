@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.hook;
+
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.ql.metadata.Hive;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HiveMetadataCacheTest {
+    private static final String DB_NAME = "default";
+    private static final String TABLE_NAME = "test_table";
+
+    @Mock
+    private Hive hiveClient;
+
+    private HiveMetadataCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        cache = new HiveMetadataCache(100, 60);
+
+        when(hiveClient.getDatabase(DB_NAME)).thenReturn(new Database(DB_NAME, "Default database", "/user/hive/default", null));
+        when(hiveClient.getTable(DB_NAME, TABLE_NAME)).thenReturn(new Table(DB_NAME, TABLE_NAME));
+    }
+
+    @Test
+    public void testMetadataIsReadOnce() throws Exception {
+        Table table = cache.getTable(hiveClient, DB_NAME, TABLE_NAME);
+        Assert.assertSame(cache.getTable(hiveClient, DB_NAME.toUpperCase(), TABLE_NAME), table);
+        cache.getDatabase(hiveClient, DB_NAME);
+        cache.getDatabase(hiveClient, DB_NAME);
+
+        verify(hiveClient, times(1)).getTable(DB_NAME, TABLE_NAME);
+        verify(hiveClient, times(1)).getDatabase(DB_NAME);
+    }
+
+    @Test
+    public void testInvalidateTable() throws Exception {
+        cache.getTable(hiveClient, DB_NAME, TABLE_NAME);
+        cache.invalidateTable(DB_NAME, TABLE_NAME);
+        cache.getTable(hiveClient, DB_NAME, TABLE_NAME);
+
+        verify(hiveClient, times(2)).getTable(DB_NAME, TABLE_NAME);
+    }
+
+    @Test
+    public void testInvalidateDatabaseDropsItsTables() throws Exception {
+        cache.getDatabase(hiveClient, DB_NAME);
+        cache.getTable(hiveClient, DB_NAME, TABLE_NAME);
+        cache.invalidateDatabase(DB_NAME);
+        cache.getDatabase(hiveClient, DB_NAME);
+        cache.getTable(hiveClient, DB_NAME, TABLE_NAME);
+
+        verify(hiveClient, times(2)).getDatabase(DB_NAME);
+        verify(hiveClient, times(2)).getTable(DB_NAME, TABLE_NAME);
+    }
+
+    @Test
+    public void testMissingDatabaseIsNotCached() throws Exception {
+        Assert.assertNull(cache.getDatabase(hiveClient, "missing"));
+        Assert.assertNull(cache.getDatabase(hiveClient, "missing"));
+
+        verify(hiveClient, times(2)).getDatabase("missing");
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hive.hook;
+
+import org.apache.atlas.hive.bridge.ColumnLineageUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.hooks.Entity;
+import org.apache.hadoop.hive.ql.hooks.HookContext;
+import org.apache.hadoop.hive.ql.hooks.ReadEntity;
+import org.apache.hadoop.hive.ql.hooks.WriteEntity;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.apache.hadoop.hive.ql.plan.HiveOperation;
+import org.json.JSONObject;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class SpilledHiveEventTest {
+
+    @Test
+    public void testEventIsRestored() throws Exception {
+        Table table = new Table("default", "sales");
+        WriteEntity tempDir = new WriteEntity(new Path("hdfs://localhost:8020/tmp/hive/staging"), false, true);
+        WriteEntity localDir = new WriteEntity(new Path("file:///tmp/export"), true, false);
+        Set<WriteEntity> outputs = new LinkedHashSet<>(Arrays.asList(
+                new WriteEntity(table, WriteEntity.WriteType.INSERT_OVERWRITE), tempDir, localDir));
+
+        HiveHook.HiveEventContext event = new HiveHook.HiveEventContext();
+        event.setInputs(Collections.singleton(new ReadEntity(new Table("default", "orders"))));
+        event.setOutputs(outputs);
+        event.setUser("hive");
+        event.setOperation(HiveOperation.QUERY);
+        event.setHookType(HookContext.HookType.POST_EXEC_HOOK);
+        event.setJsonPlan(new JSONObject("{\"STAGE PLANS\":{}}"));
+        event.setQueryId("query-1");
+        event.setQueryStr("insert overwrite table sales select * from orders");
+        event.setQueryStartTime(1000L);
+        event.setQueryType("MAPRED");
+        event.lineageInfo = Collections.singletonMap("default.sales.id", Collections.singletonList(
+                new ColumnLineageUtils.HiveColumnLineageInfo("SIMPLE", null, "default.orders.id")));
+
+        HiveHook.HiveEventContext restored = SpilledHiveEvent.deserialize(SpilledHiveEvent.serialize(event));
+
+        ReadEntity input = restored.getInputs().iterator().next();
+        assertEquals(input.getType(), Entity.Type.TABLE);
+        assertEquals(input.getTable().getTableName(), "orders");
+
+        WriteEntity[] restoredOutputs = restored.getOutputs().toArray(new WriteEntity[0]);
+        assertEquals(restoredOutputs.length, 3);
+        assertEquals(restoredOutputs[0].getType(), Entity.Type.TABLE);
+        assertEquals(restoredOutputs[0].getTable().getTableName(), "sales");
+        assertEquals(restoredOutputs[0].getWriteType(), WriteEntity.WriteType.INSERT_OVERWRITE);
+        assertFalse(restoredOutputs[0].isTempURI());
+
+        assertEquals(restoredOutputs[1].getType(), Entity.Type.DFS_DIR);
+        assertEquals(restoredOutputs[1].getD(), tempDir.getD());
+        assertEquals(restoredOutputs[1].getWriteType(), tempDir.getWriteType());
+        assertTrue(restoredOutputs[1].isTempURI());
+
+        assertEquals(restoredOutputs[2].getType(), Entity.Type.LOCAL_DIR);
+        assertEquals(restoredOutputs[2].getWriteType(), localDir.getWriteType());
+        assertFalse(restoredOutputs[2].isTempURI());
+
+        assertEquals(restored.getUser(), "hive");
+        assertEquals(restored.getOperation(), HiveOperation.QUERY);
+        assertEquals(restored.getHookType(), HookContext.HookType.POST_EXEC_HOOK);
+        assertEquals(restored.getJsonPlan().toString(), event.getJsonPlan().toString());
+        assertEquals(restored.getQueryId(), "query-1");
+        assertEquals(restored.getQueryStr(), event.getQueryStr());
+        assertEquals(restored.getQueryStartTime(), Long.valueOf(1000L));
+        assertEquals(restored.getQueryType(), "MAPRED");
+
+        Map<String, List<ColumnLineageUtils.HiveColumnLineageInfo>> lineage = restored.lineageInfo;
+        ColumnLineageUtils.HiveColumnLineageInfo info = lineage.get("default.sales.id").get(0);
+        assertEquals(info.depenendencyType, "SIMPLE");
+        assertEquals(info.expr, null);
+        assertEquals(info.inputColumn, "default.orders.id");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testSerializedObjectsAreRejected() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeObject(new HashMap<String, String>());
+        }
+
+        SpilledHiveEvent.deserialize(bytes.toByteArray());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.atlas.authorize.AtlasAccessRequest;
+import org.apache.atlas.authorize.AtlasActionTypes;
+import org.apache.atlas.authorize.AtlasAuthorizationException;
+import org.apache.atlas.authorize.AtlasResourceTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark for SimpleAtlasAuthorizer with a generated policy file of 10,000 policies.
+ *
+ * Run with:
+ *   mvn -Pbenchmark test-compile exec:exec -pl authorization
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SimpleAtlasAuthorizerBenchmark {
+    private static final int USERS  = 100;
+    private static final int GROUPS = 50;
+
+    @Param({ "10000" })
+    public int policyCount;
+
+    private File                     policyFile;
+    private SimpleAtlasAuthorizer    authorizer;
+    private List<AtlasAccessRequest> requests;
+    private int                      next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        policyFile = File.createTempFile("policy-store", ".txt");
+
+        List<String> policies = new ArrayList<>(policyCount);
+        for (int i = 0; i < policyCount; i++) {
+            policies.add(String.format("policy%d;;user%d:rwu;;group%d:r;;entity:db%d.table*,type:type%d,taxonomy:tax%d?x*",
+                i, i % USERS, i % GROUPS, i, i, i));
+        }
+        Files.write(policyFile.toPath(), policies, StandardCharsets.UTF_8);
+
+        List<PolicyDef> policyDefs = new PolicyParser().parsePolicies(FileReaderUtil.readFile(policyFile.getPath()));
+        PolicyUtil      policyUtil = new PolicyUtil();
+
+        authorizer = new SimpleAtlasAuthorizer();
+        authorizer.setResourcesForTesting(
+            policyUtil.createPermissionMap(policyDefs, AtlasActionTypes.READ, SimpleAtlasAuthorizer.AtlasAccessorTypes.USER),
+            policyUtil.createPermissionMap(policyDefs, AtlasActionTypes.READ, SimpleAtlasAuthorizer.AtlasAccessorTypes.GROUP),
+            AtlasActionTypes.READ);
+
+        // more distinct requests than the default decision cache size, so most of them are evaluated
+        requests = new ArrayList<>();
+        for (int i = 0; i < 4 * SimpleAtlasAuthorizer.DEFAULT_DECISION_CACHE_SIZE; i++) {
+            Set<String> groups = new HashSet<>();
+            groups.add("group" + (i % GROUPS));
+            groups.add("unknown");
+
+            String resource = (i % 2 == 0) ? "db" + (i % policyCount) + ".table" + i : "db" + i + ".other";
+            requests.add(new AtlasAccessRequest(Collections.singleton(AtlasResourceTypes.ENTITY), resource,
+                AtlasActionTypes.READ, "user" + (i % (2 * USERS)), groups));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (policyFile != null) {
+            policyFile.delete();
+        }
+    }
+
+    @Benchmark
+    public boolean distinctRequests() throws AtlasAuthorizationException {
+        next = (next + 1) % requests.size();
+        return authorizer.isAccessAllowed(requests.get(next));
+    }
+
+    @Benchmark
+    public boolean repeatedRequest() throws AtlasAuthorizationException {
+        return authorizer.isAccessAllowed(requests.get(0));
+    }
+}
@@ -44,7 +44,9 @@ public class PolicyUtil {
 
         // Iterate over the list of policies to create map
         for (PolicyDef policyDef : policyDefList) {
-            LOG.info("Processing policy def : " + policyDef);
+            if (isDebugEnabled) {
+                LOG.debug("Processing policy def : " + policyDef);
+            }
             Map<String, List<AtlasActionTypes>> principalMap =
                 principalType.equals(SimpleAtlasAuthorizer.AtlasAccessorTypes.USER) ? policyDef.getUsers() : policyDef
                     .getGroups();
@@ -89,7 +91,6 @@ public class PolicyUtil {
                     userResourceList.put(type, resourceList);
                 }
                 userReadMap.put(username, userResourceList);
-                LOG.info("userReadMap " + userReadMap);
             }
         }
         if (isDebugEnabled) {
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Matcher for the resource values of a policy, compiled once when policies are loaded.
+ * Values without '*' are matched exactly with a hash lookup, values of the form 'prefix*' are matched
+ * with a prefix trie and all other wildcard values are combined into a single pattern.
+ * Matching is equivalent to matching the resource against each value with FilenameUtils.wildcardMatch.
+ */
+public final class ResourceMatcher {
+    private static final String WILDCARD_ASTERISK = "*";
+
+    private final boolean ignoreCase;
+    private final boolean matchAny;
+    private final Set<String> exactValues = new HashSet<>();
+    private final PrefixTrie prefixes = new PrefixTrie();
+    private final Pattern wildcardPattern;
+
+    public ResourceMatcher(List<String> policyValues, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+
+        boolean isMatchAny = false;
+        List<String> wildcardRegexes = new ArrayList<>();
+        if (policyValues != null) {
+            for (String policyValue : policyValues) {
+                if (StringUtils.isEmpty(policyValue)) {
+                    continue;
+                }
+                if (StringUtils.containsOnly(policyValue, WILDCARD_ASTERISK)) {
+                    isMatchAny = true;
+                } else if (!policyValue.contains(WILDCARD_ASTERISK)) {
+                    exactValues.add(normalize(policyValue));
+                } else if (policyValue.indexOf('*') == policyValue.length() - 1 && policyValue.indexOf('?') == -1) {
+                    prefixes.add(normalize(policyValue.substring(0, policyValue.length() - 1)));
+                } else {
+                    wildcardRegexes.add(toRegex(policyValue));
+                }
+            }
+        }
+        matchAny = isMatchAny;
+
+        if (wildcardRegexes.isEmpty()) {
+            wildcardPattern = null;
+        } else {
+            int flags = Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+            wildcardPattern = Pattern.compile(StringUtils.join(wildcardRegexes, '|'), flags);
+        }
+    }
+
+    /**
+     * Determine whether the resource matches any of the policy values.
+     * An empty resource or '*' requests all values and only matches a policy value of '*'.
+     *
+     * @param resource  requested resource
+     * @return true if the resource matches
+     */
+    public boolean isMatch(String resource) {
+        if (matchAny) {
+            return true;
+        }
+        if (StringUtils.isEmpty(resource) || WILDCARD_ASTERISK.equals(resource)) {
+            return false;
+        }
+
+        String value = normalize(resource);
+        return exactValues.contains(value) || prefixes.containsPrefixOf(value) ||
+            (wildcardPattern != null && wildcardPattern.matcher(resource).matches());
+    }
+
+    private String normalize(String value) {
+        return ignoreCase ? value.toLowerCase(Locale.ENGLISH) : value;
+    }
+
+    // '*' matches any sequence of characters and '?' matches a single character
+    private static String toRegex(String wildcard) {
+        StringBuilder regex = new StringBuilder("(?:");
+        int start = 0;
+        for (int i = 0; i < wildcard.length(); i++) {
+            char c = wildcard.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > start) {
+                    regex.append(Pattern.quote(wildcard.substring(start, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+        }
+        if (start < wildcard.length()) {
+            regex.append(Pattern.quote(wildcard.substring(start)));
+        }
+        return regex.append(')').toString();
+    }
+
+    private static final class PrefixTrie {
+        private final Node root = new Node();
+        private boolean empty = true;
+
+        void add(String prefix) {
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                Node child = node.children.get(prefix.charAt(i));
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(prefix.charAt(i), child);
+                }
+                node = child;
+            }
+            node.terminal = true;
+            empty = false;
+        }
+
+        boolean containsPrefixOf(String value) {
+            if (empty) {
+                return false;
+            }
+            Node node = root;
+            for (int i = 0; ; i++) {
+                if (node.terminal) {
+                    return true;
+                }
+                if (i == value.length()) {
+                    return false;
+                }
+                node = node.children.get(value.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private boolean terminal;
+    }
+}
@@ -19,10 +19,16 @@
 package org.apache.atlas.authorize.simple;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
@@ -34,13 +40,12 @@ import org.apache.atlas.authorize.AtlasResourceTypes;
 import org.apache.atlas.utils.PropertiesUtil;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.configuration.Configuration;
-import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOCase;
-import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
 
@@ -48,20 +53,25 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
         USER, GROUP;
     }
 
+    private static final Set<AtlasActionTypes> SUPPORTED_ACTIONS = Collections.unmodifiableSet(
+        EnumSet.of(AtlasActionTypes.READ, AtlasActionTypes.CREATE, AtlasActionTypes.UPDATE, AtlasActionTypes.DELETE));
+
     private static final Logger LOG = LoggerFactory.getLogger(SimpleAtlasAuthorizer.class);
     private boolean isDebugEnabled = LOG.isDebugEnabled();
-    private final static String WILDCARD_ASTERISK = "*";
-    private final static String WILDCARDS = "*?";
     private boolean optIgnoreCase = false;
 
-    private Map<String, Map<AtlasResourceTypes, List<String>>> userReadMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> userWriteMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> userUpdateMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> userDeleteMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> groupReadMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> groupWriteMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> groupUpdateMap = null;
-    private Map<String, Map<AtlasResourceTypes, List<String>>> groupDeleteMap = null;
+    public static final String DECISION_CACHE_SIZE_PROPERTY = "atlas.authorizer.simple.decision.cache.size";
+    public static final int DEFAULT_DECISION_CACHE_SIZE = 10000;
+
+    // action -> user/group -> resource type -> compiled policy values
+    private final Map<AtlasActionTypes, Map<String, Map<AtlasResourceTypes, ResourceMatcher>>> userMatchers =
+        new ConcurrentHashMap<>();
+    private final Map<AtlasActionTypes, Map<String, Map<AtlasResourceTypes, ResourceMatcher>>> groupMatchers =
+        new ConcurrentHashMap<>();
+
+    // replaced, not cleared, whenever policies change so that decisions made with old policies are never cached
+    private int decisionCacheSize = DEFAULT_DECISION_CACHE_SIZE;
+    private volatile Cache<AccessDecisionKey, Boolean> decisionCache = createDecisionCache(decisionCacheSize);
 
     public SimpleAtlasAuthorizer() {
     }
@@ -84,6 +94,7 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
 
             Configuration configuration = ApplicationProperties.get();
             String policyStorePath = configuration.getString("atlas.auth.policy.file", System.getProperty("atlas.conf")+"/policy-store.txt");
+            decisionCacheSize = configuration.getInt(DECISION_CACHE_SIZE_PROPERTY, DEFAULT_DECISION_CACHE_SIZE);
 
             if (isDebugEnabled) {
                 LOG.debug("Loading Apache Atlas policies from : " + policyStorePath);
@@ -92,22 +103,19 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
             List<String> policies = FileReaderUtil.readFile(policyStorePath);
             List<PolicyDef> policyDef = parser.parsePolicies(policies);
 
-            userReadMap = util.createPermissionMap(policyDef, AtlasActionTypes.READ, AtlasAccessorTypes.USER);
-            userWriteMap = util.createPermissionMap(policyDef, AtlasActionTypes.CREATE, AtlasAccessorTypes.USER);
-            userUpdateMap = util.createPermissionMap(policyDef, AtlasActionTypes.UPDATE, AtlasAccessorTypes.USER);
-            userDeleteMap = util.createPermissionMap(policyDef, AtlasActionTypes.DELETE, AtlasAccessorTypes.USER);
-
-            groupReadMap = util.createPermissionMap(policyDef, AtlasActionTypes.READ, AtlasAccessorTypes.GROUP);
-            groupWriteMap = util.createPermissionMap(policyDef, AtlasActionTypes.CREATE, AtlasAccessorTypes.GROUP);
-            groupUpdateMap = util.createPermissionMap(policyDef, AtlasActionTypes.UPDATE, AtlasAccessorTypes.GROUP);
-            groupDeleteMap = util.createPermissionMap(policyDef, AtlasActionTypes.DELETE, AtlasAccessorTypes.GROUP);
+            for (AtlasActionTypes action : SUPPORTED_ACTIONS) {
+                Map<String, Map<AtlasResourceTypes, List<String>>> userMap =
+                    util.createPermissionMap(policyDef, action, AtlasAccessorTypes.USER);
+                Map<String, Map<AtlasResourceTypes, List<String>>> groupMap =
+                    util.createPermissionMap(policyDef, action, AtlasAccessorTypes.GROUP);
 
-            if (isDebugEnabled) {
-                LOG.debug("\n\nUserReadMap :: " + userReadMap + "\nGroupReadMap :: " + groupReadMap);
-                LOG.debug("\n\nUserWriteMap :: " + userWriteMap + "\nGroupWriteMap :: " + groupWriteMap);
-                LOG.debug("\n\nUserUpdateMap :: " + userUpdateMap + "\nGroupUpdateMap :: " + groupUpdateMap);
-                LOG.debug("\n\nUserDeleteMap :: " + userDeleteMap + "\nGroupDeleteMap :: " + groupDeleteMap);
+                if (isDebugEnabled) {
+                    LOG.debug("\n\nUser" + action + "Map :: " + userMap + "\nGroup" + action + "Map :: " + groupMap);
+                }
+                userMatchers.put(action, compile(userMap));
+                groupMatchers.put(action, compile(groupMap));
             }
+            invalidateDecisions();
 
         } catch (IOException | AtlasException e) {
             if (LOG.isErrorEnabled()) {
@@ -141,40 +149,31 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
                 LOG.debug("Please check the formation AtlasAccessRequest.");
             }
             return isAccessAllowed;
+        } else if (!SUPPORTED_ACTIONS.contains(action)) {
+            if (isDebugEnabled) {
+                LOG.debug("Invalid Action " + action+"\nRaising AtlasAuthorizationException!!!");
+            }
+            throw new AtlasAuthorizationException("Invalid Action :: " + action);
         } else {
             if (isDebugEnabled) {
                 LOG.debug("checkAccess for Operation :: " + action + " on Resource " + resourceTypes + ":" + resource);
             }
-            switch (action) {
-                case READ:
-                    isAccessAllowed = checkAccess(user, resourceTypes, resource, userReadMap);
-                    isAccessAllowed =
-                        isAccessAllowed == false ? checkAccessForGroups(groups, resourceTypes, resource, groupReadMap)
-                            : isAccessAllowed;
-                    break;
-                case CREATE:
-                    isAccessAllowed = checkAccess(user, resourceTypes, resource, userWriteMap);
-                    isAccessAllowed =
-                        isAccessAllowed == false ? checkAccessForGroups(groups, resourceTypes, resource, groupWriteMap)
-                            : isAccessAllowed;
-                    break;
-                case UPDATE:
-                    isAccessAllowed = checkAccess(user, resourceTypes, resource, userUpdateMap);
-                    isAccessAllowed =
-                        isAccessAllowed == false
-                            ? checkAccessForGroups(groups, resourceTypes, resource, groupUpdateMap) : isAccessAllowed;
-                    break;
-                case DELETE:
-                    isAccessAllowed = checkAccess(user, resourceTypes, resource, userDeleteMap);
-                    isAccessAllowed =
-                        isAccessAllowed == false
-                            ? checkAccessForGroups(groups, resourceTypes, resource, groupDeleteMap) : isAccessAllowed;
-                    break;
-                default:
-                    if (isDebugEnabled) {
-                        LOG.debug("Invalid Action " + action+"\nRaising AtlasAuthorizationException!!!");
-                    }
-                    throw new AtlasAuthorizationException("Invalid Action :: " + action);
+            // read the cache before the policies, see invalidateDecisions()
+            Cache<AccessDecisionKey, Boolean> cache = decisionCache;
+            AccessDecisionKey key = cache != null ?
+                new AccessDecisionKey(user, groups, action, resourceTypes, resource) : null;
+            Boolean cachedDecision = key != null ? cache.getIfPresent(key) : null;
+
+            if (cachedDecision != null) {
+                isAccessAllowed = cachedDecision;
+            } else {
+                isAccessAllowed = checkAccess(user, resourceTypes, resource, userMatchers.get(action));
+                isAccessAllowed =
+                    isAccessAllowed == false ? checkAccessForGroups(groups, resourceTypes, resource, groupMatchers.get(action))
+                        : isAccessAllowed;
+                if (key != null) {
+                    cache.put(key, isAccessAllowed);
+                }
             }
         }
 
@@ -186,24 +185,20 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
     }
 
     private boolean checkAccess(String accessor, Set<AtlasResourceTypes> resourceTypes, String resource,
-        Map<String, Map<AtlasResourceTypes, List<String>>> map) {
+        Map<String, Map<AtlasResourceTypes, ResourceMatcher>> map) {
         if (isDebugEnabled) {
             LOG.debug("==> SimpleAtlasAuthorizer checkAccess");
             LOG.debug("Now checking access for accessor : " + accessor + "\nResource Types : " + resourceTypes
-                + "\nResource : " + resource + "\nMap : " + map);
+                + "\nResource : " + resource);
         }
         boolean result = true;
-        Map<AtlasResourceTypes, List<String>> rescMap = map.get(accessor);
+        Map<AtlasResourceTypes, ResourceMatcher> rescMap = map != null && accessor != null ? map.get(accessor) : null;
         if (rescMap != null) {
             for (AtlasResourceTypes resourceType : resourceTypes) {
-                List<String> accessList = rescMap.get(resourceType);
-                if (isDebugEnabled) {
-                    LOG.debug("\nChecking for resource : " + resource + " in list : " + accessList + "\n");
-                }
-                if (accessList != null) {
-                    result = result && isMatch(resource, accessList);
-                } else {
+                ResourceMatcher matcher = rescMap.get(resourceType);
+                if (matcher == null || !matcher.isMatch(resource)) {
                     result = false;
+                    break;
                 }
             }
         } else {
@@ -220,7 +215,7 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
     }
 
     private boolean checkAccessForGroups(Set<String> groups, Set<AtlasResourceTypes> resourceType, String resource,
-        Map<String, Map<AtlasResourceTypes, List<String>>> map) {
+        Map<String, Map<AtlasResourceTypes, ResourceMatcher>> map) {
         boolean isAccessAllowed = false;
         if (isDebugEnabled) {
             LOG.debug("==> SimpleAtlasAuthorizer checkAccessForGroups");
@@ -241,94 +236,27 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
         return isAccessAllowed;
     }
 
-    private boolean resourceMatchHelper(List<String> policyResource) {
-        boolean isMatchAny = false;
-        if (isDebugEnabled) {
-            LOG.debug("==> SimpleAtlasAuthorizer resourceMatchHelper");
-        }
-
-        boolean optWildCard = true;
-
-        List<String> policyValues = new ArrayList<String>();
-
-        if (policyResource != null) {
-            boolean isWildCardPresent = !optWildCard;
-            for (String policyValue : policyResource) {
-                if (StringUtils.isEmpty(policyValue)) {
-                    continue;
+    private Map<String, Map<AtlasResourceTypes, ResourceMatcher>> compile(
+        Map<String, Map<AtlasResourceTypes, List<String>>> permissionMap) {
+        Map<String, Map<AtlasResourceTypes, ResourceMatcher>> ret = new HashMap<>();
+        if (permissionMap != null) {
+            for (Map.Entry<String, Map<AtlasResourceTypes, List<String>>> e : permissionMap.entrySet()) {
+                Map<AtlasResourceTypes, ResourceMatcher> matchers = new EnumMap<>(AtlasResourceTypes.class);
+                for (Map.Entry<AtlasResourceTypes, List<String>> resourceEntry : e.getValue().entrySet()) {
+                    matchers.put(resourceEntry.getKey(), new ResourceMatcher(resourceEntry.getValue(), optIgnoreCase));
                 }
-                if (StringUtils.containsOnly(policyValue, WILDCARD_ASTERISK)) {
-                    isMatchAny = true;
-                } else if (!isWildCardPresent && StringUtils.containsAny(policyValue, WILDCARDS)) {
-                    isWildCardPresent = true;
-                }
-                policyValues.add(policyValue);
+                ret.put(e.getKey(), matchers);
             }
-            optWildCard = optWildCard && isWildCardPresent;
-        } else {
-            isMatchAny = false;
         }
-
-        if (isDebugEnabled) {
-            LOG.debug("<== SimpleAtlasAuthorizer resourceMatchHelper");
-        }
-        return isMatchAny;
+        return ret;
     }
 
-    private boolean isMatch(String resource, List<String> policyValues) {
-        if (isDebugEnabled) {
-            LOG.debug("==> SimpleAtlasAuthorizer isMatch");
-        }
-        boolean isMatchAny = resourceMatchHelper(policyValues);
-        boolean isMatch = false;
-        boolean allValuesRequested = isAllValuesRequested(resource);
-
-        if (allValuesRequested || isMatchAny) {
-            isMatch = isMatchAny;
-        } else {
-            for (String policyValue : policyValues) {
-                if (policyValue.contains("*")) {
-                    isMatch =
-                        optIgnoreCase ? FilenameUtils.wildcardMatch(resource, policyValue, IOCase.INSENSITIVE)
-                            : FilenameUtils.wildcardMatch(resource, policyValue, IOCase.SENSITIVE);
-                } else {
-                    isMatch =
-                        optIgnoreCase ? StringUtils.equalsIgnoreCase(resource, policyValue) : StringUtils.equals(
-                            resource, policyValue);
-                }
-                if (isMatch) {
-                    break;
-                }
-            }
-        }
-
-        if (isMatch == false) {
-
-            if (isDebugEnabled) {
-                StringBuilder sb = new StringBuilder();
-                sb.append("[");
-                for (String policyValue : policyValues) {
-                    sb.append(policyValue);
-                    sb.append(" ");
-                }
-                sb.append("]");
-
-                LOG.debug("AtlasDefaultResourceMatcher.isMatch returns FALSE, (resource=" + resource
-                    + ", policyValues=" + sb.toString() + ")");
-            }
-
-        }
-
-        if (isDebugEnabled) {
-            LOG.debug("<== SimpleAtlasAuthorizer isMatch(" + resource + "): " + isMatch);
-        }
-
-        return isMatch;
+    private void invalidateDecisions() {
+        decisionCache = createDecisionCache(decisionCacheSize);
     }
 
-    private boolean isAllValuesRequested(String resource) {
-        boolean result = StringUtils.isEmpty(resource) || WILDCARD_ASTERISK.equals(resource);
-        return result;
+    private static Cache<AccessDecisionKey, Boolean> createDecisionCache(int maxSize) {
+        return maxSize > 0 ? CacheBuilder.newBuilder().maximumSize(maxSize).<AccessDecisionKey, Boolean>build() : null;
     }
 
     @Override
@@ -336,14 +264,9 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
         if (isDebugEnabled) {
             LOG.debug("==> +SimpleAtlasAuthorizer cleanUp");
         }
-        userReadMap = null;
-        userWriteMap = null;
-        userUpdateMap = null;
-        userDeleteMap = null;
-        groupReadMap = null;
-        groupWriteMap = null;
-        groupUpdateMap = null;
-        groupDeleteMap = null;
+        userMatchers.clear();
+        groupMatchers.clear();
+        invalidateDecisions();
         if (isDebugEnabled) {
             LOG.debug("<== +SimpleAtlasAuthorizer cleanUp");
         }
@@ -356,36 +279,52 @@ public final class SimpleAtlasAuthorizer implements AtlasAuthorizer {
     public void setResourcesForTesting(Map<String, Map<AtlasResourceTypes, List<String>>> userMap,
         Map<String, Map<AtlasResourceTypes, List<String>>> groupMap, AtlasActionTypes actionTypes) {
 
-        switch (actionTypes) {
-            case READ:
-                this.userReadMap = userMap;
-                this.groupReadMap = groupMap;
-                break;
-
-            case CREATE:
-
-                this.userWriteMap = userMap;
-                this.groupWriteMap = groupMap;
-                break;
-            case UPDATE:
+        if (SUPPORTED_ACTIONS.contains(actionTypes)) {
+            userMatchers.put(actionTypes, compile(userMap));
+            groupMatchers.put(actionTypes, compile(groupMap));
+            invalidateDecisions();
+        } else if (isDebugEnabled) {
+            LOG.debug("No such action available");
+        }
+    }
+    
 
-                this.userUpdateMap = userMap;
-                this.groupUpdateMap = groupMap;
-                break;
-            case DELETE:
+    private static final class AccessDecisionKey {
+        private final String user;
+        private final Set<String> groups;
+        private final AtlasActionTypes action;
+        private final Set<AtlasResourceTypes> resourceTypes;
+        private final String resource;
+        private final int hashCode;
+
+        AccessDecisionKey(String user, Set<String> groups, AtlasActionTypes action,
+            Set<AtlasResourceTypes> resourceTypes, String resource) {
+            this.user = user;
+            this.groups = groups == null ? Collections.<String>emptySet() : new HashSet<>(groups);
+            this.action = action;
+            this.resourceTypes = resourceTypes == null ? Collections.<AtlasResourceTypes>emptySet()
+                : new HashSet<>(resourceTypes);
+            this.resource = resource;
+            this.hashCode = Objects.hash(user, this.groups, action, this.resourceTypes, resource);
+        }
 
-                this.userDeleteMap = userMap;
-                this.groupDeleteMap = groupMap;
-                break;
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AccessDecisionKey)) {
+                return false;
+            }
+            AccessDecisionKey that = (AccessDecisionKey) o;
+            return hashCode == that.hashCode && Objects.equals(user, that.user) && groups.equals(that.groups)
+                && action == that.action && resourceTypes.equals(that.resourceTypes)
+                && Objects.equals(resource, that.resource);
+        }
 
-            default:
-                if (isDebugEnabled) {
-                    LOG.debug("No such action available");
-                }
-                break;
+        @Override
+        public int hashCode() {
+            return hashCode;
         }
     }
-    
 }
-
-
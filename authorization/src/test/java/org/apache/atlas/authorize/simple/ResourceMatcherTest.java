@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.authorize.simple;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOCase;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ResourceMatcherTest {
+
+    @Test
+    public void testMatchesLikeWildcardMatch() {
+        List<String> policyValues = Arrays.asList("PII", "db.*", "*abc", "t?b*.col", "a.b+c*", "x?y");
+        List<String> resources = Arrays.asList("PII", "pii", "db.", "db.table", "xabc", "abc", "tab1.col", "tb.col",
+            "a.b+cd", "a.bbcd", "x?y", "xzy", "other");
+
+        for (boolean ignoreCase : new boolean[] { false, true }) {
+            ResourceMatcher matcher = new ResourceMatcher(policyValues, ignoreCase);
+            IOCase ioCase = ignoreCase ? IOCase.INSENSITIVE : IOCase.SENSITIVE;
+
+            for (String resource : resources) {
+                boolean expected = false;
+                for (String policyValue : policyValues) {
+                    // values without '*' are compared for equality, see SimpleAtlasAuthorizer
+                    expected |= policyValue.contains("*") ? FilenameUtils.wildcardMatch(resource, policyValue, ioCase)
+                        : (ignoreCase ? policyValue.equalsIgnoreCase(resource) : policyValue.equals(resource));
+                }
+                assertEquals(matcher.isMatch(resource), expected, resource + ", ignoreCase=" + ignoreCase);
+            }
+        }
+    }
+
+    @Test
+    public void testAllValuesRequested() {
+        ResourceMatcher matcher = new ResourceMatcher(Arrays.asList("db.*"), false);
+        assertFalse(matcher.isMatch("*"));
+        assertFalse(matcher.isMatch(""));
+
+        ResourceMatcher matchAny = new ResourceMatcher(Arrays.asList("db.*", "*"), false);
+        assertTrue(matchAny.isMatch("*"));
+        assertTrue(matchAny.isMatch("anything"));
+    }
+
+    @Test
+    public void testNoValues() {
+        assertFalse(new ResourceMatcher(null, false).isMatch("abc"));
+        assertFalse(new ResourceMatcher(Collections.<String>emptyList(), false).isMatch("abc"));
+    }
+}
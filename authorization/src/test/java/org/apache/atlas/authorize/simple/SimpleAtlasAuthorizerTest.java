@@ -17,6 +17,7 @@
 package org.apache.atlas.authorize.simple;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -205,4 +206,31 @@ public class SimpleAtlasAuthorizerTest {
 
     }
 
+    @Test
+    public void testDecisionsInvalidatedOnPolicyChange() throws AtlasAuthorizationException {
+        PolicyUtil policyUtil = new PolicyUtil();
+        List<PolicyDef> allowPolicies = new PolicyParser().parsePolicies(
+            Collections.singletonList("hivePolicy;;usr1:r;;grp1:r;;type:PII"));
+        List<PolicyDef> denyPolicies = new PolicyParser().parsePolicies(
+            Collections.singletonList("hivePolicy;;usr1:r;;grp1:r;;type:other"));
+
+        AtlasAccessRequest request = new AtlasAccessRequest(Collections.singleton(AtlasResourceTypes.TYPE),
+            "PII", AtlasActionTypes.READ, "usr1", Collections.<String>emptySet());
+        SimpleAtlasAuthorizer authorizer = (SimpleAtlasAuthorizer) AtlasAuthorizerFactory.getAtlasAuthorizer();
+
+        authorizer.setResourcesForTesting(
+            policyUtil.createPermissionMap(allowPolicies, AtlasActionTypes.READ, SimpleAtlasAuthorizer.AtlasAccessorTypes.USER),
+            policyUtil.createPermissionMap(allowPolicies, AtlasActionTypes.READ, SimpleAtlasAuthorizer.AtlasAccessorTypes.GROUP),
+            AtlasActionTypes.READ);
+        AssertJUnit.assertTrue(authorizer.isAccessAllowed(request));
+        // second call is answered from the decision cache
+        AssertJUnit.assertTrue(authorizer.isAccessAllowed(request));
+
+        authorizer.setResourcesForTesting(
+            policyUtil.createPermissionMap(denyPolicies, AtlasActionTypes.READ, SimpleAtlasAuthorizer.AtlasAccessorTypes.USER),
+            policyUtil.createPermissionMap(denyPolicies, AtlasActionTypes.READ, SimpleAtlasAuthorizer.AtlasAccessorTypes.GROUP),
+            AtlasActionTypes.READ);
+        AssertJUnit.assertFalse(authorizer.isAccessAllowed(request));
+    }
+
 }
@@ -31,6 +31,10 @@ public abstract class BaseRequest implements Request {
     private final Map<String, Object> updateProperties = new HashMap<>();
     private final String queryString;
     private final Collection<String> additionalSelectProperties = new HashSet<>();
+    private int pageSize = 0;
+    private String pageCursor = null;
+    private String nextPageCursor = null;
+    private boolean streamed = false;
 
     protected BaseRequest(Map<String, Object> queryProperties, String queryString) {
         this(queryProperties, queryString, null);
@@ -75,6 +79,51 @@ public abstract class BaseRequest implements Request {
         return additionalSelectProperties;
     }
 
+    /**
+     * Limit the resources returned for the request to a single page.
+     *
+     * @param pageSize  maximum number of resources to return or 0 for all resources
+     * @param cursor    cursor returned with the previous page or null for the first page
+     */
+    public void setPage(int pageSize, String cursor) {
+        this.pageSize = pageSize;
+        this.pageCursor = cursor;
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public String getPageCursor() {
+        return pageCursor;
+    }
+
+    @Override
+    public void setNextPageCursor(String cursor) {
+        nextPageCursor = cursor;
+    }
+
+    @Override
+    public String getNextPageCursor() {
+        return nextPageCursor;
+    }
+
+    /**
+     * Allow the result of an unpaged request to be read from the graph while it is consumed.
+     *
+     * @param streamed  true if the result is consumed once, by the thread which made the request
+     */
+    public void setStreamed(boolean streamed) {
+        this.streamed = streamed;
+    }
+
+    @Override
+    public boolean isStreamed() {
+        return streamed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -85,7 +134,9 @@ public abstract class BaseRequest implements Request {
         return queryProperties.equals(that.queryProperties) &&
                updateProperties.equals(that.updateProperties) &&
                additionalSelectProperties.equals(that.additionalSelectProperties) &&
-               queryString == null ? that.queryString == null : queryString.equals(that.queryString);
+               pageSize == that.pageSize &&
+               (pageCursor == null ? that.pageCursor == null : pageCursor.equals(that.pageCursor)) &&
+               (queryString == null ? that.queryString == null : queryString.equals(that.queryString));
     }
 
     @Override
@@ -94,6 +145,8 @@ public abstract class BaseRequest implements Request {
         result = 31 * result + updateProperties.hashCode();
         result = 31 * result + (queryString != null ? queryString.hashCode() : 0);
         result = 31 * result + additionalSelectProperties.hashCode();
+        result = 31 * result + pageSize;
+        result = 31 * result + (pageCursor != null ? pageCursor.hashCode() : 0);
         return result;
     }
 }
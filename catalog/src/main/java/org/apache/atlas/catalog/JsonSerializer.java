@@ -35,15 +35,27 @@ import java.util.Map;
 public class JsonSerializer {
     public String serialize(Result result, UriInfo ui) {
         Writer json = new StringWriter();
-        JsonWriter writer = new JsonWriter(json);
+        serialize(result, ui, json);
+        return json.toString();
+    }
+
+    /**
+     * Write the result as JSON to the provided writer without buffering the complete document.
+     *
+     * @param result  result to serialize
+     * @param ui      uri info of the request, used to resolve hrefs
+     * @param out     writer the JSON is written to
+     */
+    public void serialize(Result result, UriInfo ui, Writer out) {
+        JsonWriter writer = new JsonWriter(out);
         writer.setIndent("    ");
 
         try {
             writeValue(writer, result.getPropertyMaps(), ui.getBaseUri().toASCIIString());
+            writer.flush();
         } catch (IOException e) {
             throw new CatalogRuntimeException("Unable to write JSON response.", e);
         }
-        return json.toString();
     }
 
     private void writeValue(JsonWriter writer, Object value, String baseUrl) throws IOException {
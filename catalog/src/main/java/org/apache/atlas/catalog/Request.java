@@ -83,4 +83,40 @@ public interface Request {
      * @return collection of added property names or an empty collection
      */
     Collection<String> getAdditionalSelectProperties();
+
+    /**
+     * Get the maximum number of resources which should be returned for a collection request.
+     *
+     * @return page size or 0 if all resources should be returned
+     */
+    int getPageSize();
+
+    /**
+     * Get the cursor which identifies where the returned page starts.
+     *
+     * @return cursor returned with the previous page or null for the first page
+     */
+    String getPageCursor();
+
+    /**
+     * Set the cursor of the page which follows the returned page.
+     *
+     * @param cursor  cursor of the next page or null if there are no more resources
+     */
+    void setNextPageCursor(String cursor);
+
+    /**
+     * Get the cursor of the page which follows the returned page.
+     *
+     * @return cursor of the next page or null if there are no more resources
+     */
+    String getNextPageCursor();
+
+    /**
+     * Determine whether the result of an unpaged collection request may be read lazily, while it is serialized.
+     * The result of a streamed request must be consumed exactly once, on the thread which made the request.
+     *
+     * @return true if the result may be streamed
+     */
+    boolean isStreamed();
 }
@@ -18,6 +18,8 @@
 
 package org.apache.atlas.catalog;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
 
@@ -47,4 +49,16 @@ public class Result {
     public Collection<Map<String, Object>> getPropertyMaps() {
         return propertyMaps;
     }
+
+    /**
+     * Release the resources held by property maps which are read while they are iterated, such as the graph
+     * transaction of a streamed query result which wasn't read to the end.
+     *
+     * @throws IOException if the property maps can't be closed
+     */
+    public void close() throws IOException {
+        if (propertyMaps instanceof Closeable) {
+            ((Closeable) propertyMaps).close();
+        }
+    }
 }
@@ -59,9 +59,12 @@ public class TermResourceProvider extends BaseResourceProvider implements Resour
 
         TermPath termPath = request.getProperty("termPath");
         String queryString = doQueryStringConversions(termPath, request.getQueryString());
-        Request queryRequest = new CollectionRequest(request.getQueryProperties(), queryString);
+        CollectionRequest queryRequest = new CollectionRequest(request.getQueryProperties(), queryString);
+        queryRequest.setPage(request.getPageSize(), request.getPageCursor());
+        queryRequest.setStreamed(request.isStreamed());
         AtlasQuery atlasQuery = queryFactory.createTermQuery(queryRequest);
         Collection<Map<String, Object>> result = atlasQuery.execute();
+        request.setNextPageCursor(queryRequest.getNextPageCursor());
         return new Result(result);
     }
 
@@ -18,11 +18,13 @@
 
 package org.apache.atlas.catalog.query;
 
+import com.tinkerpop.blueprints.GraphQuery;
 import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.Pipe;
 import org.apache.atlas.catalog.Request;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.typesystem.persistence.Id;
 
 /**
  * Entity resource query.
@@ -32,6 +34,22 @@ public class AtlasEntityQuery extends BaseQuery {
         super(queryExpression, resourceDefinition, request);
     }
 
+    @Override
+    protected GraphQuery getRootQuery() {
+        GraphQuery rootQuery = pushDownExpression(getGraph().query());
+        // most vertices are active entities, so state only provides the starting set when the expression has
+        // no indexed condition; deleted entities are removed by the not deleted pipe either way
+        return queryExpression instanceof BaseQueryExpression &&
+                ((BaseQueryExpression) queryExpression).hasPushedDownConditions() ?
+                rootQuery :
+                rootQuery.has(Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name());
+    }
+
+    @Override
+    protected boolean isKeyedPaging() {
+        return true;
+    }
+
     protected Pipe getQueryPipe() {
         return new GremlinPipeline().has(Constants.ENTITY_TEXT_PROPERTY_KEY).
                 hasNot(Constants.ENTITY_TYPE_PROPERTY_KEY, "Taxonomy");
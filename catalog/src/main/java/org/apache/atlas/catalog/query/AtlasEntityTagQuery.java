@@ -20,6 +20,7 @@ package org.apache.atlas.catalog.query;
 
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.GraphQuery;
 import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.Pipe;
 import com.tinkerpop.pipes.PipeFunction;
@@ -30,6 +31,7 @@ import org.apache.atlas.catalog.VertexWrapper;
 import org.apache.atlas.catalog.definition.EntityTagResourceDefinition;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.typesystem.persistence.Id;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -45,6 +47,13 @@ public class AtlasEntityTagQuery extends BaseQuery {
         this.guid = guid;
     }
 
+    @Override
+    protected GraphQuery getRootQuery() {
+        return guid.equals("*") ?
+                getGraph().query().has(Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name()) :
+                getGraph().query().has(Constants.GUID_PROPERTY_KEY, guid);
+    }
+
     @Override
     protected Pipe getQueryPipe() {
         GremlinPipeline p;
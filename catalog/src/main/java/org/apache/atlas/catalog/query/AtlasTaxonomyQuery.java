@@ -18,10 +18,12 @@
 
 package org.apache.atlas.catalog.query;
 
+import com.tinkerpop.blueprints.GraphQuery;
 import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.Pipe;
 import org.apache.atlas.catalog.Request;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
+import org.apache.atlas.repository.Constants;
 
 /**
  * Taxonomy resource query.
@@ -31,6 +33,16 @@ public class AtlasTaxonomyQuery extends BaseQuery {
         super(queryExpression, resourceDefinition, request);
     }
 
+    @Override
+    protected GraphQuery getRootQuery() {
+        return pushDownExpression(getGraph().query().has(Constants.ENTITY_TYPE_PROPERTY_KEY, "Taxonomy"));
+    }
+
+    @Override
+    protected boolean isKeyedPaging() {
+        return true;
+    }
+
     @Override
     protected Pipe getQueryPipe() {
         return new GremlinPipeline().has("__typeName", "Taxonomy");
@@ -19,6 +19,7 @@
 package org.apache.atlas.catalog.query;
 
 import com.thinkaurelius.titan.core.attribute.Text;
+import com.tinkerpop.blueprints.GraphQuery;
 import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.Pipe;
 import org.apache.atlas.catalog.Request;
@@ -37,6 +38,15 @@ public class AtlasTermQuery extends BaseQuery {
         this.termPath = termPath;
     }
 
+    @Override
+    protected GraphQuery getRootQuery() {
+        GraphQuery query = getGraph().query().has(Constants.ENTITY_TYPE_PROPERTY_KEY, "Taxonomy");
+        if (!termPath.getTaxonomyName().equals("*")) {
+            query = query.has("Taxonomy.name", termPath.getTaxonomyName());
+        }
+        return query;
+    }
+
     @Override
     protected Pipe getQueryPipe() {
         GremlinPipeline p;
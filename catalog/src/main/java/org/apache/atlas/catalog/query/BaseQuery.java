@@ -18,11 +18,19 @@
 
 package org.apache.atlas.catalog.query;
 
+import java.io.Closeable;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
 
+import org.apache.atlas.RequestContext;
 import org.apache.atlas.catalog.Request;
 import org.apache.atlas.catalog.VertexWrapper;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
@@ -30,11 +38,19 @@ import org.apache.atlas.catalog.exception.ResourceNotFoundException;
 import org.apache.atlas.catalog.projection.Projection;
 import org.apache.atlas.catalog.projection.ProjectionResult;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
 import org.apache.atlas.repository.graphdb.titan0.Titan0GraphDatabase;
 import org.apache.atlas.typesystem.persistence.Id;
 
+import com.thinkaurelius.titan.core.Order;
+import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanGraphQuery;
+import com.thinkaurelius.titan.core.TitanVertex;
+import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
+import com.thinkaurelius.titan.core.schema.TitanManagement;
 import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.GraphQuery;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.Pipe;
@@ -44,6 +60,8 @@ import com.tinkerpop.pipes.filter.PropertyFilterPipe;
  * Base Query implementation.
  */
 public abstract class BaseQuery implements AtlasQuery {
+    private static volatile IndexedPropertyNames indexedPropertyNames;
+
     protected final QueryExpression queryExpression;
     protected final ResourceDefinition resourceDefinition;
     protected final Request request;
@@ -55,11 +73,16 @@ public abstract class BaseQuery implements AtlasQuery {
     }
 
     public Collection<Map<String, Object>> execute() throws ResourceNotFoundException {
-        Collection<Map<String, Object>> resultMaps = new ArrayList<>();
+        if (request.isStreamed() && request.getPageSize() <= 0) {
+            // the transaction is completed by the result once it has been read
+            return new StreamedResult(executeQuery());
+        }
 
+        Collection<Map<String, Object>> resultMaps = new ArrayList<>();
         try {
-            for (Vertex vertex : executeQuery()) {
-                resultMaps.add(processPropertyMap(wrapVertex(vertex)));
+            // property maps and projections are only built for the vertices of the requested page
+            for (VertexWrapper vWrapper : wrapVertices(nextPage(executeQuery()))) {
+                resultMaps.add(processPropertyMap(vWrapper));
             }
             getGraph().commit();
         } catch (Throwable t) {
@@ -75,11 +98,14 @@ public abstract class BaseQuery implements AtlasQuery {
 
         Collection<Map<String, Object>> resultMaps = new ArrayList<>();
         try {
-            for (Vertex vertex : executeQuery()) {
-                VertexWrapper vWrapper = wrapVertex(vertex);
+            Iterator<Vertex> vertices = executeQuery();
+            while (vertices.hasNext()) {
+                VertexWrapper vWrapper = wrapVertex(vertices.next());
                 for (Map.Entry<String, Object> property : updateProperties.entrySet()) {
                     vWrapper.setProperty(property.getKey(), property.getValue());
                     vWrapper.setProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, System.currentTimeMillis());
+                    vWrapper.setProperty(Constants.MODIFICATION_SEQUENCE_PROPERTY_KEY,
+                            RequestContext.get().nextModificationSequence());
                 }
                 resultMaps.add(processPropertyMap(vWrapper));
             }
@@ -91,13 +117,114 @@ public abstract class BaseQuery implements AtlasQuery {
         return resultMaps;
     }
 
-    private List<Vertex> executeQuery() {
+    // vertices are lazily pulled through the pipeline as the returned iterator is consumed
+    @SuppressWarnings("unchecked")
+    private Iterator<Vertex> executeQuery() {
         GremlinPipeline pipeline = buildPipeline().as("root");
         Pipe expressionPipe = queryExpression.asPipe();
 
         // AlwaysQuery returns null for pipe
-        return expressionPipe == null ? pipeline.toList() :
-                pipeline.add(expressionPipe).back("root").toList();
+        return expressionPipe == null ? pipeline :
+                pipeline.add(expressionPipe).back("root");
+    }
+
+    /**
+     * Consume the vertices of the page specified by the request.
+     * If more vertices follow the page, the cursor of the next page is set on the request.
+     *
+     * @param vertices  query result vertices
+     * @return vertices of the requested page
+     */
+    private List<Vertex> nextPage(Iterator<Vertex> vertices) {
+        int pageSize = request.getPageSize();
+        String cursor = request.getPageCursor();
+        if (pageSize > 0 && isKeyedPaging() && (cursor == null || PageKey.isKey(cursor))) {
+            return nextKeyedPage(vertices, pageSize, cursor == null ? null : PageKey.parse(cursor));
+        }
+
+        int offset = cursor == null ? 0 : Integer.parseInt(cursor);
+        for (int i = 0; i < offset && vertices.hasNext(); i++) {
+            vertices.next();
+        }
+
+        List<Vertex> page = new ArrayList<>();
+        while ((pageSize <= 0 || page.size() < pageSize) && vertices.hasNext()) {
+            page.add(vertices.next());
+        }
+        if (pageSize > 0 && vertices.hasNext()) {
+            request.setNextPageCursor(String.valueOf(offset + page.size()));
+        }
+        return page;
+    }
+
+    /**
+     * Consume the vertices which follow the provided key, up to the page size.
+     * The vertices are read in creation time order, so reading stops once the page is full and the creation time
+     * changes. Vertices created in the same millisecond are ordered by guid.
+     *
+     * @param vertices  query result vertices, ordered by creation time
+     * @param pageSize  page size
+     * @param after     key of the last vertex of the previous page or null for the first page
+     * @return vertices of the requested page
+     */
+    private List<Vertex> nextKeyedPage(Iterator<Vertex> vertices, int pageSize, PageKey after) {
+        TreeMap<PageKey, Vertex> candidates = new TreeMap<>();
+        boolean more = false;
+        long lastTimestamp = Long.MIN_VALUE;
+        while (vertices.hasNext()) {
+            Vertex vertex = vertices.next();
+            PageKey key = PageKey.of(vertex);
+            if (after != null && key.compareTo(after) <= 0) {
+                continue;
+            }
+            if (candidates.size() >= pageSize && key.timestamp != lastTimestamp) {
+                more = true;
+                break;
+            }
+            candidates.put(key, vertex);
+            lastTimestamp = key.timestamp;
+        }
+
+        List<Vertex> page = new ArrayList<>(pageSize);
+        PageKey lastKey = null;
+        for (Map.Entry<PageKey, Vertex> candidate : candidates.entrySet()) {
+            if (page.size() == pageSize) {
+                more = true;
+                break;
+            }
+            page.add(candidate.getValue());
+            lastKey = candidate.getKey();
+        }
+        if (more) {
+            request.setNextPageCursor(lastKey.toString());
+        }
+        return page;
+    }
+
+    /**
+     * Wrap the provided vertices, loading the properties of all of them with a single graph query
+     * instead of one query per vertex.
+     *
+     * @param vertices  vertices to wrap
+     * @return wrapped vertices
+     */
+    private List<VertexWrapper> wrapVertices(List<Vertex> vertices) {
+        Collection<TitanVertex> titanVertices = new ArrayList<>(vertices.size());
+        for (Vertex vertex : vertices) {
+            if (vertex instanceof TitanVertex) {
+                titanVertices.add((TitanVertex) vertex);
+            }
+        }
+        if (titanVertices.size() > 1) {
+            // the loaded properties are cached by the transaction
+            getGraph().multiQuery(titanVertices).properties();
+        }
+
+        List<VertexWrapper> wrappers = new ArrayList<>(vertices.size());
+        for (Vertex vertex : vertices) {
+            wrappers.add(wrapVertex(vertex));
+        }
+        return wrappers;
     }
 
     protected GremlinPipeline buildPipeline() {
@@ -113,7 +240,92 @@ public abstract class BaseQuery implements AtlasQuery {
     protected abstract Pipe getQueryPipe();
 
     protected GremlinPipeline getRootVertexPipeline() {
-        return new GremlinPipeline(getGraph().getVertices());
+        GraphQuery rootQuery = getRootQuery();
+        if (rootQuery != null && request.getPageSize() > 0 && isKeyedPaging()) {
+            rootQuery = startAfterPageKey(rootQuery);
+        }
+        return new GremlinPipeline(rootQuery != null ? rootQuery.vertices() : getGraph().getVertices());
+    }
+
+    /**
+     * Determine whether the vertices returned by the query are its root vertices, in which case a page is
+     * read from the root query in creation time order, starting at the key of the last vertex of the previous page.
+     * Otherwise the cursor is the number of vertices which are skipped.
+     *
+     * @return true if the query pipe only filters the root vertices
+     */
+    protected boolean isKeyedPaging() {
+        return false;
+    }
+
+    private GraphQuery startAfterPageKey(GraphQuery rootQuery) {
+        String cursor = request.getPageCursor();
+        if (cursor != null && PageKey.isKey(cursor)) {
+            rootQuery = rootQuery.has(Constants.TIMESTAMP_PROPERTY_KEY, Compare.GREATER_THAN_EQUAL,
+                    PageKey.parse(cursor).timestamp);
+        }
+        // the mixed index answers the range and the order, so only the vertices of the page are read
+        return rootQuery instanceof TitanGraphQuery ?
+                ((TitanGraphQuery<?>) rootQuery).orderBy(Constants.TIMESTAMP_PROPERTY_KEY, Order.ASC) :
+                rootQuery;
+    }
+
+    /**
+     * Get the indexed graph query which selects the vertices that the query pipe is applied to.
+     * The query pipe must still apply all of its conditions, the root query only narrows the starting set.
+     *
+     * @return the root query or null to start from all vertices in the graph
+     */
+    protected GraphQuery getRootQuery() {
+        return null;
+    }
+
+    /**
+     * Push the indexable conditions of the query expression down to the provided root query.
+     * Must be called before the expression pipe is created, which happens after the root pipeline is built.
+     *
+     * @param rootQuery  root query
+     * @return the root query, narrowed by the pushed down conditions
+     */
+    protected GraphQuery pushDownExpression(GraphQuery rootQuery) {
+        return queryExpression instanceof BaseQueryExpression ?
+                ((BaseQueryExpression) queryExpression).pushDown(rootQuery, getIndexedPropertyNames()) :
+                rootQuery;
+    }
+
+    /**
+     * Get the names of the vertex properties which are keys of a composite graph index.
+     * Only equality conditions on these properties are answered by the index without a scan.
+     * The names are read from the graph once, and again only after the search indexer has added indexes.
+     *
+     * @return indexed property names
+     */
+    protected Collection<String> getIndexedPropertyNames() {
+        TitanGraph graph = getGraph();
+        long generation = GraphBackedSearchIndexer.getIndexGeneration();
+        IndexedPropertyNames cached = indexedPropertyNames;
+        if (cached == null || cached.graph != graph || cached.generation != generation) {
+            cached = new IndexedPropertyNames(graph, generation, readIndexedPropertyNames(graph));
+            indexedPropertyNames = cached;
+        }
+        return cached.names;
+    }
+
+    private static Collection<String> readIndexedPropertyNames(TitanGraph graph) {
+        Collection<String> propertyNames = new HashSet<>();
+        TitanManagement management = graph.getManagementSystem();
+        try {
+            for (TitanGraphIndex index : management.getGraphIndexes(Vertex.class)) {
+                if (index.isCompositeIndex()) {
+                    for (PropertyKey key : index.getFieldKeys()) {
+                        propertyNames.add(key.getName());
+                    }
+                }
+            }
+        } finally {
+            management.rollback();
+        }
+        return Collections.unmodifiableCollection(propertyNames);
     }
 
     protected Pipe getNotDeletedPipe() {
@@ -174,4 +386,179 @@ public abstract class BaseQuery implements AtlasQuery {
     protected VertexWrapper wrapVertex(Vertex v) {
         return new VertexWrapper(v, resourceDefinition);
     }
+
+    /**
+     * Indexed property names read from a graph, with the index generation they were read at.
+     */
+    private static class IndexedPropertyNames {
+        private final TitanGraph graph;
+        private final long generation;
+        private final Collection<String> names;
+
+        private IndexedPropertyNames(TitanGraph graph, long generation, Collection<String> names) {
+            this.graph = graph;
+            this.generation = generation;
+            this.names = names;
+        }
+    }
+
+    /**
+     * Position of a vertex in a keyed page: creation time, then guid.
+     */
+    private static class PageKey implements Comparable<PageKey> {
+        private static final char SEPARATOR = ':';
+
+        private final long timestamp;
+        private final String guid;
+
+        private PageKey(long timestamp, String guid) {
+            this.timestamp = timestamp;
+            this.guid = guid;
+        }
+
+        static PageKey of(Vertex vertex) {
+            Long timestamp = vertex.getProperty(Constants.TIMESTAMP_PROPERTY_KEY);
+            String guid = vertex.getProperty(Constants.GUID_PROPERTY_KEY);
+            return new PageKey(timestamp == null ? 0 : timestamp, guid == null ? "" : guid);
+        }
+
+        static boolean isKey(String cursor) {
+            return cursor.indexOf(SEPARATOR) != -1;
+        }
+
+        static PageKey parse(String cursor) {
+            int separator = cursor.indexOf(SEPARATOR);
+            return new PageKey(Long.parseLong(cursor.substring(0, separator)), cursor.substring(separator + 1));
+        }
+
+        @Override
+        public int compareTo(PageKey other) {
+            return timestamp != other.timestamp ? (timestamp < other.timestamp ? -1 : 1) : guid.compareTo(other.guid);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PageKey && compareTo((PageKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (timestamp ^ (timestamp >>> 32)) + guid.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(timestamp) + SEPARATOR + guid;
+        }
+    }
+
+    /**
+     * Result of an unpaged query which is read from the graph while it is iterated, so the complete result is
+     * never held in memory. Vertices are read in batches so their properties can be loaded together.
+     * The graph transaction is committed once the last vertex has been read, or rolled back on failure or when the
+     * result is closed before it has been read to the end. Checking whether the result is empty reads its first
+     * batch; its size is only known once it has been read.
+     */
+    private class StreamedResult extends AbstractCollection<Map<String, Object>> implements Closeable {
+        private static final int BATCH_SIZE = 100;
+
+        private final Iterator<Vertex> vertices;
+        private final Cursor cursor = new Cursor();
+        private boolean iterated = false;
+
+        private StreamedResult(Iterator<Vertex> vertices) {
+            this.vertices = vertices;
+        }
+
+        @Override
+        public Iterator<Map<String, Object>> iterator() {
+            if (iterated) {
+                throw new IllegalStateException("A streamed result can only be read once");
+            }
+            iterated = true;
+            return cursor;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            if (iterated) {
+                throw new IllegalStateException("A streamed result can't be checked once it is being read");
+            }
+            return ! cursor.hasNext();
+        }
+
+        @Override
+        public int size() {
+            throw new UnsupportedOperationException("The size of a streamed result is only known once it is read");
+        }
+
+        @Override
+        public void close() {
+            cursor.close();
+        }
+
+        private class Cursor implements Iterator<Map<String, Object>> {
+            private Iterator<VertexWrapper> batch = Collections.<VertexWrapper>emptyList().iterator();
+            private boolean completed = false;
+
+            @Override
+            public boolean hasNext() {
+                if (batch.hasNext()) {
+                    return true;
+                }
+                if (completed) {
+                    return false;
+                }
+
+                try {
+                    List<Vertex> nextBatch = new ArrayList<>(BATCH_SIZE);
+                    while (nextBatch.size() < BATCH_SIZE && vertices.hasNext()) {
+                        nextBatch.add(vertices.next());
+                    }
+                    batch = wrapVertices(nextBatch).iterator();
+                    if (nextBatch.size() < BATCH_SIZE) {
+                        completed = true;
+                        if (nextBatch.isEmpty()) {
+                            getGraph().commit();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    close();
+                    throw e;
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                if (! hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Map<String, Object> propertyMap = processPropertyMap(batch.next());
+                    if (completed && ! batch.hasNext()) {
+                        getGraph().commit();
+                    }
+                    return propertyMap;
+                } catch (RuntimeException e) {
+                    close();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Streamed results can't be modified");
+            }
+
+            // rolls back the transaction unless the last vertex has been read, which committed it
+            private void close() {
+                if (! completed || batch.hasNext()) {
+                    completed = true;
+                    batch = Collections.<VertexWrapper>emptyList().iterator();
+                    getGraph().rollback();
+                }
+            }
+        }
+    }
 }
@@ -18,24 +18,38 @@
 
 package org.apache.atlas.catalog.query;
 
+import com.tinkerpop.blueprints.GraphQuery;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.pipes.Pipe;
 import com.tinkerpop.pipes.PipeFunction;
 import com.tinkerpop.pipes.filter.FilterFunctionPipe;
 import org.apache.atlas.catalog.VertexWrapper;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.typesystem.types.AttributeDefinition;
+import org.apache.atlas.typesystem.types.DataTypes;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 
 /**
  * Base query expression class.
  */
 public abstract class BaseQueryExpression implements QueryExpression {
+    // single valued string system properties, by the name exposed in the API
+    private static final Map<String, String> SYSTEM_PROPERTY_NAMES = new HashMap<>();
+    static {
+        SYSTEM_PROPERTY_NAMES.put("id", Constants.GUID_PROPERTY_KEY);
+        SYSTEM_PROPERTY_NAMES.put("type", Constants.ENTITY_TYPE_PROPERTY_KEY);
+    }
+
     protected String m_field;
     protected final String m_expectedValue;
     protected final ResourceDefinition resourceDefinition;
     protected boolean negate = false;
+    protected boolean pushedDown = false;
     protected Collection<String> properties = new HashSet<>();
 
     protected BaseQueryExpression(String field, String expectedValue, ResourceDefinition resourceDefinition) {
@@ -73,6 +87,72 @@ public abstract class BaseQueryExpression implements QueryExpression {
         });
     }
 
+    /**
+     * Add the conditions of this expression which can be answered by the graph index to the provided query.
+     * Conditions which are added to the query are no longer evaluated by the pipe returned from
+     * {@link #asPipe()}, so this must be called before the pipe is created.
+     *
+     * @param query               graph query which selects the vertices that the expression is applied to
+     * @param indexedProperties   names of the properties which are keys of a composite graph index
+     * @return the provided query, narrowed by any conditions which were pushed down
+     */
+    public GraphQuery pushDown(GraphQuery query, Collection<String> indexedProperties) {
+        return query;
+    }
+
+    /**
+     * Determine whether any condition of the expression was added to a graph query by {@link #pushDown}.
+     *
+     * @return true if the graph query was narrowed by the expression
+     */
+    public boolean hasPushedDownConditions() {
+        return pushedDown;
+    }
+
+    /**
+     * Determine whether the expression was completely added to a graph query by {@link #pushDown(GraphQuery)}.
+     *
+     * @return true if the expression no longer needs to be evaluated in memory
+     */
+    public boolean isPushedDown() {
+        return pushedDown;
+    }
+
+    /**
+     * Resolve the fully qualified name of the expression field if the field is a single valued
+     * string property whose stored value is compared without any formatting and which the graph index
+     * can answer an equality condition for.
+     *
+     * @param indexedProperties  names of the properties which are keys of a composite graph index
+     * @return fully qualified property name or null if the field can't be queried in the graph
+     */
+    protected String resolveIndexedPropertyName(Collection<String> indexedProperties) {
+        String typeName = resourceDefinition.getTypeName();
+        if (negate || m_field == null || isProjectionExpression() ||
+                resourceDefinition.getPropertyValueFormatters().containsKey(m_field)) {
+            return null;
+        }
+
+        if (typeName == null) {
+            // without a fixed vertex type only the system properties shared by all entities can be resolved
+            String propertyName = SYSTEM_PROPERTY_NAMES.get(m_field);
+            return propertyName != null && indexedProperties.contains(propertyName) ? propertyName : null;
+        }
+
+        for (AttributeDefinition attributeDefinition : resourceDefinition.getPropertyDefinitions()) {
+            if (attributeDefinition.name.equals(m_field)) {
+                if (! attributeDefinition.dataTypeName.equals(DataTypes.STRING_TYPE.getName()) ||
+                        attributeDefinition.multiplicity.isMany()) {
+                    return null;
+                }
+                String propertyName = resourceDefinition.getPropertyMapper().toFullyQualifiedName(m_field, typeName);
+                // string keys are mapped as text in the mixed index, so only a composite index answers equality
+                return indexedProperties.contains(propertyName) ? propertyName : null;
+            }
+        }
+        return null;
+    }
+
     @Override
     public String getField() {
         return m_field;
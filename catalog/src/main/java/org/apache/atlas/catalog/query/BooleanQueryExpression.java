@@ -18,6 +18,7 @@
 
 package org.apache.atlas.catalog.query;
 
+import com.tinkerpop.blueprints.GraphQuery;
 import com.tinkerpop.pipes.Pipe;
 import com.tinkerpop.pipes.filter.AndFilterPipe;
 import com.tinkerpop.pipes.filter.OrFilterPipe;
@@ -33,6 +34,7 @@ import java.util.*;
 public class BooleanQueryExpression extends BaseQueryExpression {
     private final BooleanClause[] clauses;
     private final QueryFactory queryFactory;
+    private final Collection<BooleanClause> pushedDownClauses = new HashSet<>();
 
     public BooleanQueryExpression(BooleanQuery query, ResourceDefinition resourceDefinition, QueryFactory queryFactory) {
         super(null, null, resourceDefinition);
@@ -40,6 +42,34 @@ public class BooleanQueryExpression extends BaseQueryExpression {
         this.queryFactory = queryFactory;
     }
 
+    @Override
+    public GraphQuery pushDown(GraphQuery query, Collection<String> indexedProperties) {
+        Map<BooleanClause.Occur, Collection<BooleanClause>> groupedClauses = groupClauses();
+        // MUST clauses are only required for every result when there are no SHOULD clauses
+        if (negate || groupedClauses.containsKey(BooleanClause.Occur.SHOULD) ||
+                ! groupedClauses.containsKey(BooleanClause.Occur.MUST)) {
+            return query;
+        }
+
+        for (BooleanClause andClause : groupedClauses.get(BooleanClause.Occur.MUST)) {
+            QueryExpression queryExpression = queryFactory.create(andClause.getQuery(), resourceDefinition);
+            if (queryExpression instanceof BaseQueryExpression) {
+                BaseQueryExpression baseExpression = (BaseQueryExpression) queryExpression;
+                query = baseExpression.pushDown(query, indexedProperties);
+                if (baseExpression.isPushedDown()) {
+                    pushedDownClauses.add(andClause);
+                }
+            }
+        }
+        pushedDown = pushedDownClauses.size() == clauses.length;
+        return query;
+    }
+
+    @Override
+    public boolean hasPushedDownConditions() {
+        return ! pushedDownClauses.isEmpty();
+    }
+
     @Override
     public Pipe asPipe() {
         Map<BooleanClause.Occur, Collection<BooleanClause>> groupedClauses = groupClauses();
@@ -101,7 +131,10 @@ public class BooleanQueryExpression extends BaseQueryExpression {
             for (BooleanClause andClause : andClauses) {
                 QueryExpression queryExpression = queryFactory.create(andClause.getQuery(), resourceDefinition);
                 properties.addAll(queryExpression.getProperties());
-                andPipes.add(queryExpression.asPipe());
+                // clauses which were pushed down to the graph query don't need to be evaluated again
+                if (! pushedDownClauses.contains(andClause)) {
+                    andPipes.add(queryExpression.asPipe());
+                }
             }
         }
         return andPipes;
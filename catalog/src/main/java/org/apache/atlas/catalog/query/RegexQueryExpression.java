@@ -27,15 +27,15 @@ import java.util.regex.Pattern;
  * Query expression which evaluates a property against a regular expression.
  */
 public class RegexQueryExpression extends BaseQueryExpression {
+    private final Pattern pattern;
 
     public RegexQueryExpression(RegexQuery query, ResourceDefinition resourceDefinition) {
         super(query.getField(), query.getTerm().text(), resourceDefinition);
-
+        pattern = Pattern.compile(getExpectedValue());
     }
 
     @Override
     public boolean evaluate(Object value) {
-        Pattern p = Pattern.compile(getExpectedValue());
-        return value != null && p.matcher(String.valueOf(value)).matches();
+        return value != null && pattern.matcher(String.valueOf(value)).matches();
     }
 }
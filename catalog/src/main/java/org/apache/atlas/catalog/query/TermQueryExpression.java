@@ -18,6 +18,8 @@
 
 package org.apache.atlas.catalog.query;
 
+import com.tinkerpop.blueprints.GraphQuery;
+import com.tinkerpop.pipes.Pipe;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
 import org.apache.lucene.search.TermQuery;
 
@@ -32,6 +34,27 @@ public class TermQueryExpression extends BaseQueryExpression {
         super(query.getTerm().field(), query.getTerm().text(), resourceDefinition);
     }
 
+    @Override
+    public GraphQuery pushDown(GraphQuery query, Collection<String> indexedProperties) {
+        String expectedValue = getExpectedValue();
+        // "null" and escaped values have special meaning in evaluate() so they aren't pushed down
+        if (expectedValue.equals("null") || expectedValue.contains(QueryFactory.PATH_SEP_TOKEN)) {
+            return query;
+        }
+
+        String propertyName = resolveIndexedPropertyName(indexedProperties);
+        if (propertyName == null) {
+            return query;
+        }
+        pushedDown = true;
+        return query.has(propertyName, expectedValue);
+    }
+
+    @Override
+    public Pipe asPipe() {
+        return pushedDown ? null : super.asPipe();
+    }
+
     @Override
     public boolean evaluate(Object value) {
         String expectedValue = getExpectedValue();
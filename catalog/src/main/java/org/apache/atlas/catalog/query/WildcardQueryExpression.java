@@ -28,16 +28,18 @@ import java.util.regex.Pattern;
  * This differs from PrefixQueryExpression which handles expressions which end with a wildcard.
  */
 public class WildcardQueryExpression extends BaseQueryExpression {
+    private final Pattern pattern;
 
     public WildcardQueryExpression(WildcardQuery query, ResourceDefinition resourceDefinition) {
         super(query.getTerm().field(), query.getTerm().text(), resourceDefinition);
+        // replace '*' with ".*"
+        // replace '?' with '.'
+        String regex = getExpectedValue().replaceAll("\\*", ".*").replaceAll("\\?", ".");
+        pattern = Pattern.compile(regex);
     }
 
     @Override
     public boolean evaluate(Object value) {
-        // replace '*' with ".*"
-        // replace '?' with '.'
-        String regex = getExpectedValue().replaceAll("\\*", ".*").replaceAll("\\?", ".");
-        return Pattern.compile(regex).matcher(String.valueOf(value)).matches();
+        return pattern.matcher(String.valueOf(value)).matches();
     }
 }
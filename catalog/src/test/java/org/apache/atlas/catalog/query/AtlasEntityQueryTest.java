@@ -18,14 +18,23 @@
 
 package org.apache.atlas.catalog.query;
 
+import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanGraphQuery;
+import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
+import com.thinkaurelius.titan.core.schema.TitanManagement;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.Pipe;
+import org.apache.atlas.catalog.PropertyValueFormatter;
 import org.apache.atlas.catalog.Request;
+import org.apache.atlas.catalog.Result;
 import org.apache.atlas.catalog.VertexWrapper;
 import org.apache.atlas.catalog.definition.ResourceDefinition;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
 import org.easymock.Capture;
 import org.testng.annotations.Test;
 
@@ -33,6 +42,7 @@ import java.util.*;
 
 import static org.easymock.EasyMock.*;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -59,9 +69,6 @@ public class AtlasEntityQueryTest {
         Vertex vertex1 = createStrictMock(Vertex.class);
         VertexWrapper vertex1Wrapper = createStrictMock(VertexWrapper.class);
 
-        List<Vertex> results = new ArrayList<>();
-        results.add(vertex1);
-
         Map<String, Object> vertex1PropertyMap = new HashMap<>();
         vertex1PropertyMap.put("prop1", "prop1.value1");
         vertex1PropertyMap.put("prop2", "prop2.value1");
@@ -76,7 +83,12 @@ public class AtlasEntityQueryTest {
         expect(expression.asPipe()).andReturn(expressionPipe);
         expect(rootPipeline.add(expressionPipe)).andReturn(expressionPipeline);
         expect(expressionPipeline.back("root")).andReturn(rootPipeline);
-        expect(rootPipeline.toList()).andReturn(results);
+        expect(request.isStreamed()).andReturn(false);
+        expect(request.getPageSize()).andReturn(0);
+        expect(request.getPageCursor()).andReturn(null);
+        expect(rootPipeline.hasNext()).andReturn(true);
+        expect(rootPipeline.next()).andReturn(vertex1);
+        expect(rootPipeline.hasNext()).andReturn(false);
         graph.commit();
         expect(vertex1Wrapper.getPropertyMap()).andReturn(vertex1PropertyMap);
         expect(resourceDefinition.filterProperties(request, vertex1PropertyMap)).andReturn(filteredVertex1PropertyMap);
@@ -105,6 +117,194 @@ public class AtlasEntityQueryTest {
                 vertex1, vertex1Wrapper);
     }
 
+    @Test
+    public void testExecute_Collection_page() throws Exception {
+        TitanGraph graph = createStrictMock(TitanGraph.class);
+        QueryExpression expression = createStrictMock(QueryExpression.class);
+        ResourceDefinition resourceDefinition = createStrictMock(ResourceDefinition.class);
+        Request request = createStrictMock(Request.class);
+        GremlinPipeline initialPipeline = createStrictMock(GremlinPipeline.class);
+        Pipe queryPipe = createStrictMock(Pipe.class);
+        Pipe expressionPipe = createStrictMock(Pipe.class);
+        Pipe notDeletedPipe = createStrictMock(Pipe.class);
+        GremlinPipeline rootPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline queryPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline expressionPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline notDeletedPipeline = createStrictMock(GremlinPipeline.class);
+        Vertex vertex1 = createStrictMock(Vertex.class);
+        Vertex vertex2 = createStrictMock(Vertex.class);
+        Vertex vertex3 = createStrictMock(Vertex.class);
+        VertexWrapper vertex2Wrapper = createStrictMock(VertexWrapper.class);
+
+        Map<String, Object> vertex2PropertyMap = new HashMap<>();
+        vertex2PropertyMap.put("prop1", "prop1.value2");
+
+        // mock expectations
+        expect(initialPipeline.add(queryPipe)).andReturn(queryPipeline);
+        expect(initialPipeline.add(notDeletedPipe)).andReturn(notDeletedPipeline);
+        expect(initialPipeline.as("root")).andReturn(rootPipeline);
+        expect(expression.asPipe()).andReturn(expressionPipe);
+        expect(rootPipeline.add(expressionPipe)).andReturn(expressionPipeline);
+        expect(expressionPipeline.back("root")).andReturn(rootPipeline);
+        expect(request.isStreamed()).andReturn(false);
+        expect(request.getPageSize()).andReturn(1);
+        expect(request.getPageCursor()).andReturn("1000:guid1");
+        // first vertex is the last vertex of the previous page, second vertex is the page and
+        // the third vertex is created later
+        expect(rootPipeline.hasNext()).andReturn(true);
+        expect(rootPipeline.next()).andReturn(vertex1);
+        expect(vertex1.<Long>getProperty(Constants.TIMESTAMP_PROPERTY_KEY)).andReturn(1000L);
+        expect(vertex1.<String>getProperty(Constants.GUID_PROPERTY_KEY)).andReturn("guid1");
+        expect(rootPipeline.hasNext()).andReturn(true);
+        expect(rootPipeline.next()).andReturn(vertex2);
+        expect(vertex2.<Long>getProperty(Constants.TIMESTAMP_PROPERTY_KEY)).andReturn(1000L);
+        expect(vertex2.<String>getProperty(Constants.GUID_PROPERTY_KEY)).andReturn("guid2");
+        expect(rootPipeline.hasNext()).andReturn(true);
+        expect(rootPipeline.next()).andReturn(vertex3);
+        expect(vertex3.<Long>getProperty(Constants.TIMESTAMP_PROPERTY_KEY)).andReturn(2000L);
+        expect(vertex3.<String>getProperty(Constants.GUID_PROPERTY_KEY)).andReturn("guid0");
+        request.setNextPageCursor("1000:guid2");
+        graph.commit();
+        expect(vertex2Wrapper.getPropertyMap()).andReturn(vertex2PropertyMap);
+        expect(resourceDefinition.filterProperties(request, vertex2PropertyMap)).andReturn(vertex2PropertyMap);
+        expect(resourceDefinition.resolveHref(vertex2PropertyMap)).andReturn(null);
+        expect(request.getCardinality()).andReturn(Request.Cardinality.COLLECTION);
+
+        replay(graph, expression, resourceDefinition, request, initialPipeline, queryPipe, expressionPipe,
+                notDeletedPipe, rootPipeline, queryPipeline, expressionPipeline, notDeletedPipeline,
+                vertex1, vertex2, vertex3, vertex2Wrapper);
+        // end mock expectations
+
+        AtlasEntityQuery query = new TestAtlasEntityQuery(expression, resourceDefinition, request,
+                initialPipeline, queryPipe, notDeletedPipe, graph, vertex2Wrapper);
+
+        // invoke method being tested
+        Collection<Map<String, Object>> queryResults = query.execute();
+
+        assertEquals(queryResults.size(), 1);
+        assertEquals(queryResults.iterator().next().get("prop1"), "prop1.value2");
+
+        verify(graph, expression, resourceDefinition, request, initialPipeline, queryPipe, expressionPipe,
+                notDeletedPipe, rootPipeline, queryPipeline, expressionPipeline, notDeletedPipeline,
+                vertex1, vertex2, vertex3, vertex2Wrapper);
+    }
+
+    @Test
+    public void testExecute_Collection_streamed() throws Exception {
+        TitanGraph graph = createStrictMock(TitanGraph.class);
+        QueryExpression expression = createStrictMock(QueryExpression.class);
+        ResourceDefinition resourceDefinition = createStrictMock(ResourceDefinition.class);
+        Request request = createStrictMock(Request.class);
+        GremlinPipeline initialPipeline = createStrictMock(GremlinPipeline.class);
+        Pipe queryPipe = createStrictMock(Pipe.class);
+        Pipe expressionPipe = createStrictMock(Pipe.class);
+        Pipe notDeletedPipe = createStrictMock(Pipe.class);
+        GremlinPipeline rootPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline queryPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline expressionPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline notDeletedPipeline = createStrictMock(GremlinPipeline.class);
+        Vertex vertex1 = createStrictMock(Vertex.class);
+        VertexWrapper vertex1Wrapper = createStrictMock(VertexWrapper.class);
+
+        Map<String, Object> vertex1PropertyMap = new HashMap<>();
+        vertex1PropertyMap.put("prop1", "prop1.value1");
+
+        // mock expectations
+        expect(initialPipeline.add(queryPipe)).andReturn(queryPipeline);
+        expect(initialPipeline.add(notDeletedPipe)).andReturn(notDeletedPipeline);
+        expect(initialPipeline.as("root")).andReturn(rootPipeline);
+        expect(expression.asPipe()).andReturn(expressionPipe);
+        expect(rootPipeline.add(expressionPipe)).andReturn(expressionPipeline);
+        expect(expressionPipeline.back("root")).andReturn(rootPipeline);
+        expect(request.isStreamed()).andReturn(true);
+        expect(request.getPageSize()).andReturn(0);
+        replay(graph, expression, resourceDefinition, request, initialPipeline, queryPipe, expressionPipe,
+                notDeletedPipe, rootPipeline, queryPipeline, expressionPipeline, notDeletedPipeline,
+                vertex1, vertex1Wrapper);
+
+        AtlasEntityQuery query = new TestAtlasEntityQuery(expression, resourceDefinition, request,
+                initialPipeline, queryPipe, notDeletedPipe, graph, vertex1Wrapper);
+
+        // invoke method being tested
+        Collection<Map<String, Object>> queryResults = query.execute();
+
+        // nothing is read from the graph until the result is iterated
+        verify(graph, rootPipeline, vertex1Wrapper);
+        reset(graph, resourceDefinition, request, rootPipeline, vertex1Wrapper);
+
+        expect(rootPipeline.hasNext()).andReturn(true);
+        expect(rootPipeline.next()).andReturn(vertex1);
+        expect(rootPipeline.hasNext()).andReturn(false);
+        expect(vertex1Wrapper.getPropertyMap()).andReturn(vertex1PropertyMap);
+        expect(resourceDefinition.filterProperties(request, vertex1PropertyMap)).andReturn(vertex1PropertyMap);
+        expect(resourceDefinition.resolveHref(vertex1PropertyMap)).andReturn(null);
+        expect(request.getCardinality()).andReturn(Request.Cardinality.COLLECTION);
+        // the transaction is completed once the last vertex has been read
+        graph.commit();
+        replay(graph, resourceDefinition, request, rootPipeline, vertex1Wrapper);
+
+        Iterator<Map<String, Object>> iterator = queryResults.iterator();
+        assertTrue(iterator.hasNext());
+        assertEquals(iterator.next().get("prop1"), "prop1.value1");
+        assertFalse(iterator.hasNext());
+
+        verify(graph, expression, resourceDefinition, request, initialPipeline, queryPipe, expressionPipe,
+                notDeletedPipe, rootPipeline, queryPipeline, expressionPipeline, notDeletedPipeline,
+                vertex1, vertex1Wrapper);
+    }
+
+    @Test
+    public void testExecute_Collection_streamedClosedBeforeRead() throws Exception {
+        TitanGraph graph = createStrictMock(TitanGraph.class);
+        QueryExpression expression = createStrictMock(QueryExpression.class);
+        ResourceDefinition resourceDefinition = createStrictMock(ResourceDefinition.class);
+        Request request = createStrictMock(Request.class);
+        GremlinPipeline initialPipeline = createStrictMock(GremlinPipeline.class);
+        Pipe queryPipe = createStrictMock(Pipe.class);
+        Pipe expressionPipe = createStrictMock(Pipe.class);
+        Pipe notDeletedPipe = createStrictMock(Pipe.class);
+        GremlinPipeline rootPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline queryPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline expressionPipeline = createStrictMock(GremlinPipeline.class);
+        GremlinPipeline notDeletedPipeline = createStrictMock(GremlinPipeline.class);
+        Vertex vertex1 = createStrictMock(Vertex.class);
+        VertexWrapper vertex1Wrapper = createStrictMock(VertexWrapper.class);
+
+        // mock expectations
+        expect(initialPipeline.add(queryPipe)).andReturn(queryPipeline);
+        expect(initialPipeline.add(notDeletedPipe)).andReturn(notDeletedPipeline);
+        expect(initialPipeline.as("root")).andReturn(rootPipeline);
+        expect(expression.asPipe()).andReturn(expressionPipe);
+        expect(rootPipeline.add(expressionPipe)).andReturn(expressionPipeline);
+        expect(expressionPipeline.back("root")).andReturn(rootPipeline);
+        expect(request.isStreamed()).andReturn(true);
+        expect(request.getPageSize()).andReturn(0);
+        // checking for an empty result reads the first batch
+        expect(rootPipeline.hasNext()).andReturn(true);
+        expect(rootPipeline.next()).andReturn(vertex1);
+        expect(rootPipeline.hasNext()).andReturn(false);
+        // the result is closed before its vertex has been read
+        graph.rollback();
+        replay(graph, expression, resourceDefinition, request, initialPipeline, queryPipe, expressionPipe,
+                notDeletedPipe, rootPipeline, queryPipeline, expressionPipeline, notDeletedPipeline,
+                vertex1, vertex1Wrapper);
+        // end mock expectations
+
+        AtlasEntityQuery query = new TestAtlasEntityQuery(expression, resourceDefinition, request,
+                initialPipeline, queryPipe, notDeletedPipe, graph, vertex1Wrapper);
+
+        // invoke method being tested
+        Result result = new Result(query.execute());
+        assertFalse(result.getPropertyMaps().isEmpty());
+        result.close();
+        // closing a completed result doesn't roll back again
+        result.close();
+
+        verify(graph, expression, resourceDefinition, request, initialPipeline, queryPipe, expressionPipe,
+                notDeletedPipe, rootPipeline, queryPipeline, expressionPipeline, notDeletedPipeline,
+                vertex1, vertex1Wrapper);
+    }
+
     @Test
     public void testExecute_Collection_rollbackOnException() throws Exception {
         TitanGraph graph = createStrictMock(TitanGraph.class);
@@ -127,7 +327,10 @@ public class AtlasEntityQueryTest {
         expect(expression.asPipe()).andReturn(expressionPipe);
         expect(rootPipeline.add(expressionPipe)).andReturn(expressionPipeline);
         expect(expressionPipeline.back("root")).andReturn(rootPipeline);
-        expect(rootPipeline.toList()).andThrow(new RuntimeException("something bad happened"));
+        expect(request.isStreamed()).andReturn(false);
+        expect(request.getPageSize()).andReturn(0);
+        expect(request.getPageCursor()).andReturn(null);
+        expect(rootPipeline.hasNext()).andThrow(new RuntimeException("something bad happened"));
         graph.rollback();
 
         replay(graph, expression, resourceDefinition, request, initialPipeline, queryPipe, expressionPipe,
@@ -166,9 +369,7 @@ public class AtlasEntityQueryTest {
         Vertex vertex1 = createStrictMock(Vertex.class);
         VertexWrapper vertex1Wrapper = createStrictMock(VertexWrapper.class);
         Capture<Long> modifiedTimestampCapture = newCapture();
-
-        List<Vertex> results = new ArrayList<>();
-        results.add(vertex1);
+        Capture<Long> modificationSequenceCapture = newCapture();
 
         Map<String, Object> vertex1PropertyMap = new HashMap<>();
         vertex1PropertyMap.put("prop1", "prop1.value1");
@@ -187,10 +388,14 @@ public class AtlasEntityQueryTest {
         expect(expression.asPipe()).andReturn(expressionPipe);
         expect(rootPipeline.add(expressionPipe)).andReturn(expressionPipeline);
         expect(expressionPipeline.back("root")).andReturn(rootPipeline);
-        expect(rootPipeline.toList()).andReturn(results);
+        expect(rootPipeline.hasNext()).andReturn(true);
+        expect(rootPipeline.next()).andReturn(vertex1);
+        expect(rootPipeline.hasNext()).andReturn(false);
         graph.commit();
         vertex1Wrapper.setProperty("prop3", "newValue");
         vertex1Wrapper.setProperty(eq(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY), capture(modifiedTimestampCapture));
+        vertex1Wrapper.setProperty(eq(Constants.MODIFICATION_SEQUENCE_PROPERTY_KEY),
+                capture(modificationSequenceCapture));
         expect(vertex1Wrapper.getPropertyMap()).andReturn(vertex1PropertyMap);
         expect(resourceDefinition.filterProperties(request, vertex1PropertyMap)).andReturn(filteredVertex1PropertyMap);
         expect(resourceDefinition.resolveHref(filteredVertex1PropertyMap)).andReturn("/foo/bar");
@@ -217,12 +422,110 @@ public class AtlasEntityQueryTest {
 
         long modifiedTimestamp = modifiedTimestampCapture.getValue();
         assertTrue(modifiedTimestamp >= startTime && modifiedTimestamp <= endTime);
+        assertTrue(modificationSequenceCapture.getValue() >= 0);
 
         verify(graph, expression, resourceDefinition, request, initialPipeline, queryPipe, expressionPipe,
                 notDeletedPipe, rootPipeline, queryPipeline, expressionPipeline, notDeletedPipeline,
                 vertex1, vertex1Wrapper);
     }
 
+    @Test
+    public void testGetRootVertexPipeline_usesIndexedQuery() throws Exception {
+        final TitanGraph graph = createStrictMock(TitanGraph.class);
+        TitanGraphQuery graphQuery = createStrictMock(TitanGraphQuery.class);
+        Vertex vertex1 = createStrictMock(Vertex.class);
+
+        // mock expectations
+        expect(graph.query()).andReturn(graphQuery);
+        expect(graphQuery.has(Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name())).andReturn(graphQuery);
+        expect(graphQuery.vertices()).andReturn(Collections.singletonList(vertex1));
+        replay(graph, graphQuery, vertex1);
+
+        AtlasEntityQuery query = new AtlasEntityQuery(createNiceMock(QueryExpression.class),
+                createNiceMock(ResourceDefinition.class), createNiceMock(Request.class)) {
+            @Override
+            protected TitanGraph getGraph() {
+                return graph;
+            }
+        };
+
+        // invoke method being tested
+        List<Vertex> vertices = query.getRootVertexPipeline().toList();
+
+        assertEquals(vertices, Collections.singletonList(vertex1));
+        verify(graph, graphQuery, vertex1);
+    }
+
+    @Test
+    public void testGetRootVertexPipeline_startsFromIndexedTerm() throws Exception {
+        final TitanGraph graph = createStrictMock(TitanGraph.class);
+        TitanGraphQuery graphQuery = createStrictMock(TitanGraphQuery.class);
+        ResourceDefinition resourceDefinition = createNiceMock(ResourceDefinition.class);
+        Vertex vertex1 = createStrictMock(Vertex.class);
+
+        // mock expectations
+        expect(resourceDefinition.getTypeName()).andReturn(null).anyTimes();
+        expect(resourceDefinition.getPropertyValueFormatters()).andReturn(
+                Collections.<String, PropertyValueFormatter>emptyMap()).anyTimes();
+        expect(graph.query()).andReturn(graphQuery);
+        // state isn't added to the root query, it is filtered by the not deleted pipe
+        expect(graphQuery.has(Constants.ENTITY_TYPE_PROPERTY_KEY, "hive_table")).andReturn(graphQuery);
+        expect(graphQuery.vertices()).andReturn(Collections.singletonList(vertex1));
+        replay(graph, graphQuery, resourceDefinition, vertex1);
+
+        QueryExpression expression = new TermQueryExpression(
+                new TermQuery(new Term("type", "hive_table")), resourceDefinition);
+        AtlasEntityQuery query = new AtlasEntityQuery(expression, resourceDefinition, createNiceMock(Request.class)) {
+            @Override
+            protected TitanGraph getGraph() {
+                return graph;
+            }
+
+            @Override
+            protected Collection<String> getIndexedPropertyNames() {
+                return Collections.singleton(Constants.ENTITY_TYPE_PROPERTY_KEY);
+            }
+        };
+
+        // invoke method being tested
+        List<Vertex> vertices = query.getRootVertexPipeline().toList();
+
+        assertEquals(vertices, Collections.singletonList(vertex1));
+        verify(graph, graphQuery, resourceDefinition, vertex1);
+    }
+
+    @Test
+    public void testGetIndexedPropertyNames_readOnce() throws Exception {
+        final TitanGraph graph = createStrictMock(TitanGraph.class);
+        TitanManagement management = createStrictMock(TitanManagement.class);
+        TitanGraphIndex index = createStrictMock(TitanGraphIndex.class);
+        PropertyKey key = createStrictMock(PropertyKey.class);
+
+        // the graph indexes are only read by the first call
+        expect(graph.getManagementSystem()).andReturn(management);
+        expect(management.getGraphIndexes(Vertex.class)).andReturn(Collections.singletonList(index));
+        expect(index.isCompositeIndex()).andReturn(true);
+        expect(index.getFieldKeys()).andReturn(new PropertyKey[] { key });
+        expect(key.getName()).andReturn(Constants.GUID_PROPERTY_KEY);
+        management.rollback();
+        replay(graph, management, index, key);
+
+        AtlasEntityQuery query = new AtlasEntityQuery(createNiceMock(QueryExpression.class),
+                createNiceMock(ResourceDefinition.class), createNiceMock(Request.class)) {
+            @Override
+            protected TitanGraph getGraph() {
+                return graph;
+            }
+        };
+
+        // invoke method being tested
+        assertEquals(query.getIndexedPropertyNames(), Collections.singleton(Constants.GUID_PROPERTY_KEY));
+        assertEquals(new HashSet<>(query.getIndexedPropertyNames()),
+                Collections.singleton(Constants.GUID_PROPERTY_KEY));
+
+        verify(graph, management, index, key);
+    }
+
     private class TestAtlasEntityQuery extends AtlasEntityQuery {
         private final GremlinPipeline initialPipeline;
         private final Pipe queryPipe;
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.catalog.query;
+
+import com.tinkerpop.blueprints.GraphQuery;
+import org.apache.atlas.catalog.PropertyMapper;
+import org.apache.atlas.catalog.PropertyValueFormatter;
+import org.apache.atlas.catalog.definition.ResourceDefinition;
+import org.apache.atlas.typesystem.types.AttributeDefinition;
+import org.apache.atlas.typesystem.types.DataTypes;
+import org.apache.atlas.typesystem.types.Multiplicity;
+import org.apache.atlas.typesystem.types.utils.TypesUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.TermQuery;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createStrictMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for TermQueryExpression.
+ */
+public class TermQueryExpressionTest {
+    private static final Collection<String> INDEXED_PROPERTIES = Collections.singleton("Taxonomy.name");
+
+    @Test
+    public void testEvaluate() {
+        ResourceDefinition resourceDefinition = createStrictMock(ResourceDefinition.class);
+        replay(resourceDefinition);
+
+        QueryExpression expression = new TermQueryExpression(
+                new TermQuery(new Term("name", "foo")), resourceDefinition);
+        assertTrue(expression.evaluate("foo"));
+        assertFalse(expression.evaluate("bar"));
+        assertTrue(expression.evaluate(Collections.singleton("foo")));
+        assertFalse(expression.evaluate((Object) null));
+        verify(resourceDefinition);
+    }
+
+    @Test
+    public void testPushDown() {
+        ResourceDefinition resourceDefinition = createResourceDefinition();
+        GraphQuery query = createStrictMock(GraphQuery.class);
+        GraphQuery narrowedQuery = createStrictMock(GraphQuery.class);
+        expect(query.has("Taxonomy.name", "foo")).andReturn(narrowedQuery);
+        replay(resourceDefinition, query, narrowedQuery);
+
+        TermQueryExpression expression = new TermQueryExpression(
+                new TermQuery(new Term("name", "foo")), resourceDefinition);
+        assertSame(expression.pushDown(query, INDEXED_PROPERTIES), narrowedQuery);
+        assertTrue(expression.isPushedDown());
+        // pushed down expressions aren't evaluated in memory
+        assertNull(expression.asPipe());
+        verify(resourceDefinition, query, narrowedQuery);
+    }
+
+    @Test
+    public void testPushDown_notPushed() {
+        ResourceDefinition resourceDefinition = createResourceDefinition();
+        GraphQuery query = createStrictMock(GraphQuery.class);
+        replay(resourceDefinition, query);
+
+        // value with a formatter
+        assertNotPushedDown(new TermQueryExpression(
+                new TermQuery(new Term("creation_time", "foo")), resourceDefinition), query);
+        // multi-valued property
+        assertNotPushedDown(new TermQueryExpression(
+                new TermQuery(new Term("tags", "foo")), resourceDefinition), query);
+        // property without a definition
+        assertNotPushedDown(new TermQueryExpression(
+                new TermQuery(new Term("other", "foo")), resourceDefinition), query);
+        // "null" matches vertices without the property
+        assertNotPushedDown(new TermQueryExpression(
+                new TermQuery(new Term("name", "null")), resourceDefinition), query);
+        // property without a composite index
+        assertSame(new TermQueryExpression(new TermQuery(new Term("name", "foo")), resourceDefinition).
+                pushDown(query, Collections.<String>emptySet()), query);
+        // negated expression
+        TermQueryExpression negatedExpression = new TermQueryExpression(
+                new TermQuery(new Term("name", "foo")), resourceDefinition);
+        negatedExpression.setNegate();
+        assertNotPushedDown(negatedExpression, query);
+        verify(resourceDefinition, query);
+    }
+
+    @Test
+    public void testPushDown_booleanExpression() {
+        ResourceDefinition resourceDefinition = createResourceDefinition();
+        GraphQuery query = createStrictMock(GraphQuery.class);
+        expect(query.has("Taxonomy.name", "foo")).andReturn(query);
+        replay(resourceDefinition, query);
+
+        BooleanQuery booleanQuery = new BooleanQuery();
+        booleanQuery.add(new TermQuery(new Term("name", "foo")), BooleanClause.Occur.MUST);
+        booleanQuery.add(new TermQuery(new Term("tags", "bar")), BooleanClause.Occur.MUST);
+
+        BooleanQueryExpression expression = new BooleanQueryExpression(
+                booleanQuery, resourceDefinition, new QueryFactory());
+        assertSame(expression.pushDown(query, INDEXED_PROPERTIES), query);
+        // only the multi-valued property is evaluated in memory
+        assertFalse(expression.isPushedDown());
+        assertNotNull(expression.asPipe());
+        assertTrue(expression.getProperties().contains("name"));
+        assertTrue(expression.getProperties().contains("tags"));
+        verify(resourceDefinition, query);
+    }
+
+    @Test
+    public void testPushDown_booleanExpressionWithShouldClause() {
+        ResourceDefinition resourceDefinition = createResourceDefinition();
+        GraphQuery query = createStrictMock(GraphQuery.class);
+        replay(resourceDefinition, query);
+
+        BooleanQuery booleanQuery = new BooleanQuery();
+        booleanQuery.add(new TermQuery(new Term("name", "foo")), BooleanClause.Occur.MUST);
+        booleanQuery.add(new TermQuery(new Term("name", "bar")), BooleanClause.Occur.SHOULD);
+
+        BooleanQueryExpression expression = new BooleanQueryExpression(
+                booleanQuery, resourceDefinition, new QueryFactory());
+        assertSame(expression.pushDown(query, INDEXED_PROPERTIES), query);
+        assertFalse(expression.isPushedDown());
+        verify(resourceDefinition, query);
+    }
+
+    private void assertNotPushedDown(TermQueryExpression expression, GraphQuery query) {
+        assertSame(expression.pushDown(query, INDEXED_PROPERTIES), query);
+        assertFalse(expression.isPushedDown());
+        assertNotNull(expression.asPipe());
+    }
+
+    private ResourceDefinition createResourceDefinition() {
+        ResourceDefinition resourceDefinition = createMock(ResourceDefinition.class);
+        PropertyMapper propertyMapper = createMock(PropertyMapper.class);
+        PropertyValueFormatter formatter = createMock(PropertyValueFormatter.class);
+
+        Collection<AttributeDefinition> propertyDefinitions = new ArrayList<>();
+        propertyDefinitions.add(TypesUtil.createUniqueRequiredAttrDef("name", DataTypes.STRING_TYPE));
+        propertyDefinitions.add(TypesUtil.createOptionalAttrDef("creation_time", DataTypes.STRING_TYPE));
+        propertyDefinitions.add(new AttributeDefinition("tags", DataTypes.arrayTypeName(DataTypes.STRING_TYPE),
+                Multiplicity.COLLECTION, false, null));
+        Map<String, PropertyValueFormatter> formatters = new HashMap<>();
+        formatters.put("creation_time", formatter);
+
+        expect(resourceDefinition.getTypeName()).andReturn("Taxonomy").anyTimes();
+        expect(resourceDefinition.getPropertyValueFormatters()).andReturn(formatters).anyTimes();
+        expect(resourceDefinition.getPropertyDefinitions()).andReturn(propertyDefinitions).anyTimes();
+        expect(resourceDefinition.getPropertyMapper()).andReturn(propertyMapper).anyTimes();
+        expect(propertyMapper.toFullyQualifiedName("name", "Taxonomy")).andReturn("Taxonomy.name").anyTimes();
+        replay(propertyMapper, formatter);
+        return resourceDefinition;
+    }
+}
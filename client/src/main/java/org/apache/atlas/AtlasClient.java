@@ -77,6 +77,7 @@ public class AtlasClient {
     public static final String ENTITIES = "entities";
 
     public static final String DEFINITION = "definition";
+    public static final String DEFINITIONS = "definitions";
     public static final String ERROR = "error";
     public static final String STACKTRACE = "stackTrace";
     public static final String REQUEST_ID = "requestId";
@@ -963,6 +964,36 @@ public class AtlasClient {
         }
     }
 
+    /**
+     * Get the entities of a type with the given values of a unique attribute, in one call
+     * @param entityType entity type name
+     * @param attribute unique attribute of the type
+     * @param values attribute values; values that no entity has are skipped
+     * @return the entities found
+     * @throws AtlasServiceException
+     */
+    public List<Referenceable> getEntities(final String entityType, final String attribute,
+                                           final Collection<String> values) throws AtlasServiceException {
+        JSONObject jsonResponse = callAPIWithRetries(API.GET_ENTITY, null, new ResourceCreator() {
+            @Override
+            public WebResource createResource() {
+                WebResource resource = getResource(API.GET_ENTITY, "qualifiedName");
+                resource = resource.queryParam(TYPE, entityType);
+                resource = resource.queryParam(ATTRIBUTE_NAME, attribute);
+                for (String value : values) {
+                    resource = resource.queryParam(ATTRIBUTE_VALUE, value);
+                }
+                return resource;
+            }
+        });
+        return extractResults(jsonResponse, DEFINITIONS, new ExtractOperation<Referenceable, JSONObject>() {
+            @Override
+            Referenceable extractElement(JSONObject element) throws JSONException {
+                return InstanceSerialization.fromJsonReferenceable(element.toString(), true);
+            }
+        });
+    }
+
     /**
      * List entities for a given entity type
      * @param entityType
@@ -1133,6 +1164,10 @@ public class AtlasClient {
             }
         });
         try {
+            // rows that fail to convert after the response has started are reported in it, instead of its status
+            if (result.has(ERROR)) {
+                throw new AtlasServiceException(API.SEARCH_DSL, new AtlasException(result.getString(ERROR)));
+            }
             return result.getJSONArray(RESULTS);
         } catch (JSONException e) {
             throw new AtlasServiceException(e);
@@ -52,6 +52,12 @@ public final class HAConfiguration {
     public static final int DEFAULT_ZOOKEEPER_SESSION_TIMEOUT_MILLIS = 20000;
     public static final String HA_ZOOKEEPER_ACL = ATLAS_SERVER_HA_PREFIX + ZOOKEEPER_PREFIX + "acl";
     public static final String HA_ZOOKEEPER_AUTH = ATLAS_SERVER_HA_PREFIX + ZOOKEEPER_PREFIX + "auth";
+    public static final String ATLAS_SERVER_HA_WARM_STANDBY_ENABLED_KEY =
+            ATLAS_SERVER_HA_PREFIX + "warmstandby.enabled";
+    public static final boolean DEFAULT_WARM_STANDBY_ENABLED = true;
+    public static final String ATLAS_SERVER_HA_WARM_STANDBY_INTERVAL_MS =
+            ATLAS_SERVER_HA_PREFIX + "warmstandby.refresh.interval.ms";
+    public static final long DEFAULT_WARM_STANDBY_INTERVAL_MILLIS = 60000;
 
     /**
      * Return whether HA is enabled or not.
@@ -72,6 +78,15 @@ public final class HAConfiguration {
         return ret;
     }
 
+    /**
+     * Return whether a passive instance should keep its state warm for a fast failover.
+     * @param configuration underlying configuration instance
+     * @return
+     */
+    public static boolean isWarmStandbyEnabled(Configuration configuration) {
+        return configuration.getBoolean(ATLAS_SERVER_HA_WARM_STANDBY_ENABLED_KEY, DEFAULT_WARM_STANDBY_ENABLED);
+    }
+
     /**
      * Get the web server address that a server instance with the passed ID is bound to.
      *
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.metrics;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The timers, counters and gauges of the server, by name. Each of them is also registered with JMX as
+ * org.apache.atlas:type=Metrics,name=<i>name</i>.
+ *
+ * Metrics are enabled unless atlas.metrics.enabled is false. When they are disabled, {@link #timer(String)} and
+ * {@link #counter(String)} return null, so that callers can skip measuring.
+ */
+public final class MetricsRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    public static final String METRICS_ENABLED_PROPERTY = "atlas.metrics.enabled";
+
+    private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+
+    private static volatile Boolean enabled;
+
+    private MetricsRegistry() {
+    }
+
+    public static boolean isEnabled() {
+        Boolean ret = enabled;
+        if (ret == null) {
+            try {
+                ret = ApplicationProperties.get().getBoolean(METRICS_ENABLED_PROPERTY, true);
+            } catch (AtlasException e) {
+                LOG.warn("Failed to read {}, metrics are enabled", METRICS_ENABLED_PROPERTY, e);
+                ret = true;
+            }
+            enabled = ret;
+        }
+        return ret;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        MetricsRegistry.enabled = enabled;
+    }
+
+    /**
+     * @return the timer with the given name, created if needed, or null if metrics are disabled
+     */
+    public static Timer timer(String name) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Timer ret = TIMERS.get(name);
+        if (ret == null) {
+            Timer timer = new Timer(name);
+            ret = TIMERS.putIfAbsent(name, timer);
+            if (ret == null) {
+                ret = timer;
+                register(name, timer);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return the counter with the given name, created if needed, or null if metrics are disabled
+     */
+    public static Counter counter(String name) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Counter ret = COUNTERS.get(name);
+        if (ret == null) {
+            Counter counter = new Counter(name);
+            ret = COUNTERS.putIfAbsent(name, counter);
+            if (ret == null) {
+                ret = counter;
+                register(name, counter);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Adds a gauge, replacing any gauge with the same name.
+     */
+    public static void gauge(String name, Gauge gauge) {
+        if (!isEnabled()) {
+            return;
+        }
+        GAUGES.put(name, gauge);
+        register(name, new StandardMBean(gauge, Gauge.class, false));
+    }
+
+    public static Map<String, Timer> getTimers() {
+        return Collections.unmodifiableMap(new TreeMap<>(TIMERS));
+    }
+
+    public static Map<String, Counter> getCounters() {
+        return Collections.unmodifiableMap(new TreeMap<>(COUNTERS));
+    }
+
+    public static Map<String, Gauge> getGauges() {
+        return Collections.unmodifiableMap(new TreeMap<>(GAUGES));
+    }
+
+    private static void register(String name, Object mBean) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.apache.atlas:type=Metrics,name=" + quote(name));
+
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+
+            mBeanServer.registerMBean(mBean, objectName);
+        } catch (Exception e) {
+            LOG.warn("Failed to register JMX bean for metric {}", name, e);
+        }
+    }
+
+    private static String quote(String name) {
+        for (char c : ",=:\"*?\n".toCharArray()) {
+            if (name.indexOf(c) >= 0) {
+                return ObjectName.quote(name);
+            }
+        }
+        return name;
+    }
+}
@@ -69,6 +69,12 @@ public final class Constants {
     public static final String MODIFICATION_TIMESTAMP_PROPERTY_KEY =
         INTERNAL_PROPERTY_KEY_PREFIX + "modificationTimestamp";
 
+    /**
+     * Orders the modifications made by a request, which all have the request time as modification timestamp.
+     */
+    public static final String MODIFICATION_SEQUENCE_PROPERTY_KEY =
+        INTERNAL_PROPERTY_KEY_PREFIX + "modificationSequence";
+
     /**
      * search backing index name.
      */
@@ -17,17 +17,23 @@
  */
 package org.apache.atlas.utils;
 
+import org.apache.atlas.metrics.MetricsRegistry;
+import org.apache.atlas.metrics.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
 
 /**
- * Handles logging of performance measurements.
+ * Handles performance measurements. Each measurement is recorded in the {@link MetricsRegistry} timer named after the
+ * tag up to its first '(', and logged to the perf logger when it has debug enabled.
  */
 public final class AtlasPerfTracer {
     protected final Logger logger;
     protected final String tag;
     private   final long   startTimeMs;
+    private   final long   startTimeNs;
 
     private static long reportingThresholdMs = 0L;
 
@@ -40,7 +46,7 @@ public final class AtlasPerfTracer {
     }
 
     public static boolean isPerfTraceEnabled(Logger logger) {
-        return logger.isDebugEnabled();
+        return MetricsRegistry.isEnabled() || logger.isDebugEnabled();
     }
 
     public static AtlasPerfTracer getPerfTracer(Logger logger, String tag) {
@@ -57,6 +63,7 @@ public final class AtlasPerfTracer {
         this.logger = logger;
         this.tag    = tag;
         startTimeMs = System.currentTimeMillis();
+        startTimeNs = System.nanoTime();
     }
 
     public String getTag() {
@@ -68,13 +75,33 @@ public final class AtlasPerfTracer {
     }
 
     public long getElapsedTime() {
-        return System.currentTimeMillis() - startTimeMs;
+        return TimeUnit.NANOSECONDS.toMillis(getElapsedTimeNs());
+    }
+
+    public long getElapsedTimeNs() {
+        return System.nanoTime() - startTimeNs;
     }
 
     public void log() {
-        long elapsedTime = getElapsedTime();
-        if (elapsedTime > reportingThresholdMs) {
+        long elapsedTimeNs = getElapsedTimeNs();
+
+        Timer timer = MetricsRegistry.timer(getMetricName(tag));
+        if (timer != null) {
+            timer.update(elapsedTimeNs, TimeUnit.NANOSECONDS);
+        }
+
+        long elapsedTime = TimeUnit.NANOSECONDS.toMillis(elapsedTimeNs);
+        if (elapsedTime > reportingThresholdMs && logger.isDebugEnabled()) {
             logger.debug("PERF|" + tag + "|" + elapsedTime);
         }
     }
+
+    /**
+     * @return the tag without its arguments, such as EntityResource.getEntityDefinition for
+     * EntityResource.getEntityDefinition(guid)
+     */
+    static String getMetricName(String tag) {
+        int index = tag.indexOf('(');
+        return index < 0 ? tag : tag.substring(0, index);
+    }
 }
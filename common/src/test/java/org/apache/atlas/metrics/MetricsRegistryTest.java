@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.metrics;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @AfterMethod
+    public void cleanup() {
+        MetricsRegistry.setEnabled(true);
+    }
+
+    @Test
+    public void testBucketsCoverValues() {
+        for (long value = 0; value < 1L << 42; value = value * 3 / 2 + 1) {
+            long estimate = Timer.value(Timer.bucket(value));
+            assertTrue(Math.abs(estimate - value) <= value / 64 + 1, value + " estimated as " + estimate);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        Timer timer = MetricsRegistry.timer("MetricsRegistryTest.percentiles");
+        Random random = new Random(42);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000 + random.nextInt(10000000);
+            timer.update(values[i], TimeUnit.NANOSECONDS);
+        }
+        Arrays.sort(values);
+
+        assertEquals(timer.getCount(), values.length);
+        for (double percentile : new double[] { 50, 95, 99, 99.9 }) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = timer.getPercentile(percentile);
+            assertTrue(Math.abs(actual - expected) <= expected / 50, "p" + percentile + " " + actual + " " + expected);
+        }
+        assertEquals(timer.getMaxMs(), values[values.length - 1] / 1e6);
+    }
+
+    @Test
+    public void testMetricsAreSharedByName() {
+        assertSame(MetricsRegistry.timer("MetricsRegistryTest.shared"),
+                MetricsRegistry.timer("MetricsRegistryTest.shared"));
+
+        Counter counter = MetricsRegistry.counter("MetricsRegistryTest.counter");
+        counter.inc();
+        MetricsRegistry.counter("MetricsRegistryTest.counter").inc(2);
+        assertEquals(counter.getCount(), 3);
+
+        MetricsRegistry.gauge("MetricsRegistryTest.gauge", new Gauge() {
+            @Override
+            public long getValue() {
+                return 7;
+            }
+        });
+        assertEquals(MetricsRegistry.getGauges().get("MetricsRegistryTest.gauge").getValue(), 7);
+    }
+
+    @Test
+    public void testDisabledMetrics() {
+        MetricsRegistry.setEnabled(false);
+        assertNull(MetricsRegistry.timer("MetricsRegistryTest.disabled"));
+        assertNull(MetricsRegistry.counter("MetricsRegistryTest.disabled"));
+    }
+}
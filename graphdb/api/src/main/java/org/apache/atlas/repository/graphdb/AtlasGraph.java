@@ -251,6 +251,16 @@ public interface AtlasGraph<V, E> {
      */
     String getOutputTransformationPredicate(boolean isSelect, boolean isPath);
 
+    /**
+     * Gets a step which, appended to a gremlin pipeline, calls the given static method with the number of
+     * graph elements in each row while the rows are read.  This allows query budgets to be enforced before
+     * the whole result has been materialized.  Implementations that can't provide such a step should
+     * return an empty String.
+     *
+     * @param listenerMethod fully qualified name of a static method which accepts a long
+     */
+    String getRowListenerPredicate(String listenerMethod);
+
     /**
      * Executes a Gremlin script, returns an object with the result.
      *
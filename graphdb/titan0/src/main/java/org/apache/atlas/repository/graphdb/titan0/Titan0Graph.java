@@ -48,6 +48,7 @@ import org.apache.atlas.utils.IteratorToIterableAdapter;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.thinkaurelius.titan.core.Cardinality;
 import com.thinkaurelius.titan.core.PropertyKey;
@@ -223,6 +224,14 @@ public class Titan0Graph implements AtlasGraph<Titan0Vertex, Titan0Edge> {
             });
         } else if (rawValue instanceof Collection) {
             throw new UnsupportedOperationException("Unhandled collection type: " + rawValue.getClass());
+        } else if (rawValue instanceof Iterator) {
+            // a pipeline that has not been iterated yet; leave it lazy so that callers can stop early
+            return Iterators.transform((Iterator)rawValue, new Function<Object, Object>() {
+                @Override
+                public Object apply(Object input) {
+                    return convertGremlinValue(input);
+                }
+            });
         }
         return rawValue;
     }
@@ -313,6 +322,32 @@ public class Titan0Graph implements AtlasGraph<Titan0Vertex, Titan0Edge> {
         return "";
     }
 
+    @Override
+    public String getRowListenerPredicate(String listenerMethod) {
+        return ".sideEffect{" + listenerMethod + "(" + Titan0Graph.class.getName() + ".countElements(it))}";
+    }
+
+    /**
+     * Counts the vertices and edges in a raw gremlin result row, including those nested in maps and lists.
+     */
+    public static long countElements(Object value) {
+        if (value instanceof Element) {
+            return 1;
+        }
+
+        long count = 0;
+        if (value instanceof Map) {
+            for (Object entry : ((Map<?, ?>) value).values()) {
+                count += countElements(entry);
+            }
+        } else if (value instanceof Collection) {
+            for (Object entry : (Collection<?>) value) {
+                count += countElements(entry);
+            }
+        }
+        return count;
+    }
+
     public Iterable<AtlasEdge<Titan0Vertex, Titan0Edge>> wrapEdges(Iterator<Edge> it) {
 
         Iterable<Edge> iterable = new IteratorToIterableAdapter<Edge>(it);
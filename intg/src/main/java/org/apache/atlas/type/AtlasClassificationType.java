@@ -44,6 +44,7 @@ public class AtlasClassificationType extends AtlasStructType {
 
     private List<AtlasClassificationType> superTypes    = Collections.emptyList();
     private Set<String>                   allSuperTypes = Collections.emptySet();
+    private Set<String>                   allSubTypes   = Collections.emptySet();
 
     public AtlasClassificationType(AtlasClassificationDef classificationDef) {
         super(classificationDef, TypeCategory.CLASSIFICATION);
@@ -88,6 +89,16 @@ public class AtlasClassificationType extends AtlasStructType {
 
     public Set<String> getAllSuperTypes() { return allSuperTypes; }
 
+    /**
+     * @return names of all types that have this type as a direct or indirect supertype; populated by the type registry
+     */
+    public Set<String> getAllSubTypes() { return allSubTypes; }
+
+    void setAllSubTypes(Set<String> allSubTypes) {
+        this.allSubTypes = allSubTypes != null ? Collections.unmodifiableSet(allSubTypes)
+                                               : Collections.<String>emptySet();
+    }
+
     public boolean isSuperTypeOf(AtlasClassificationType classificationType) {
         return classificationType != null ? classificationType.getAllSuperTypes().contains(this.getTypeName()) : false;
     }
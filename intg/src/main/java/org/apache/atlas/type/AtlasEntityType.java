@@ -43,6 +43,7 @@ public class AtlasEntityType extends AtlasStructType {
 
     private List<AtlasEntityType> superTypes    = Collections.emptyList();
     private Set<String>           allSuperTypes = Collections.emptySet();
+    private Set<String>           allSubTypes   = Collections.emptySet();
 
     public AtlasEntityType(AtlasEntityDef entityDef) {
         super(entityDef, TypeCategory.ENTITY);
@@ -88,6 +89,18 @@ public class AtlasEntityType extends AtlasStructType {
         return allSuperTypes;
     }
 
+    /**
+     * @return names of all types that have this type as a direct or indirect supertype; populated by the type registry
+     */
+    public Set<String> getAllSubTypes() {
+        return allSubTypes;
+    }
+
+    void setAllSubTypes(Set<String> allSubTypes) {
+        this.allSubTypes = allSubTypes != null ? Collections.unmodifiableSet(allSubTypes)
+                                               : Collections.<String>emptySet();
+    }
+
     public boolean isSuperTypeOf(AtlasEntityType entityType) {
         return entityType != null ? entityType.getAllSuperTypes().contains(this.getTypeName()) : false;
     }
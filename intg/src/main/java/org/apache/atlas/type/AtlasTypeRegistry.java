@@ -39,17 +39,27 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * registry for all types defined in Atlas.
+ *
+ * Types are updated through an AtlasTransientTypeRegistry, which works on its own copy of the types and is published
+ * with a single reference swap on commit. Readers never see partially resolved types and do not need to lock.
  */
 @Singleton
 public class AtlasTypeRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasStructType.class);
 
-    protected RegistryData registryData;
+    protected volatile RegistryData registryData;
+
+    private final AtomicLong version      = new AtomicLong();
+    private volatile long    lastModified = System.currentTimeMillis();
 
     public AtlasTypeRegistry() {
         registryData = new RegistryData();
@@ -66,7 +76,12 @@ public class AtlasTypeRegistry {
             LOG.debug("==> AtlasTypeRegistry.getType({})", typeName);
         }
 
-        AtlasType ret = registryData.allTypes.getTypeByName(typeName);
+        RegistryData data = registryData;
+        AtlasType    ret  = data.allTypes.getTypeByName(typeName);
+
+        if (ret == null) {
+            ret = data.allTypes.getCollectionType(typeName);
+        }
 
         if (ret == null) {
             if (typeName.startsWith(ATLAS_TYPE_ARRAY_PREFIX) && typeName.endsWith(ATLAS_TYPE_ARRAY_SUFFIX)) {
@@ -157,10 +172,32 @@ public class AtlasTypeRegistry {
         return new AtlasTransientTypeRegistry(this);
     }
 
-    public void commitTransientTypeRegistry(AtlasTransientTypeRegistry transientTypeRegistry) {
+    /**
+     * @throws AtlasBaseException if the types of the transient registry can't be resolved, in which case this
+     * registry is left unchanged
+     */
+    public void commitTransientTypeRegistry(AtlasTransientTypeRegistry transientTypeRegistry)
+        throws AtlasBaseException {
+        if (!transientTypeRegistry.isResolved()) {
+            transientTypeRegistry.resolveReferences();
+        }
+
         this.registryData = transientTypeRegistry.registryData;
+        this.lastModified = System.currentTimeMillis();
+
+        version.incrementAndGet();
     }
 
+    /**
+     * @return a number that is incremented whenever a transient type registry is committed to this registry
+     */
+    public long getVersion() { return version.get(); }
+
+    /**
+     * @return the time types were last committed to this registry, or the time it was created
+     */
+    public long getLastModified() { return lastModified; }
+
     static class RegistryData {
         final TypeCache                            allTypes;
         final TypeDefCache<AtlasEnumDef>           enumDefs;
@@ -189,12 +226,32 @@ public class AtlasTypeRegistry {
             allTypes.addType(new AtlasBuiltInTypes.AtlasObjectIdType());
         }
 
+        /*
+         * Types of the copy are created afresh from the type-defs, so that resolving references in the copy does not
+         * modify the types visible through the other instance.
+         */
         RegistryData(RegistryData other) {
             allTypes           = new TypeCache(other.allTypes);
             enumDefs           = new TypeDefCache<>(other.enumDefs, allTypes);
             structDefs         = new TypeDefCache<>(other.structDefs, allTypes);
             classificationDefs = new TypeDefCache<>(other.classificationDefs, allTypes);
             entityDefs         = new TypeDefCache<>(other.entityDefs, allTypes);
+
+            for (AtlasEnumDef enumDef : other.enumDefs.getAll()) {
+                enumDefs.addType(enumDef, new AtlasEnumType(enumDef));
+            }
+
+            for (AtlasStructDef structDef : other.structDefs.getAll()) {
+                structDefs.addType(structDef, new AtlasStructType(structDef));
+            }
+
+            for (AtlasClassificationDef classificationDef : other.classificationDefs.getAll()) {
+                classificationDefs.addType(classificationDef, new AtlasClassificationType(classificationDef));
+            }
+
+            for (AtlasEntityDef entityDef : other.entityDefs.getAll()) {
+                entityDefs.addType(entityDef, new AtlasEntityType(entityDef));
+            }
         }
 
         void updateGuid(String typeName, String guid) {
@@ -227,14 +284,78 @@ public class AtlasTypeRegistry {
 
     public static class AtlasTransientTypeRegistry extends AtlasTypeRegistry {
 
+        private boolean resolved = false;
+
         private AtlasTransientTypeRegistry(AtlasTypeRegistry parent) {
             super(parent);
         }
 
+        /*
+         * array/map types referenced while resolving are interned in the registry, so that lookups of these
+         * types after commit do not have to create them.
+         */
+        @Override
+        public AtlasType getType(String typeName) throws AtlasBaseException {
+            AtlasType ret = super.getType(typeName);
+
+            if (ret instanceof AtlasArrayType || ret instanceof AtlasMapType) {
+                registryData.allTypes.addCollectionType(ret);
+            }
+
+            return ret;
+        }
+
+        boolean isResolved() { return resolved; }
+
         private void resolveReferences() throws AtlasBaseException {
+            resolved = false;
+
+            registryData.allTypes.clearCollectionTypes();
+
             for (AtlasType type : registryData.allTypes.getAllTypes()) {
                 type.resolveReferences(this);
             }
+
+            resolveSubTypes();
+
+            resolved = true;
+        }
+
+        private void resolveSubTypes() {
+            Map<String, Set<String>> entitySubTypes         = new HashMap<>();
+            Map<String, Set<String>> classificationSubTypes = new HashMap<>();
+
+            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+                if (type instanceof AtlasEntityType) {
+                    for (String superTypeName : ((AtlasEntityType) type).getAllSuperTypes()) {
+                        addSubType(entitySubTypes, superTypeName, type.getTypeName());
+                    }
+                } else if (type instanceof AtlasClassificationType) {
+                    for (String superTypeName : ((AtlasClassificationType) type).getAllSuperTypes()) {
+                        addSubType(classificationSubTypes, superTypeName, type.getTypeName());
+                    }
+                }
+            }
+
+            for (AtlasType type : registryData.allTypes.getAllTypes()) {
+                if (type instanceof AtlasEntityType) {
+                    ((AtlasEntityType) type).setAllSubTypes(entitySubTypes.get(type.getTypeName()));
+                } else if (type instanceof AtlasClassificationType) {
+                    ((AtlasClassificationType) type).setAllSubTypes(classificationSubTypes.get(type.getTypeName()));
+                }
+            }
+        }
+
+        private static void addSubType(Map<String, Set<String>> subTypesMap, String superTypeName, String typeName) {
+            Set<String> subTypes = subTypesMap.get(superTypeName);
+
+            if (subTypes == null) {
+                subTypes = new HashSet<>();
+
+                subTypesMap.put(superTypeName, subTypes);
+            }
+
+            subTypes.add(typeName);
         }
 
         public void addType(AtlasBaseTypeDef typeDef) throws AtlasBaseException {
@@ -260,7 +381,6 @@ public class AtlasTypeRegistry {
 
             registryData.updateGuid(typeName, guid);
 
-
             if (LOG.isDebugEnabled()) {
                 LOG.debug("<== AtlasTypeRegistry.updateGuid({}, {})", typeName, guid);
             }
@@ -577,15 +697,18 @@ public class AtlasTypeRegistry {
 class TypeCache {
     private final Map<String, AtlasType> typeGuidMap;
     private final Map<String, AtlasType> typeNameMap;
+    private final Map<String, AtlasType> collectionTypeMap;
 
     public TypeCache() {
-        typeGuidMap = new ConcurrentHashMap<>();
-        typeNameMap = new ConcurrentHashMap<>();
+        typeGuidMap       = new ConcurrentHashMap<>();
+        typeNameMap       = new ConcurrentHashMap<>();
+        collectionTypeMap = new ConcurrentHashMap<>();
     }
 
     public TypeCache(TypeCache other) {
-        typeGuidMap = new ConcurrentHashMap<>(other.typeGuidMap);
-        typeNameMap = new ConcurrentHashMap<>(other.typeNameMap);
+        typeGuidMap       = new ConcurrentHashMap<>(other.typeGuidMap);
+        typeNameMap       = new ConcurrentHashMap<>(other.typeNameMap);
+        collectionTypeMap = new ConcurrentHashMap<>();
     }
 
     public void addType(AtlasType type) {
@@ -608,6 +731,22 @@ class TypeCache {
         }
     }
 
+    public void addCollectionType(AtlasType type) {
+        if (type != null && StringUtils.isNotEmpty(type.getTypeName())) {
+            collectionTypeMap.put(type.getTypeName(), type);
+        }
+    }
+
+    public AtlasType getCollectionType(String name) {
+        AtlasType ret = name != null ? collectionTypeMap.get(name) : null;
+
+        return ret;
+    }
+
+    public void clearCollectionTypes() {
+        collectionTypeMap.clear();
+    }
+
     public Collection<String> getAllTypeNames() {
         return Collections.unmodifiableCollection(typeNameMap.keySet());
     }
@@ -650,7 +789,7 @@ class TypeCache {
 
     public void removeTypeByName(String name) {
         if (name != null) {
-            typeNameMap.get(name);
+            typeNameMap.remove(name);
         }
     }
 }
@@ -21,12 +21,22 @@ package org.apache.atlas.type;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.typedef.AtlasClassificationDef;
 import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 
 public class TestAtlasTypeRegistry {
 
@@ -267,4 +277,114 @@ public class TestAtlasTypeRegistry {
         }
         assertNotNull(failureMsg, "expected invalid supertype failure");
     }
+
+    @Test
+    public void testEntityDefSubTypes() throws AtlasBaseException {
+        AtlasEntityDef entL0   = new AtlasEntityDef("L0");
+        AtlasEntityDef entL1_1 = new AtlasEntityDef("L1-1");
+        AtlasEntityDef entL1_2 = new AtlasEntityDef("L1-2");
+        AtlasEntityDef entL2_3 = new AtlasEntityDef("L2-3");
+
+        entL1_1.addSuperType(entL0.getName());
+        entL1_2.addSuperType(entL0.getName());
+        entL2_3.addSuperType(entL1_1.getName());
+        entL2_3.addSuperType(entL1_2.getName());
+
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.getEntityDefs().add(entL0);
+        typesDef.getEntityDefs().add(entL1_1);
+        typesDef.getEntityDefs().add(entL1_2);
+        typesDef.getEntityDefs().add(entL2_3);
+
+        AtlasTypeRegistry          typeRegistry = new AtlasTypeRegistry();
+        AtlasTransientTypeRegistry ttr          = typeRegistry.createTransientTypeRegistry();
+
+        ttr.addTypes(typesDef);
+        typeRegistry.commitTransientTypeRegistry(ttr);
+
+        AtlasEntityType typeL0   = (AtlasEntityType) typeRegistry.getType("L0");
+        AtlasEntityType typeL1_1 = (AtlasEntityType) typeRegistry.getType("L1-1");
+        AtlasEntityType typeL2_3 = (AtlasEntityType) typeRegistry.getType("L2-3");
+
+        assertEquals(typeL0.getAllSubTypes(), new HashSet<>(Arrays.asList("L1-1", "L1-2", "L2-3")));
+        assertEquals(typeL1_1.getAllSubTypes(), Collections.singleton("L2-3"));
+        assertTrue(typeL2_3.getAllSubTypes().isEmpty());
+    }
+
+    @Test
+    public void testCollectionTypesAreInterned() throws AtlasBaseException {
+        AtlasEntityDef entDef = new AtlasEntityDef("entWithCollections");
+
+        entDef.addAttribute(new AtlasAttributeDef("names", "array<string>"));
+        entDef.addAttribute(new AtlasAttributeDef("props", "map<string,int>"));
+
+        AtlasTypeRegistry          typeRegistry = new AtlasTypeRegistry();
+        AtlasTransientTypeRegistry ttr          = typeRegistry.createTransientTypeRegistry();
+
+        ttr.addType(entDef);
+        typeRegistry.commitTransientTypeRegistry(ttr);
+
+        assertSame(typeRegistry.getType("array<string>"), typeRegistry.getType("array<string>"));
+        assertSame(typeRegistry.getType("map<string,int>"), typeRegistry.getType("map<string,int>"));
+        assertNotSame(typeRegistry.getType("array<int>"), typeRegistry.getType("array<int>"));
+        assertTrue(!typeRegistry.getAllTypeNames().contains("array<string>"));
+    }
+
+    @Test
+    public void testTransientRegistryDoesNotModifyCommittedTypes() throws AtlasBaseException {
+        AtlasEntityDef entL0 = new AtlasEntityDef("base");
+
+        AtlasTypeRegistry          typeRegistry = new AtlasTypeRegistry();
+        AtlasTransientTypeRegistry ttr          = typeRegistry.createTransientTypeRegistry();
+
+        ttr.addType(entL0);
+        typeRegistry.commitTransientTypeRegistry(ttr);
+
+        AtlasEntityType committedType = (AtlasEntityType) typeRegistry.getType("base");
+
+        AtlasEntityDef entL1 = new AtlasEntityDef("derived");
+
+        entL1.addSuperType(entL0.getName());
+
+        ttr = typeRegistry.createTransientTypeRegistry();
+        ttr.addType(entL1);
+
+        assertTrue(committedType.getAllSubTypes().isEmpty());
+        assertNull(typeRegistry.getEntityDefByName("derived"));
+
+        typeRegistry.commitTransientTypeRegistry(ttr);
+
+        AtlasEntityType currentType = (AtlasEntityType) typeRegistry.getType("base");
+
+        assertNotSame(currentType, committedType);
+        assertEquals(currentType.getAllSubTypes(), Collections.singleton("derived"));
+    }
+
+    @Test
+    public void testUnresolvedTypesAreNotCommitted() throws AtlasBaseException {
+        AtlasEntityDef entDef = new AtlasEntityDef("entWithUnknownAttribute");
+
+        entDef.addAttribute(new AtlasAttributeDef("unknown", "unknownType"));
+
+        AtlasTypeRegistry          typeRegistry = new AtlasTypeRegistry();
+        AtlasTransientTypeRegistry ttr          = typeRegistry.createTransientTypeRegistry();
+
+        try {
+            ttr.addType(entDef);
+            fail("expected the unknown attribute type to fail resolution");
+        } catch (AtlasBaseException excp) {
+            // the caller may still try to commit
+        }
+
+        long version = typeRegistry.getVersion();
+
+        try {
+            typeRegistry.commitTransientTypeRegistry(ttr);
+            fail("expected the commit to fail");
+        } catch (AtlasBaseException excp) {
+            assertNull(typeRegistry.getEntityDefByName("entWithUnknownAttribute"));
+            assertEquals(typeRegistry.getVersion(), version);
+        }
+    }
 }
@@ -55,6 +55,7 @@ public abstract class AtlasHook {
     private static boolean logFailedMessages;
     private static FailedMessagesLogger failedMessagesLogger;
     private static int notificationRetryInterval;
+    private static EntityFingerprintCache fingerprintCache;
     public static final String ATLAS_NOTIFICATION_RETRY_INTERVAL = "atlas.notification.hook.retry.interval";
 
     public static final String ATLAS_NOTIFICATION_FAILED_MESSAGES_FILENAME_KEY =
@@ -79,6 +80,7 @@ public abstract class AtlasHook {
         }
 
         notificationRetryInterval = atlasProperties.getInt(ATLAS_NOTIFICATION_RETRY_INTERVAL, 1000);
+        fingerprintCache = EntityFingerprintCache.create(atlasProperties);
         Injector injector = Guice.createInjector(new NotificationModule());
         notifInterface = injector.getInstance(NotificationInterface.class);
 
@@ -105,29 +107,53 @@ public abstract class AtlasHook {
      * Notify atlas of the entity through message. The entity can be a
      * complex entity with reference to other entities.
      * De-duping of entities is done on server side depending on the
-     * unique attribute on the entities.
+     * unique attribute on the entities. If enabled, entities that haven't
+     * changed since they were last sent are sent as references to them.
      *
      * @param messages hook notification messages
      * @param maxRetries maximum number of retries while sending message to messaging system
      */
     public static void notifyEntities(List<HookNotification.HookNotificationMessage> messages, int maxRetries) {
-        notifyEntitiesInternal(messages, maxRetries, notifInterface, logFailedMessages, failedMessagesLogger);
+        notifyEntitiesInternal(messages, maxRetries, notifInterface, logFailedMessages, failedMessagesLogger,
+                fingerprintCache);
     }
 
     @VisibleForTesting
     static void notifyEntitiesInternal(List<HookNotification.HookNotificationMessage> messages, int maxRetries,
                                        NotificationInterface notificationInterface,
-                                       boolean shouldLogFailedMessages, FailedMessagesLogger logger) {
-        if (messages == null || messages.isEmpty()) {
+                                       boolean shouldLogFailedMessages, FailedMessagesLogger logger,
+                                       EntityFingerprintCache cache) {
+        if (cache == null || messages == null || messages.isEmpty()) {
+            notifyEntitiesInternal(messages, maxRetries, notificationInterface, shouldLogFailedMessages, logger);
             return;
         }
 
+        EntityFingerprintCache.Outgoing outgoing = cache.prepare(messages);
+        if (notifyEntitiesInternal(outgoing.getMessages(), maxRetries, notificationInterface,
+                shouldLogFailedMessages, logger)) {
+            cache.sent(outgoing);
+        } else {
+            cache.failed(outgoing);
+        }
+    }
+
+    /**
+     * @return true if the messages were sent
+     */
+    @VisibleForTesting
+    static boolean notifyEntitiesInternal(List<HookNotification.HookNotificationMessage> messages, int maxRetries,
+                                          NotificationInterface notificationInterface,
+                                          boolean shouldLogFailedMessages, FailedMessagesLogger logger) {
+        if (messages == null || messages.isEmpty()) {
+            return true;
+        }
+
         final String message = messages.toString();
         int numRetries = 0;
         while (true) {
             try {
                 notificationInterface.send(NotificationInterface.NotificationType.HOOK, messages);
-                return;
+                return true;
             } catch (Exception e) {
                 numRetries++;
                 if (numRetries < maxRetries) {
@@ -148,7 +174,7 @@ public abstract class AtlasHook {
                     }
                     LOG.error("Failed to notify atlas for entity {} after {} retries. Quitting",
                             message, maxRetries, e);
-                    return;
+                    return false;
                 }
             }
         }
@@ -0,0 +1,379 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hook;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.typesystem.IStruct;
+import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.typesystem.Struct;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers a content hash of the entities recently sent by the hooks, keyed by type name and qualifiedName, so that
+ * entities which have not changed since they were last sent are not sent in full again. In an outgoing create or
+ * update request, an unchanged entity is replaced by a reference holding only its qualifiedName, wherever it appears;
+ * the server resolves such references to the stored entity.
+ *
+ * Hashes are only recorded once the messages are sent, and are dropped when a send fails or the entity is updated
+ * partially or deleted by a hook. The cache is bounded in size and entries expire, so an entity changed or deleted by
+ * someone else is sent in full again after a while. Nothing is kept across hook restarts: a new hook sends every
+ * entity in full once.
+ */
+class EntityFingerprintCache {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityFingerprintCache.class);
+
+    static final String CONF_PREFIX = "atlas.hook.fingerprint.cache.";
+    static final String ENABLED = CONF_PREFIX + "enabled";
+    static final String SIZE = CONF_PREFIX + "size";
+    static final String TTL_SECONDS = CONF_PREFIX + "ttlSeconds";
+
+    private static final String UNIQUE_ATTRIBUTE = AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME;
+
+    private final Cache<String, String> fingerprints;
+
+    EntityFingerprintCache(long size, long ttlSeconds) {
+        fingerprints = CacheBuilder.newBuilder().maximumSize(size).expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * @return the cache configured in the given properties, or null if it is not enabled
+     */
+    static EntityFingerprintCache create(Configuration configuration) {
+        if (configuration == null || !configuration.getBoolean(ENABLED, false)) {
+            return null;
+        }
+
+        long size = configuration.getLong(SIZE, 10000L);
+        long ttlSeconds = configuration.getLong(TTL_SECONDS, 600L);
+
+        LOG.info("Suppressing unchanged entities in hook messages (size={}, ttlSeconds={})", size, ttlSeconds);
+        return new EntityFingerprintCache(size, ttlSeconds);
+    }
+
+    /**
+     * Messages to send in place of the given ones, with the entities that have not changed replaced by references.
+     * The given messages and their entities are not modified.
+     */
+    Outgoing prepare(List<HookNotification.HookNotificationMessage> messages) {
+        List<HookNotification.HookNotificationMessage> outgoing = new ArrayList<>(messages.size());
+        Map<String, String> sentFingerprints = new HashMap<>();
+        int suppressed = 0;
+
+        for (HookNotification.HookNotificationMessage message : messages) {
+            if (message instanceof HookNotification.EntityCreateRequest) {
+                HookNotification.EntityCreateRequest request = (HookNotification.EntityCreateRequest) message;
+                Set<String> unchanged = new HashSet<>();
+
+                for (Referenceable entity : request.getEntities()) {
+                    String key = key(entity);
+
+                    if (key != null) {
+                        String fingerprint = fingerprint(entity);
+
+                        if (fingerprint.equals(fingerprints.getIfPresent(key))) {
+                            unchanged.add(key);
+                        } else {
+                            sentFingerprints.put(key, fingerprint);
+                        }
+                    }
+                }
+
+                if (unchanged.isEmpty()) {
+                    outgoing.add(message);
+                } else {
+                    suppressed += unchanged.size();
+                    outgoing.add(withReferences(request, unchanged));
+                }
+            } else {
+                if (message instanceof HookNotification.EntityPartialUpdateRequest) {
+                    HookNotification.EntityPartialUpdateRequest request =
+                            (HookNotification.EntityPartialUpdateRequest) message;
+                    invalidate(request.getTypeName(), request.getAttribute(), request.getAttributeValue(),
+                            sentFingerprints);
+                } else if (message instanceof HookNotification.EntityDeleteRequest) {
+                    HookNotification.EntityDeleteRequest request = (HookNotification.EntityDeleteRequest) message;
+                    invalidate(request.getTypeName(), request.getAttribute(), request.getAttributeValue(),
+                            sentFingerprints);
+                }
+                outgoing.add(message);
+            }
+        }
+
+        if (suppressed > 0) {
+            LOG.debug("Sending {} unchanged entities as references", suppressed);
+        }
+        return new Outgoing(outgoing, sentFingerprints);
+    }
+
+    /**
+     * Records the hashes of the entities sent in full.
+     */
+    void sent(Outgoing outgoing) {
+        fingerprints.putAll(outgoing.fingerprints);
+    }
+
+    /**
+     * Forgets the entities of messages that could not be sent, since the server may not have them.
+     */
+    void failed(Outgoing outgoing) {
+        fingerprints.invalidateAll(outgoing.fingerprints.keySet());
+    }
+
+    long size() {
+        return fingerprints.size();
+    }
+
+    private void invalidate(String typeName, String attribute, String value, Map<String, String> sentFingerprints) {
+        if (UNIQUE_ATTRIBUTE.equals(attribute)) {
+            String key = key(typeName, value);
+            fingerprints.invalidate(key);
+            sentFingerprints.remove(key);
+        } else {
+            // the entity can't be told from its qualifiedName; start over
+            fingerprints.invalidateAll();
+            sentFingerprints.clear();
+        }
+    }
+
+    private static HookNotification.EntityCreateRequest withReferences(HookNotification.EntityCreateRequest request,
+                                                                       Set<String> unchanged) {
+        List<Referenceable> entities = new ArrayList<>(request.getEntities().size());
+        Map<Object, Object> replaced = new IdentityHashMap<>();
+
+        for (Referenceable entity : request.getEntities()) {
+            String key = key(entity);
+
+            if (key != null && unchanged.contains(key)) {
+                entities.add(reference(entity));
+            } else {
+                entities.add((Referenceable) withReferences(entity, unchanged, replaced));
+            }
+        }
+
+        if (request instanceof HookNotification.EntityUpdateRequest) {
+            return new HookNotification.EntityUpdateRequest(request.getUser(), entities);
+        }
+        return new HookNotification.EntityCreateRequest(request.getUser(), entities);
+    }
+
+    /**
+     * The value with the unchanged entities it refers to replaced by references, copying only what changes.
+     */
+    private static Object withReferences(Object value, Set<String> unchanged, Map<Object, Object> replaced) {
+        if (value == null || value instanceof Id || !(value instanceof Struct || value instanceof Collection
+                || value instanceof Map)) {
+            return value;
+        }
+
+        if (replaced.containsKey(value)) {
+            Object replacement = replaced.get(value);
+            // a value referring to itself is left as it is
+            return replacement != null ? replacement : value;
+        }
+        replaced.put(value, null);
+
+        Object result = value;
+        if (value instanceof Referenceable) {
+            Referenceable entity = (Referenceable) value;
+            String key = key(entity);
+
+            if (key != null && unchanged.contains(key)) {
+                result = reference(entity);
+            } else {
+                Map<String, Object> values = withReferences(entity.getValuesMap(), unchanged, replaced);
+
+                if (values != entity.getValuesMap()) {
+                    Map<String, IStruct> traits = new HashMap<>();
+                    for (String traitName : entity.getTraits()) {
+                        traits.put(traitName, entity.getTrait(traitName));
+                    }
+                    result = new Referenceable(entity.getId(), entity.getTypeName(), values, entity.getTraits(),
+                            traits);
+                }
+            }
+        } else if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            Map<String, Object> values = withReferences(struct.getValuesMap(), unchanged, replaced);
+
+            if (values != struct.getValuesMap()) {
+                result = new Struct(struct.getTypeName(), values);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            List<Object> elements = new ArrayList<>(collection.size());
+            boolean changed = false;
+
+            for (Object element : collection) {
+                Object newElement = withReferences(element, unchanged, replaced);
+                changed |= newElement != element;
+                elements.add(newElement);
+            }
+            if (changed) {
+                result = elements;
+            }
+        } else {
+            result = withReferences((Map<?, ?>) value, unchanged, replaced);
+        }
+
+        replaced.put(value, result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, Object> withReferences(Map<K, ?> map, Set<String> unchanged,
+                                                      Map<Object, Object> replaced) {
+        if (map == null) {
+            return null;
+        }
+
+        Map<K, Object> values = null;
+        for (Map.Entry<K, ?> entry : map.entrySet()) {
+            Object newValue = withReferences(entry.getValue(), unchanged, replaced);
+
+            if (newValue != entry.getValue() && values == null) {
+                values = new LinkedHashMap<>(map);
+            }
+            if (values != null) {
+                values.put(entry.getKey(), newValue);
+            }
+        }
+        return values != null ? values : (Map<K, Object>) map;
+    }
+
+    private static Referenceable reference(Referenceable entity) {
+        Map<String, Object> values = new HashMap<>();
+        values.put(UNIQUE_ATTRIBUTE, entity.get(UNIQUE_ATTRIBUTE));
+
+        return new Referenceable(entity.getId(), entity.getTypeName(), values, Collections.<String>emptyList(),
+                Collections.<String, IStruct>emptyMap());
+    }
+
+    private static String key(Referenceable entity) {
+        Object qualifiedName = entity.get(UNIQUE_ATTRIBUTE);
+        return qualifiedName instanceof String ? key(entity.getTypeName(), (String) qualifiedName) : null;
+    }
+
+    private static String key(String typeName, String qualifiedName) {
+        return typeName + '|' + qualifiedName;
+    }
+
+    /**
+     * Hash of the attributes and traits of the entity and of everything it refers to. Ids that are not assigned yet
+     * are generated for each message, so only their type is hashed.
+     */
+    static String fingerprint(Referenceable entity) {
+        Hasher hasher = Hashing.md5().newHasher();
+        putValue(hasher, entity, Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+        return hasher.hash().toString();
+    }
+
+    private static void putValue(Hasher hasher, Object value, Set<Object> path) {
+        if (value == null) {
+            hasher.putChar('N');
+        } else if (value instanceof Id) {
+            Id id = (Id) value;
+            hasher.putChar('I').putString(id.getTypeName(), Charsets.UTF_8).putChar('\0');
+            if (id.isAssigned()) {
+                hasher.putString(id._getId(), Charsets.UTF_8).putChar('\0');
+            }
+        } else if (value instanceof Struct) {
+            if (!path.add(value)) {
+                hasher.putChar('C');
+                return;
+            }
+
+            Struct struct = (Struct) value;
+            hasher.putChar('S').putString(struct.getTypeName(), Charsets.UTF_8).putChar('\0');
+            putValue(hasher, struct.getValuesMap(), path);
+
+            if (value instanceof Referenceable) {
+                Referenceable entity = (Referenceable) value;
+                Map<String, IStruct> traits = new TreeMap<>();
+                for (String traitName : entity.getTraits()) {
+                    traits.put(traitName, entity.getTrait(traitName));
+                }
+                putValue(hasher, traits, path);
+            }
+            path.remove(value);
+        } else if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sorted.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+
+            hasher.putChar('M').putInt(sorted.size());
+            for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                hasher.putString(entry.getKey(), Charsets.UTF_8).putChar('\0');
+                putValue(hasher, entry.getValue(), path);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            hasher.putChar('L').putInt(collection.size());
+            for (Object element : collection) {
+                putValue(hasher, element, path);
+            }
+        } else if (value instanceof Date) {
+            hasher.putChar('D').putLong(((Date) value).getTime());
+        } else {
+            hasher.putChar('V').putString(value.getClass().getName(), Charsets.UTF_8).putChar('\0')
+                    .putString(value.toString(), Charsets.UTF_8).putChar('\0');
+        }
+    }
+
+    /**
+     * Messages ready to be sent, with the hashes of the entities they carry in full.
+     */
+    static final class Outgoing {
+        private final List<HookNotification.HookNotificationMessage> messages;
+        private final Map<String, String> fingerprints;
+
+        private Outgoing(List<HookNotification.HookNotificationMessage> messages, Map<String, String> fingerprints) {
+            this.messages = messages;
+            this.fingerprints = fingerprints;
+        }
+
+        List<HookNotification.HookNotificationMessage> getMessages() {
+            return messages;
+        }
+    }
+}
@@ -18,9 +18,11 @@
 
 package org.apache.atlas.hook;
 
+import org.apache.atlas.AtlasClient;
 import org.apache.atlas.notification.NotificationException;
 import org.apache.atlas.notification.NotificationInterface;
 import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.typesystem.Referenceable;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.BeforeMethod;
@@ -31,9 +33,12 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.testng.Assert.assertEquals;
 
 
 public class AtlasHookTest {
@@ -130,4 +135,37 @@ public class AtlasHookTest {
 
         verifyZeroInteractions(failedMessagesLogger);
     }
+
+    @Test
+    public void testFingerprintsAreOnlyRecordedForSentMessages() throws NotificationException {
+        EntityFingerprintCache cache = new EntityFingerprintCache(100, 600);
+        List<HookNotification.HookNotificationMessage> hookNotificationMessages =
+                Arrays.<HookNotification.HookNotificationMessage>asList(
+                        new HookNotification.EntityCreateRequest("user", entity()));
+        doThrow(new NotificationException(new Exception())).when(notificationInterface)
+                .send(NotificationInterface.NotificationType.HOOK, hookNotificationMessages);
+        AtlasHook.notifyEntitiesInternal(hookNotificationMessages, 1, notificationInterface, false,
+                failedMessagesLogger, cache);
+        assertEquals(cache.size(), 0);
+
+        reset(notificationInterface);
+        AtlasHook.notifyEntitiesInternal(hookNotificationMessages, 1, notificationInterface, false,
+                failedMessagesLogger, cache);
+        verify(notificationInterface).send(NotificationInterface.NotificationType.HOOK, hookNotificationMessages);
+        assertEquals(cache.size(), 1);
+
+        List<HookNotification.HookNotificationMessage> unchangedMessages =
+                Arrays.<HookNotification.HookNotificationMessage>asList(
+                        new HookNotification.EntityCreateRequest("user", entity()));
+        AtlasHook.notifyEntitiesInternal(unchangedMessages, 1, notificationInterface, false,
+                failedMessagesLogger, cache);
+        verify(notificationInterface, never()).send(NotificationInterface.NotificationType.HOOK, unchangedMessages);
+    }
+
+    private Referenceable entity() {
+        Referenceable entity = new Referenceable("hive_db");
+        entity.set(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "db1");
+        entity.set("description", "a database");
+        return entity;
+    }
 }
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hook;
+
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.typesystem.Referenceable;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class EntityFingerprintCacheTest {
+
+    private EntityFingerprintCache cache;
+
+    @BeforeMethod
+    public void setup() {
+        cache = new EntityFingerprintCache(100, 600);
+    }
+
+    @Test
+    public void testUnchangedEntityIsSentAsReference() {
+        Referenceable db = db("db1", "first");
+        Referenceable table = table("db1.t1", db);
+        send(new HookNotification.EntityUpdateRequest("user", db, table));
+
+        Referenceable sameDb = db("db1", "first");
+        Referenceable changedTable = table("db1.t1", sameDb);
+        changedTable.set("owner", "someone else");
+        List<Referenceable> entities = entities(send(new HookNotification.EntityUpdateRequest("user", sameDb,
+                changedTable)));
+
+        Referenceable dbReference = entities.get(0);
+        assertEquals(dbReference.getValuesMap(), Collections.singletonMap(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME,
+                (Object) "db1"));
+        assertSame(dbReference.getId(), sameDb.getId());
+
+        Referenceable sentTable = entities.get(1);
+        assertEquals(sentTable.get("owner"), "someone else");
+        assertEquals(((Referenceable) sentTable.get("db")).getValuesMap(), dbReference.getValuesMap());
+        assertSame(((Referenceable) sentTable.get("db")).getId(), sameDb.getId());
+
+        // the entities given to the hook are left as they are
+        assertEquals(changedTable.get("db"), sameDb);
+        assertEquals(sameDb.get("description"), "first");
+    }
+
+    @Test
+    public void testChangedEntityIsSentInFull() {
+        send(new HookNotification.EntityCreateRequest("user", db("db1", "first")));
+
+        HookNotification.EntityCreateRequest request =
+                new HookNotification.EntityCreateRequest("user", db("db1", "second"));
+        List<HookNotification.HookNotificationMessage> sent = send(request);
+
+        assertSame(sent.get(0), request);
+    }
+
+    @Test
+    public void testFingerprintIgnoresUnassignedIds() {
+        assertEquals(EntityFingerprintCache.fingerprint(table("db1.t1", db("db1", "first"))),
+                EntityFingerprintCache.fingerprint(table("db1.t1", db("db1", "first"))));
+        assertNotEquals(EntityFingerprintCache.fingerprint(table("db1.t1", db("db1", "first"))),
+                EntityFingerprintCache.fingerprint(table("db1.t1", db("db1", "second"))));
+    }
+
+    @Test
+    public void testFailedSendIsForgotten() {
+        EntityFingerprintCache.Outgoing outgoing =
+                cache.prepare(messages(new HookNotification.EntityCreateRequest("user", db("db1", "first"))));
+        cache.failed(outgoing);
+
+        HookNotification.EntityCreateRequest request =
+                new HookNotification.EntityCreateRequest("user", db("db1", "first"));
+        assertSame(send(request).get(0), request);
+    }
+
+    @Test
+    public void testDeletedEntityIsForgotten() {
+        send(new HookNotification.EntityCreateRequest("user", db("db1", "first"), db("db2", "first")));
+        send(new HookNotification.EntityDeleteRequest("user", "hive_db", AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME,
+                "db1"));
+
+        List<Referenceable> entities = entities(send(new HookNotification.EntityCreateRequest("user",
+                db("db1", "first"), db("db2", "first"))));
+        assertEquals(entities.get(0).get("description"), "first");
+        assertEquals(entities.get(1).getValuesMap().size(), 1);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        cache = new EntityFingerprintCache(2, 600);
+        for (int i = 0; i < 10; i++) {
+            send(new HookNotification.EntityCreateRequest("user", db("db" + i, "first")));
+        }
+
+        assertTrue(cache.size() <= 2);
+    }
+
+    private List<HookNotification.HookNotificationMessage> send(HookNotification.HookNotificationMessage message) {
+        EntityFingerprintCache.Outgoing outgoing = cache.prepare(messages(message));
+        cache.sent(outgoing);
+        return outgoing.getMessages();
+    }
+
+    private static List<HookNotification.HookNotificationMessage> messages(
+            HookNotification.HookNotificationMessage message) {
+        return Arrays.asList(message);
+    }
+
+    private static List<Referenceable> entities(List<HookNotification.HookNotificationMessage> messages) {
+        return ((HookNotification.EntityCreateRequest) messages.get(0)).getEntities();
+    }
+
+    private static Referenceable db(String name, String description) {
+        Referenceable db = new Referenceable("hive_db");
+        db.set(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, name);
+        db.set("name", name);
+        db.set("description", description);
+        return db;
+    }
+
+    private static Referenceable table(String name, Referenceable db) {
+        Referenceable table = new Referenceable("hive_table");
+        table.set(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, name);
+        table.set("name", name);
+        table.set("db", db);
+        table.set("columns", Arrays.asList("c1", "c2"));
+        return table;
+    }
+}
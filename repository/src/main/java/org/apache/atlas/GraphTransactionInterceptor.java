@@ -19,15 +19,19 @@ package org.apache.atlas;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.apache.atlas.metrics.Counter;
+import org.apache.atlas.metrics.MetricsRegistry;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.typesystem.exception.EntityNotFoundException;
 import org.apache.atlas.typesystem.exception.SchemaNotFoundException;
+import org.apache.atlas.utils.AtlasPerfTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class GraphTransactionInterceptor implements MethodInterceptor {
     private static final Logger LOG = LoggerFactory.getLogger(GraphTransactionInterceptor.class);
+    private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("repository.GraphTransaction");
     private AtlasGraph graph;
 
     @Override
@@ -37,12 +41,22 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
             graph = AtlasGraphProvider.getGraphInstance();
         }
 
+        AtlasPerfTracer perf = null;
+        if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+            perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, invocation.getMethod().getDeclaringClass().getSimpleName()
+                    + "." + invocation.getMethod().getName());
+        }
+
         try {
             Object response = invocation.proceed();
-            graph.commit();
+            commit();
             LOG.info("graph commit");
             return response;
         } catch (Throwable t) {
+            Counter rollbacks = MetricsRegistry.counter("GraphTransaction.rollbacks");
+            if (rollbacks != null) {
+                rollbacks.inc();
+            }
             if (logException(t)) {
                 LOG.error("graph rollback due to exception ", t);
             } else {
@@ -50,6 +64,21 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
             }
             graph.rollback();
             throw t;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    private void commit() {
+        AtlasPerfTracer perf = null;
+        if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+            perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "GraphTransaction.commit");
+        }
+
+        try {
+            graph.commit();
+        } finally {
+            AtlasPerfTracer.log(perf);
         }
     }
 
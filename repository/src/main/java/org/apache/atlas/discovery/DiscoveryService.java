@@ -20,6 +20,8 @@ package org.apache.atlas.discovery;
 
 import org.apache.atlas.query.QueryParams;
 
+import java.io.IOException;
+
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +48,39 @@ public interface DiscoveryService {
      */
     String searchByDSL(String dslQuery, QueryParams queryParams) throws DiscoveryException;
 
+    /**
+     * Searches using DSL query, handing the result to the handler before the query's transaction ends. The rows
+     * of the result are converted from the graph as the handler reads them.
+     * @param dslQuery query string
+     * @param queryParams Default query parameters like limit, offset
+     * @param handler receives the result
+     * @throws DiscoveryException
+     * @throws IOException if the handler fails to write the result
+     */
+    void searchByDSL(String dslQuery, QueryParams queryParams, DSLResultHandler handler)
+        throws DiscoveryException, IOException;
+
+    /**
+     * Searches using DSL query, reading only the guids of the entities it returns from the graph.
+     * @param dslQuery query string, which should return entities
+     * @param queryParams Default query parameters like limit, offset
+     * @return guids of the entities returned
+     * @throws DiscoveryException
+     * @throws IllegalArgumentException if the query doesn't return entities
+     */
+    List<String> searchGuidsByDSL(String dslQuery, QueryParams queryParams) throws DiscoveryException;
+
+    /**
+     * Explains how a DSL query is executed: the parsed expression, the generated gremlin and whether the
+     * predicates of the query can be answered from an index.
+     * @param dslQuery query string
+     * @param queryParams Default query parameters like limit, offset
+     * @param profile whether to also run the query and report element counts and timings for each step
+     * @return query plan json
+     * @throws DiscoveryException
+     */
+    String explainDSL(String dslQuery, QueryParams queryParams, boolean profile) throws DiscoveryException;
+
     /**
      * Assumes the User is familiar with the persistence structure of the Repository.
      * The given query is run uninterpreted against the underlying Graph Store.
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.metrics.Gauge;
+import org.apache.atlas.metrics.MetricsRegistry;
+import org.apache.atlas.service.Service;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Keeps track of the Gremlin and DSL queries running against the graph and enforces their budgets:
+ * a wall-clock timeout, a maximum number of result rows and a maximum number of graph elements in those rows.
+ * The budgets are checked against what a query returns, so they don't bound the elements a traversal visits
+ * to produce its rows; only the timeout does.
+ * A watchdog thread terminates queries that run past their deadline or whose client has disconnected,
+ * and running queries can be listed and killed by administrators.
+ */
+@Singleton
+public class QueryExecutionManager implements Service {
+    private static final Logger LOG = LoggerFactory.getLogger(QueryExecutionManager.class);
+
+    public static final String QUERY_TIMEOUT_MS = "atlas.query.timeout.ms";
+    public static final String QUERY_MAX_ROWS = "atlas.query.max.rows";
+    /**
+     * Maximum number of vertices and edges in the result rows of a query, counting those in paths and maps.
+     */
+    public static final String QUERY_MAX_ELEMENTS = "atlas.query.max.elements";
+    public static final String QUERY_CANCEL_INTERRUPT = "atlas.query.cancel.interrupt";
+
+    public static final long DEFAULT_QUERY_TIMEOUT_MS = 60000;
+    public static final long DEFAULT_QUERY_MAX_ROWS = 100000;
+    public static final long DEFAULT_QUERY_MAX_ELEMENTS = 1000000;
+
+    private static final long WATCHDOG_INTERVAL_MS = 500;
+
+    private static final ThreadLocal<RunningQuery.ConnectionProbe> CONNECTION_PROBE = new ThreadLocal<>();
+
+    private final long timeoutMs;
+    private final long maxRows;
+    private final long maxElements;
+    private final boolean interruptOnCancel;
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final ConcurrentMap<Long, RunningQuery> runningQueries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService watchdog;
+
+    @Inject
+    public QueryExecutionManager() throws AtlasException {
+        this(ApplicationProperties.get());
+    }
+
+    public QueryExecutionManager(Configuration configuration) {
+        this.timeoutMs = configuration.getLong(QUERY_TIMEOUT_MS, DEFAULT_QUERY_TIMEOUT_MS);
+        this.maxRows = configuration.getLong(QUERY_MAX_ROWS, DEFAULT_QUERY_MAX_ROWS);
+        this.maxElements = configuration.getLong(QUERY_MAX_ELEMENTS, DEFAULT_QUERY_MAX_ELEMENTS);
+
+        // storage backends may not tolerate an interrupt during I/O (BerkeleyDB JE invalidates its environment),
+        // so terminated queries only stop at their next check unless interrupts are enabled
+        this.interruptOnCancel = configuration.getBoolean(QUERY_CANCEL_INTERRUPT, false);
+
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("atlas-query-watchdog-%d").setDaemon(true).build());
+        this.watchdog.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                checkRunningQueries();
+            }
+        }, WATCHDOG_INTERVAL_MS, WATCHDOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        MetricsRegistry.gauge("QueryExecutionManager.runningQueries", new Gauge() {
+            @Override
+            public long getValue() {
+                return runningQueries.size();
+            }
+        });
+
+        LOG.info("Query budget: timeout={} ms, maxRows={}, maxElements={}, interruptOnCancel={}",
+                timeoutMs, maxRows, maxElements, interruptOnCancel);
+    }
+
+    @Override
+    public void start() {
+        // the watchdog is scheduled on construction, so queries are supervised as soon as they can be started
+    }
+
+    /**
+     * Stops the watchdog. Running queries are no longer terminated when they run past their deadline.
+     */
+    @Override
+    public void stop() {
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * Registers how to tell whether the client of the current request is still connected.
+     * Queries started on this thread are terminated once the probe reports a disconnect.
+     */
+    public static void setConnectionProbe(RunningQuery.ConnectionProbe probe) {
+        CONNECTION_PROBE.set(probe);
+    }
+
+    public static void clearConnectionProbe() {
+        CONNECTION_PROBE.remove();
+    }
+
+    /**
+     * Registers a query about to run on the current thread. Every call must be paired with {@link #finish}.
+     */
+    public RunningQuery start(String queryType, String query) {
+        RunningQuery runningQuery = new RunningQuery(idGenerator.incrementAndGet(), queryType, query,
+                RequestContext.get().getUser(), timeoutMs, maxRows, maxElements, CONNECTION_PROBE.get());
+        runningQueries.put(runningQuery.getId(), runningQuery);
+        return runningQuery;
+    }
+
+    /**
+     * Called on the thread that started the query once it is done. An interrupt sent to terminate the query that the
+     * query didn't consume is cleared, so that it doesn't fail whatever the thread does next.
+     */
+    public void finish(RunningQuery runningQuery) {
+        if (runningQuery.finish()) {
+            Thread.interrupted();
+        }
+        runningQueries.remove(runningQuery.getId());
+
+        if (runningQuery.isTerminated()) {
+            LOG.warn("Query {} by user {} terminated after {} ms: {}", runningQuery.getId(), runningQuery.getUser(),
+                    runningQuery.getElapsedTime(), runningQuery.getTerminationReason());
+        }
+    }
+
+    /**
+     * @return the running queries, longest running first
+     */
+    public List<RunningQuery> getRunningQueries() {
+        List<RunningQuery> ret = new ArrayList<>(runningQueries.values());
+        Collections.sort(ret, new Comparator<RunningQuery>() {
+            @Override
+            public int compare(RunningQuery q1, RunningQuery q2) {
+                return Long.compare(q1.getStartTime(), q2.getStartTime());
+            }
+        });
+        return ret;
+    }
+
+    /**
+     * Kills a running query.
+     *
+     * @return false if no query with the given id is running
+     */
+    public boolean kill(long queryId, String killedBy) {
+        RunningQuery runningQuery = runningQueries.get(queryId);
+        if (runningQuery == null) {
+            return false;
+        }
+
+        runningQuery.terminate("Query killed by " + killedBy, interruptOnCancel);
+        return true;
+    }
+
+    void checkRunningQueries() {
+        long now = System.currentTimeMillis();
+
+        for (RunningQuery runningQuery : runningQueries.values()) {
+            try {
+                if (runningQuery.isOverdue(now)) {
+                    runningQuery.terminate("Query timed out after " + timeoutMs + " ms", interruptOnCancel);
+                } else if (!runningQuery.isClientConnected()) {
+                    runningQuery.terminate("Client disconnected", interruptOnCancel);
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to check query {}", runningQuery.getId(), e);
+            }
+        }
+    }
+}
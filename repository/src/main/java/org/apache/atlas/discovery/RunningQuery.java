@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.discovery;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.atlas.repository.graphdb.AtlasElement;
+
+/**
+ * A Gremlin or DSL query currently executing, along with the budget it has to stay within.
+ * Cancellation is cooperative: the query stops the next time it calls {@link #checkActive()},
+ * which happens before execution and for every result row, and additionally the executing
+ * thread is interrupted when {@link QueryExecutionManager} is configured to do so.
+ */
+public class RunningQuery {
+
+    /**
+     * Tells whether the client that submitted a query is still waiting for its result.
+     */
+    public interface ConnectionProbe {
+        boolean isConnected();
+    }
+
+    private static final ThreadLocal<RunningQuery> CURRENT = new ThreadLocal<>();
+
+    private final long id;
+    private final String queryType;
+    private final String query;
+    private final String user;
+    private final long startTime;
+    private final long deadline;
+    private final long maxRows;
+    private final long maxElements;
+    private final Thread thread;
+    private final ConnectionProbe probe;
+    private final AtomicReference<String> terminationReason = new AtomicReference<>();
+
+    private long rowCount;
+    private long elementCount;
+    private boolean finished;
+    private boolean interrupted;
+
+    RunningQuery(long id, String queryType, String query, String user, long timeoutMs, long maxRows,
+                 long maxElements, ConnectionProbe probe) {
+        this.id = id;
+        this.queryType = queryType;
+        this.query = query;
+        this.user = user;
+        this.startTime = System.currentTimeMillis();
+        this.deadline = timeoutMs > 0 ? startTime + timeoutMs : Long.MAX_VALUE;
+        this.maxRows = maxRows;
+        this.maxElements = maxElements;
+        this.thread = Thread.currentThread();
+        this.probe = probe;
+
+        CURRENT.set(this);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getQueryType() {
+        return queryType;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getElapsedTime() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    public boolean isTerminated() {
+        return terminationReason.get() != null;
+    }
+
+    public String getTerminationReason() {
+        return terminationReason.get();
+    }
+
+    /**
+     * Fails with {@link QueryTerminatedException} if the query has been terminated or has run past its deadline.
+     */
+    public void checkActive() throws QueryTerminatedException {
+        if (terminationReason.get() == null && System.currentTimeMillis() > deadline) {
+            terminate("Query timed out after " + getElapsedTime() + " ms", false);
+        }
+
+        String reason = terminationReason.get();
+        if (reason != null) {
+            throw new QueryTerminatedException(reason + ": " + query);
+        }
+    }
+
+    /**
+     * Accounts for one more result row, counting the graph elements it holds against the element budget.
+     * Only the elements of the row are counted, not those the traversal visited to produce it.
+     */
+    public void recordRow(Object row) throws QueryTerminatedException {
+        recordRow(countElements(row));
+    }
+
+    /**
+     * Accounts for one more result row holding the given number of graph elements.
+     */
+    public void recordRow(long rowElementCount) throws QueryTerminatedException {
+        checkActive();
+
+        rowCount++;
+        elementCount += rowElementCount;
+
+        if (maxRows > 0 && rowCount > maxRows) {
+            terminate("Query returned more than " + maxRows + " rows", false);
+        } else if (maxElements > 0 && elementCount > maxElements) {
+            terminate("Query returned more than " + maxElements + " graph elements", false);
+        }
+
+        checkActive();
+    }
+
+    /**
+     * Accounts for a row of the query running on the current thread, if there is one. Gremlin queries
+     * generated from DSL call this while their rows are read, see
+     * {@link org.apache.atlas.repository.graphdb.AtlasGraph#getRowListenerPredicate(String)}.
+     */
+    public static void recordRowOnCurrentThread(long rowElementCount) throws QueryTerminatedException {
+        RunningQuery runningQuery = CURRENT.get();
+        if (runningQuery != null) {
+            runningQuery.recordRow(rowElementCount);
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    long getElementCount() {
+        return elementCount;
+    }
+
+    boolean isClientConnected() {
+        return probe == null || probe.isConnected();
+    }
+
+    boolean isOverdue(long now) {
+        return now > deadline;
+    }
+
+    /**
+     * Marks the query as terminated. The first reason given wins.
+     *
+     * @param interrupt whether to interrupt the executing thread as well
+     * @return false if the query had already finished or been terminated
+     */
+    synchronized boolean terminate(String reason, boolean interrupt) {
+        if (finished || !terminationReason.compareAndSet(null, reason)) {
+            return false;
+        }
+
+        if (interrupt && thread != Thread.currentThread()) {
+            interrupted = true;
+            thread.interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * Called on the executing thread once the query is done; no interrupt can be delivered after this.
+     *
+     * @return whether the executing thread has been interrupted to terminate the query
+     */
+    synchronized boolean finish() {
+        finished = true;
+
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        return interrupted;
+    }
+
+    private static long countElements(Object value) {
+        if (value instanceof AtlasElement) {
+            return 1;
+        }
+
+        long count = 0;
+        if (value instanceof Map) {
+            for (Object entry : ((Map<?, ?>) value).values()) {
+                count += countElements(entry);
+            }
+        } else if (value instanceof Collection) {
+            for (Object entry : (Collection<?>) value) {
+                count += countElements(entry);
+            }
+        }
+        return count;
+    }
+}
@@ -36,6 +36,7 @@ import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.graphdb.GremlinVersion;
+import org.apache.atlas.repository.stats.EntityStatisticsService;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.ITypedStruct;
 import org.apache.atlas.typesystem.persistence.Id;
@@ -60,10 +61,22 @@ public class DefaultGraphPersistenceStrategy implements GraphPersistenceStrategi
     private static final Logger LOG = LoggerFactory.getLogger(DefaultGraphPersistenceStrategy.class);
 
     private final GraphBackedMetadataRepository metadataRepository;
+    private final EntityStatisticsService entityStatistics;
 
     @Inject
     public DefaultGraphPersistenceStrategy(MetadataRepository metadataRepository) {
+        this(metadataRepository, null);
+    }
+
+    public DefaultGraphPersistenceStrategy(MetadataRepository metadataRepository,
+                                           EntityStatisticsService entityStatistics) {
         this.metadataRepository = (GraphBackedMetadataRepository) metadataRepository;
+        this.entityStatistics = entityStatistics;
+    }
+
+    @Override
+    public EntityStatisticsService entityStatistics() {
+        return entityStatistics;
     }
 
     @Override
@@ -247,8 +260,16 @@ public class DefaultGraphPersistenceStrategy implements GraphPersistenceStrategi
     }
 
     @Override
-    public scala.collection.Seq<String> typeTestExpression(String typeName, IntSequence intSeq) {
-        return GraphPersistenceStrategies$class.typeTestExpression(this, typeName, intSeq);
+    public scala.collection.Seq<String> typeTestExpression(String typeName, IntSequence intSeq,
+            scala.Option<Object> limit) {
+        return GraphPersistenceStrategies$class.typeTestExpression(this, typeName, intSeq, limit);
+    }
+
+    @Override
+    public scala.collection.Seq<String> indexedTypeTestExpression(String typeName, IntSequence intSeq,
+            String predicate, boolean perTypeName, scala.Option<Object> limit) {
+        return GraphPersistenceStrategies$class.indexedTypeTestExpression(this, typeName, intSeq, predicate,
+                perTypeName, limit);
     }
 
     @Override
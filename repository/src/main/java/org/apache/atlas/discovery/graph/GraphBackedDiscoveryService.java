@@ -18,8 +18,10 @@
 
 package org.apache.atlas.discovery.graph;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -31,13 +33,18 @@ import javax.script.ScriptException;
 
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.GraphTransaction;
+import org.apache.atlas.discovery.DSLResultHandler;
 import org.apache.atlas.discovery.DiscoveryException;
 import org.apache.atlas.discovery.DiscoveryService;
+import org.apache.atlas.discovery.QueryExecutionManager;
+import org.apache.atlas.discovery.QueryTerminatedException;
+import org.apache.atlas.discovery.RunningQuery;
 import org.apache.atlas.query.Expressions;
 import org.apache.atlas.query.GremlinEvaluator;
 import org.apache.atlas.query.GremlinQuery;
 import org.apache.atlas.query.GremlinQueryResult;
 import org.apache.atlas.query.GremlinTranslator;
+import org.apache.atlas.query.QueryExplainer;
 import org.apache.atlas.query.QueryParams;
 import org.apache.atlas.query.QueryParser;
 import org.apache.atlas.query.QueryProcessor;
@@ -49,6 +56,7 @@ import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.stats.EntityStatisticsService;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
@@ -68,14 +76,19 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
 
     private final AtlasGraph graph;
     private final DefaultGraphPersistenceStrategy graphPersistenceStrategy;
+    private final QueryExecutionManager queryExecutionManager;
 
     public final static String SCORE = "score";
+    public final static String QUERY_TYPE_DSL = "dsl";
+    public final static String QUERY_TYPE_GREMLIN = "gremlin";
 
     @Inject
-    GraphBackedDiscoveryService(MetadataRepository metadataRepository)
+    GraphBackedDiscoveryService(MetadataRepository metadataRepository, QueryExecutionManager queryExecutionManager,
+                                EntityStatisticsService entityStatistics)
     throws DiscoveryException {
         this.graph = AtlasGraphProvider.getGraphInstance();
-        this.graphPersistenceStrategy = new DefaultGraphPersistenceStrategy(metadataRepository);
+        this.graphPersistenceStrategy = new DefaultGraphPersistenceStrategy(metadataRepository, entityStatistics);
+        this.queryExecutionManager = queryExecutionManager;
     }
 
     //For titan 0.5.4, refer to http://s3.thinkaurelius.com/docs/titan/0.5.4/index-backends.html for indexed query
@@ -121,26 +134,111 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
     @Override
     @GraphTransaction
     public String searchByDSL(String dslQuery, QueryParams queryParams) throws DiscoveryException {
-        GremlinQueryResult queryResult = evaluate(dslQuery, queryParams);
-        return queryResult.toJson();
+        RunningQuery runningQuery = queryExecutionManager.start(QUERY_TYPE_DSL, dslQuery);
+        try {
+            // rows are converted while they are serialized, which counts towards the query's time
+            return evaluate(dslQuery, queryParams, runningQuery).toJson();
+        } finally {
+            queryExecutionManager.finish(runningQuery);
+        }
+    }
+
+    @Override
+    @GraphTransaction
+    public void searchByDSL(String dslQuery, QueryParams queryParams, DSLResultHandler handler)
+        throws DiscoveryException, IOException {
+        RunningQuery runningQuery = queryExecutionManager.start(QUERY_TYPE_DSL, dslQuery);
+        try {
+            handler.handle(evaluate(dslQuery, queryParams, runningQuery));
+        } finally {
+            queryExecutionManager.finish(runningQuery);
+        }
+    }
+
+    @Override
+    @GraphTransaction
+    public List<String> searchGuidsByDSL(String dslQuery, QueryParams queryParams) throws DiscoveryException {
+        RunningQuery runningQuery = queryExecutionManager.start(QUERY_TYPE_DSL, dslQuery);
+        try {
+            Either<Parsers.NoSuccess, Expressions.Expression> either = QueryParser.apply(dslQuery, queryParams);
+            if (either.isLeft()) {
+                throw new DiscoveryException("Invalid expression : " + dslQuery + ". " + either.left());
+            }
+
+            Expressions.Expression validatedExpression = QueryProcessor.validate(either.right().get());
+            if (validatedExpression instanceof Expressions.LimitExpression
+                    && ((Integer)((Expressions.LimitExpression) validatedExpression).limit().rawValue()) == 0) {
+                return Collections.emptyList();
+            }
+
+            GremlinQuery gremlinQuery = new GremlinTranslator(validatedExpression, graphPersistenceStrategy).translate();
+            LOG.debug("Gremlin Query = {}", gremlinQuery.queryStr());
+            return new GremlinEvaluator(gremlinQuery, graphPersistenceStrategy, graph, runningQuery).evaluateGuids();
+        } catch (DiscoveryException | IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) { // unable to catch ExpressionException
+            runningQuery.checkActive();
+            throw new DiscoveryException("Invalid expression : " + dslQuery, e);
+        } finally {
+            queryExecutionManager.finish(runningQuery);
+        }
+    }
+
+    @Override
+    @GraphTransaction
+    public String explainDSL(String dslQuery, QueryParams queryParams, boolean profile) throws DiscoveryException {
+        LOG.debug("Explaining dsl query={}, profile={}", dslQuery, profile);
+        RunningQuery runningQuery = queryExecutionManager.start(QUERY_TYPE_DSL, dslQuery);
+        try {
+            Either<Parsers.NoSuccess, Expressions.Expression> either = QueryParser.apply(dslQuery, queryParams);
+            if (either.isRight()) {
+                Expressions.Expression validatedExpression = QueryProcessor.validate(either.right().get());
+                QueryExplainer explainer = new QueryExplainer(graphPersistenceStrategy, graph, runningQuery);
+                return explainer.explain(dslQuery, validatedExpression, profile).toJson();
+            } else {
+                throw new DiscoveryException("Invalid expression : " + dslQuery + ". " + either.left());
+            }
+        } catch (QueryTerminatedException e) {
+            throw e;
+        } catch (Exception e) { // unable to catch ExpressionException
+            runningQuery.checkActive();
+            throw new DiscoveryException("Invalid expression : " + dslQuery, e);
+        } finally {
+            queryExecutionManager.finish(runningQuery);
+        }
     }
 
     public GremlinQueryResult evaluate(String dslQuery, QueryParams queryParams) throws DiscoveryException {
+        RunningQuery runningQuery = queryExecutionManager.start(QUERY_TYPE_DSL, dslQuery);
+        try {
+            return evaluate(dslQuery, queryParams, runningQuery);
+        } finally {
+            queryExecutionManager.finish(runningQuery);
+        }
+    }
+
+    private GremlinQueryResult evaluate(String dslQuery, QueryParams queryParams, RunningQuery runningQuery)
+        throws DiscoveryException {
         LOG.debug("Executing dsl query={}", dslQuery);
         try {
             Either<Parsers.NoSuccess, Expressions.Expression> either = QueryParser.apply(dslQuery, queryParams);
             if (either.isRight()) {
                 Expressions.Expression expression = either.right().get();
-                return evaluate(dslQuery, expression);
+                return evaluate(dslQuery, expression, runningQuery);
             } else {
                 throw new DiscoveryException("Invalid expression : " + dslQuery + ". " + either.left());
             }
+        } catch (QueryTerminatedException e) {
+            throw e;
         } catch (Exception e) { // unable to catch ExpressionException
+            // a failure caused by terminating the query is reported as such
+            runningQuery.checkActive();
             throw new DiscoveryException("Invalid expression : " + dslQuery, e);
         }
     }
 
-    private GremlinQueryResult evaluate(String dslQuery, Expressions.Expression expression) {
+    private GremlinQueryResult evaluate(String dslQuery, Expressions.Expression expression,
+                                        RunningQuery runningQuery) {
         Expressions.Expression validatedExpression = QueryProcessor.validate(expression);
 
         //If the final limit is 0, don't launch the query, return with 0 rows
@@ -153,7 +251,7 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
         LOG.debug("Query = {}", validatedExpression);
         LOG.debug("Expression Tree = {}", validatedExpression.treeString());
         LOG.debug("Gremlin Query = {}", gremlinQuery.queryStr());
-        return new GremlinEvaluator(gremlinQuery, graphPersistenceStrategy, graph).evaluate();
+        return new GremlinEvaluator(gremlinQuery, graphPersistenceStrategy, graph, runningQuery).evaluate();
     }
 
     /**
@@ -169,20 +267,34 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
     @GraphTransaction
     public List<Map<String, String>> searchByGremlin(String gremlinQuery) throws DiscoveryException {
         LOG.debug("Executing gremlin query={}", gremlinQuery);
+        RunningQuery runningQuery = queryExecutionManager.start(QUERY_TYPE_GREMLIN, gremlinQuery);
         try {
+            runningQuery.checkActive();
             Object o = graph.executeGremlinScript(gremlinQuery, false);
-            return extractResult(o);
+            return extractResult(o, runningQuery);
         } catch (ScriptException se) {
+            runningQuery.checkActive();
             throw new DiscoveryException(se);
+        } catch (RuntimeException e) {
+            runningQuery.checkActive();
+            throw e;
+        } finally {
+            queryExecutionManager.finish(runningQuery);
         }
     }
     
-    private List<Map<String, String>> extractResult(final Object o) throws DiscoveryException {
+    private List<Map<String, String>> extractResult(final Object o, RunningQuery runningQuery)
+        throws DiscoveryException {
         List<Map<String, String>> result = new ArrayList<>();
-        if (o instanceof List) {
-            List l = (List) o;
-            
-            for (Object value : l) {
+        if (o instanceof List || o instanceof Iterator) {
+            // lazy pipelines are only traversed here, one budget check per row
+            Iterator<?> it = (o instanceof List) ? ((List<?>) o).iterator() : (Iterator<?>) o;
+
+            while (it.hasNext()) {
+                runningQuery.checkActive();
+                Object value = it.next();
+                runningQuery.recordRow(value);
+
                 Map<String, String> oRow = new HashMap<>();
                 if (value instanceof Map) {
                     @SuppressWarnings("unchecked") Map<Object, Object> iRow = (Map) value;
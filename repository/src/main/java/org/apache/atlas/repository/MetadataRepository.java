@@ -20,15 +20,20 @@ package org.apache.atlas.repository;
 
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.services.EntityChanges;
+import org.apache.atlas.services.EntityVersion;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.ITypedStruct;
 import org.apache.atlas.typesystem.exception.EntityExistsException;
 import org.apache.atlas.typesystem.exception.EntityNotFoundException;
 import org.apache.atlas.typesystem.exception.TraitNotFoundException;
+import org.apache.atlas.typesystem.persistence.Id;
 import org.apache.atlas.typesystem.types.AttributeInfo;
 import org.apache.atlas.typesystem.types.IDataType;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An interface for persisting metadata into a blueprints enabled graph db.
@@ -101,6 +106,39 @@ public interface MetadataRepository {
      */
     ITypedReferenceableInstance getEntityDefinition(String guid) throws RepositoryException, EntityNotFoundException;
 
+    /**
+     * Fetch the complete definitions of entities in a single transaction.
+     *
+     * @param guids globally unique identifiers of the entities
+     * @return the entity definitions, in the order of the guids
+     * @throws RepositoryException
+     */
+    List<ITypedReferenceableInstance> getEntityDefinitions(List<String> guids) throws RepositoryException, EntityNotFoundException;
+
+    /**
+     * Fetch the modification timestamp and state of an entity given its GUID, which change whenever its definition
+     * does. The timestamp is the latest of those of the entity and of the entities it owns through composite
+     * attributes, and only the properties of their vertices are read.
+     *
+     * @param guid globally unique identifier for the entity
+     * @return version of the entity definition
+     * @throws RepositoryException
+     */
+    EntityVersion getEntityVersion(String guid) throws RepositoryException, EntityNotFoundException;
+
+    /**
+     * Fetch the entities modified after a position of the change feed, ordered by modification timestamp and guid.
+     *
+     * @param since modification timestamp to start from, used when there is no cursor
+     * @param cursor cursor returned with the previous page, or null
+     * @param typeNames names of the types of the entities to fetch, or null for all types
+     * @param limit maximum number of entities to fetch
+     * @return the modified entities and the cursor of the next page
+     * @throws RepositoryException
+     */
+    EntityChanges getEntityChanges(long since, String cursor, Collection<String> typeNames, int limit)
+            throws RepositoryException;
+
     /**
      * Gets the list of entities for a given entity type.
      *
@@ -149,6 +187,28 @@ public interface MetadataRepository {
      */
     void deleteTrait(String guid, String traitNameToBeDeleted) throws TraitNotFoundException, EntityNotFoundException, RepositoryException;
 
+    /**
+     * Adds a new trait to existing entities in a single transaction. Entities that don't exist or already have the
+     * trait are left out. A guid that is listed more than once is updated once.
+     *
+     * @param guids         globally unique identifiers of the entities
+     * @param traitInstance trait instance that needs to be added to the entities
+     * @return reasons of the failures, by guid of the entities that were left out
+     * @throws RepositoryException
+     */
+    Map<String, String> addTrait(List<String> guids, ITypedStruct traitInstance) throws RepositoryException;
+
+    /**
+     * Deletes a given trait from existing entities in a single transaction. Entities that don't exist or don't have
+     * the trait are left out. A guid that is listed more than once is updated once.
+     *
+     * @param guids                globally unique identifiers of the entities
+     * @param traitNameToBeDeleted name of the trait
+     * @return reasons of the failures, by guid of the entities that were left out
+     * @throws RepositoryException
+     */
+    Map<String, String> deleteTrait(List<String> guids, String traitNameToBeDeleted) throws RepositoryException;
+
     /**
      * Adds/Updates the property to the entity that corresponds to the GUID
      * Supports only primitive attribute/Class Id updations.
@@ -169,4 +229,14 @@ public interface MetadataRepository {
      * @return entity instance
      */
     ITypedReferenceableInstance getEntityDefinition(String entityType, String attribute, Object value) throws AtlasException;
+
+    /**
+     * Returns the id of the entity for the given type and unique attribute value, without reading its definition
+     * @param entityType
+     * @param attribute
+     * @param value
+     * @return entity id
+     * @throws EntityNotFoundException if there is no active entity with the value
+     */
+    Id getEntityId(String entityType, String attribute, Object value) throws AtlasException;
 }
@@ -73,18 +73,29 @@ public class EntityAuditListener implements EntityChangeListener {
     }
 
     @Override
-    public void onTraitAdded(ITypedReferenceableInstance entity, IStruct trait) throws AtlasException {
-        EntityAuditEvent event = createEvent(entity, RequestContext.get().getRequestTime(),
-                EntityAuditEvent.EntityAuditAction.TAG_ADD,
-                "Added trait: " + InstanceSerialization.toJson(trait, true));
-        auditRepository.putEvents(event);
+    public void onTraitAdded(Collection<ITypedReferenceableInstance> entities, IStruct trait) throws AtlasException {
+        List<EntityAuditEvent> events = new ArrayList<>();
+        long currentTime = RequestContext.get().getRequestTime();
+        String details = "Added trait: " + InstanceSerialization.toJson(trait, true);
+        for (ITypedReferenceableInstance entity : entities) {
+            EntityAuditEvent event = createEvent(entity, currentTime, EntityAuditEvent.EntityAuditAction.TAG_ADD,
+                    details);
+            events.add(event);
+        }
+        auditRepository.putEvents(events);
     }
 
     @Override
-    public void onTraitDeleted(ITypedReferenceableInstance entity, String traitName) throws AtlasException {
-        EntityAuditEvent event = createEvent(entity, RequestContext.get().getRequestTime(),
-                EntityAuditEvent.EntityAuditAction.TAG_DELETE, "Deleted trait: " + traitName);
-        auditRepository.putEvents(event);
+    public void onTraitDeleted(Collection<ITypedReferenceableInstance> entities, String traitName)
+            throws AtlasException {
+        List<EntityAuditEvent> events = new ArrayList<>();
+        long currentTime = RequestContext.get().getRequestTime();
+        for (ITypedReferenceableInstance entity : entities) {
+            EntityAuditEvent event = createEvent(entity, currentTime, EntityAuditEvent.EntityAuditAction.TAG_DELETE,
+                    "Deleted trait: " + traitName);
+            events.add(event);
+        }
+        auditRepository.putEvents(events);
     }
 
     @Override
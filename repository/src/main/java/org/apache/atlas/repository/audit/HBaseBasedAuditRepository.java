@@ -25,6 +25,7 @@ import org.apache.atlas.AtlasException;
 import org.apache.atlas.EntityAuditEvent;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.WarmStandbyHandler;
 import org.apache.atlas.service.Service;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
@@ -36,6 +37,7 @@ import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RegionLocator;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
@@ -68,7 +70,8 @@ import java.util.List;
  * But if there are more than one atlas servers, we should use server id in the key
  */
 @Singleton
-public class HBaseBasedAuditRepository implements Service, EntityAuditRepository, ActiveStateChangeHandler {
+public class HBaseBasedAuditRepository implements Service, EntityAuditRepository, ActiveStateChangeHandler,
+        WarmStandbyHandler {
     private static final Logger LOG = LoggerFactory.getLogger(HBaseBasedAuditRepository.class);
 
     public static final String CONFIG_PREFIX = "atlas.audit";
@@ -96,6 +99,7 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
     }
     private TableName tableName;
     private Connection connection;
+    private volatile boolean tableExists = false;
 
     /**
      * Add events to the event repository
@@ -329,6 +333,10 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
 
     @Override
     public void instanceIsActive() throws AtlasException {
+        if (tableExists) {
+            LOG.info("Reacting to active: HBase table for Audit already verified on standby.");
+            return;
+        }
         LOG.info("Reacting to active: Creating HBase table for Audit if required.");
         createTableIfNotExists();
     }
@@ -337,4 +345,31 @@ public class HBaseBasedAuditRepository implements Service, EntityAuditRepository
     public void instanceIsPassive() {
         LOG.info("Reacting to passive: No action for now.");
     }
+
+    /**
+     * Checks that the audit table exists and caches its region locations on the connection, without
+     * creating the table, since that must happen only from an active instance.
+     */
+    @Override
+    public void instanceIsStandby() throws AtlasException {
+        if (tableExists) {
+            return;
+        }
+        Admin admin = null;
+        RegionLocator regionLocator = null;
+        try {
+            admin = connection.getAdmin();
+            if (admin.tableExists(tableName)) {
+                regionLocator = connection.getRegionLocator(tableName);
+                regionLocator.getAllRegionLocations();
+                tableExists = true;
+                LOG.info("Reacting to standby: HBase table {} for Audit exists", tableName.getNameAsString());
+            }
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        } finally {
+            close(regionLocator);
+            close(admin);
+        }
+    }
 }
@@ -30,7 +30,6 @@ import java.util.Set;
 
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.RequestContext;
-import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graph.GraphHelper.VertexInfo;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
@@ -89,7 +88,8 @@ public abstract class DeleteHandler {
            // Record all deletion candidate GUIDs in RequestContext
            // and gather deletion candidate vertices.
            for (VertexInfo vertexInfo : compositeVertices) {
-               requestContext.recordEntityDelete(vertexInfo.getGuid(), vertexInfo.getTypeName());
+               requestContext.recordEntityDelete(vertexInfo.getGuid(), vertexInfo.getTypeName(),
+                       GraphHelper.getTraitNames(vertexInfo.getVertex()));
                deletionCandidateVertices.add(vertexInfo.getVertex());
            }
        }
@@ -394,10 +394,8 @@ public abstract class DeleteHandler {
 
         if (edge != null) {
             deleteEdge(edge, false);
-            RequestContext requestContext = RequestContext.get();
-            GraphHelper.setProperty(outVertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY,
-                    requestContext.getRequestTime());
-            requestContext.recordEntityUpdate(outId);
+            GraphHelper.setModificationTimestamp(outVertex);
+            RequestContext.get().recordEntityUpdate(outId);
         }
     }
 
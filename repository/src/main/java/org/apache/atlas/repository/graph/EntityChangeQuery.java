@@ -0,0 +1,333 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.graph;
+
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.services.EntityChanges;
+import org.apache.atlas.services.EntityVersion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the entities modified after a position, in the order of their modification timestamp, modification sequence
+ * and guid, with range queries on the indexed modification timestamp. Graph queries come back in no particular order,
+ * so a page is read from a window of time that is narrowed when it holds too many changes and widened when it holds
+ * too few; the vertices read for a page are then in proportion to the size of the page rather than to the number of
+ * entities. Changes made in the same millisecond, which come from requests started in that millisecond, are read the
+ * same way from windows of their modification sequence. A page that ends within a millisecond is continued from
+ * there, before the next window of time is read.
+ *
+ * Entities last modified before the modification sequence was recorded don't have one. Their changes made in the same
+ * millisecond are read after the guid of the position, keeping only those of the page: each page then reads all of
+ * them.
+ *
+ * Changes of the last lagMs milliseconds are left out: entities are stamped with the start time of the request that
+ * modified them, so a slow request may commit changes older than those already read; the search index is also
+ * refreshed some time after changes are committed.
+ */
+class EntityChangeQuery {
+    private static final long INITIAL_WINDOW_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long MAX_WINDOW_MS = TimeUnit.DAYS.toMillis(3650);
+    private static final int OVERFLOW_FACTOR = 4;
+
+    private static final Comparator<Change> ORDER = new Comparator<Change>() {
+        @Override
+        public int compare(Change a, Change b) {
+            int ret = Long.compare(a.version.getModificationTimestamp(), b.version.getModificationTimestamp());
+            if (ret == 0) {
+                ret = Long.compare(a.sequence, b.sequence);
+            }
+            return ret != 0 ? ret : a.version.getGuid().compareTo(b.version.getGuid());
+        }
+    };
+
+    private final AtlasGraph graph;
+    private final long lagMs;
+
+    EntityChangeQuery(AtlasGraph graph, long lagMs) {
+        this.graph = graph;
+        this.lagMs = lagMs;
+    }
+
+    /**
+     * @param position position after which changes are read
+     * @param typeNames types of the entities to read, or null for all types
+     * @param limit maximum number of changes to read
+     */
+    EntityChanges find(Position position, Collection<String> typeNames, int limit) {
+        long until = System.currentTimeMillis() - lagMs;
+        long window = INITIAL_WINDOW_MS;
+        List<EntityVersion> page = new ArrayList<>();
+
+        while (page.size() < limit && position.timestamp <= until) {
+            long from = position.timestamp;
+            long to;
+            if (!position.guid.isEmpty()) {
+                // the rest of the changes made at the time of the position come first
+                to = from;
+            } else {
+                to = until - from < window ? until : from + window - 1;
+            }
+            int needed = limit - page.size();
+
+            List<Change> changes = to > from ? scan(query(from, to, typeNames), position, needed * OVERFLOW_FACTOR)
+                    : scanInstant(from, position, typeNames, needed + 1);
+
+            if (changes == null) {
+                window = Math.max(1, (to - from + 1) / 2);
+                continue;
+            }
+
+            if (changes.size() > needed) {
+                Change last = changes.get(needed - 1);
+                page.addAll(versions(changes.subList(0, needed)));
+                return new EntityChanges(page, new Position(last.version.getModificationTimestamp(), last.sequence,
+                        last.version.getGuid()).toString(), true);
+            }
+
+            page.addAll(versions(changes));
+            position = new Position(to + 1, "");
+            if (changes.size() < needed) {
+                window = Math.min(window * 2, MAX_WINDOW_MS);
+            }
+        }
+
+        return new EntityChanges(page, position.toString(), position.timestamp <= until);
+    }
+
+    /**
+     * @return the changes found by the query that come after the position, or null if there are more than max of them
+     */
+    private List<Change> scan(AtlasGraphQuery query, Position position, int max) {
+        List<Change> ret = new ArrayList<>();
+        for (AtlasVertex vertex : (Iterable<AtlasVertex>) query.vertices()) {
+            Change change = toChange(vertex, position);
+            if (change == null) {
+                continue;
+            }
+
+            if (ret.size() == max) {
+                return null;
+            }
+            ret.add(change);
+        }
+
+        Collections.sort(ret, ORDER);
+        return ret;
+    }
+
+    /**
+     * @return the first changes made at the timestamp that come after the position, at most max of them
+     */
+    private List<Change> scanInstant(long timestamp, Position position, Collection<String> typeNames, int max) {
+        boolean atPosition = position.timestamp == timestamp && !position.guid.isEmpty();
+        if (atPosition && position.sequence < 0) {
+            return scanUnnumbered(timestamp, position, typeNames, max);
+        }
+
+        List<Change> ret = scanNumbered(timestamp, position, typeNames, max);
+        // the changes made in a millisecond either all have a modification sequence or none of them has
+        return ret.isEmpty() && !atPosition ? scanUnnumbered(timestamp, position, typeNames, max) : ret;
+    }
+
+    /**
+     * Reads the changes made at the timestamp from windows of the modification sequence, narrowed and widened as the
+     * windows of time are. The first window is open ended, so that the few changes of most milliseconds are read with
+     * a single query.
+     */
+    private List<Change> scanNumbered(long timestamp, Position position, Collection<String> typeNames, int max) {
+        long from = position.timestamp == timestamp ? Math.max(position.sequence, 0) : 0;
+        long window = Long.MAX_VALUE;
+        List<Change> ret = new ArrayList<>();
+
+        while (true) {
+            long to = window > Long.MAX_VALUE - from ? Long.MAX_VALUE : from + window - 1;
+            int needed = max - ret.size();
+
+            AtlasGraphQuery query = query(timestamp, timestamp, typeNames)
+                    .has(Constants.MODIFICATION_SEQUENCE_PROPERTY_KEY, ComparisionOperator.GREATER_THAN_EQUAL, from)
+                    .has(Constants.MODIFICATION_SEQUENCE_PROPERTY_KEY, ComparisionOperator.LESS_THAN_EQUAL, to);
+            // the changes with the same sequence come from requests started in the same millisecond, and are few
+            List<Change> changes = scan(query, position, to > from ? needed * OVERFLOW_FACTOR : Integer.MAX_VALUE);
+
+            if (changes == null) {
+                window = Math.max(1, Math.min(window / 2, needed));
+                continue;
+            }
+
+            if (changes.size() >= needed) {
+                ret.addAll(changes.subList(0, needed));
+                return ret;
+            }
+
+            ret.addAll(changes);
+            if (to == Long.MAX_VALUE) {
+                return ret;
+            }
+            from = to + 1;
+            window = window > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : window * 2;
+        }
+    }
+
+    /**
+     * Reads the changes made at the timestamp by entities that have no modification sequence, after the guid of the
+     * position.
+     */
+    private List<Change> scanUnnumbered(long timestamp, Position position, Collection<String> typeNames, int max) {
+        AtlasGraphQuery query = query(timestamp, timestamp, typeNames);
+        if (position.timestamp == timestamp && !position.guid.isEmpty()) {
+            // the change at the position itself is dropped with the others that don't come after it
+            query.has(Constants.GUID_PROPERTY_KEY, ComparisionOperator.GREATER_THAN_EQUAL, position.guid);
+        }
+
+        // the last of the changes kept comes first, so that it is the one dropped for an earlier change
+        PriorityQueue<Change> kept = new PriorityQueue<>(max, Collections.reverseOrder(ORDER));
+        for (AtlasVertex vertex : (Iterable<AtlasVertex>) query.vertices()) {
+            Change change = toChange(vertex, position);
+            if (change == null || change.sequence >= 0) {
+                continue;
+            }
+
+            if (kept.size() < max) {
+                kept.add(change);
+            } else if (ORDER.compare(change, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(change);
+            }
+        }
+
+        List<Change> ret = new ArrayList<>(kept);
+        Collections.sort(ret, ORDER);
+        return ret;
+    }
+
+    private AtlasGraphQuery query(long from, long to, Collection<String> typeNames) {
+        AtlasGraphQuery query = graph.query()
+                .has(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, ComparisionOperator.GREATER_THAN_EQUAL, from)
+                .has(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, ComparisionOperator.LESS_THAN_EQUAL, to);
+        if (typeNames != null) {
+            query.in(Constants.ENTITY_TYPE_PROPERTY_KEY, typeNames);
+        }
+        return query;
+    }
+
+    /**
+     * @return the change of the entity, or null if the vertex is not an entity or its change doesn't come after the
+     * position
+     */
+    private static Change toChange(AtlasVertex vertex, Position position) {
+        String guid = GraphHelper.getIdFromVertex(vertex);
+        String typeName = GraphHelper.getTypeName(vertex);
+        Long timestamp = vertex.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class);
+        Long sequence = vertex.getProperty(Constants.MODIFICATION_SEQUENCE_PROPERTY_KEY, Long.class);
+
+        // trait and struct vertices have no guid, type vertices have no entity type
+        if (guid == null || typeName == null || timestamp == null
+                || !position.isBefore(timestamp, sequence != null ? sequence : -1, guid)) {
+            return null;
+        }
+
+        Integer version = vertex.getProperty(Constants.VERSION_PROPERTY_KEY, Integer.class);
+        return new Change(new EntityVersion(guid, typeName, timestamp, version != null ? version : 0,
+                GraphHelper.getStateAsString(vertex)), sequence != null ? sequence : -1);
+    }
+
+    private static List<EntityVersion> versions(List<Change> changes) {
+        List<EntityVersion> ret = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            ret.add(change.version);
+        }
+        return ret;
+    }
+
+    /**
+     * The change of an entity, with its modification sequence, or -1 if it has none.
+     */
+    private static class Change {
+        final EntityVersion version;
+        final long sequence;
+
+        Change(EntityVersion version, long sequence) {
+            this.version = version;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * A position in the change feed: changes come after it if they were modified later, or at the same time with a
+     * greater modification sequence, or the same sequence and a greater guid. Written as the timestamp, followed by a
+     * colon, the sequence and another colon when there is one, and the guid when there is one.
+     */
+    static class Position {
+        final long timestamp;
+        final long sequence;
+        final String guid;
+
+        Position(long timestamp, String guid) {
+            this(timestamp, -1, guid);
+        }
+
+        Position(long timestamp, long sequence, String guid) {
+            this.timestamp = timestamp;
+            this.sequence = sequence;
+            this.guid = guid;
+        }
+
+        static Position parse(String cursor) {
+            String[] parts = cursor.split(":", 3);
+            try {
+                switch (parts.length) {
+                case 1:
+                    return new Position(Long.parseLong(parts[0]), "");
+                case 2:
+                    return new Position(Long.parseLong(parts[0]), parts[1]);
+                default:
+                    return new Position(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+            }
+        }
+
+        boolean isBefore(long timestamp, long sequence, String guid) {
+            if (timestamp != this.timestamp) {
+                return timestamp > this.timestamp;
+            }
+            return sequence != this.sequence ? sequence > this.sequence : guid.compareTo(this.guid) > 0;
+        }
+
+        @Override
+        public String toString() {
+            if (guid.isEmpty()) {
+                return String.valueOf(timestamp);
+            }
+            return sequence < 0 ? timestamp + ":" + guid : timestamp + ":" + sequence + ":" + guid;
+        }
+    }
+}
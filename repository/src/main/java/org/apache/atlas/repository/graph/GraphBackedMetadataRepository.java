@@ -20,9 +20,13 @@ package org.apache.atlas.repository.graph;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasException;
@@ -35,6 +39,8 @@ import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.services.EntityChanges;
+import org.apache.atlas.services.EntityVersion;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.ITypedStruct;
 import org.apache.atlas.typesystem.exception.EntityExistsException;
@@ -46,6 +52,7 @@ import org.apache.atlas.typesystem.types.ClassType;
 import org.apache.atlas.typesystem.types.DataTypes;
 import org.apache.atlas.typesystem.types.IDataType;
 import org.apache.atlas.typesystem.types.TypeSystem;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -159,6 +166,63 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
         }
     }
 
+    @Override
+    @GraphTransaction
+    public List<ITypedReferenceableInstance> getEntityDefinitions(List<String> guids) throws RepositoryException, EntityNotFoundException {
+        LOG.debug("Retrieving {} entities", guids.size());
+
+        List<ITypedReferenceableInstance> ret = new ArrayList<>(guids.size());
+        for (String guid : guids) {
+            AtlasVertex instanceVertex = graphHelper.getVertexForGUID(guid);
+
+            try {
+                ret.add(graphToInstanceMapper.mapGraphToTypedInstance(guid, instanceVertex));
+            } catch (AtlasException e) {
+                throw new RepositoryException(e);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    @GraphTransaction
+    public EntityVersion getEntityVersion(String guid) throws RepositoryException, EntityNotFoundException {
+        LOG.debug("Retrieving version of entity with guid={}", guid);
+
+        AtlasVertex instanceVertex = graphHelper.getVertexForGUID(guid);
+        long modificationTimestamp = getModificationTimestamp(instanceVertex);
+        try {
+            // the definition includes the entities it owns, which are changed without changing the owner
+            for (GraphHelper.VertexInfo compositeVertex : graphHelper.getCompositeVertices(instanceVertex)) {
+                modificationTimestamp = Math.max(modificationTimestamp,
+                        getModificationTimestamp(compositeVertex.getVertex()));
+            }
+        } catch (AtlasException e) {
+            throw new RepositoryException(e);
+        }
+        Integer version = instanceVertex.getProperty(Constants.VERSION_PROPERTY_KEY, Integer.class);
+
+        return new EntityVersion(guid, GraphHelper.getTypeName(instanceVertex), modificationTimestamp,
+                version != null ? version : 0, GraphHelper.getStateAsString(instanceVertex));
+    }
+
+    private static long getModificationTimestamp(AtlasVertex vertex) {
+        Long ret = vertex.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class);
+        return ret != null ? ret : 0;
+    }
+
+    @Override
+    @GraphTransaction
+    public EntityChanges getEntityChanges(long since, String cursor, Collection<String> typeNames, int limit)
+            throws RepositoryException {
+        LOG.debug("Retrieving changes of entities of types {} since {}, cursor {}", typeNames, since, cursor);
+
+        EntityChangeQuery.Position position = cursor != null ? EntityChangeQuery.Position.parse(cursor)
+                : new EntityChangeQuery.Position(since, "");
+        return new EntityChangeQuery(graph, AtlasRepositoryConfiguration.getEntityChangesLagMs())
+                .find(position, typeNames, limit);
+    }
+
     @Override
     @GraphTransaction
     public ITypedReferenceableInstance getEntityDefinition(String entityType, String attribute, Object value)
@@ -174,6 +238,19 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
         return graphToInstanceMapper.mapGraphToTypedInstance(guid, instanceVertex);
     }
 
+    @Override
+    @GraphTransaction
+    public Id getEntityId(String entityType, String attribute, Object value) throws AtlasException {
+        LOG.debug("Retrieving entity id with type={} and {}={}", entityType, attribute, value);
+        IDataType type = typeSystem.getDataType(IDataType.class, entityType);
+        String propertyKey = getFieldNameInVertex(type, attribute);
+        AtlasVertex instanceVertex = graphHelper.findVertex(propertyKey, value,
+                Constants.ENTITY_TYPE_PROPERTY_KEY, entityType,
+                Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name());
+
+        return GraphHelper.getIdFromVertex(entityType, instanceVertex);
+    }
+
     @Override
     @GraphTransaction
     public List<String> getEntityList(String entityType) throws RepositoryException {
@@ -226,19 +303,8 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
         try {
             AtlasVertex instanceVertex = graphHelper.getVertexForGUID(guid);
 
-            // add the trait instance as a new vertex
-            final String typeName = GraphHelper.getTypeName(instanceVertex);
-
             TypedInstanceToGraphMapper instanceToGraphMapper = new TypedInstanceToGraphMapper(graphToInstanceMapper, deleteHandler);
-            instanceToGraphMapper.mapTraitInstanceToVertex(traitInstance,
-                    typeSystem.getDataType(ClassType.class, typeName), instanceVertex);
-
-
-            // update the traits in entity once adding trait instance is successful
-            GraphHelper.addProperty(instanceVertex, Constants.TRAIT_NAMES_PROPERTY_KEY, traitName);
-            GraphHelper.setProperty(instanceVertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY,
-                    RequestContext.get().getRequestTime());
-            
+            addTrait(instanceToGraphMapper, instanceVertex, traitInstance);
         } catch (RepositoryException e) {
             throw e;
         } catch (Exception e) {
@@ -246,6 +312,51 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
         }
     }
 
+    @Override
+    @GraphTransaction
+    public Map<String, String> addTrait(List<String> guids, ITypedStruct traitInstance) throws RepositoryException {
+        Preconditions.checkNotNull(traitInstance, "Trait instance cannot be null");
+        final String traitName = traitInstance.getTypeName();
+        LOG.debug("Adding a new trait={} for {} entities", traitName, guids.size());
+
+        Map<String, String> failed = new LinkedHashMap<>();
+        try {
+            TypedInstanceToGraphMapper instanceToGraphMapper = new TypedInstanceToGraphMapper(graphToInstanceMapper, deleteHandler);
+            // a guid listed again would find the trait it was just given
+            for (String guid : new LinkedHashSet<>(guids)) {
+                AtlasVertex instanceVertex;
+                try {
+                    instanceVertex = graphHelper.getVertexForGUID(guid);
+                } catch (EntityNotFoundException e) {
+                    failed.put(guid, e.getMessage());
+                    continue;
+                }
+
+                if (GraphHelper.getTraitNames(instanceVertex).contains(traitName)) {
+                    failed.put(guid, String.format("trait=%s is already defined for entity=%s", traitName, guid));
+                    continue;
+                }
+
+                addTrait(instanceToGraphMapper, instanceVertex, traitInstance);
+            }
+        } catch (Exception e) {
+            throw new RepositoryException(e);
+        }
+        return failed;
+    }
+
+    private void addTrait(TypedInstanceToGraphMapper instanceToGraphMapper, AtlasVertex instanceVertex,
+                          ITypedStruct traitInstance) throws AtlasException {
+        // add the trait instance as a new vertex
+        final String typeName = GraphHelper.getTypeName(instanceVertex);
+        instanceToGraphMapper.mapTraitInstanceToVertex(traitInstance,
+                typeSystem.getDataType(ClassType.class, typeName), instanceVertex);
+
+        // update the traits in entity once adding trait instance is successful
+        GraphHelper.addProperty(instanceVertex, Constants.TRAIT_NAMES_PROPERTY_KEY, traitInstance.getTypeName());
+        GraphHelper.setModificationTimestamp(instanceVertex);
+    }
+
     /**
      * Deletes a given trait from an existing entity represented by a guid.
      *
@@ -267,19 +378,54 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
         }
 
         try {
-            final String entityTypeName = GraphHelper.getTypeName(instanceVertex);
-            String relationshipLabel = GraphHelper.getTraitLabel(entityTypeName, traitNameToBeDeleted);
-            AtlasEdge edge = graphHelper.getEdgeForLabel(instanceVertex, relationshipLabel);
-            if(edge != null) {
-                deleteHandler.deleteEdgeReference(edge, DataTypes.TypeCategory.TRAIT, false, true);
-
-                // update the traits in entity once trait removal is successful
-                traitNames.remove(traitNameToBeDeleted);
-                updateTraits(instanceVertex, traitNames);
+            deleteTrait(instanceVertex, traitNames, traitNameToBeDeleted);
+        } catch (Exception e) {
+            throw new RepositoryException(e);
+        }
+    }
+
+    @Override
+    @GraphTransaction
+    public Map<String, String> deleteTrait(List<String> guids, String traitNameToBeDeleted) throws RepositoryException {
+        LOG.debug("Deleting trait={} from {} entities", traitNameToBeDeleted, guids.size());
+
+        Map<String, String> failed = new LinkedHashMap<>();
+        try {
+            for (String guid : new LinkedHashSet<>(guids)) {
+                AtlasVertex instanceVertex;
+                try {
+                    instanceVertex = graphHelper.getVertexForGUID(guid);
+                } catch (EntityNotFoundException e) {
+                    failed.put(guid, e.getMessage());
+                    continue;
+                }
+
+                List<String> traitNames = GraphHelper.getTraitNames(instanceVertex);
+                if (!traitNames.contains(traitNameToBeDeleted)) {
+                    failed.put(guid, "Could not find trait=" + traitNameToBeDeleted + " in the repository for entity: " + guid);
+                    continue;
+                }
+
+                deleteTrait(instanceVertex, traitNames, traitNameToBeDeleted);
             }
         } catch (Exception e) {
             throw new RepositoryException(e);
         }
+        return failed;
+    }
+
+    private void deleteTrait(AtlasVertex instanceVertex, List<String> traitNames, String traitNameToBeDeleted)
+            throws AtlasException {
+        final String entityTypeName = GraphHelper.getTypeName(instanceVertex);
+        String relationshipLabel = GraphHelper.getTraitLabel(entityTypeName, traitNameToBeDeleted);
+        AtlasEdge edge = graphHelper.getEdgeForLabel(instanceVertex, relationshipLabel);
+        if(edge != null) {
+            deleteHandler.deleteEdgeReference(edge, DataTypes.TypeCategory.TRAIT, false, true);
+
+            // update the traits in entity once trait removal is successful
+            traitNames.remove(traitNameToBeDeleted);
+            updateTraits(instanceVertex, traitNames);
+        }
     }
 
     
@@ -291,8 +437,7 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
         for (String traitName : traitNames) {
             GraphHelper.addProperty(instanceVertex, Constants.TRAIT_NAMES_PROPERTY_KEY, traitName);
         }
-        GraphHelper.setProperty(instanceVertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY,
-                RequestContext.get().getRequestTime());
+        GraphHelper.setModificationTimestamp(instanceVertex);
     }
 
     @Override
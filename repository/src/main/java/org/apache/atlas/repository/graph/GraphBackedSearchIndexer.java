@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
@@ -33,6 +34,8 @@ import org.apache.atlas.AtlasException;
 import org.apache.atlas.discovery.SearchIndexer;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.WarmStandbyHandler;
+import org.apache.atlas.query.QueryPlanner;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.IndexCreationException;
 import org.apache.atlas.repository.IndexException;
@@ -59,7 +62,7 @@ import com.google.common.annotations.VisibleForTesting;
 /**
  * Adds index for properties of a given type when its added before any instances are added.
  */
-public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChangeHandler {
+public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChangeHandler, WarmStandbyHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(GraphBackedSearchIndexer.class);
     
@@ -71,8 +74,14 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         }
     };
     
+    //incremented whenever indexes are added, so that index metadata cached elsewhere can be read again
+    private static final AtomicLong indexGeneration = new AtomicLong();
+
     //allows injection of a dummy graph for testing
     private IAtlasGraphProvider provider;
+
+    //set on standby once the global indexes are known to exist, so that activation can skip the check
+    private volatile boolean globalIndexesExist = false;
     
     @Inject
     public GraphBackedSearchIndexer() throws RepositoryException, AtlasException {
@@ -105,6 +114,10 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         try {
             if (management.containsPropertyKey(Constants.VERTEX_TYPE_PROPERTY_KEY)) {
                 LOG.info("Global indexes already exist for graph");
+                if (!management.containsPropertyKey(Constants.MODIFICATION_SEQUENCE_PROPERTY_KEY)) {
+                    // added after the other global keys, so graphs created earlier don't have it yet
+                    createModificationSequenceIndex(management);
+                }
                 management.commit();
                 return;
             }
@@ -131,6 +144,7 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
             // create a composite index for entity modification timestamp
             createIndexes(management, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class, false,
                     AtlasCardinality.SINGLE, false, false);
+            createModificationSequenceIndex(management);
 
             // create a composite and mixed index for type since it can be combined with other keys
             createIndexes(management, Constants.ENTITY_TYPE_PROPERTY_KEY, String.class, false, AtlasCardinality.SINGLE,
@@ -153,6 +167,7 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
       
             
             commit(management);
+            indexGeneration.incrementAndGet();
             LOG.info("Index creation for global keys complete.");
         } catch (Throwable t) {
             rollback(management);
@@ -161,6 +176,14 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
     }
    
 
+    /**
+     * The modification sequence is only looked up together with the modification timestamp, in the same mixed index.
+     */
+    private void createModificationSequenceIndex(AtlasGraphManagement management) {
+        createIndexes(management, Constants.MODIFICATION_SEQUENCE_PROPERTY_KEY, Long.class, false,
+                AtlasCardinality.SINGLE, false, false);
+    }
+
     private void createFullTextIndex(AtlasGraphManagement management) {
         AtlasPropertyKey fullText =
                 management.makePropertyKey(Constants.ENTITY_TEXT_PROPERTY_KEY, String.class, AtlasCardinality.SINGLE);
@@ -204,6 +227,18 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
 
         //Commit indexes
         commit(management);
+
+        //The query planner may have cached the attributes of these types as not indexed
+        QueryPlanner.invalidate();
+        indexGeneration.incrementAndGet();
+    }
+
+    /**
+     * @return a number that changes whenever indexes are added; index metadata read while it had the same value
+     * is still current
+     */
+    public static long getIndexGeneration() {
+        return indexGeneration.get();
     }
 
     @Override
@@ -453,6 +488,10 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
      */
     @Override
     public void instanceIsActive() throws AtlasException {
+        if (globalIndexesExist) {
+            LOG.info("Reacting to active: global indexes already verified on standby");
+            return;
+        }
         LOG.info("Reacting to active: initializing index");
         try {
             initialize();
@@ -467,6 +506,24 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
     public void instanceIsPassive() {
         LOG.info("Reacting to passive state: No action right now.");
     }
+
+    /**
+     * Opens the graph management system and checks for the global indexes, without creating them,
+     * since index creation must happen only from an active instance.
+     */
+    @Override
+    public void instanceIsStandby() throws AtlasException {
+        if (globalIndexesExist) {
+            return;
+        }
+        AtlasGraphManagement management = provider.get().getManagementSystem();
+        try {
+            globalIndexesExist = management.containsPropertyKey(Constants.VERTEX_TYPE_PROPERTY_KEY);
+            LOG.info("Reacting to standby: global indexes exist = {}", globalIndexesExist);
+        } finally {
+            rollback(management);
+        }
+    }
     
     /* Commenting this out since we do not need an index for edge label here
     private void createEdgeMixedIndex(String propertyName) {
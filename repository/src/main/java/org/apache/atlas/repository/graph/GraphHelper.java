@@ -156,8 +156,7 @@ public final class GraphHelper {
 
         // add timestamp information
         setProperty(vertexWithoutIdentity, Constants.TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
-        setProperty(vertexWithoutIdentity, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY,
-                RequestContext.get().getRequestTime());
+        setModificationTimestamp(vertexWithoutIdentity);
 
         return vertexWithoutIdentity;
     }
@@ -417,6 +416,16 @@ public final class GraphHelper {
         return element.toString();
     }
     
+    /**
+     * Stamps the vertex with the time of the request modifying it, and with the number of the modification within
+     * the request.
+     */
+    public static void setModificationTimestamp(AtlasVertex vertex) {
+        RequestContext requestContext = RequestContext.get();
+        setProperty(vertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, requestContext.getRequestTime());
+        setProperty(vertex, Constants.MODIFICATION_SEQUENCE_PROPERTY_KEY, requestContext.nextModificationSequence());
+    }
+
     /**
      * Adds an additional value to a multi-property.
      * 
@@ -681,19 +690,40 @@ public final class GraphHelper {
     }
 
     public static ITypedReferenceableInstance[] deserializeClassInstances(TypeSystem typeSystem, String entityInstanceDefinition)
+    throws AtlasException {
+        List<Referenceable> entityInstances = deserializeReferenceables(entityInstanceDefinition);
+        ITypedReferenceableInstance[] instances = new ITypedReferenceableInstance[entityInstances.size()];
+        for (int index = 0; index < entityInstances.size(); index++) {
+            instances[index] = toTypedReferenceableInstance(typeSystem, entityInstances.get(index));
+        }
+        return instances;
+    }
+
+    /**
+     * Same as getTypedReferenceableInstance(), reporting unexpected errors as invalid input.
+     */
+    public static ITypedReferenceableInstance toTypedReferenceableInstance(TypeSystem typeSystem,
+                                                                           Referenceable entityInstance)
     throws AtlasException {
+        try {
+            return getTypedReferenceableInstance(typeSystem, entityInstance);
+        } catch(ValueConversionException | TypeNotFoundException  e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error("Unable to convert entity {}", entityInstance, e);
+            throw new IllegalArgumentException("Unable to deserialize json", e);
+        }
+    }
+
+    public static List<Referenceable> deserializeReferenceables(String entityInstanceDefinition) {
         try {
             JSONArray referableInstances = new JSONArray(entityInstanceDefinition);
-            ITypedReferenceableInstance[] instances = new ITypedReferenceableInstance[referableInstances.length()];
+            List<Referenceable> entityInstances = new ArrayList<>(referableInstances.length());
             for (int index = 0; index < referableInstances.length(); index++) {
-                Referenceable entityInstance =
-                        InstanceSerialization.fromJsonReferenceable(referableInstances.getString(index), true);
-                ITypedReferenceableInstance typedInstrance = getTypedReferenceableInstance(typeSystem, entityInstance);
-                instances[index] = typedInstrance;
+                entityInstances.add(
+                        InstanceSerialization.fromJsonReferenceable(referableInstances.getString(index), true));
             }
-            return instances;
-        } catch(ValueConversionException | TypeNotFoundException  e) {
-            throw e;
+            return entityInstances;
         } catch (Exception e) {  // exception from deserializer
             LOG.error("Unable to deserialize json={}", entityInstanceDefinition, e);
             throw new IllegalArgumentException("Unable to deserialize json", e);
@@ -43,8 +43,7 @@ public class SoftDeleteHandler extends DeleteHandler {
             Id.EntityState state = GraphHelper.getState(instanceVertex);
             if (state != Id.EntityState.DELETED) {
                 GraphHelper.setProperty(instanceVertex, STATE_PROPERTY_KEY, Id.EntityState.DELETED.name());
-                GraphHelper.setProperty(instanceVertex, MODIFICATION_TIMESTAMP_PROPERTY_KEY,
-                        RequestContext.get().getRequestTime());
+                GraphHelper.setModificationTimestamp(instanceVertex);
             }
         }
     }
@@ -185,8 +185,7 @@ public final class TypedInstanceToGraphMapper {
             }
             mapAttributeToVertex(typedInstance, instanceVertex, attributeInfo, operation);
         }
-        GraphHelper.setProperty(instanceVertex, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY,
-                RequestContext.get().getRequestTime());
+        GraphHelper.setModificationTimestamp(instanceVertex);
     }
 
     void mapAttributeToVertex(ITypedInstance typedInstance, AtlasVertex instanceVertex,
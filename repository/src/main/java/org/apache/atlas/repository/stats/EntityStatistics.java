@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.stats;
+
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import javax.xml.bind.DatatypeConverter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts of active and deleted entities by type and by trait, and estimates of the distinct values of attributes.
+ * Attributes are named typeName.attributeName, after the type of the entity rather than the type declaring the
+ * attribute.
+ *
+ * Thread safe.
+ */
+public class EntityStatistics {
+    private static final String TYPES = "types";
+    private static final String TRAITS = "traits";
+    private static final String ATTRIBUTES = "attributes";
+    private static final String ACTIVE = "active";
+    private static final String DELETED = "deleted";
+
+    private final ConcurrentMap<String, Counts> types = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counts> traits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, HyperLogLog> attributes = new ConcurrentHashMap<>();
+
+    /**
+     * Active and deleted counts of a type or trait.
+     */
+    public static class Counts {
+        private final AtomicLong active = new AtomicLong();
+        private final AtomicLong deleted = new AtomicLong();
+
+        public long getActive() {
+            return active.get();
+        }
+
+        public long getDeleted() {
+            return deleted.get();
+        }
+    }
+
+    public void entityAdded(String typeName, Collection<String> traitNames) {
+        counts(types, typeName).active.incrementAndGet();
+        for (String traitName : traitNames) {
+            counts(traits, traitName).active.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param softDelete true if the entity is kept in the repository in deleted state
+     */
+    public void entityDeleted(String typeName, Collection<String> traitNames, boolean softDelete) {
+        delete(counts(types, typeName), softDelete);
+        for (String traitName : traitNames) {
+            delete(counts(traits, traitName), softDelete);
+        }
+    }
+
+    /**
+     * Counts an entity that is already deleted, while statistics are rebuilt from the repository.
+     */
+    public void deletedEntityFound(String typeName, Collection<String> traitNames) {
+        counts(types, typeName).deleted.incrementAndGet();
+        for (String traitName : traitNames) {
+            counts(traits, traitName).deleted.incrementAndGet();
+        }
+    }
+
+    public void traitAdded(String traitName) {
+        counts(traits, traitName).active.incrementAndGet();
+    }
+
+    public void traitDeleted(String traitName) {
+        counts(traits, traitName).active.decrementAndGet();
+    }
+
+    public void valueAdded(String attributeName, String value) {
+        HyperLogLog sketch = attributes.get(attributeName);
+        if (sketch == null) {
+            HyperLogLog existing = attributes.putIfAbsent(attributeName, sketch = new HyperLogLog());
+            if (existing != null) {
+                sketch = existing;
+            }
+        }
+        sketch.add(value);
+    }
+
+    public Map<String, Counts> getTypeCounts() {
+        return Collections.unmodifiableMap(new TreeMap<>(types));
+    }
+
+    public Map<String, Counts> getTraitCounts() {
+        return Collections.unmodifiableMap(new TreeMap<>(traits));
+    }
+
+    /**
+     * @return estimated number of distinct values by attribute name
+     */
+    public Map<String, Long> getDistinctValues() {
+        Map<String, Long> ret = new TreeMap<>();
+        for (Map.Entry<String, HyperLogLog> entry : attributes.entrySet()) {
+            ret.put(entry.getKey(), entry.getValue().estimate());
+        }
+        return ret;
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONObject ret = new JSONObject();
+        ret.put(TYPES, toJson(types));
+        ret.put(TRAITS, toJson(traits));
+
+        JSONObject sketches = new JSONObject();
+        for (Map.Entry<String, HyperLogLog> entry : attributes.entrySet()) {
+            sketches.put(entry.getKey(), DatatypeConverter.printBase64Binary(entry.getValue().toBytes()));
+        }
+        ret.put(ATTRIBUTES, sketches);
+        return ret;
+    }
+
+    public static EntityStatistics fromJson(JSONObject json) throws JSONException {
+        EntityStatistics ret = new EntityStatistics();
+        fromJson(json.getJSONObject(TYPES), ret.types);
+        fromJson(json.getJSONObject(TRAITS), ret.traits);
+
+        JSONObject sketches = json.getJSONObject(ATTRIBUTES);
+        for (Iterator<?> keys = sketches.keys(); keys.hasNext(); ) {
+            String key = (String) keys.next();
+            try {
+                ret.attributes.put(key, HyperLogLog.fromBytes(
+                        DatatypeConverter.parseBase64Binary(sketches.getString(key))));
+            } catch (IllegalArgumentException e) {
+                throw new JSONException("Invalid distinct value sketch for " + key + ": " + e.getMessage());
+            }
+        }
+        return ret;
+    }
+
+    private static JSONObject toJson(Map<String, Counts> counts) throws JSONException {
+        JSONObject ret = new JSONObject();
+        for (Map.Entry<String, Counts> entry : counts.entrySet()) {
+            JSONObject value = new JSONObject();
+            value.put(ACTIVE, entry.getValue().getActive());
+            value.put(DELETED, entry.getValue().getDeleted());
+            ret.put(entry.getKey(), value);
+        }
+        return ret;
+    }
+
+    private static void fromJson(JSONObject json, Map<String, Counts> counts) throws JSONException {
+        for (Iterator<?> keys = json.keys(); keys.hasNext(); ) {
+            String key = (String) keys.next();
+            JSONObject value = json.getJSONObject(key);
+            Counts entry = new Counts();
+            entry.active.set(value.getLong(ACTIVE));
+            entry.deleted.set(value.getLong(DELETED));
+            counts.put(key, entry);
+        }
+    }
+
+    private static Counts counts(ConcurrentMap<String, Counts> counts, String name) {
+        Counts ret = counts.get(name);
+        if (ret == null) {
+            Counts existing = counts.putIfAbsent(name, ret = new Counts());
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+        return ret;
+    }
+
+    private static void delete(Counts counts, boolean softDelete) {
+        counts.active.decrementAndGet();
+        if (softDelete) {
+            counts.deleted.incrementAndGet();
+        }
+    }
+}
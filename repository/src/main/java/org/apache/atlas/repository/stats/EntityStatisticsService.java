@@ -0,0 +1,542 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.stats;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.EntityChangeListener;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.DeleteHandler;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graph.SoftDeleteHandler;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.typesystem.IStruct;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.apache.atlas.typesystem.types.AttributeInfo;
+import org.apache.atlas.typesystem.types.ClassType;
+import org.apache.atlas.typesystem.types.DataTypes;
+import org.apache.atlas.typesystem.types.EnumValue;
+import org.apache.atlas.typesystem.types.TypeSystem;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains {@link EntityStatistics} from entity change notifications, so that entity counts by type and trait can be
+ * read without querying the graph. Unique and indexed attributes of primitive and enum types have their distinct
+ * values estimated.
+ *
+ * The statistics are written to a local file every atlas.stats.persist.intervalMs milliseconds, and marked clean
+ * when the service stops. They are read back from the file when the service starts after a clean stop; otherwise,
+ * and whenever an instance becomes active in HA mode, they are rebuilt in the background from the entity vertices
+ * of the graph. While they are rebuilt, counts are partial: changes notified meanwhile are held back, and applied
+ * once the graph has been read.
+ */
+@Singleton
+public class EntityStatisticsService implements Service, EntityChangeListener, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityStatisticsService.class);
+
+    static final String FILE_NAME = "entity-statistics.json";
+
+    private static final String CLEAN = "clean";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String STATISTICS = "statistics";
+
+    private final TypeSystem typeSystem;
+    private final boolean softDelete;
+    private final File file;
+    private final long persistIntervalMs;
+
+    private volatile EntityStatistics statistics = new EntityStatistics();
+    private volatile boolean rebuilding = false;
+    private volatile long lastPersisted = 0;
+    private ScheduledExecutorService executor;
+
+    private final Object changeLock = new Object();
+    // while rebuilding, the changes notified since the rebuild started and the guids of their entities
+    private List<PendingChange> pendingChanges;
+    private Set<String> pendingGuids;
+    private long rebuildStarted;
+
+    @Inject
+    public EntityStatisticsService(TypeSystem typeSystem, DeleteHandler deleteHandler) {
+        this(typeSystem, deleteHandler, AtlasRepositoryConfiguration.getEntityStatisticsFile(FILE_NAME),
+                AtlasRepositoryConfiguration.getEntityStatisticsPersistIntervalMs());
+    }
+
+    EntityStatisticsService(TypeSystem typeSystem, DeleteHandler deleteHandler, File file, long persistIntervalMs) {
+        this.typeSystem = typeSystem;
+        this.softDelete = deleteHandler instanceof SoftDeleteHandler;
+        this.file = file;
+        this.persistIntervalMs = persistIntervalMs;
+    }
+
+    public EntityStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return true while the statistics are rebuilt from the graph
+     */
+    public boolean isRebuilding() {
+        return rebuilding;
+    }
+
+    /**
+     * @return true if the statistics are kept up to date with entity changes and are not being rebuilt
+     */
+    public synchronized boolean isMaintained() {
+        return executor != null && !rebuilding;
+    }
+
+    /**
+     * @return time the statistics were last written, 0 if they haven't been
+     */
+    public long getLastPersisted() {
+        return lastPersisted;
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!HAConfiguration.isHAEnabled(ApplicationProperties.get())) {
+            activate(load());
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (deactivate() && !rebuilding) {
+            persist(true);
+        }
+    }
+
+    @Override
+    public void instanceIsActive() {
+        LOG.info("Reacting to active state: rebuilding entity statistics");
+        // the file may be older than changes made while another instance was active
+        activate(null);
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        LOG.info("Reacting to passive state: no longer maintaining entity statistics");
+        deactivate();
+    }
+
+    @Override
+    public void onEntitiesAdded(Collection<ITypedReferenceableInstance> entities) throws AtlasException {
+        for (final ITypedReferenceableInstance entity : entities) {
+            record(entity, new Change() {
+                @Override
+                public void applyTo(EntityStatistics target) throws AtlasException {
+                    target.entityAdded(entity.getTypeName(), entity.getTraits());
+                    addValues(target, entity);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onEntitiesUpdated(Collection<ITypedReferenceableInstance> entities) throws AtlasException {
+        for (final ITypedReferenceableInstance entity : entities) {
+            record(entity, new Change() {
+                @Override
+                public void applyTo(EntityStatistics target) throws AtlasException {
+                    addValues(target, entity);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onTraitAdded(Collection<ITypedReferenceableInstance> entities, final IStruct trait)
+        throws AtlasException {
+        for (ITypedReferenceableInstance entity : entities) {
+            record(entity, new Change() {
+                @Override
+                public void applyTo(EntityStatistics target) {
+                    target.traitAdded(trait.getTypeName());
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onTraitDeleted(Collection<ITypedReferenceableInstance> entities, final String traitName)
+        throws AtlasException {
+        for (ITypedReferenceableInstance entity : entities) {
+            record(entity, new Change() {
+                @Override
+                public void applyTo(EntityStatistics target) {
+                    target.traitDeleted(traitName);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onEntitiesDeleted(Collection<ITypedReferenceableInstance> entities) throws AtlasException {
+        for (final ITypedReferenceableInstance entity : entities) {
+            record(entity, new Change() {
+                @Override
+                public void applyTo(EntityStatistics target) {
+                    target.entityDeleted(entity.getTypeName(), entity.getTraits(), softDelete);
+                }
+            });
+        }
+    }
+
+    /**
+     * Applies the change to the statistics, or holds it back while they are rebuilt.
+     */
+    private void record(ITypedReferenceableInstance entity, Change change) throws AtlasException {
+        synchronized (changeLock) {
+            if (pendingChanges != null) {
+                String guid = entity.getId()._getId();
+                pendingChanges.add(new PendingChange(guid, change));
+                pendingGuids.add(guid);
+            } else {
+                change.applyTo(statistics);
+            }
+        }
+    }
+
+    /**
+     * @param loaded statistics to start from, or null to rebuild them from the graph
+     */
+    private synchronized void activate(EntityStatistics loaded) {
+        if (executor != null) {
+            return;
+        }
+        executor = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactoryBuilder().setNameFormat("atlas-entity-statistics-%d").setDaemon(true).build());
+
+        if (loaded != null) {
+            statistics = loaded;
+            // until the next clean stop, the file may miss changes made after it is written
+            persist(false);
+        } else {
+            rebuilding = true;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    rebuild();
+                }
+            });
+        }
+
+        if (file != null) {
+            executor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    if (!rebuilding) {
+                        persist(false);
+                    }
+                }
+            }, persistIntervalMs, persistIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return false if the statistics were not maintained
+     */
+    private synchronized boolean deactivate() {
+        if (executor == null) {
+            return false;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        return true;
+    }
+
+    /**
+     * @return the statistics written at the last clean stop, or null if there are none
+     */
+    EntityStatistics load() {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            if (!json.getBoolean(CLEAN)) {
+                LOG.info("Ignoring entity statistics {}, which were not written at a clean stop", file);
+                return null;
+            }
+            EntityStatistics ret = EntityStatistics.fromJson(json.getJSONObject(STATISTICS));
+            lastPersisted = json.getLong(TIMESTAMP);
+            LOG.info("Read entity statistics {} written at {}", file, new Date(lastPersisted));
+            return ret;
+        } catch (IOException | JSONException e) {
+            LOG.warn("Failed to read entity statistics {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the file with the current statistics. Failures are only logged, as the statistics can be rebuilt
+     * from the graph.
+     */
+    void persist(boolean clean) {
+        if (file == null) {
+            return;
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        File tmpFile = new File(dir, file.getName() + ".tmp");
+        try {
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Failed to create directory " + dir);
+            }
+            long timestamp = System.currentTimeMillis();
+            JSONObject json = new JSONObject();
+            json.put(CLEAN, clean);
+            json.put(TIMESTAMP, timestamp);
+            json.put(STATISTICS, statistics.toJson());
+
+            Files.write(tmpFile.toPath(), json.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            lastPersisted = timestamp;
+            LOG.debug("Wrote entity statistics {}", file);
+        } catch (IOException | JSONException e) {
+            LOG.warn("Failed to write entity statistics {}", file, e);
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * Counts the entity vertices of the graph.
+     */
+    void rebuild() {
+        rebuild(beginRebuild());
+    }
+
+    /**
+     * Starts holding back notified changes, and exposes the statistics to be rebuilt.
+     */
+    EntityStatistics beginRebuild() {
+        EntityStatistics rebuilt = new EntityStatistics();
+        synchronized (changeLock) {
+            pendingChanges = new ArrayList<>();
+            pendingGuids = new HashSet<>();
+            rebuildStarted = System.currentTimeMillis();
+            statistics = rebuilt;
+            rebuilding = true;
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Reads the graph into the statistics, then applies the changes held back meanwhile. An entity that changed
+     * before it is read, as told by a held back change or its modification time, is not counted as it is read: it
+     * is read again at the end, and its held back changes are dropped. The changes of other entities are applied
+     * to what was read. An entity changed at the moment it is read, or deleted from the graph before it is read,
+     * may still be miscounted until the next rebuild.
+     */
+    void rebuild(EntityStatistics rebuilt) {
+        long start = System.currentTimeMillis();
+        Set<String> changed = new HashSet<>();
+
+        AtlasGraph graph = AtlasGraphProvider.getGraphInstance();
+        try {
+            long count = 0;
+            for (AtlasVertex vertex : (Iterable<AtlasVertex>) graph.query()
+                    .has(Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name()).vertices()) {
+                count += readVertex(rebuilt, vertex, changed);
+            }
+            for (AtlasVertex vertex : (Iterable<AtlasVertex>) graph.query()
+                    .has(Constants.STATE_PROPERTY_KEY, Id.EntityState.DELETED.name()).vertices()) {
+                count += readVertex(rebuilt, vertex, changed);
+            }
+
+            synchronized (changeLock) {
+                // read the changed entities as they are now
+                graph.rollback();
+                for (String guid : changed) {
+                    Iterator<AtlasVertex> vertices = graph.query().has(Constants.GUID_PROPERTY_KEY, guid)
+                            .vertices().iterator();
+                    if (vertices.hasNext()) {
+                        addVertex(rebuilt, vertices.next());
+                    }
+                }
+                endRebuild(rebuilt, changed);
+            }
+            LOG.info("Rebuilt entity statistics from {} entities in {} ms", count,
+                    System.currentTimeMillis() - start);
+            persist(false);
+        } catch (Exception e) {
+            LOG.error("Failed to rebuild entity statistics; counts are incomplete until the next restart", e);
+            synchronized (changeLock) {
+                endRebuild(rebuilt, changed);
+            }
+        } finally {
+            graph.rollback();
+        }
+    }
+
+    /**
+     * @return 1 if the vertex is an entity
+     */
+    private int readVertex(EntityStatistics rebuilt, AtlasVertex vertex, Set<String> changed) throws AtlasException {
+        String guid = GraphHelper.getIdFromVertex(vertex);
+        if (guid == null || GraphHelper.getTypeName(vertex) == null) {
+            return 0;
+        }
+
+        Long modified = vertex.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, Long.class);
+        boolean isChanged;
+        synchronized (changeLock) {
+            isChanged = pendingGuids.contains(guid) || (modified != null && modified >= rebuildStarted);
+        }
+
+        if (isChanged) {
+            changed.add(guid);
+        } else {
+            addVertex(rebuilt, vertex);
+        }
+        return 1;
+    }
+
+    private void addVertex(EntityStatistics rebuilt, AtlasVertex vertex) throws AtlasException {
+        String typeName = GraphHelper.getTypeName(vertex);
+        if (Id.EntityState.DELETED.name().equals(GraphHelper.getStateAsString(vertex))) {
+            rebuilt.deletedEntityFound(typeName, GraphHelper.getTraitNames(vertex));
+        } else {
+            rebuilt.entityAdded(typeName, GraphHelper.getTraitNames(vertex));
+            addValues(rebuilt, typeName, vertex);
+        }
+    }
+
+    // must be called holding changeLock
+    private void endRebuild(EntityStatistics rebuilt, Set<String> changed) {
+        if (pendingChanges == null) {
+            return;
+        }
+        for (PendingChange pending : pendingChanges) {
+            if (changed.contains(pending.guid)) {
+                continue;
+            }
+            try {
+                pending.change.applyTo(rebuilt);
+            } catch (AtlasException e) {
+                LOG.warn("Failed to apply a change to entity {} to the rebuilt statistics", pending.guid, e);
+            }
+        }
+        pendingChanges = null;
+        pendingGuids = null;
+        rebuilding = false;
+    }
+
+    private void addValues(EntityStatistics current, ITypedReferenceableInstance entity) throws AtlasException {
+        for (AttributeInfo attribute : getSketchedAttributes(entity.getTypeName())) {
+            String value = toString(entity.get(attribute.name));
+            if (value != null) {
+                current.valueAdded(entity.getTypeName() + "." + attribute.name, value);
+            }
+        }
+    }
+
+    private void addValues(EntityStatistics current, String typeName, AtlasVertex vertex) throws AtlasException {
+        ClassType classType = typeSystem.getDataType(ClassType.class, typeName);
+        for (AttributeInfo attribute : getSketchedAttributes(typeName)) {
+            Object value = vertex.getProperty(GraphHelper.getQualifiedFieldName(classType, attribute.name),
+                    Object.class);
+            if (value != null) {
+                current.valueAdded(typeName + "." + attribute.name, String.valueOf(value));
+            }
+        }
+    }
+
+    private List<AttributeInfo> getSketchedAttributes(String typeName) throws AtlasException {
+        List<AttributeInfo> ret = new ArrayList<>();
+        if (!typeSystem.isRegistered(typeName)) {
+            return ret;
+        }
+        ClassType classType = typeSystem.getDataType(ClassType.class, typeName);
+        for (AttributeInfo attribute : classType.fieldMapping().fields.values()) {
+            DataTypes.TypeCategory category = attribute.dataType().getTypeCategory();
+            if ((attribute.isUnique || attribute.isIndexable)
+                    && (category == DataTypes.TypeCategory.PRIMITIVE || category == DataTypes.TypeCategory.ENUM)) {
+                ret.add(attribute);
+            }
+        }
+        return ret;
+    }
+
+    private interface Change {
+        void applyTo(EntityStatistics target) throws AtlasException;
+    }
+
+    private static class PendingChange {
+        private final String guid;
+        private final Change change;
+
+        PendingChange(String guid, Change change) {
+            this.guid = guid;
+            this.change = change;
+        }
+    }
+
+    /**
+     * @return the value as it is stored on the vertex, so that values read from the graph estimate the same
+     */
+    private static String toString(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof EnumValue) {
+            return ((EnumValue) value).value;
+        }
+        if (value instanceof Date) {
+            return String.valueOf(((Date) value).getTime());
+        }
+        return String.valueOf(value);
+    }
+}
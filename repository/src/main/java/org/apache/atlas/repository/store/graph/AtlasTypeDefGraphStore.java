@@ -67,20 +67,33 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
     protected abstract AtlasEntityDefStore getEntityDefStore(AtlasTypeRegistry typeRegistry);
 
+    /**
+     * Invoked within the store transaction after type definitions were created, updated or deleted.
+     */
+    protected void typeDefsChanged() {
+    }
+
     @Override
     public void init() throws AtlasBaseException {
         AtlasTransientTypeRegistry ttr = typeRegistry.createTransientTypeRegistry();
 
-        AtlasTypesDef typesDef = new AtlasTypesDef(getEnumDefStore(ttr).getAll(),
-                                                   getStructDefStore(ttr).getAll(),
-                                                   getClassificationDefStore(ttr).getAll(),
-                                                   getEntityDefStore(ttr).getAll());
+        AtlasTypesDef typesDef = loadTypeDefs(ttr);
 
         ttr.addTypes(typesDef);
 
         typeRegistry.commitTransientTypeRegistry(ttr);
     }
 
+    /**
+     * Reads all type definitions from the store; used to populate the type registry on init.
+     */
+    protected AtlasTypesDef loadTypeDefs(AtlasTypeRegistry typeRegistry) throws AtlasBaseException {
+        return new AtlasTypesDef(getEnumDefStore(typeRegistry).getAll(),
+                                 getStructDefStore(typeRegistry).getAll(),
+                                 getClassificationDefStore(typeRegistry).getAll(),
+                                 getEntityDefStore(typeRegistry).getAll());
+    }
+
     @Override
     @GraphTransaction
     public AtlasEnumDef createEnumDef(AtlasEnumDef enumDef) throws AtlasBaseException {
@@ -92,7 +105,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         ttr.updateGuid(ret.getName(), ret.getGuid());
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -139,7 +152,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         AtlasEnumDef ret = getEnumDefStore(ttr).updateByName(name, enumDef);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -153,7 +166,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         AtlasEnumDef ret = getEnumDefStore(ttr).updateByGuid(guid, enumDef);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -167,7 +180,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         getEnumDefStore(ttr).deleteByName(name);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
     }
 
     @Override
@@ -179,7 +192,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         getEnumDefStore(ttr).deleteByGuid(guid);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
     }
 
     @Override
@@ -203,7 +216,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         ttr.updateGuid(ret.getName(), ret.getGuid());
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -250,7 +263,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         AtlasStructDef ret = getStructDefStore(ttr).updateByName(name, structDef);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -264,7 +277,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         AtlasStructDef ret = getStructDefStore(ttr).updateByGuid(guid, structDef);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -278,7 +291,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         getStructDefStore(ttr).deleteByName(name, null);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
     }
 
     @Override
@@ -290,7 +303,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         getStructDefStore(ttr).deleteByGuid(guid, null);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
     }
 
     @Override
@@ -315,7 +328,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         ttr.updateGuid(ret.getName(), ret.getGuid());
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -364,7 +377,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         AtlasClassificationDef ret = getClassificationDefStore(ttr).updateByName(name, classificationDef);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -379,7 +392,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         AtlasClassificationDef ret = getClassificationDefStore(ttr).updateByGuid(guid, classificationDef);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -393,7 +406,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         getClassificationDefStore(ttr).deleteByName(name, null);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
     }
 
     @Override
@@ -405,7 +418,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         getClassificationDefStore(ttr).deleteByGuid(guid, null);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
     }
 
     @Override
@@ -429,7 +442,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         ttr.updateGuid(ret.getName(), ret.getGuid());
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -476,7 +489,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         AtlasEntityDef ret = getEntityDefStore(ttr).updateByName(name, entityDef);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -490,7 +503,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         AtlasEntityDef ret = getEntityDefStore(ttr).updateByGuid(guid, entityDef);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         return ret;
     }
@@ -504,7 +517,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         getEntityDefStore(ttr).deleteByName(name, null);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
     }
 
     @Override
@@ -516,7 +529,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         getEntityDefStore(ttr).deleteByGuid(guid, null);
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
     }
 
     @Override
@@ -619,7 +632,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
             }
         }
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("<== AtlasTypeDefGraphStore.createTypesDef(enums={}, structs={}, classfications={}, entities={})",
@@ -678,7 +691,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
             }
         }
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("<== AtlasTypeDefGraphStore.updateTypesDef(enums={}, structs={}, classfications={}, entities={})",
@@ -792,7 +805,7 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
             }
         }
 
-        typeRegistry.commitTransientTypeRegistry(ttr);
+        commit(ttr);
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("<== AtlasTypeDefGraphStore.deleteTypesDef(enums={}, structs={}, classfications={}, entities={})",
@@ -845,4 +858,10 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
         }
         return typesDef;
     }
+
+    private void commit(AtlasTransientTypeRegistry ttr) throws AtlasBaseException {
+        typeRegistry.commitTransientTypeRegistry(ttr);
+
+        typeDefsChanged();
+    }
 }
@@ -28,6 +28,7 @@ import org.apache.atlas.model.typedef.AtlasClassificationDef;
 import org.apache.atlas.model.typedef.AtlasEntityDef;
 import org.apache.atlas.model.typedef.AtlasEnumDef;
 import org.apache.atlas.model.typedef.AtlasStructDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
@@ -39,7 +40,11 @@ import org.apache.atlas.repository.store.graph.AtlasEntityDefStore;
 import org.apache.atlas.repository.store.graph.AtlasEnumDefStore;
 import org.apache.atlas.repository.store.graph.AtlasStructDefStore;
 import org.apache.atlas.repository.store.graph.AtlasTypeDefGraphStore;
+import org.apache.atlas.repository.typestore.TypeStoreSnapshot;
+import org.apache.atlas.repository.typestore.TypeStoreVersion;
+import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
 import org.apache.atlas.typesystem.types.DataTypes.TypeCategory;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -63,8 +68,12 @@ import static org.apache.atlas.repository.store.graph.v1.AtlasGraphUtilsV1.VERTE
 public class AtlasTypeDefGraphStoreV1 extends AtlasTypeDefGraphStore {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasTypeDefGraphStoreV1.class);
 
+    private static final String SNAPSHOT_NAME = "typedefs.snapshot";
+
     protected final AtlasGraph atlasGraph = AtlasGraphProvider.getGraphInstance();
 
+    private final TypeStoreSnapshot snapshot = AtlasRepositoryConfiguration.getTypeStoreSnapshot(SNAPSHOT_NAME);
+
     @Inject
     public AtlasTypeDefGraphStoreV1(AtlasTypeRegistry typeRegistry) {
         super(typeRegistry);
@@ -109,6 +118,35 @@ public class AtlasTypeDefGraphStoreV1 extends AtlasTypeDefGraphStore {
         LOG.info("<== AtlasTypeDefGraphStoreV1.init()");
     }
 
+    @Override
+    protected AtlasTypesDef loadTypeDefs(AtlasTypeRegistry typeRegistry) throws AtlasBaseException {
+        String stamp = null;
+        if (snapshot != null) {
+            stamp = TypeStoreVersion.getStamp(atlasGraph);
+            // persists the id assigned to a type store versioned without one
+            atlasGraph.commit();
+        }
+        if (stamp != null) {
+            String typesJson = snapshot.read(stamp);
+            if (typesJson != null) {
+                return AtlasType.fromJson(typesJson, AtlasTypesDef.class);
+            }
+        }
+
+        AtlasTypesDef ret = super.loadTypeDefs(typeRegistry);
+
+        if (stamp != null) {
+            snapshot.write(stamp, AtlasType.toJson(ret));
+        }
+
+        return ret;
+    }
+
+    @Override
+    protected void typeDefsChanged() {
+        TypeStoreVersion.increment(atlasGraph);
+    }
+
     public AtlasGraph getAtlasGraph() { return atlasGraph; }
 
     public AtlasVertex findTypeVertexByName(String typeName) {
@@ -36,6 +36,7 @@ import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.typesystem.TypesDef;
+import org.apache.atlas.typesystem.json.TypesSerialization;
 import org.apache.atlas.typesystem.types.AttributeDefinition;
 import org.apache.atlas.typesystem.types.AttributeInfo;
 import org.apache.atlas.typesystem.types.ClassType;
@@ -53,6 +54,7 @@ import org.apache.atlas.typesystem.types.TraitType;
 import org.apache.atlas.typesystem.types.TypeSystem;
 import org.apache.atlas.typesystem.types.TypeUtils;
 import org.apache.atlas.typesystem.types.utils.TypesUtil;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
 import org.codehaus.jettison.json.JSONException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,13 +72,22 @@ public class GraphBackedTypeStore implements ITypeStore {
 
     private static Logger LOG = LoggerFactory.getLogger(GraphBackedTypeStore.class);
 
+    private static final String SNAPSHOT_NAME = "types.snapshot";
+
     private final AtlasGraph graph;
 
+    private final TypeStoreSnapshot snapshot;
+
     private GraphHelper graphHelper = GraphHelper.getInstance();
 
     @Inject
     public GraphBackedTypeStore() {
+        this(AtlasRepositoryConfiguration.getTypeStoreSnapshot(SNAPSHOT_NAME));
+    }
+
+    GraphBackedTypeStore(TypeStoreSnapshot snapshot) {
         graph = AtlasGraphProvider.getGraphInstance();
+        this.snapshot = snapshot;
     }
 
     @Override
@@ -107,6 +118,7 @@ public class GraphBackedTypeStore implements ITypeStore {
                 break;
             }
         }
+        TypeStoreVersion.increment(graph);
     }
 
     private void storeInGraph(EnumType dataType) {
@@ -212,11 +224,23 @@ public class GraphBackedTypeStore implements ITypeStore {
     @Override
     @GraphTransaction
     public TypesDef restore() throws AtlasException {
+        String stamp = snapshot != null ? TypeStoreVersion.getStamp(graph) : null;
+        if (stamp != null) {
+            String typesJson = snapshot.read(stamp);
+            if (typesJson != null) {
+                return TypesSerialization.fromJson(typesJson);
+            }
+        }
+
         //Get all vertices for type system
         Iterator vertices =
                 graph.query().has(Constants.VERTEX_TYPE_PROPERTY_KEY, VERTEX_TYPE).vertices().iterator();
 
-        return getTypesFromVertices(vertices);
+        TypesDef typesDef = getTypesFromVertices(vertices);
+        if (stamp != null) {
+            snapshot.write(stamp, TypesSerialization.toJson(typesDef));
+        }
+        return typesDef;
     }
 
     @Override
@@ -229,6 +253,12 @@ public class GraphBackedTypeStore implements ITypeStore {
         return getTypesFromVertices(vertices);
     }
 
+    @Override
+    @GraphTransaction
+    public long getVersion() throws AtlasException {
+        return TypeStoreVersion.get(graph);
+    }
+
     private TypesDef getTypesFromVertices(Iterator<AtlasVertex> vertices) throws AtlasException {
         ImmutableList.Builder<EnumTypeDefinition> enums = ImmutableList.builder();
         ImmutableList.Builder<StructTypeDefinition> structs = ImmutableList.builder();
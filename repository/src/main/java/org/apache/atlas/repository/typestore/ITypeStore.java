@@ -49,4 +49,11 @@ public interface ITypeStore {
      * @throws AtlasException
      */
     TypesDef restoreType(String typeName) throws AtlasException;
+
+    /**
+     * Get the version of the stored type definitions, which changes whenever types are stored
+     * @return version of the type store
+     * @throws AtlasException
+     */
+    long getVersion() throws AtlasException;
 }
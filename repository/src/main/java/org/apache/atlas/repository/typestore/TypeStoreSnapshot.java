@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.typestore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A local snapshot of serialized type definitions, so that the types can be loaded in a single read
+ * instead of being rebuilt from the type vertices of the graph.
+ *
+ * The snapshot records the {@link TypeStoreVersion} stamp of the store it was taken from and a SHA-256 hash
+ * of its content. It is only used when both match, so a stale or corrupt snapshot is never loaded.
+ */
+public class TypeStoreSnapshot {
+    private static final Logger LOG = LoggerFactory.getLogger(TypeStoreSnapshot.class);
+
+    private static final int MAGIC = 0x41545353;    // "ATSS"
+    static final int FORMAT_VERSION = 1;
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final File file;
+
+    public TypeStoreSnapshot(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the snapshot content.
+     * @param stamp stamp of the type store the snapshot is expected to be taken from
+     * @return content of the snapshot, null if there is no valid snapshot for the given stamp
+     */
+    public String read(String stamp) {
+        if (stamp == null || !file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                LOG.info("Ignoring type store snapshot {} with unknown format", file);
+                return null;
+            }
+            String snapshotStamp = in.readUTF();
+            if (!stamp.equals(snapshotStamp)) {
+                LOG.info("Ignoring type store snapshot {} at {}, type store is at {}", file, snapshotStamp, stamp);
+                return null;
+            }
+            byte[] hash = new byte[in.readInt()];
+            in.readFully(hash);
+            byte[] content = uncompress(in);
+            if (!Arrays.equals(hash, hash(content))) {
+                LOG.warn("Ignoring type store snapshot {} as its content does not match the hash", file);
+                return null;
+            }
+            LOG.info("Read type store snapshot {} at {}", file, stamp);
+            return new String(content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warn("Failed to read type store snapshot {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the given content. Failures are only logged, as the snapshot can be
+     * rebuilt from the type store.
+     * @param stamp stamp of the type store the content was read from
+     * @param content serialized type definitions
+     */
+    public void write(String stamp, String content) {
+        if (stamp == null) {
+            return;
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        File tmpFile = new File(dir, file.getName() + ".tmp");
+        try {
+            if (!dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Failed to create directory " + dir);
+            }
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            byte[] hash = hash(bytes);
+
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmpFile))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(stamp);
+                out.writeInt(hash.length);
+                out.write(hash);
+
+                GZIPOutputStream gzip = new GZIPOutputStream(out);
+                gzip.write(bytes);
+                gzip.finish();
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            LOG.info("Wrote type store snapshot {} at {}", file, stamp);
+        } catch (IOException e) {
+            LOG.warn("Failed to write type store snapshot {}", file, e);
+            tmpFile.delete();
+        }
+    }
+
+    private static byte[] uncompress(DataInputStream in) throws IOException {
+        GZIPInputStream gzip = new GZIPInputStream(in);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = gzip.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
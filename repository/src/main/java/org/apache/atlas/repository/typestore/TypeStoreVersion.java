@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.typestore;
+
+import java.util.Iterator;
+import java.util.UUID;
+
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+
+/**
+ * Version stamp of the types persisted in the graph. The stamp is incremented in the same transaction
+ * whenever types are stored, so that a cached copy of the type system can be validated with a single lookup.
+ * A random id is assigned to the type store when the stamp is first created, so that copies cached from
+ * a different graph are not mistaken for a copy at the same version.
+ */
+public final class TypeStoreVersion {
+    public static final String VERTEX_TYPE = "typeSystemVersion";
+    public static final String VERSION_PROPERTY_KEY = Constants.INTERNAL_PROPERTY_KEY_PREFIX + "type.store.version";
+    public static final String STORE_ID_PROPERTY_KEY = Constants.INTERNAL_PROPERTY_KEY_PREFIX + "type.store.id";
+
+    private TypeStoreVersion() {
+    }
+
+    /**
+     * @param graph graph holding the type store
+     * @return the current version of the type store, 0 if types were never stored
+     */
+    public static long get(AtlasGraph graph) {
+        AtlasVertex vertex = findVertex(graph);
+        Long version = vertex != null ? GraphHelper.getSingleValuedProperty(vertex, VERSION_PROPERTY_KEY, Long.class) : null;
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Assigns an id to a type store versioned before ids were introduced, so must be called within a transaction.
+     * @param graph graph holding the type store
+     * @return a stamp identifying both the type store and its current version, null if types were never stored
+     */
+    public static String getStamp(AtlasGraph graph) {
+        AtlasVertex vertex = findVertex(graph);
+        if (vertex == null) {
+            return null;
+        }
+        Long version = GraphHelper.getSingleValuedProperty(vertex, VERSION_PROPERTY_KEY, Long.class);
+        if (version == null) {
+            return null;
+        }
+        return getStoreId(vertex) + "." + version;
+    }
+
+    /**
+     * Increments the version of the type store. Must be called within the transaction that stores the types.
+     * @param graph graph holding the type store
+     * @return the new version of the type store
+     */
+    public static long increment(AtlasGraph graph) {
+        AtlasVertex vertex = findVertex(graph);
+        if (vertex == null) {
+            vertex = graph.addVertex();
+            GraphHelper.setProperty(vertex, Constants.VERTEX_TYPE_PROPERTY_KEY, VERTEX_TYPE);
+        }
+        getStoreId(vertex);
+        Long current = GraphHelper.getSingleValuedProperty(vertex, VERSION_PROPERTY_KEY, Long.class);
+        long version = (current != null ? current : 0L) + 1;
+        GraphHelper.setProperty(vertex, VERSION_PROPERTY_KEY, version);
+        return version;
+    }
+
+    private static String getStoreId(AtlasVertex vertex) {
+        String ret = GraphHelper.getSingleValuedProperty(vertex, STORE_ID_PROPERTY_KEY, String.class);
+        if (ret == null) {
+            ret = UUID.randomUUID().toString();
+            GraphHelper.setProperty(vertex, STORE_ID_PROPERTY_KEY, ret);
+        }
+        return ret;
+    }
+
+    private static AtlasVertex findVertex(AtlasGraph graph) {
+        Iterator<AtlasVertex> results =
+                graph.query().has(Constants.VERTEX_TYPE_PROPERTY_KEY, VERTEX_TYPE).vertices().iterator();
+        return results.hasNext() ? results.next() : null;
+    }
+}
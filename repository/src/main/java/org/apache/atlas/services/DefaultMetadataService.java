@@ -23,9 +23,14 @@ import static org.apache.atlas.AtlasClient.PROCESS_ATTRIBUTE_OUTPUTS;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -40,6 +45,7 @@ import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
 import org.apache.atlas.listener.EntityChangeListener;
 import org.apache.atlas.listener.TypesChangeListener;
+import org.apache.atlas.listener.WarmStandbyHandler;
 import org.apache.atlas.query.QueryParser;
 import org.apache.atlas.repository.MetadataRepository;
 import org.apache.atlas.repository.RepositoryException;
@@ -71,6 +77,7 @@ import org.apache.atlas.typesystem.types.TraitType;
 import org.apache.atlas.typesystem.types.TypeSystem;
 import org.apache.atlas.typesystem.types.cache.TypeCache;
 import org.apache.atlas.typesystem.types.utils.TypesUtil;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
 import org.apache.atlas.utils.ParamChecker;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.configuration.Configuration;
@@ -82,6 +89,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.inject.Provider;
 
 
@@ -91,7 +99,7 @@ import com.google.inject.Provider;
  * for listening to changes to the repository.
  */
 @Singleton
-public class DefaultMetadataService implements MetadataService, ActiveStateChangeHandler {
+public class DefaultMetadataService implements MetadataService, ActiveStateChangeHandler, WarmStandbyHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultMetadataService.class);
     private final short maxAuditResults;
@@ -107,6 +115,9 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
     private final Collection<EntityChangeListener> entityChangeListeners = new LinkedHashSet<>();
 
     private boolean wasInitialized = false;
+    private boolean typesLoaded = false;
+    private boolean isActive = false;
+    private long standbyTypeStoreVersion = -1;
 
     @Inject
     private EntityAuditRepository auditRepository;
@@ -162,19 +173,29 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
     private void restoreTypeSystem() throws AtlasException {
         LOG.info("Restoring type system from the store");
         TypesDef typesDef = typeStore.restore();
-        if (!wasInitialized) {
+        loadTypes(typesDef);
+        initializeTypeSystem();
+        LOG.info("Restored type system from the store");
+    }
+
+    private void loadTypes(TypesDef typesDef) throws AtlasException {
+        if (!typesLoaded) {
             LOG.info("Initializing type system for the first time.");
             typeSystem.defineTypes(typesDef);
+            typesLoaded = true;
+        } else {
+            LOG.info("Type system was already initialized, refreshing cache.");
+            refreshCache(typesDef);
+        }
+    }
 
+    private void initializeTypeSystem() throws AtlasException {
+        if (!wasInitialized) {
             // restore types before creating super types
             createSuperTypes();
             typesRegistrar.registerTypes(ReservedTypesRegistrar.getTypesDir(), typeSystem, this);
             wasInitialized = true;
-        } else {
-            LOG.info("Type system was already initialized, refreshing cache.");
-            refreshCache(typesDef);
         }
-        LOG.info("Restored type system from the store");
     }
 
     private void refreshCache(TypesDef typesDef) throws AtlasException {
@@ -337,9 +358,107 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
     }
 
     private ITypedReferenceableInstance[] deserializeClassInstances(String entityInstanceDefinition) throws AtlasException {
-        return GraphHelper.deserializeClassInstances(typeSystem, entityInstanceDefinition);
+        List<Referenceable> entityInstances = GraphHelper.deserializeReferenceables(entityInstanceDefinition);
+
+        // the ids of the stored entities referred to, and null for the entities that aren't references
+        Map<Id, Id> referencedIds = new HashMap<>();
+        List<Referenceable> entitiesToStore = new ArrayList<>(entityInstances.size());
+        for (Referenceable entityInstance : entityInstances) {
+            if (getReferencedId(entityInstance, referencedIds) == null) {
+                entitiesToStore.add(entityInstance);
+            }
+        }
+
+        ITypedReferenceableInstance[] instances = new ITypedReferenceableInstance[entitiesToStore.size()];
+        for (int index = 0; index < entitiesToStore.size(); index++) {
+            Referenceable entityInstance = entitiesToStore.get(index);
+            replaceReferences(entityInstance, referencedIds);
+
+            instances[index] = GraphHelper.toTypedReferenceableInstance(typeSystem, entityInstance);
+        }
+        return instances;
     }
-    
+
+    /**
+     * Hooks send entities that haven't changed since they last sent them as references holding only their unique
+     * attribute, both in the list of entities of a request and wherever other entities refer to them. Such a
+     * reference stands for the stored entity: it is neither created nor updated, and is linked to by its id.
+     *
+     * @return the id of the stored entity, or null if the entity is not such a reference or no entity matches it
+     */
+    private Id getReferencedId(Referenceable entityInstance, Map<Id, Id> referencedIds) throws AtlasException {
+        Id id = entityInstance.getId();
+        if (id == null || id.isAssigned()) {
+            return null;
+        }
+
+        if (!referencedIds.containsKey(id)) {
+            referencedIds.put(id, findReferencedId(entityInstance));
+        }
+        return referencedIds.get(id);
+    }
+
+    private Id findReferencedId(Referenceable entityInstance) throws AtlasException {
+        Map<String, Object> values = entityInstance.getValuesMap();
+        if (values.size() != 1 || !entityInstance.getTraits().isEmpty()) {
+            return null;
+        }
+
+        ClassType entityType = typeSystem.getDataType(ClassType.class, entityInstance.getTypeName());
+        Map.Entry<String, Object> value = values.entrySet().iterator().next();
+        AttributeInfo attribute = entityType.fieldMapping().fields.get(value.getKey());
+        if (attribute == null || !attribute.isUnique || value.getValue() == null
+                || entityType.fieldMapping().fields.size() == 1) {
+            return null;
+        }
+
+        try {
+            return repository.getEntityId(entityInstance.getTypeName(), value.getKey(), value.getValue());
+        } catch (EntityNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the references to stored entities within a value, and the unassigned ids the request gave them, by
+     * the ids of the stored entities.
+     *
+     * @return the value to use in place of the given one
+     */
+    private Object replaceReferences(Object value, Map<Id, Id> referencedIds) throws AtlasException {
+        if (value instanceof Id) {
+            Id referencedId = referencedIds.get(value);
+            return referencedId != null ? referencedId : value;
+        }
+
+        if (value instanceof Referenceable) {
+            Id referencedId = getReferencedId((Referenceable) value, referencedIds);
+            if (referencedId != null) {
+                return referencedId;
+            }
+        }
+
+        if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            for (String attributeName : new ArrayList<>(struct.getValuesMap().keySet())) {
+                struct.set(attributeName, replaceReferences(struct.get(attributeName), referencedIds));
+            }
+        } else if (value instanceof List) {
+            List<Object> elements = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                elements.add(replaceReferences(element, referencedIds));
+            }
+            return elements;
+        } else if (value instanceof Map) {
+            Map<Object, Object> entries = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                entries.put(entry.getKey(), replaceReferences(entry.getValue(), referencedIds));
+            }
+            return entries;
+        }
+        return value;
+    }
+
     @Override
     public ITypedReferenceableInstance getTypedReferenceableInstance(Referenceable entityInstance) throws AtlasException {
         return GraphHelper.getTypedReferenceableInstance(typeSystem, entityInstance);
@@ -353,13 +472,49 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
      */
     @Override
     public String getEntityDefinition(String guid) throws AtlasException {
+        final ITypedReferenceableInstance instance = getEntityDefinitionReference(guid);
+        return InstanceSerialization.toJson(instance, true);
+    }
+
+    @Override
+    public ITypedReferenceableInstance getEntityDefinitionReference(String guid) throws AtlasException {
         guid = ParamChecker.notEmpty(guid, "entity id");
 
-        final ITypedReferenceableInstance instance = repository.getEntityDefinition(guid);
-        return InstanceSerialization.toJson(instance, true);
+        return repository.getEntityDefinition(guid);
+    }
+
+    @Override
+    public EntityVersion getEntityVersion(String guid) throws AtlasException {
+        guid = ParamChecker.notEmpty(guid, "entity id");
+
+        return repository.getEntityVersion(guid);
+    }
+
+    @Override
+    public EntityChanges getEntityChanges(long since, String cursor, List<String> typeNames, int limit)
+            throws AtlasException {
+        Preconditions.checkArgument(limit > 0, "limit should be greater than 0");
+
+        Set<String> entityTypes = null;
+        if (typeNames != null && !typeNames.isEmpty()) {
+            entityTypes = new HashSet<>();
+            for (String typeName : typeNames) {
+                validateTypeExists(typeName);
+
+                Set<String> subTypeNames = typeSystem.getSubTypeNames(typeName);
+                if (subTypeNames != null) {
+                    entityTypes.addAll(subTypeNames);
+                } else {
+                    entityTypes.add(typeName);
+                }
+            }
+        }
+
+        return repository.getEntityChanges(Math.max(since, 0), cursor, entityTypes, limit);
     }
 
-    private ITypedReferenceableInstance getEntityDefinitionReference(String entityType, String attribute, String value)
+    @Override
+    public ITypedReferenceableInstance getEntityDefinitionReference(String entityType, String attribute, String value)
             throws AtlasException {
         validateTypeExists(entityType);
         validateUniqueAttribute(entityType, attribute);
@@ -600,7 +755,46 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
 
         repository.addTrait(guid, traitInstance);
 
-        onTraitAddedToEntity(repository.getEntityDefinition(guid), traitInstance);
+        onTraitAdded(Collections.singletonList(repository.getEntityDefinition(guid)), traitInstance);
+    }
+
+    @Override
+    public TraitAssociationResult addTrait(List<String> guids, String traitInstanceDefinition) throws AtlasException {
+        ParamChecker.notEmpty(guids, "entity ids");
+        traitInstanceDefinition = ParamChecker.notEmpty(traitInstanceDefinition, "trait instance definition");
+
+        ITypedStruct traitInstance = deserializeTraitInstance(traitInstanceDefinition);
+        final String traitName = traitInstance.getTypeName();
+
+        List<String> updated = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        Map<String, String> notificationFailed = new LinkedHashMap<>();
+        for (List<String> batch : getTraitBatches(guids)) {
+            Map<String, String> batchFailed;
+            try {
+                batchFailed = repository.addTrait(batch, traitInstance);
+            } catch (RepositoryException e) {
+                LOG.error("Unable to add trait={} to {} entities", traitName, batch.size(), e);
+                batchFailed = getFailures(batch, e);
+            }
+
+            List<String> batchUpdated = getUpdated(batch, batchFailed);
+            if (!batchUpdated.isEmpty()) {
+                // the batch is committed, so a failing listener doesn't fail the entities of the later batches
+                try {
+                    onTraitAdded(repository.getEntityDefinitions(batchUpdated), traitInstance);
+                } catch (AtlasException e) {
+                    LOG.error("Unable to notify listeners of trait={} on {} entities", traitName, batchUpdated.size(), e);
+                    notificationFailed.putAll(getFailures(batchUpdated, e));
+                }
+            }
+
+            updated.addAll(batchUpdated);
+            failed.putAll(batchFailed);
+        }
+
+        LOG.info("Added trait={} to {} entities, {} failed", traitName, updated.size(), failed.size());
+        return new TraitAssociationResult(updated, failed, notificationFailed);
     }
 
     private ITypedStruct deserializeTraitInstance(String traitInstanceDefinition)
@@ -653,7 +847,77 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
 
         repository.deleteTrait(guid, traitNameToBeDeleted);
 
-        onTraitDeletedFromEntity(repository.getEntityDefinition(guid), traitNameToBeDeleted);
+        onTraitDeleted(Collections.singletonList(repository.getEntityDefinition(guid)), traitNameToBeDeleted);
+    }
+
+    @Override
+    public TraitAssociationResult deleteTrait(List<String> guids, String traitNameToBeDeleted) throws AtlasException {
+        ParamChecker.notEmpty(guids, "entity ids");
+        traitNameToBeDeleted = ParamChecker.notEmpty(traitNameToBeDeleted, "trait name");
+
+        // ensure trait type is already registered with the TS
+        if (!typeSystem.isRegistered(traitNameToBeDeleted)) {
+            final String msg = String.format("trait=%s should be defined in type system before it can be deleted",
+                    traitNameToBeDeleted);
+            LOG.error(msg);
+            throw new TypeNotFoundException(msg);
+        }
+
+        List<String> updated = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        Map<String, String> notificationFailed = new LinkedHashMap<>();
+        for (List<String> batch : getTraitBatches(guids)) {
+            Map<String, String> batchFailed;
+            try {
+                batchFailed = repository.deleteTrait(batch, traitNameToBeDeleted);
+            } catch (RepositoryException e) {
+                LOG.error("Unable to delete trait={} from {} entities", traitNameToBeDeleted, batch.size(), e);
+                batchFailed = getFailures(batch, e);
+            }
+
+            List<String> batchUpdated = getUpdated(batch, batchFailed);
+            if (!batchUpdated.isEmpty()) {
+                // the batch is committed, so a failing listener doesn't fail the entities of the later batches
+                try {
+                    onTraitDeleted(repository.getEntityDefinitions(batchUpdated), traitNameToBeDeleted);
+                } catch (AtlasException e) {
+                    LOG.error("Unable to notify listeners of trait={} on {} entities", traitNameToBeDeleted, batchUpdated.size(), e);
+                    notificationFailed.putAll(getFailures(batchUpdated, e));
+                }
+            }
+
+            updated.addAll(batchUpdated);
+            failed.putAll(batchFailed);
+        }
+
+        LOG.info("Deleted trait={} from {} entities, {} failed", traitNameToBeDeleted, updated.size(), failed.size());
+        return new TraitAssociationResult(updated, failed, notificationFailed);
+    }
+
+    /**
+     * Splits the guids, without duplicates, into the batches that are updated in a transaction each.
+     */
+    private List<List<String>> getTraitBatches(List<String> guids) {
+        List<String> uniqueGuids = new ArrayList<>(new LinkedHashSet<>(guids));
+        return Lists.partition(uniqueGuids, Math.max(1, AtlasRepositoryConfiguration.getTraitsBatchSize()));
+    }
+
+    private Map<String, String> getFailures(List<String> batch, Exception e) {
+        Map<String, String> ret = new LinkedHashMap<>();
+        for (String guid : batch) {
+            ret.put(guid, e.getMessage());
+        }
+        return ret;
+    }
+
+    private List<String> getUpdated(List<String> batch, Map<String, String> failed) {
+        List<String> ret = new ArrayList<>(batch.size());
+        for (String guid : batch) {
+            if (!failed.containsKey(guid)) {
+                ret.add(guid);
+            }
+        }
+        return ret;
     }
 
     private void onTypesAdded(Map<String, IDataType> typesAdded) throws AtlasException {
@@ -691,15 +955,15 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
         }
     }
 
-    private void onTraitAddedToEntity(ITypedReferenceableInstance entity, IStruct trait) throws AtlasException {
+    private void onTraitAdded(List<ITypedReferenceableInstance> entities, IStruct trait) throws AtlasException {
         for (EntityChangeListener listener : entityChangeListeners) {
-            listener.onTraitAdded(entity, trait);
+            listener.onTraitAdded(entities, trait);
         }
     }
 
-    private void onTraitDeletedFromEntity(ITypedReferenceableInstance entity, String traitName) throws AtlasException {
+    private void onTraitDeleted(List<ITypedReferenceableInstance> entities, String traitName) throws AtlasException {
         for (EntityChangeListener listener : entityChangeListeners) {
-            listener.onTraitDeleted(entity, traitName);
+            listener.onTraitDeleted(entities, traitName);
         }
     }
 
@@ -765,13 +1029,41 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
      * This must happen only from the active instance, as it updates shared backend state.
      */
     @Override
-    public void instanceIsActive() throws AtlasException {
-        LOG.info("Reacting to active state: restoring type system");
-        restoreTypeSystem();
+    public synchronized void instanceIsActive() throws AtlasException {
+        if (standbyTypeStoreVersion >= 0 && standbyTypeStoreVersion == typeStore.getVersion()) {
+            LOG.info("Reacting to active state: type system is current with the store at version {}",
+                    standbyTypeStoreVersion);
+            initializeTypeSystem();
+        } else {
+            LOG.info("Reacting to active state: restoring type system");
+            restoreTypeSystem();
+        }
+        standbyTypeStoreVersion = -1;
+        isActive = true;
+    }
+
+    @Override
+    public synchronized void instanceIsPassive() {
+        LOG.info("Reacting to passive state: type system will be refreshed while on standby");
+        isActive = false;
     }
 
+    /**
+     * Loads types added or updated by the active instance, so that the type system need not be restored
+     * on becoming active. Types are only read from the store, the bootstrap types are registered on activation.
+     */
     @Override
-    public void instanceIsPassive() {
-        LOG.info("Reacting to passive state: no action right now");
+    public synchronized void instanceIsStandby() throws AtlasException {
+        if (isActive) {
+            return;
+        }
+        long version = typeStore.getVersion();
+        if (version == standbyTypeStoreVersion) {
+            LOG.debug("Type system is current with the store at version {}", version);
+            return;
+        }
+        LOG.info("Refreshing standby type system from the store at version {}", version);
+        loadTypes(typeStore.restore());
+        standbyTypeStoreVersion = version;
     }
 }
@@ -25,12 +25,15 @@ import org.apache.atlas.repository.graph.DeleteHandler;
 import org.apache.atlas.repository.graph.SoftDeleteHandler;
 import org.apache.atlas.repository.graphdb.GraphDatabase;
 import org.apache.atlas.repository.typestore.GraphBackedTypeStore;
+import org.apache.atlas.repository.typestore.TypeStoreSnapshot;
 import org.apache.atlas.typesystem.types.cache.DefaultTypeCache;
 import org.apache.atlas.typesystem.types.cache.TypeCache;
 import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+
 /**
  * Atlas configuration for repository project
  *
@@ -93,6 +96,112 @@ public class AtlasRepositoryConfiguration {
             throw new RuntimeException(e);
         }
     }
-   
 
+    private static final String ENTITY_CHANGES_LAG_PROPERTY = "atlas.entity.changes.lagMs";
+    private static final long DEFAULT_ENTITY_CHANGES_LAG_MS = 60000;
+
+    /**
+     * Get the number of milliseconds by which the entity change feed lags behind the current time, to give requests
+     * that modified entities the time to commit.
+     */
+    public static long getEntityChangesLagMs() {
+        try {
+            Configuration config = ApplicationProperties.get();
+            return config.getLong(ENTITY_CHANGES_LAG_PROPERTY, DEFAULT_ENTITY_CHANGES_LAG_MS);
+        } catch (AtlasException e) {
+            LOG.error("Error loading entity change feed configuration", e);
+            return DEFAULT_ENTITY_CHANGES_LAG_MS;
+        }
+    }
+
+    private static final String TRAITS_BATCH_SIZE_PROPERTY = "atlas.entity.traits.batchSize";
+    private static final int DEFAULT_TRAITS_BATCH_SIZE = 500;
+
+    /**
+     * Get the number of entities a trait is added to, or deleted from, in each transaction of a bulk request.
+     */
+    public static int getTraitsBatchSize() {
+        try {
+            Configuration config = ApplicationProperties.get();
+            return config.getInt(TRAITS_BATCH_SIZE_PROPERTY, DEFAULT_TRAITS_BATCH_SIZE);
+        } catch (AtlasException e) {
+            LOG.error("Error loading bulk trait configuration", e);
+            return DEFAULT_TRAITS_BATCH_SIZE;
+        }
+    }
+
+    private static final String TYPE_SNAPSHOT_ENABLED_PROPERTY = "atlas.typesystem.snapshot.enabled";
+    private static final String TYPE_SNAPSHOT_DIR_PROPERTY = "atlas.typesystem.snapshot.dir";
+
+    /**
+     * Get the local snapshot of the type store with the given name. Snapshots are kept under
+     * atlas.typesystem.snapshot.dir, which defaults to the data directory under atlas.home.
+     * @param name name of the snapshot file
+     * @return the snapshot, or null if snapshots are disabled or no directory is available
+     */
+    public static TypeStoreSnapshot getTypeStoreSnapshot(String name) {
+        try {
+            Configuration config = ApplicationProperties.get();
+            if (!config.getBoolean(TYPE_SNAPSHOT_ENABLED_PROPERTY, true)) {
+                return null;
+            }
+            String dir = config.getString(TYPE_SNAPSHOT_DIR_PROPERTY);
+            if (dir == null) {
+                String atlasHome = System.getProperty("atlas.home");
+                if (atlasHome == null) {
+                    LOG.info("Type store snapshots are disabled as neither {} nor atlas.home is set",
+                            TYPE_SNAPSHOT_DIR_PROPERTY);
+                    return null;
+                }
+                dir = atlasHome + File.separator + "data" + File.separator + "typesystem";
+            }
+            return new TypeStoreSnapshot(new File(dir, name));
+        } catch (AtlasException e) {
+            LOG.error("Error loading type store snapshot configuration", e);
+            return null;
+        }
+    }
+
+    private static final String STATS_DIR_PROPERTY = "atlas.stats.dir";
+    private static final String STATS_PERSIST_INTERVAL_PROPERTY = "atlas.stats.persist.intervalMs";
+    private static final long DEFAULT_STATS_PERSIST_INTERVAL_MS = 60000;
+
+    /**
+     * Get the file entity statistics are persisted to, under atlas.stats.dir, which defaults to the data
+     * directory under atlas.home.
+     * @param name name of the file
+     * @return the file, or null if no directory is available
+     */
+    public static File getEntityStatisticsFile(String name) {
+        try {
+            Configuration config = ApplicationProperties.get();
+            String dir = config.getString(STATS_DIR_PROPERTY);
+            if (dir == null) {
+                String atlasHome = System.getProperty("atlas.home");
+                if (atlasHome == null) {
+                    LOG.info("Entity statistics are not persisted as neither {} nor atlas.home is set",
+                            STATS_DIR_PROPERTY);
+                    return null;
+                }
+                dir = atlasHome + File.separator + "data" + File.separator + "stats";
+            }
+            return new File(dir, name);
+        } catch (AtlasException e) {
+            LOG.error("Error loading entity statistics configuration", e);
+            return null;
+        }
+    }
+
+    /**
+     * Get the interval between writes of the entity statistics.
+     */
+    public static long getEntityStatisticsPersistIntervalMs() {
+        try {
+            Configuration config = ApplicationProperties.get();
+            return config.getLong(STATS_PERSIST_INTERVAL_PROPERTY, DEFAULT_STATS_PERSIST_INTERVAL_MS);
+        } catch (AtlasException e) {
+            LOG.error("Error loading entity statistics configuration", e);
+            return DEFAULT_STATS_PERSIST_INTERVAL_MS;
+        }
+    }
 }
@@ -28,6 +28,7 @@ import org.apache.atlas.query.TypeUtils.FieldInfo
 import org.apache.atlas.repository.graph.{GraphHelper, GraphBackedMetadataRepository}
 import org.apache.atlas.repository.RepositoryException
 import org.apache.atlas.repository.graphdb._
+import org.apache.atlas.repository.stats.EntityStatisticsService
 import org.apache.atlas.typesystem.persistence.Id
 import org.apache.atlas.typesystem.types.DataTypes._
 import org.apache.atlas.typesystem.persistence.Id
@@ -109,6 +110,12 @@ trait GraphPersistenceStrategies {
      */
     def traitNames(v: AtlasVertex[_,_]): java.util.List[String]
 
+    /**
+     * Entity counts maintained from entity changes, used to estimate how many vertices a query reads; null if there
+     * are none.
+     */
+    def entityStatistics: EntityStatisticsService = null
+
     def edgeLabel(fInfo: FieldInfo): String = fInfo match {
         case FieldInfo(dataType, aInfo, null, null) => edgeLabel(dataType, aInfo)
         case FieldInfo(dataType, aInfo, reverseDataType, null) => edgeLabel(reverseDataType, aInfo)
@@ -213,9 +220,13 @@ trait GraphPersistenceStrategies {
      */
     def collectTypeInstancesIntoVar = true
 
-    def typeTestExpression(typeName : String, intSeq : IntSequence) : Seq[String] = {
+    /**
+     * @param limit when given, each lookup that collects the type instances into a variable stops after this many
+     *              instances. Only applied with Gremlin 2.
+     */
+    def typeTestExpression(typeName : String, intSeq : IntSequence, limit : Option[Int]) : Seq[String] = {
         if (collectTypeInstancesIntoVar)
-            typeTestExpressionMultiStep(typeName, intSeq)
+            typeTestExpressionMultiStep(typeName, intSeq, limit)
         else
             typeTestExpressionUsingFilter(typeName)
     }
@@ -246,13 +257,11 @@ trait GraphPersistenceStrategies {
         s"""org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils.set(${vertexRef}.values('${attrName})"""
     }
 
-    private def typeTestExpressionMultiStep(typeName : String, intSeq : IntSequence) : Seq[String] = {
+    private def typeTestExpressionMultiStep(typeName : String, intSeq : IntSequence,
+                                            limit : Option[Int]) : Seq[String] = {
 
         val varName = s"_var_${intSeq.next}"
-        Seq(
-            newSetVar(varName),
-            fillVarWithTypeInstances(typeName, varName),
-            fillVarWithSubTypeInstances(typeName, varName),
+        Seq(newSetVar(varName)) ++ fillVarWithTypeAndSubTypeInstances(typeName, fill(varName, limit)) ++ Seq(
             if(getSupportedGremlinVersion() == GremlinVersion.TWO) {
                 s"$varName._()"
             }
@@ -269,13 +278,79 @@ trait GraphPersistenceStrategies {
 
     private def newSetVar(varName : String) = s"def $varName = [] as Set"
 
-    private def fillVarWithTypeInstances(typeName : String, fillVar : String) = {
-        s"""g.V().has("${typeAttributeName}", "${typeName}").fill($fillVar)"""
+    /**
+     * The step that ends a lookup of type instances by adding them to the variable, after a range when the lookup is
+     * limited.
+     */
+    private def fill(varName : String, limit : Option[Int]) : String = limit match {
+        case Some(n) if getSupportedGremlinVersion() == GremlinVersion.TWO => s"[0..<$n].fill($varName)"
+        case _ => s".fill($varName)"
+    }
+
+    private def fillVarWithTypeInstances(typeName : String, fillStep : String) = {
+        s"""g.V().has("${typeAttributeName}", "${typeName}")$fillStep"""
     }
 
-    private def fillVarWithSubTypeInstances(typeName : String, fillVar : String) = {
-        s"""g.V().has("${superTypeAttributeName}", "${typeName}").fill($fillVar)"""
+    private def fillVarWithSubTypeInstances(typeName : String, fillStep : String) = {
+        s"""g.V().has("${superTypeAttributeName}", "${typeName}")$fillStep"""
     }  
+
+    /**
+     * When the subtypes of the type are known from the type system, instances are looked up with a single
+     * predicate on the type name, instead of a second lookup on the super type names of every vertex.
+     */
+    private def fillVarWithTypeAndSubTypeInstances(typeName : String, fillStep : String) : Seq[String] = {
+        val typeNames = TypeSystem.getInstance().getSubTypeNames(typeName)
+
+        if (typeNames != null && typeNames.size() <= GraphPersistenceStrategies.MaxTypeNamesInTypeTest) {
+            val names = typeNames.toSeq.sorted.map(quote)
+
+            if (getSupportedGremlinVersion() == GremlinVersion.TWO) {
+                Seq(s"""g.V().has("${typeAttributeName}", T.in, [${names.mkString(",")}])$fillStep""")
+            } else {
+                Seq(s"""g.V().has("${typeAttributeName}", within(${names.mkString(",")}))$fillStep""")
+            }
+        } else {
+            Seq(fillVarWithTypeInstances(typeName, fillStep), fillVarWithSubTypeInstances(typeName, fillStep))
+        }
+    }
+
+    /**
+     * Like typeTestExpression, but only the instances matching an indexed equality predicate are collected, so that
+     * the lookup goes through the index on that predicate instead of the index on the type name. Composite indexes
+     * that include the type name need an equality on each type name, so perTypeName looks up one type at a time.
+     * Only used with Gremlin 2, when type instances are collected into a variable.
+     */
+    def indexedTypeTestExpression(typeName : String, intSeq : IntSequence, predicate : String,
+                                  perTypeName : Boolean, limit : Option[Int]) : Seq[String] = {
+        val varName = s"_var_${intSeq.next}"
+        val fillStep = fill(varName, limit)
+        val typeNames = TypeSystem.getInstance().getSubTypeNames(typeName)
+
+        val lookups = if (typeNames != null && typeNames.size() <= GraphPersistenceStrategies.MaxTypeNamesInTypeTest) {
+            val names = typeNames.toSeq.sorted.map(quote)
+
+            if (perTypeName) {
+                names.map(n => s"""g.V().$predicate.has("${typeAttributeName}", $n)$fillStep""")
+            } else {
+                Seq(s"""g.V().$predicate.has("${typeAttributeName}", T.in, [${names.mkString(",")}])$fillStep""")
+            }
+        } else {
+            Seq(s"""g.V().$predicate.has("${typeAttributeName}", "${typeName}")$fillStep""",
+                s"""g.V().$predicate.has("${superTypeAttributeName}", "${typeName}")$fillStep""")
+        }
+
+        Seq(newSetVar(varName)) ++ lookups ++ Seq(s"$varName._()")
+    }
+
+    private def quote(name : String) = "\"" + name.replace("\"", "\\\"").replace("$", "\\$") + "\""
+}
+
+object GraphPersistenceStrategies {
+    /**
+     * Types with more subtypes than this are looked up through the super type names of the vertices.
+     */
+    val MaxTypeNamesInTypeTest = 64
 }
 
 import scala.language.existentials;
@@ -19,19 +19,26 @@
 package org.apache.atlas.query
 
 
+import org.apache.atlas.discovery.RunningQuery
 import org.apache.atlas.query.Expressions._
-import org.apache.atlas.repository.graphdb.AtlasGraph
+import org.apache.atlas.repository.Constants
+import org.apache.atlas.repository.graphdb.{AtlasGraph, AtlasVertex}
 import org.apache.atlas.query.TypeUtils.ResultWithPathStruct
 import org.apache.atlas.typesystem.json._
 import org.apache.atlas.typesystem.types._
+import org.codehaus.jackson.JsonGenerator
 import org.json4s._
 import org.json4s.native.Serialization._
 import scala.language.existentials
 import org.apache.atlas.query.Expressions._
 
+/**
+ * @param rows the result rows; those produced by [[GremlinEvaluator]] are converted from the graph elements when they
+ *             are first read, so that a row that is never read is never converted
+ */
 case class GremlinQueryResult(query: String,
                               resultDataType: IDataType[_],
-                              rows: List[_]) {
+                              rows: Seq[_]) {
     def this(query: String,resultDataType: IDataType[_]) {
       this(query,resultDataType,List.empty)
     }
@@ -39,7 +46,21 @@ case class GremlinQueryResult(query: String,
     def toJson = JsonHelper.toJson(this)
 }
 
-class GremlinEvaluator(qry: GremlinQuery, persistenceStrategy: GraphPersistenceStrategies, g: AtlasGraph[_,_]) {
+class GremlinEvaluator(qry: GremlinQuery, persistenceStrategy: GraphPersistenceStrategies, g: AtlasGraph[_,_],
+                       runningQuery: RunningQuery) {
+
+    def this(qry: GremlinQuery, persistenceStrategy: GraphPersistenceStrategies, g: AtlasGraph[_,_]) {
+        this(qry, persistenceStrategy, g, null)
+    }
+
+    /**
+      * Accounts for a result row against the budget of the running query, if there is one.
+      */
+    private def recordRow(row: AnyRef): Unit = {
+        if (runningQuery != null) {
+            runningQuery.recordRow(row)
+        }
+    }
 
    /**
      *
@@ -86,23 +107,24 @@ class GremlinEvaluator(qry: GremlinQuery, persistenceStrategy: GraphPersistenceS
         else {
             rType
         }
-        val rawRes = g.executeGremlinScript(qry.queryStr, qry.isPathExpression);
+        val rawRows = executeRawRows()
         if(debug) {
-            println(" rawRes " +rawRes)
+            println(" rawRes " +rawRows)
         }
+
         if (!qry.hasSelectList) {
-            val rows = rawRes.asInstanceOf[java.util.List[AnyRef]].map { v =>
+            val rows = new ConvertedRows(rawRows, { v =>
                 val instObj = instanceObject(v)
                 val o = persistenceStrategy.constructInstance(oType, instObj)
                 addPathStruct(v, o)
-            }
-            GremlinQueryResult(qry.expr.toString, rType, rows.toList)
+            })
+            GremlinQueryResult(qry.expr.toString, rType, rows)
         } else {
             val sType = oType.asInstanceOf[StructType]
-            val rows = rawRes.asInstanceOf[java.util.List[AnyRef]].map { r =>
+            val selObj = SelectExpressionHelper.extractSelectExpression(qry.expr)
+            val rows = new ConvertedRows(rawRows, { r =>
                 val rV = instanceObject(r)
                 val sInstance = sType.createInstance()
-                val selObj = SelectExpressionHelper.extractSelectExpression(qry.expr)
                 if (selObj.isDefined) {
                     val selExpr = selObj.get.asInstanceOf[Expressions.SelectExpression]
                     selExpr.selectListWithAlias.foreach { aE =>
@@ -113,11 +135,45 @@ class GremlinEvaluator(qry: GremlinQuery, persistenceStrategy: GraphPersistenceS
                     }
                 }               
                 addPathStruct(r, sInstance)
-            }
-            GremlinQueryResult(qry.expr.toString, rType, rows.toList)
+            })
+            GremlinQueryResult(qry.expr.toString, rType, rows)
         }
 
     }
+
+    /**
+     * Reads the guids of the entities the query returns from their vertices, without converting the entities.
+     *
+     * @throws IllegalArgumentException if the query doesn't return entities
+     */
+    def evaluateGuids(): java.util.List[String] = {
+        import scala.collection.JavaConversions._
+        val oType = if (qry.isPathExpression) qry.expr.children(0).dataType else qry.expr.dataType
+        if (qry.hasSelectList || oType.getTypeCategory != DataTypes.TypeCategory.CLASS) {
+            throw new IllegalArgumentException(s"The query should return entities: ${qry.expr}")
+        }
+
+        val guids = new java.util.ArrayList[String]()
+        executeRawRows().foreach { v =>
+            val vertex = instanceObject(v).asInstanceOf[AtlasVertex[_, _]]
+            guids.add(vertex.getProperty(Constants.GUID_PROPERTY_KEY, classOf[String]))
+        }
+        guids
+    }
+
+    private def executeRawRows(): java.util.List[AnyRef] = {
+        import scala.collection.JavaConversions._
+        if (runningQuery != null) {
+            runningQuery.checkActive()
+        }
+        val rawRows = g.executeGremlinScript(qry.queryStr, qry.isPathExpression).asInstanceOf[java.util.List[AnyRef]]
+        // rows are accounted for while they are read when the graph provides a row listener step; otherwise
+        // they can only be accounted for once all of them have been read
+        if (runningQuery != null && runningQuery.getRowCount == 0) {
+            rawRows.foreach(recordRow)
+        }
+        rawRows
+    }
     
     private def getColumnValue(rowValue: AnyRef, colName: String, idx: Integer) : AnyRef  = {
 
@@ -144,6 +200,28 @@ class GremlinEvaluator(qry: GremlinQuery, persistenceStrategy: GraphPersistenceS
     }
 }
 
+/**
+ * Rows converted from the raw rows of a query when they are first read. Each row is converted once, however often the
+ * rows are traversed, and the size doesn't convert any of them.
+ */
+private class ConvertedRows(rawRows: java.util.List[AnyRef], convert: AnyRef => Any)
+    extends IndexedSeq[Any] {
+
+    private val raw = rawRows.toArray
+    private val converted = new Array[Any](raw.length)
+    private val isConverted = new Array[Boolean](raw.length)
+
+    override def length: Int = raw.length
+
+    override def apply(idx: Int): Any = {
+        if (!isConverted(idx)) {
+            converted(idx) = convert(raw(idx))
+            isConverted(idx) = true
+        }
+        converted(idx)
+    }
+}
+
 object JsonHelper {
 
     class GremlinQueryResultSerializer()
@@ -156,7 +234,7 @@ object JsonHelper {
             case GremlinQueryResult(query, rT, rows) =>
                 JObject(JField("query", JString(query)),
                     JField("dataType", TypesSerialization.toJsonValue(rT)(f)),
-                    JField("rows", Extraction.decompose(rows)(f))
+                    JField("rows", JArray(rows.iterator.map(Extraction.decompose(_)(f)).toList))
                 )
         }
     }
@@ -168,4 +246,48 @@ object JsonHelper {
     def toJson(r: GremlinQueryResult): String = {
         writePretty(r)
     }
+
+    def toJson(plan: QueryPlan): String = {
+        writePretty(plan)
+    }
+
+    def writeDataType(r: GremlinQueryResult, generator: JsonGenerator): Unit = {
+        write(TypesSerialization.toJsonValue(r.resultDataType), generator)
+    }
+
+    /**
+     * The rows of a result in the form [[toJson]] gives them. Each row is converted when the iterator reaches it, so
+     * conversion failures are thrown by the iterator.
+     */
+    def jsonRows(r: GremlinQueryResult): java.util.Iterator[JValue] = {
+        import scala.collection.JavaConverters._
+        r.rows.iterator.map(row => Extraction.decompose(row)).asJava
+    }
+
+    /**
+     * Writes a JSON tree to a streaming generator. As when rendering it, fields and elements without a value are
+     * left out.
+     */
+    def write(value: JValue, generator: JsonGenerator): Unit = value match {
+        case JObject(fields) =>
+            generator.writeStartObject()
+            fields.foreach { case (name, v) =>
+                if (v != JNothing) {
+                    generator.writeFieldName(name)
+                    write(v, generator)
+                }
+            }
+            generator.writeEndObject()
+        case JArray(values) =>
+            generator.writeStartArray()
+            values.foreach(write(_, generator))
+            generator.writeEndArray()
+        case JString(s) => generator.writeString(s)
+        case JInt(n) => generator.writeNumber(n.bigInteger)
+        case JDouble(d) => generator.writeNumber(d)
+        case JDecimal(d) => generator.writeNumber(d.bigDecimal)
+        case JBool(b) => generator.writeBoolean(b)
+        case JNull => generator.writeNull()
+        case JNothing =>
+    }
 }
@@ -217,7 +217,59 @@ class GremlinTranslator(expr: Expression,
     }
 
     def typeTestExpression(typeName : String) : String = {
-        val stats = gPersistenceBehavior.typeTestExpression(escape(typeName), counter)
+        val stats = gPersistenceBehavior.typeTestExpression(escape(typeName), counter, startLimit)
+        preStatements ++= stats.init
+        stats.last
+    }
+
+    /**
+     * Number of instances the type lookup at the start of the query has to return, when everything between the
+     * lookup and the final range step passes the instances through one to one.
+     */
+    private var startLimit : Option[Int] = None
+
+    /**
+     * Whether each instance found by the type lookup at the start of the expression yields exactly one result, in
+     * the order of the lookup, so that a range on the results can be applied to the lookup as well. Filters only
+     * qualify when the planner answers all their conditions through the index it starts from.
+     */
+    private def passesStartThrough(e : Expression) : Boolean = e match {
+        case ClassExpression(_) => true
+        case AliasExpression(child, _) => passesStartThrough(child)
+        case SelectExpression(child, _) => passesStartThrough(child)
+        case FilterExpression(child, LogicalExpression("and", conditions))
+            if planner.isDefined && plannedTypeName(child).isDefined =>
+            val plan = planner.get.plan(plannedTypeName(child).get, conditions)
+            plan.start.isDefined && plan.filters.isEmpty
+        case _ => false
+    }
+
+    /**
+     * The starting points the planner chose for the filtered class queries in the expression.
+     */
+    val plannedStarts = ArrayBuffer[StartPlan]()
+
+    private lazy val planner : Option[QueryPlanner] =
+        if (gPersistenceBehavior.getSupportedGremlinVersion() == GremlinVersion.TWO &&
+            gPersistenceBehavior.collectTypeInstancesIntoVar && QueryPlanner.isEnabled) {
+            Some(new QueryPlanner(gPersistenceBehavior))
+        } else {
+            None
+        }
+
+    private def plannedTypeName(source : Expression) : Option[String] = source match {
+        case ClassExpression(clsName) => Some(clsName)
+        case AliasExpression(ClassExpression(clsName), _) => Some(clsName)
+        case _ => None
+    }
+
+    def indexedTypeTestExpression(start : StartPlan) : String = {
+        val fInfo = start.predicate.left.asInstanceOf[FieldExpression].fieldInfo
+        val persistentExprValue = translateValueToPersistentForm(fInfo, start.predicate.right)
+        val compOp = gPersistenceBehavior.gremlinCompOp(start.predicate)
+        val predicate = s"""has("${start.property}", $compOp, $persistentExprValue)"""
+        val stats = gPersistenceBehavior.indexedTypeTestExpression(escape(start.typeName), counter, predicate,
+            start.index.withTypeName, startLimit)
         preStatements ++= stats.init
         stats.last
     }
@@ -256,6 +308,21 @@ class GremlinTranslator(expr: Expression,
         case c@ComparisonExpression(symb, f@FieldExpression(fieldName, fInfo, ch), l) => {
           return genHasPredicate(ch, fInfo, fieldName, inSelect, c, l)
         }
+        case fil@FilterExpression(child, LogicalExpression("and", conditions))
+            if planner.isDefined && plannedTypeName(child).isDefined => {
+            val plan = planner.get.plan(plannedTypeName(child).get, conditions)
+            val input = plan.start match {
+                case Some(start) =>
+                    plannedStarts += start
+                    child match {
+                        case AliasExpression(_, alias) => s"""${indexedTypeTestExpression(start)}.as("$alias")"""
+                        case _ => indexedTypeTestExpression(start)
+                    }
+                case None => genQuery(child, inSelect)
+            }
+
+            if (plan.filters.isEmpty) input else s"$input.${genQuery(LogicalExpression("and", plan.filters), inSelect)}"
+        }
         case fil@FilterExpression(child, condExpr) => {
             s"${genQuery(child, inSelect)}.${genQuery(condExpr, inSelect)}"
         }
@@ -423,7 +490,11 @@ class GremlinTranslator(expr: Expression,
         case limitOffset@LimitExpression(child, limit, offset) => {
             if(gPersistenceBehavior.getSupportedGremlinVersion() == GremlinVersion.TWO) {
                 val totalResultRows = limit.value + offset.value
-                s"""${genQuery(child, inSelect)} [$offset..<$totalResultRows]"""
+                if (gPersistenceBehavior.collectTypeInstancesIntoVar && passesStartThrough(child)) {
+                    startLimit = Some(totalResultRows)
+                }
+                val childQuery = try genQuery(child, inSelect) finally startLimit = None
+                s"""$childQuery [$offset..<$totalResultRows]"""
             }
             else {
                 val totalResultRows = limit.value + offset.value
@@ -538,7 +609,9 @@ class GremlinTranslator(expr: Expression,
         }
     }
     
-    def genFullQuery(expr: Expression, hasSelect: Boolean): String = {
+    def genFullQuery(expr: Expression, hasSelect: Boolean): String = genFullQuery(expr, hasSelect, false)
+
+    private def genFullQuery(expr: Expression, hasSelect: Boolean, countOnly: Boolean): String = {
         
         var q = genQuery(expr, false)
         val debug:Boolean = false
@@ -546,7 +619,13 @@ class GremlinTranslator(expr: Expression,
              q = s"g.V()${gPersistenceBehavior.initialQueryCondition}.$q"
         }
 
-        q = s"$q.toList()${gPersistenceBehavior.getGraph().getOutputTransformationPredicate(hasSelect, expr.isInstanceOf[PathExpression])}"
+        if (countOnly) {
+            q = s"$q.count()"
+        } else {
+            val rowListener = gPersistenceBehavior.getGraph().getRowListenerPredicate(
+                "org.apache.atlas.discovery.RunningQuery.recordRowOnCurrentThread")
+            q = s"$q$rowListener.toList()${gPersistenceBehavior.getGraph().getOutputTransformationPredicate(hasSelect, expr.isInstanceOf[PathExpression])}"
+        }
       
         if(debug) {
           println(" query " + q)
@@ -562,14 +641,7 @@ class GremlinTranslator(expr: Expression,
         
     }
     def translate(): GremlinQuery = {
-        var e1 = expr.transformUp(wrapAndRule)
-
-        e1.traverseUp(validateComparisonForm)
-        e1 = e1.transformUp(new AddAliasToSelectInput)
-        e1.traverseUp(validateSelectExprHaveOneSrc)
-        e1 = e1.transformUp(addAliasToLoopInput())
-        e1 = e1.transformUp(instanceClauseToTop(e1))
-        e1 = e1.transformUp(traitClauseWithInstanceForTop(e1))
+        val e1 = prepareExpression()
     
         //Following code extracts the select expressions from expression tree.
     
@@ -582,6 +654,26 @@ class GremlinTranslator(expr: Expression,
         }
 
     }
+
+    /**
+     * Translates the expression into a query that returns the number of results instead of the results,
+     * used to profile a query one step at a time.
+     */
+    def translateCount(): String = {
+        genFullQuery(prepareExpression(), false, true)
+    }
+
+    private def prepareExpression(): Expression = {
+        var e1 = expr.transformUp(wrapAndRule)
+
+        e1.traverseUp(validateComparisonForm)
+        e1 = e1.transformUp(new AddAliasToSelectInput)
+        e1.traverseUp(validateSelectExprHaveOneSrc)
+        e1 = e1.transformUp(addAliasToLoopInput())
+        e1 = e1.transformUp(instanceClauseToTop(e1))
+        e1 = e1.transformUp(traitClauseWithInstanceForTop(e1))
+        e1
+    }
 }
     object SelectExpressionHelper {
        /**
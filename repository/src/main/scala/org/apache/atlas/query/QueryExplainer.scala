@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.query
+
+import org.apache.atlas.discovery.RunningQuery
+import org.apache.atlas.query.Expressions._
+import org.apache.atlas.repository.graphdb.AtlasGraph
+
+import scala.collection.JavaConversions._
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * How one comparison in a DSL query is evaluated.
+ *
+ * @param index  the composite or mixed index that could answer the predicate, if any
+ * @param access "index" when the predicate selects the starting vertices through the index, "filter" when it is
+ *               tested against every vertex the traversal reaches
+ */
+case class PredicatePlan(predicate: String, property: String, index: Option[String], access: String)
+
+/**
+ * Elements produced by the query up to and including a step, and the time it took to produce them.
+ *
+ * @param timeMs     time to run the query up to and including this step
+ * @param stepTimeMs the part of that time added by this step
+ */
+case class StepProfile(step: String, elements: Option[Long], timeMs: Long, stepTimeMs: Long, error: Option[String])
+
+case class QueryPlan(query: String,
+                     expression: String,
+                     expressionTree: String,
+                     gremlin: String,
+                     start: String,
+                     startIndex: Option[String],
+                     fullScan: Boolean,
+                     predicates: List[PredicatePlan],
+                     profile: Option[List[StepProfile]]) {
+
+    def toJson = JsonHelper.toJson(this)
+}
+
+/**
+ * Explains how a validated DSL expression is executed: the Gremlin it translates to, how the starting vertices are
+ * found, which predicates an index could answer and which one the planner starts from. When profiling, the query is
+ * run once per step, counting what comes out of that step, so that the step that blows up the number of elements
+ * can be spotted.
+ */
+class QueryExplainer(persistenceStrategy: GraphPersistenceStrategies, g: AtlasGraph[_, _],
+                     runningQuery: RunningQuery) {
+
+    def explain(query: String, expr: Expression, profile: Boolean): QueryPlan = {
+        val translator = new GremlinTranslator(expr, persistenceStrategy)
+        val gremlinQuery = translator.translate()
+        val steps = QueryExplainer.steps(expr)
+        val plannedStart = translator.plannedStarts.headOption
+        val (start, startIndex) = plannedStart match {
+            case Some(s) => (s"instances of ${s.typeName} where ${s.predicate} (estimated ${s.estimatedRows} of " +
+                s"${s.typeInstances} instances)", Some(s.index.description))
+            case None => explainStart(steps.head)
+        }
+        val predicates = ArrayBuffer[PredicatePlan]()
+
+        expr.traverseUp {
+            case c@ComparisonExpression(_, FieldExpression(_, fInfo, _), _) if fInfo.attrInfo != null =>
+                val property = persistenceStrategy.fieldNameInVertex(fInfo.dataType, fInfo.attrInfo)
+                val access = if (translator.plannedStarts.exists(_.predicate == c)) "index" else "filter"
+                predicates += PredicatePlan(c.toString, property, indexFor(property), access)
+        }
+
+        QueryPlan(query, expr.toString, expr.treeString, gremlinQuery.queryStr, start, startIndex,
+            startIndex.isEmpty, predicates.toList, if (profile) Some(profileSteps(steps)) else None)
+    }
+
+    private def explainStart(source: Expression): (String, Option[String]) = {
+        source match {
+            case ClassExpression(name) if persistenceStrategy.collectTypeInstancesIntoVar =>
+                (s"instances of $name by ${persistenceStrategy.typeAttributeName}",
+                    indexFor(persistenceStrategy.typeAttributeName))
+            case TraitExpression(name) if persistenceStrategy.collectTypeInstancesIntoVar =>
+                (s"instances of $name by ${persistenceStrategy.typeAttributeName}",
+                    indexFor(persistenceStrategy.typeAttributeName))
+            case e =>
+                (s"all vertices, filtered by $e", None)
+        }
+    }
+
+    private def indexFor(property: String): Option[String] = {
+        QueryPlanner.propertyIndex(persistenceStrategy, property).map(_.description)
+    }
+
+    private def profileSteps(steps: List[Expression]): List[StepProfile] = {
+        var previous: Expression = null
+        var previousMs = 0L
+
+        steps.map { step =>
+            val description = if (previous == null) step.toString else step.toString.stripPrefix(previous.toString)
+            previous = step
+
+            if (runningQuery != null) {
+                runningQuery.checkActive()
+            }
+
+            val startTime = System.nanoTime()
+            val (elements, error) = try {
+                val countQuery = new GremlinTranslator(step, persistenceStrategy).translateCount()
+                g.executeGremlinScript(countQuery, false) match {
+                    case n: Number => (Some(n.longValue()), None)
+                    case r => (None, Some(s"Unexpected count result $r"))
+                }
+            } catch {
+                case e: Exception => (None, Some(e.getMessage))
+            }
+
+            val timeMs = (System.nanoTime() - startTime) / 1000000
+            val stepTimeMs = math.max(timeMs - previousMs, 0L)
+            previousMs = timeMs
+            StepProfile(description.trim, elements, timeMs, stepTimeMs, error)
+        }
+    }
+}
+
+object QueryExplainer {
+
+    /**
+     * The pipeline of an expression, from the expression that produces the starting vertices to the expression
+     * itself. Each entry is a complete query whose input is the previous entry.
+     */
+    def steps(expr: Expression): List[Expression] = {
+        val input: Option[Expression] = expr match {
+            case FilterExpression(child, _) => Some(child)
+            case AliasExpression(child, _) => Some(child)
+            case FieldExpression(_, _, child) => child
+            case SelectExpression(child, _) => Some(child)
+            case LimitExpression(child, _, _) => Some(child)
+            case OrderExpression(child, _, _) => Some(child)
+            case PathExpression(child) => Some(child)
+            case LoopExpression(child, _, _) => Some(child)
+            case InstanceExpression(child) => Some(child)
+            case TraitInstanceExpression(child) => Some(child)
+            case isTraitUnaryExpression(_, child) => Some(child)
+            case hasFieldUnaryExpression(_, child) => Some(child)
+            case _ => None
+        }
+
+        input.map(steps(_) :+ expr).getOrElse(List(expr))
+    }
+}
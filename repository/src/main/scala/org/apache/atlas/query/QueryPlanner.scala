@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.query
+
+import java.util.concurrent.TimeUnit
+
+import com.google.common.cache.{Cache, CacheBuilder}
+import org.apache.atlas.{AtlasException, ApplicationProperties}
+import org.apache.atlas.query.Expressions._
+import org.apache.atlas.repository.Constants
+import org.apache.atlas.typesystem.types.DataTypes.TypeCategory
+import org.apache.atlas.typesystem.types.{DataTypes, TypeSystem}
+import org.slf4j.{Logger, LoggerFactory}
+
+import scala.collection.JavaConversions._
+import scala.language.existentials
+
+/**
+ * The index that can answer an exact match on a vertex property.
+ *
+ * @param mixed        true for the mixed (external) vertex index, false for a composite index
+ * @param withTypeName true for a composite index on the property and the type name, which is only used when both
+ *                     are matched exactly
+ */
+case class PropertyIndex(description: String, mixed: Boolean, withTypeName: Boolean, unique: Boolean)
+
+/**
+ * Instances of a class that match an indexed equality predicate, used as the start of a query instead of all the
+ * instances of the class.
+ *
+ * @param estimatedRows estimated number of instances matching the predicate
+ * @param typeInstances number of instances of the class and its subtypes, from the entity statistics or up to the
+ *                      sampling limit
+ */
+case class StartPlan(typeName: String, predicate: ComparisonExpression, property: String, index: PropertyIndex,
+                     estimatedRows: Long, typeInstances: Long)
+
+/**
+ * How the conditions on the instances of a class are evaluated: the predicate the instances are looked up with, if
+ * any, and the remaining conditions in the order they are tested.
+ */
+case class FilterPlan(start: Option[StartPlan], filters: List[Expression])
+
+/**
+ * Chooses how a DSL query on the instances of a class starts. By default instances are looked up by type name and
+ * every condition is then tested against each of them, which reads all the instances of the type even when a
+ * condition matches a single one through an index. The planner estimates how many instances each indexed equality
+ * would return, from the kind of index and the number of instances of the type, and starts from the most selective
+ * one when it is cheaper than the type lookup. The remaining conditions are ordered so that cheap, selective
+ * comparisons on the vertex itself are tested before the others.
+ *
+ * Instance counts are read from the entity statistics. While those are rebuilt, the instances are counted from the
+ * graph up to a sampling limit instead. Index metadata and sampled counts are cached for a while, since reading them
+ * on every query would cost more than the lookups they save.
+ */
+class QueryPlanner(persistenceStrategy: GraphPersistenceStrategies) {
+
+    def plan(typeName: String, conditions: List[Expression]): FilterPlan = {
+        val candidates = conditions.flatMap(startCandidate(typeName, _))
+
+        val start = if (candidates.isEmpty) {
+            None
+        } else {
+            val typeInstances = QueryPlanner.typeInstances(persistenceStrategy, typeName)
+            val best = candidates.map(c => c.copy(typeInstances = typeInstances,
+                estimatedRows = QueryPlanner.estimateRows(c.index, typeInstances))).minBy(_.estimatedRows)
+
+            if (best.estimatedRows < typeInstances) Some(best) else None
+        }
+
+        val remaining = start match {
+            case Some(s) => conditions.patch(conditions.indexWhere(_ eq s.predicate), Nil, 1)
+            case None => conditions
+        }
+
+        FilterPlan(start, remaining.sortBy(QueryPlanner.selectivity))
+    }
+
+    private def startCandidate(typeName: String, condition: Expression): Option[StartPlan] = condition match {
+        case c@ComparisonExpression("=", FieldExpression(_, fInfo, None), _: Literal[_])
+            if fInfo.attrInfo != null && fInfo.traitName == null
+                && fInfo.attrInfo.dataType.getTypeCategory == TypeCategory.PRIMITIVE =>
+            val property = persistenceStrategy.fieldNameInVertex(fInfo.dataType, fInfo.attrInfo)
+
+            QueryPlanner.propertyIndex(persistenceStrategy, property).filter { index =>
+                // mixed indexes tokenize strings, so they don't answer exact matches on them
+                !index.mixed || fInfo.attrInfo.dataType != DataTypes.STRING_TYPE
+            }.map { index =>
+                val startIndex = if (fInfo.attrInfo.isUnique) index.copy(unique = true) else index
+                StartPlan(typeName, c, property, startIndex, 0, 0)
+            }
+        case _ => None
+    }
+}
+
+object QueryPlanner {
+
+    val LOG: Logger = LoggerFactory.getLogger(classOf[QueryPlanner])
+
+    val PLANNER_ENABLED = "atlas.query.planner.enabled"
+    val PLANNER_STATS_TTL_SECONDS = "atlas.query.planner.stats.ttl.seconds"
+    val PLANNER_STATS_SAMPLE_SIZE = "atlas.query.planner.stats.sample.size"
+
+    /**
+     * Fraction of the instances of a type expected to match an equality on a property with a non-unique index.
+     */
+    val IndexedEqualitySelectivity = 0.01
+
+    private lazy val statsTtlSeconds = config(_.getLong(PLANNER_STATS_TTL_SECONDS, 300L), 300L)
+    private lazy val sampleSize = config(_.getLong(PLANNER_STATS_SAMPLE_SIZE, 10000L), 10000L)
+
+    private lazy val indexCache: Cache[String, Option[PropertyIndex]] =
+        CacheBuilder.newBuilder().maximumSize(10000).expireAfterWrite(statsTtlSeconds, TimeUnit.SECONDS)
+            .build[String, Option[PropertyIndex]]()
+
+    private lazy val typeInstancesCache: Cache[String, java.lang.Long] =
+        CacheBuilder.newBuilder().maximumSize(10000).expireAfterWrite(statsTtlSeconds, TimeUnit.SECONDS)
+            .build[String, java.lang.Long]()
+
+    def isEnabled: Boolean = config(_.getBoolean(PLANNER_ENABLED, true), true)
+
+    /**
+     * Drops the cached index metadata and instance counts, called when indexes are added.
+     */
+    def invalidate(): Unit = {
+        indexCache.invalidateAll()
+        typeInstancesCache.invalidateAll()
+    }
+
+    def propertyIndex(persistenceStrategy: GraphPersistenceStrategies, property: String): Option[PropertyIndex] = {
+        val key = persistenceStrategy.typeAttributeName + ":" + property
+        val cached = indexCache.getIfPresent(key)
+
+        if (cached != null) {
+            cached
+        } else {
+            val index = readPropertyIndex(persistenceStrategy, property)
+            indexCache.put(key, index)
+            index
+        }
+    }
+
+    def typeInstances(persistenceStrategy: GraphPersistenceStrategies, typeName: String): Long = {
+        val counted = countedTypeInstances(persistenceStrategy, typeName)
+        if (counted.isDefined) {
+            return counted.get
+        }
+
+        val key = persistenceStrategy.typeAttributeName + ":" + typeName
+        val cached = typeInstancesCache.getIfPresent(key)
+
+        if (cached != null) {
+            cached
+        } else {
+            val count = countTypeInstances(persistenceStrategy, typeName)
+            typeInstancesCache.put(key, count)
+            count
+        }
+    }
+
+    def estimateRows(index: PropertyIndex, typeInstances: Long): Long = {
+        if (index.unique) 1L else math.max(1L, math.ceil(typeInstances * IndexedEqualitySelectivity).toLong)
+    }
+
+    /**
+     * Rough fraction of the vertices that pass a condition, used to test the conditions most likely to reject a
+     * vertex first. Conditions that traverse edges or combine other conditions come last, in their original order.
+     */
+    def selectivity(condition: Expression): Double = condition match {
+        case ComparisonExpression(op, FieldExpression(_, _, None), _) => op match {
+            case "=" => 0.1
+            case "!=" => 0.9
+            case _ => 0.33
+        }
+        case _ => 1.0
+    }
+
+    private def readPropertyIndex(persistenceStrategy: GraphPersistenceStrategies,
+                                  property: String): Option[PropertyIndex] = {
+        val management = persistenceStrategy.getGraph().getManagementSystem
+
+        try {
+            val composite = management.getGraphIndex(property)
+            val compositeWithType = management.getGraphIndex(property + persistenceStrategy.typeAttributeName)
+            val vertexIndex = management.getGraphIndex(Constants.VERTEX_INDEX)
+
+            if (composite != null) {
+                Some(PropertyIndex(s"composite:$property", false, false, composite.isUnique))
+            } else if (compositeWithType != null) {
+                Some(PropertyIndex(s"composite:$property,${persistenceStrategy.typeAttributeName}", false, true,
+                    compositeWithType.isUnique))
+            } else if (vertexIndex != null && vertexIndex.getFieldKeys.exists(_.getName == property)) {
+                Some(PropertyIndex(s"mixed:${Constants.VERTEX_INDEX}", true, false, false))
+            } else {
+                None
+            }
+        } finally {
+            management.rollback()
+        }
+    }
+
+    /**
+     * Reads the number of active instances of the type and its subtypes from the entity statistics, unless they are
+     * not maintained on this server, are being rebuilt from the graph, or the subtypes aren't known.
+     */
+    private def countedTypeInstances(persistenceStrategy: GraphPersistenceStrategies, typeName: String): Option[Long] = {
+        val statistics = persistenceStrategy.entityStatistics
+        val typeNames = TypeSystem.getInstance().getSubTypeNames(typeName)
+
+        if (statistics == null || !statistics.isMaintained || typeNames == null) {
+            None
+        } else {
+            val typeCounts = statistics.getStatistics.getTypeCounts
+            val count = typeNames.toSeq.flatMap(name => Option(typeCounts.get(name))).map(_.getActive).sum
+
+            LOG.debug("{} active instances of {} in the entity statistics", count, typeName)
+            Some(count)
+        }
+    }
+
+    private def countTypeInstances(persistenceStrategy: GraphPersistenceStrategies, typeName: String): Long = {
+        val graph = persistenceStrategy.getGraph()
+        val typeNames = TypeSystem.getInstance().getSubTypeNames(typeName)
+        val lookups = if (typeNames != null) {
+            typeNames.toSeq.map((persistenceStrategy.typeAttributeName, _))
+        } else {
+            Seq((persistenceStrategy.typeAttributeName, typeName), (persistenceStrategy.superTypeAttributeName, typeName))
+        }
+
+        var count = 0L
+        for ((attribute, name) <- lookups if count < sampleSize) {
+            val vertices = graph.query().has(attribute, name).vertices().iterator()
+
+            while (vertices.hasNext && count < sampleSize) {
+                vertices.next()
+                count += 1
+            }
+        }
+
+        LOG.debug("Counted {} instances of {}", count, typeName)
+        count
+    }
+
+    private def config[T](read: org.apache.commons.configuration.Configuration => T, default: T): T = {
+        try {
+            read(ApplicationProperties.get())
+        } catch {
+            case e: AtlasException =>
+                LOG.warn("Failed to read the query planner configuration, using defaults", e)
+                default
+        }
+    }
+}
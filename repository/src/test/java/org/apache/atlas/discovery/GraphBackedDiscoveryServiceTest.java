@@ -23,6 +23,8 @@ import static org.apache.atlas.typesystem.types.utils.TypesUtil.createOptionalAt
 import static org.apache.atlas.typesystem.types.utils.TypesUtil.createRequiredAttrDef;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -35,13 +37,23 @@ import java.util.Set;
 
 import javax.inject.Inject;
 
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.BaseRepositoryTest;
 import org.apache.atlas.RepositoryMetadataModule;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.TestUtils;
+import org.apache.atlas.discovery.graph.DefaultGraphPersistenceStrategy;
 import org.apache.atlas.discovery.graph.GraphBackedDiscoveryService;
+import org.apache.atlas.query.Expressions;
+import org.apache.atlas.query.GremlinEvaluator;
+import org.apache.atlas.query.GremlinQueryResult;
+import org.apache.atlas.query.GremlinQuery;
+import org.apache.atlas.query.GremlinTranslator;
+import org.apache.atlas.query.QueryParser;
 import org.apache.atlas.query.QueryParams;
+import org.apache.atlas.query.QueryPlanner;
+import org.apache.atlas.query.QueryProcessor;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.MetadataRepository;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
@@ -55,6 +67,7 @@ import org.apache.atlas.typesystem.types.HierarchicalTypeDefinition;
 import org.apache.atlas.typesystem.types.IDataType;
 import org.apache.atlas.typesystem.types.Multiplicity;
 import org.apache.atlas.typesystem.types.TypeSystem;
+import org.apache.commons.configuration.PropertiesConfiguration;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONObject;
 import org.testng.Assert;
@@ -228,6 +241,52 @@ public class GraphBackedDiscoveryServiceTest extends BaseRepositoryTest {
         Assert.fail();
     }
 
+    @Test
+    public void testSearchGuidsByDSL() throws Exception {
+        List<String> guids = discoveryService.searchGuidsByDSL("Person", new QueryParams(Integer.MAX_VALUE, 0));
+
+        JSONArray rows = new JSONObject(searchByDSL("Person")).getJSONArray("rows");
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < rows.length(); i++) {
+            expected.add(rows.getJSONObject(i).getJSONObject("$id$").getString("id"));
+        }
+        assertEquals(guids.size(), rows.length());
+        assertEquals(new HashSet<>(guids), expected);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSearchGuidsByDSLRequiresEntities() throws Exception {
+        discoveryService.searchGuidsByDSL("Person select name", new QueryParams(Integer.MAX_VALUE, 0));
+    }
+
+    @Test
+    public void testDSLRowBudgetIsCheckedWhileRowsAreRead() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.setProperty(QueryExecutionManager.QUERY_MAX_ROWS, 1);
+        QueryExecutionManager manager = new QueryExecutionManager(configuration);
+        RunningQuery runningQuery = manager.start(GraphBackedDiscoveryService.QUERY_TYPE_DSL, "Person");
+        try {
+            Expressions.Expression expression =
+                    QueryProcessor.validate(QueryParser.apply("Person", queryParams).right().get());
+            DefaultGraphPersistenceStrategy persistenceStrategy = new DefaultGraphPersistenceStrategy(repositoryService);
+            GremlinQuery gremlinQuery = new GremlinTranslator(expression, persistenceStrategy).translate();
+            try {
+                new GremlinEvaluator(gremlinQuery, persistenceStrategy, AtlasGraphProvider.getGraphInstance(),
+                        runningQuery).evaluate();
+                fail("Expected row budget to be exceeded");
+            } catch (Exception e) {
+                // the script engine may wrap the termination
+            }
+
+            // the query stopped at the first row over the budget, rather than after reading all of them
+            assertTrue(runningQuery.isTerminated());
+            assertEquals(runningQuery.getRowCount(), 2);
+        } finally {
+            manager.finish(runningQuery);
+            manager.stop();
+        }
+    }
+
     @Test
     public void testRawSearch1() throws Exception {
         // Query for all Vertices in Graph
@@ -273,6 +332,102 @@ public class GraphBackedDiscoveryServiceTest extends BaseRepositoryTest {
         }
     }
 
+    @Test
+    public void testRawSearchLazyPipeline() throws Exception {
+        // a pipeline that is not iterated by the script itself is iterated by the discovery service
+        List<Map<String, String>> results = discoveryService.searchByGremlin(
+                "g.V.has(\"" + Constants.ENTITY_TYPE_PROPERTY_KEY + "\", \"Department\")");
+        assertEquals(results.size(), 1);
+        assertEquals(results.get(0).get(Constants.ENTITY_TYPE_PROPERTY_KEY), "Department");
+    }
+
+    @Test
+    public void testExplainDSL() throws Exception {
+        JSONObject plan = new JSONObject(discoveryService.explainDSL("Department where name = \"hr\"", queryParams, false));
+
+        assertEquals(plan.getString("query"), "Department where name = \"hr\"");
+        Assert.assertTrue(plan.getString("gremlin").contains("Department.name"));
+        Assert.assertFalse(plan.getBoolean("fullScan"));
+        Assert.assertFalse(plan.has("profile"));
+
+        JSONArray predicates = plan.getJSONArray("predicates");
+        assertEquals(predicates.length(), 1);
+        assertEquals(predicates.getJSONObject(0).getString("property"), "Department.name");
+        assertNotNull(predicates.getJSONObject(0).getString("index"));
+        assertEquals(predicates.getJSONObject(0).getString("access"), "filter");
+    }
+
+    @Test
+    public void testPlannerStartsFromIndexedPredicate() throws Exception {
+        String dslQuery = "hive_db where name = \"Reporting\"";
+        JSONObject plan = new JSONObject(discoveryService.explainDSL(dslQuery, queryParams, false));
+
+        Assert.assertFalse(plan.getBoolean("fullScan"));
+        Assert.assertTrue(plan.getString("start").startsWith("instances of hive_db where"));
+        Assert.assertTrue(plan.getString("gremlin").contains("has(\"hive_db.name\", T.eq, \"Reporting\")"));
+        JSONArray predicates = plan.getJSONArray("predicates");
+        assertEquals(predicates.length(), 1);
+        assertEquals(predicates.getJSONObject(0).getString("access"), "index");
+
+        String planned = searchByDSL(dslQuery);
+        ApplicationProperties.get().setProperty(QueryPlanner.PLANNER_ENABLED(), false);
+        try {
+            assertEquals(searchByDSL(dslQuery), planned);
+        } finally {
+            ApplicationProperties.get().setProperty(QueryPlanner.PLANNER_ENABLED(), true);
+        }
+        assertEquals(new JSONObject(planned).getJSONArray("rows").length(), 1);
+    }
+
+    @Test
+    public void testLimitPushedIntoTypeLookup() throws Exception {
+        String gremlin = new JSONObject(discoveryService.explainDSL("hive_db limit 1 offset 1", queryParams, false))
+                .getString("gremlin");
+        Assert.assertTrue(gremlin.contains("[0..<2].fill("), gremlin);
+
+        // a filter that isn't answered by the lookup needs all the instances
+        gremlin = new JSONObject(discoveryService.explainDSL("hive_db where name != \"Sales\" limit 1", queryParams,
+                false)).getString("gremlin");
+        Assert.assertFalse(gremlin.contains("[0..<1].fill("), gremlin);
+
+        JSONArray all = new JSONObject(searchByDSL("hive_db select name")).getJSONArray("rows");
+        JSONArray page = new JSONObject(searchByDSL("hive_db select name limit 1 offset 1")).getJSONArray("rows");
+        assertEquals(page.length(), 1);
+        assertEquals(page.getJSONObject(0).getString("name"), all.getJSONObject(1).getString("name"));
+    }
+
+    @Test
+    public void testResultRowsConvertedOnce() throws Exception {
+        final List<Object> rows = new ArrayList<>();
+        discoveryService.searchByDSL("hive_db", queryParams, new DSLResultHandler() {
+            @Override
+            public void handle(GremlinQueryResult result) {
+                scala.collection.Seq<?> resultRows = result.rows();
+                Assert.assertTrue(resultRows.size() > 1);
+                rows.add(resultRows.apply(0));
+                rows.add(resultRows.head());
+                rows.add(resultRows.iterator().next());
+            }
+        });
+
+        assertEquals(rows.size(), 3);
+        Assert.assertSame(rows.get(1), rows.get(0));
+        Assert.assertSame(rows.get(2), rows.get(0));
+    }
+
+    @Test
+    public void testProfileDSL() throws Exception {
+        JSONObject plan = new JSONObject(discoveryService.explainDSL("Person where name != \"xyz\"", queryParams, true));
+
+        // Person, where name != "xyz", limit 40 offset 0
+        JSONArray steps = plan.getJSONArray("profile");
+        assertEquals(steps.length(), 3);
+        assertEquals(steps.getJSONObject(0).getString("step"), "Person");
+        assertEquals(steps.getJSONObject(0).getLong("elements"), 4);
+        assertEquals(steps.getJSONObject(1).getLong("elements"), 4);
+        assertEquals(steps.getJSONObject(2).getLong("elements"), 4);
+    }
+
     @DataProvider(name = "comparisonQueriesProvider")
     private Object[][] createComparisonQueries() {
         //create queries the exercise the comparison logic for
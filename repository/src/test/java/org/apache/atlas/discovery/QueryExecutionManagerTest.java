@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.discovery;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.mockito.Mockito;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class QueryExecutionManagerTest {
+
+    private final List<QueryExecutionManager> managers = new ArrayList<>();
+
+    @AfterMethod
+    public void tearDown() {
+        QueryExecutionManager.clearConnectionProbe();
+        for (QueryExecutionManager manager : managers) {
+            manager.stop();
+        }
+        managers.clear();
+    }
+
+    @Test
+    public void testRunningQueryIsListedUntilFinished() {
+        QueryExecutionManager manager = createManager(0, 0, 0);
+        RunningQuery runningQuery = manager.start("gremlin", "g.V.toList()");
+
+        assertEquals(manager.getRunningQueries().size(), 1);
+        assertEquals(manager.getRunningQueries().get(0).getQuery(), "g.V.toList()");
+
+        manager.finish(runningQuery);
+        assertTrue(manager.getRunningQueries().isEmpty());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        QueryExecutionManager manager = createManager(1, 0, 0);
+        RunningQuery runningQuery = manager.start("dsl", "hive_table");
+        Thread.sleep(5);
+
+        assertTerminated(runningQuery);
+        assertTrue(runningQuery.getTerminationReason().startsWith("Query timed out"));
+        manager.finish(runningQuery);
+    }
+
+    @Test
+    public void testMaxRows() throws Exception {
+        QueryExecutionManager manager = createManager(0, 2, 0);
+        RunningQuery runningQuery = manager.start("gremlin", "g.V.toList()");
+
+        runningQuery.recordRow("a");
+        runningQuery.recordRow("b");
+        try {
+            runningQuery.recordRow("c");
+            fail("Expected row budget to be exceeded");
+        } catch (QueryTerminatedException e) {
+            assertTrue(e.getMessage().startsWith("Query returned more than 2 rows"));
+        }
+        manager.finish(runningQuery);
+    }
+
+    @Test
+    public void testMaxElements() throws Exception {
+        QueryExecutionManager manager = createManager(0, 0, 3);
+        RunningQuery runningQuery = manager.start("gremlin", "g.V.out.path.toList()");
+        AtlasVertex vertex = Mockito.mock(AtlasVertex.class);
+
+        runningQuery.recordRow(Arrays.asList(vertex, vertex));
+        assertEquals(runningQuery.getElementCount(), 2);
+        try {
+            runningQuery.recordRow(Collections.singletonMap("v", Arrays.asList(vertex, vertex)));
+            fail("Expected element budget to be exceeded");
+        } catch (QueryTerminatedException e) {
+            assertTrue(e.getMessage().startsWith("Query returned more than 3 graph elements"));
+        }
+        manager.finish(runningQuery);
+    }
+
+    @Test
+    public void testRowsAreRecordedOnExecutingThread() throws Exception {
+        QueryExecutionManager manager = createManager(0, 2, 0);
+        RunningQuery runningQuery = manager.start("dsl", "hive_table");
+
+        RunningQuery.recordRowOnCurrentThread(1);
+        RunningQuery.recordRowOnCurrentThread(1);
+        assertEquals(runningQuery.getRowCount(), 2);
+        try {
+            RunningQuery.recordRowOnCurrentThread(1);
+            fail("Expected row budget to be exceeded");
+        } catch (QueryTerminatedException e) {
+            assertTrue(e.getMessage().startsWith("Query returned more than 2 rows"));
+        }
+        manager.finish(runningQuery);
+
+        // rows read after the query finished are no longer accounted for
+        RunningQuery.recordRowOnCurrentThread(1);
+        assertEquals(runningQuery.getRowCount(), 3);
+    }
+
+    @Test
+    public void testKillInterruptsExecutingThread() throws Exception {
+        final QueryExecutionManager manager = createManager(0, 0, 0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final AtomicBoolean interruptCleared = new AtomicBoolean();
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                RunningQuery runningQuery = manager.start("gremlin", "g.V.out.out.out.toList()");
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                manager.finish(runningQuery);
+                interruptCleared.set(!Thread.currentThread().isInterrupted());
+                done.countDown();
+            }
+        };
+        thread.start();
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        long queryId = manager.getRunningQueries().get(0).getId();
+        assertTrue(manager.kill(queryId, "admin"));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertTrue(interrupted.get());
+        assertTrue(interruptCleared.get());
+        assertFalse(manager.kill(queryId, "admin"));
+    }
+
+    @Test
+    public void testFinishClearsPendingInterrupt() throws Exception {
+        final QueryExecutionManager manager = createManager(0, 0, 0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicBoolean interruptPending = new AtomicBoolean();
+        final AtomicBoolean interruptCleared = new AtomicBoolean();
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                RunningQuery runningQuery = manager.start("gremlin", "g.V.out.out.out.toList()");
+                started.countDown();
+                // never blocks, so the interrupt is still pending when the query finishes
+                while (!runningQuery.isTerminated()) {
+                    Thread.yield();
+                }
+                interruptPending.set(Thread.currentThread().isInterrupted());
+                manager.finish(runningQuery);
+                interruptCleared.set(!Thread.currentThread().isInterrupted());
+                done.countDown();
+            }
+        };
+        thread.start();
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(manager.kill(manager.getRunningQueries().get(0).getId(), "admin"));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertTrue(interruptPending.get());
+        assertTrue(interruptCleared.get());
+    }
+
+    @Test
+    public void testKillDoesNotInterruptByDefault() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.setProperty(QueryExecutionManager.QUERY_TIMEOUT_MS, 0);
+        final QueryExecutionManager manager = new QueryExecutionManager(configuration);
+        managers.add(manager);
+        final RunningQuery runningQuery = manager.start("gremlin", "g.V.out.out.out.toList()");
+
+        Thread killer = new Thread() {
+            @Override
+            public void run() {
+                manager.kill(runningQuery.getId(), "admin");
+            }
+        };
+        killer.start();
+        killer.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertTerminated(runningQuery);
+        assertFalse(Thread.currentThread().isInterrupted());
+        manager.finish(runningQuery);
+    }
+
+    @Test
+    public void testClientDisconnect() throws Exception {
+        QueryExecutionManager manager = createManager(0, 0, 0);
+        final AtomicBoolean connected = new AtomicBoolean(true);
+        QueryExecutionManager.setConnectionProbe(new RunningQuery.ConnectionProbe() {
+            @Override
+            public boolean isConnected() {
+                return connected.get();
+            }
+        });
+        RunningQuery runningQuery = manager.start("dsl", "hive_table");
+
+        manager.checkRunningQueries();
+        runningQuery.checkActive();
+
+        connected.set(false);
+        manager.checkRunningQueries();
+        assertTerminated(runningQuery);
+        assertEquals(runningQuery.getTerminationReason(), "Client disconnected");
+        manager.finish(runningQuery);
+    }
+
+    private void assertTerminated(RunningQuery runningQuery) {
+        try {
+            runningQuery.checkActive();
+            fail("Expected query to be terminated");
+        } catch (QueryTerminatedException e) {
+            assertTrue(runningQuery.isTerminated());
+        }
+    }
+
+    private QueryExecutionManager createManager(long timeoutMs, long maxRows, long maxElements) {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.setProperty(QueryExecutionManager.QUERY_TIMEOUT_MS, timeoutMs);
+        configuration.setProperty(QueryExecutionManager.QUERY_MAX_ROWS, maxRows);
+        configuration.setProperty(QueryExecutionManager.QUERY_MAX_ELEMENTS, maxElements);
+        configuration.setProperty(QueryExecutionManager.QUERY_CANCEL_INTERRUPT, true);
+        QueryExecutionManager manager = new QueryExecutionManager(configuration);
+        managers.add(manager);
+        return manager;
+    }
+}
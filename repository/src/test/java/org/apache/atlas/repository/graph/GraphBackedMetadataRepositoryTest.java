@@ -26,6 +26,7 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -52,6 +53,8 @@ import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery.ComparisionOperator;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.services.EntityChanges;
+import org.apache.atlas.services.EntityVersion;
 import org.apache.atlas.typesystem.IStruct;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.ITypedStruct;
@@ -214,6 +217,134 @@ public class GraphBackedMetadataRepositoryTest {
         Assert.fail();
     }
 
+    @Test(dependsOnMethods = "testSubmitEntity")
+    public void testGetEntityVersion() throws Exception {
+        EntityVersion version = repositoryService.getEntityVersion(guid);
+
+        Assert.assertEquals(version.getGuid(), guid);
+        Assert.assertEquals(version.getState(), Id.EntityState.ACTIVE.name());
+        Assert.assertTrue(version.getModificationTimestamp() > 0);
+    }
+
+    @Test(expectedExceptions = EntityNotFoundException.class)
+    public void testGetEntityVersionNonExistent() throws Exception {
+        repositoryService.getEntityVersion("blah");
+    }
+
+    @Test
+    public void testGetEntityChanges() throws Exception {
+        HierarchicalTypeDefinition<ClassType> type = createClassTypeDef(randomString(), ImmutableSet.<String>of());
+        HierarchicalTypeDefinition<ClassType> otherType = createClassTypeDef(randomString(), ImmutableSet.<String>of());
+        typeSystem.defineClassType(type);
+        typeSystem.defineClassType(otherType);
+
+        List<String> guids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            guids.addAll(createEntity(new Referenceable(type.typeName)));
+        }
+        createEntity(new Referenceable(otherType.typeName));
+
+        EntityChangeQuery query = new EntityChangeQuery(AtlasGraphProvider.getGraphInstance(), 0);
+        waitForChanges(query, type.typeName, guids.size());
+
+        List<String> changed = readChanges(query, type.typeName, 2);
+        assertEquals(changed.size(), guids.size());
+        assertTrue(changed.containsAll(guids));
+    }
+
+    @Test
+    public void testGetEntityChangesWithMoreTiesThanLimit() throws Exception {
+        HierarchicalTypeDefinition<ClassType> type = createClassTypeDef(randomString(), ImmutableSet.<String>of());
+        ClassType classType = typeSystem.defineClassType(type);
+
+        // created by a single request, so all with the same modification timestamp
+        ITypedReferenceableInstance[] instances = new ITypedReferenceableInstance[20];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = classType.convert(new Referenceable(type.typeName), Multiplicity.REQUIRED);
+        }
+        List<String> guids = createEntities(instances);
+
+        EntityChangeQuery query = new EntityChangeQuery(AtlasGraphProvider.getGraphInstance(), 0);
+        waitForChanges(query, type.typeName, guids.size());
+
+        List<String> changed = readChanges(query, type.typeName, 2);
+        assertEquals(changed.size(), guids.size());
+        assertTrue(changed.containsAll(guids));
+
+        // entities last modified before the modification sequence was recorded are ordered by guid
+        String legacyTypeName = randomString();
+        AtlasGraph graph = AtlasGraphProvider.getGraphInstance();
+        List<String> legacyGuids = new ArrayList<>();
+        for (int i = 0; i < instances.length; i++) {
+            String guid = UUID.randomUUID().toString();
+            AtlasVertex vertex = graph.addVertex();
+            vertex.setProperty(Constants.ENTITY_TYPE_PROPERTY_KEY, legacyTypeName);
+            vertex.setProperty(Constants.GUID_PROPERTY_KEY, guid);
+            vertex.setProperty(Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name());
+            vertex.setProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, 1000L);
+            legacyGuids.add(guid);
+        }
+        graph.commit();
+        Collections.sort(legacyGuids);
+
+        waitForChanges(query, legacyTypeName, legacyGuids.size());
+        assertEquals(readChanges(query, legacyTypeName, 2), legacyGuids);
+    }
+
+    /**
+     * Waits for the search index, which is refreshed asynchronously, to find the changes.
+     */
+    private void waitForChanges(EntityChangeQuery query, String typeName, int count) throws Exception {
+        EntityChangeQuery.Position position = new EntityChangeQuery.Position(0, "");
+        for (int i = 0; i < 50; i++) {
+            if (find(query, position, typeName, count + 1).getChanges().size() == count) {
+                return;
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    /**
+     * Reads all the changes of the type, pages of up to limit at a time, and checks that each change is read once.
+     */
+    private List<String> readChanges(EntityChangeQuery query, String typeName, int limit) {
+        EntityChangeQuery.Position position = new EntityChangeQuery.Position(0, "");
+        List<String> changed = new ArrayList<>();
+        EntityChanges changes;
+        do {
+            changes = find(query, position, typeName, limit);
+            assertTrue(changes.getChanges().size() <= limit);
+            for (EntityVersion change : changes.getChanges()) {
+                assertEquals(change.getTypeName(), typeName);
+                assertTrue(!changed.contains(change.getGuid()), change.getGuid() + " read twice");
+                changed.add(change.getGuid());
+            }
+            position = EntityChangeQuery.Position.parse(changes.getCursor());
+        } while (changes.hasMore());
+
+        // nothing changed since the last cursor
+        assertTrue(find(query, position, typeName, limit).getChanges().isEmpty());
+        return changed;
+    }
+
+    /**
+     * Reads changes in a transaction of its own, as requests do, so that the index isn't read from the cache of the
+     * transaction of an earlier read.
+     */
+    private EntityChanges find(EntityChangeQuery query, EntityChangeQuery.Position position, String typeName,
+                               int limit) {
+        try {
+            return query.find(position, ImmutableList.of(typeName), limit);
+        } finally {
+            AtlasGraphProvider.getGraphInstance().commit();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testGetEntityChangesInvalidCursor() throws Exception {
+        repositoryService.getEntityChanges(0, "blah", null, 10);
+    }
+
     @Test(dependsOnMethods = "testSubmitEntity")
     public void testGetEntityList() throws Exception {
         List<String> entityList = repositoryService.getEntityList(TestUtils.DEPARTMENT_TYPE);
@@ -267,6 +398,25 @@ public class GraphBackedMetadataRepositoryTest {
         System.out.println("*** table = " + table);
     }
 
+    @Test(dependsOnMethods = "testCreateEntity")
+    public void testEntityVersionChangesWithCompositeEntities() throws Exception {
+        String tableGuid = getGUID();
+        ITypedReferenceableInstance table = repositoryService.getEntityDefinition(tableGuid);
+        List<ITypedReferenceableInstance> columns = (List<ITypedReferenceableInstance>) table.get("columns");
+        String columnGuid = columns.get(0).getId()._getId();
+        EntityVersion before = repositoryService.getEntityVersion(tableGuid);
+
+        // the modification timestamp is the time of the request
+        Thread.sleep(10);
+        RequestContext.createContext();
+        ITypedStruct traitInstance = typeSystem.getDataType(TraitType.class, TestUtils.PII).createInstance();
+        repositoryService.addTrait(columnGuid, traitInstance);
+
+        EntityVersion after = repositoryService.getEntityVersion(tableGuid);
+        Assert.assertTrue(after.getModificationTimestamp() > before.getModificationTimestamp());
+        Assert.assertNotEquals(after.toString(), before.toString());
+    }
+
     private List<String> createEntities(ITypedReferenceableInstance... instances) throws Exception {
         RequestContext.createContext();
         return repositoryService.createEntities(instances);
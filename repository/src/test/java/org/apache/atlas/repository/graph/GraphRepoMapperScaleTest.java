@@ -29,6 +29,9 @@ import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.GraphTransaction;
 import org.apache.atlas.RepositoryMetadataModule;
 import org.apache.atlas.TestUtils;
+import org.apache.atlas.discovery.DiscoveryService;
+import org.apache.atlas.query.QueryParams;
+import org.apache.atlas.query.QueryPlanner;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
@@ -43,6 +46,8 @@ import org.apache.atlas.typesystem.types.ClassType;
 import org.apache.atlas.typesystem.types.IDataType;
 import org.apache.atlas.typesystem.types.Multiplicity;
 import org.apache.atlas.typesystem.types.TypeSystem;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONObject;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -63,6 +68,9 @@ public class GraphRepoMapperScaleTest {
     @Inject
     private GraphBackedSearchIndexer searchIndexer;
 
+    @Inject
+    private DiscoveryService discoveryService;
+
     private TypeSystem typeSystem = TypeSystem.getInstance();
 
     private String dbGUID;
@@ -129,6 +137,37 @@ public class GraphRepoMapperScaleTest {
         searchWithIndex(Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name());
     }
 
+    @Test(dependsOnMethods = "testSubmitEntity")
+    public void testDSLQueryPlanner() throws Exception {
+        String[] queries = {
+            "hive_table where name = \"bar-999\"",
+            "hive_table where type = \"managed\" and name = \"bar-500\"",
+            "hive_table as t where name = \"bar-1\"",
+        };
+
+        // the first round compiles the scripts and collects the planner statistics, the second one is timed warm
+        for (int round = 0; round < 2; round++) {
+            for (String query : queries) {
+                JSONArray planned = new JSONObject(searchByDSL(query, true)).getJSONArray("rows");
+                JSONArray unplanned = new JSONObject(searchByDSL(query, false)).getJSONArray("rows");
+                Assert.assertEquals(planned.length(), 1);
+                Assert.assertEquals(planned.toString(), unplanned.toString());
+            }
+        }
+    }
+
+    private String searchByDSL(String query, boolean planner) throws Exception {
+        ApplicationProperties.get().setProperty(QueryPlanner.PLANNER_ENABLED(), planner);
+        long start = System.currentTimeMillis();
+        try {
+            return discoveryService.searchByDSL(query, new QueryParams(100, 0));
+        } finally {
+            ApplicationProperties.get().setProperty(QueryPlanner.PLANNER_ENABLED(), true);
+            System.out.println("DSL search [" + query + "] with planner " + (planner ? "on" : "off") + " took " + (
+                    System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
     private void searchWithOutIndex(String key, String value) {
         AtlasGraph graph = TestUtils.getGraph();
         long start = System.currentTimeMillis();
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.stats;
+
+import com.google.inject.Inject;
+import org.apache.atlas.RepositoryMetadataModule;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.TestUtils;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.DeleteHandler;
+import org.apache.atlas.repository.graph.SoftDeleteHandler;
+import org.apache.atlas.services.MetadataService;
+import org.apache.atlas.typesystem.Struct;
+import org.apache.atlas.typesystem.json.InstanceSerialization;
+import org.apache.atlas.typesystem.json.TypesSerialization;
+import org.apache.atlas.typesystem.types.TypeSystem;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Guice(modules = RepositoryMetadataModule.class)
+public class EntityStatisticsServiceTest {
+    @Inject
+    private MetadataService metadataService;
+
+    @Inject
+    private EntityStatisticsService statisticsService;
+
+    @Inject
+    private DeleteHandler deleteHandler;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        TestUtils.resetRequestContext();
+        RequestContext.get().setUser("testuser");
+        metadataService.createType(TypesSerialization.toJson(TestUtils.defineHiveTypes()));
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+        TypeSystem.getInstance().reset();
+        AtlasGraphProvider.cleanup();
+    }
+
+    @Test
+    public void testStatisticsFollowChangesAndMatchRebuild() throws Exception {
+        statisticsService.rebuild();
+        assertFalse(statisticsService.isRebuilding());
+        long active = getCounts(TestUtils.DATABASE_TYPE).getActive();
+        long deleted = getCounts(TestUtils.DATABASE_TYPE).getDeleted();
+        long pii = getTraitCounts(TestUtils.PII).getActive();
+        long piiDeleted = getTraitCounts(TestUtils.PII).getDeleted();
+        long names = getDistinctValues(TestUtils.DATABASE_TYPE + ".name");
+
+        String kept = TestUtils.createInstance(metadataService, TestUtils.createDBEntity());
+        String removed = TestUtils.createInstance(metadataService, TestUtils.createDBEntity());
+        RequestContext.createContext();
+        metadataService.addTrait(Arrays.asList(kept, removed),
+                InstanceSerialization.toJson(new Struct(TestUtils.PII), true));
+        RequestContext.createContext();
+        metadataService.deleteEntities(Arrays.asList(removed));
+
+        boolean softDelete = deleteHandler instanceof SoftDeleteHandler;
+        assertEquals(getCounts(TestUtils.DATABASE_TYPE).getActive(), active + 1);
+        assertEquals(getCounts(TestUtils.DATABASE_TYPE).getDeleted(), softDelete ? deleted + 1 : deleted);
+        assertEquals(getTraitCounts(TestUtils.PII).getActive(), pii + 1);
+        assertEquals(getTraitCounts(TestUtils.PII).getDeleted(), softDelete ? piiDeleted + 1 : piiDeleted);
+        assertEquals(getDistinctValues(TestUtils.DATABASE_TYPE + ".name"), names + 2);
+
+        statisticsService.rebuild();
+        assertEquals(getCounts(TestUtils.DATABASE_TYPE).getActive(), active + 1);
+        assertEquals(getCounts(TestUtils.DATABASE_TYPE).getDeleted(), softDelete ? deleted + 1 : deleted);
+        assertEquals(getTraitCounts(TestUtils.PII).getActive(), pii + 1);
+        assertEquals(getTraitCounts(TestUtils.PII).getDeleted(), softDelete ? piiDeleted + 1 : piiDeleted);
+    }
+
+    @Test
+    public void testChangesDuringRebuildAreCountedOnce() throws Exception {
+        statisticsService.rebuild();
+        long active = getCounts(TestUtils.DATABASE_TYPE).getActive();
+        long pii = getTraitCounts(TestUtils.PII).getActive();
+        RequestContext.createContext();
+        String existing = TestUtils.createInstance(metadataService, TestUtils.createDBEntity());
+
+        EntityStatistics rebuilt = statisticsService.beginRebuild();
+        assertTrue(statisticsService.isRebuilding());
+        RequestContext.createContext();
+        TestUtils.createInstance(metadataService, TestUtils.createDBEntity());
+        RequestContext.createContext();
+        metadataService.addTrait(Arrays.asList(existing), InstanceSerialization.toJson(new Struct(TestUtils.PII), true));
+        // the changes are held back while the graph is read
+        assertEquals(getCounts(TestUtils.DATABASE_TYPE).getActive(), 0);
+
+        // the graph already holds both changes, which must not be counted again
+        statisticsService.rebuild(rebuilt);
+        assertFalse(statisticsService.isRebuilding());
+        assertEquals(getCounts(TestUtils.DATABASE_TYPE).getActive(), active + 2);
+        assertEquals(getTraitCounts(TestUtils.PII).getActive(), pii + 1);
+    }
+
+    @Test
+    public void testStatisticsAreOnlyLoadedAfterCleanStop() throws Exception {
+        File file = new File(Files.createTempDirectory("entity-statistics").toFile(),
+                EntityStatisticsService.FILE_NAME);
+        EntityStatisticsService service = new EntityStatisticsService(TypeSystem.getInstance(), deleteHandler, file,
+                60000);
+        service.getStatistics().entityAdded(TestUtils.DATABASE_TYPE, Collections.singletonList(TestUtils.PII));
+        service.getStatistics().valueAdded(TestUtils.DATABASE_TYPE + ".name", "sales");
+
+        service.persist(false);
+        assertNull(service.load());
+
+        service.persist(true);
+        EntityStatistics loaded = service.load();
+        assertNotNull(loaded);
+        assertEquals(loaded.getTypeCounts().get(TestUtils.DATABASE_TYPE).getActive(), 1);
+        assertEquals(loaded.getTraitCounts().get(TestUtils.PII).getActive(), 1);
+        assertEquals(loaded.getDistinctValues().get(TestUtils.DATABASE_TYPE + ".name"), Long.valueOf(1));
+        assertTrue(service.getLastPersisted() > 0);
+
+        file.delete();
+        file.getParentFile().delete();
+    }
+
+    @Test
+    public void testDistinctValueEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            String value = "value-" + (i % 50000);
+            sketch.add(value);
+            values.add(value);
+        }
+
+        double error = Math.abs(sketch.estimate() - values.size()) / (double) values.size();
+        assertTrue(error < 0.05, "Estimate " + sketch.estimate() + " of " + values.size() + " distinct values");
+        assertEquals(HyperLogLog.fromBytes(sketch.toBytes()).estimate(), sketch.estimate());
+    }
+
+    private EntityStatistics.Counts getCounts(String typeName) {
+        EntityStatistics.Counts ret = statisticsService.getStatistics().getTypeCounts().get(typeName);
+        return ret != null ? ret : new EntityStatistics.Counts();
+    }
+
+    private long getDistinctValues(String attributeName) {
+        Long ret = statisticsService.getStatistics().getDistinctValues().get(attributeName);
+        return ret != null ? ret : 0;
+    }
+
+    private EntityStatistics.Counts getTraitCounts(String traitName) {
+        EntityStatistics.Counts ret = statisticsService.getStatistics().getTraitCounts().get(traitName);
+        return ret != null ? ret : new EntityStatistics.Counts();
+    }
+}
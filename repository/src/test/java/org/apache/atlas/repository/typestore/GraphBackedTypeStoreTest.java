@@ -32,6 +32,7 @@ import javax.inject.Inject;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.RepositoryMetadataModule;
 import org.apache.atlas.TestUtils;
+import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
@@ -94,6 +95,30 @@ public class GraphBackedTypeStoreTest {
         dumpGraph();
     }
 
+    @Test(dependsOnMethods = "testStore")
+    public void testStoreIncrementsVersion() throws Exception {
+        long version = typeStore.getVersion();
+        Assert.assertTrue(version > 0);
+
+        typeStore.store(ts, ImmutableList.of("Manager"));
+        Assert.assertEquals(typeStore.getVersion(), version + 1);
+    }
+
+    @Test(dependsOnMethods = "testStore")
+    public void testStampOfStoreWithoutId() throws Exception {
+        AtlasGraph graph = TestUtils.getGraph();
+        AtlasVertex vertex = (AtlasVertex) graph.query()
+                .has(Constants.VERTEX_TYPE_PROPERTY_KEY, TypeStoreVersion.VERTEX_TYPE).vertices().iterator().next();
+        // a type store versioned before store ids were introduced
+        vertex.removeProperty(TypeStoreVersion.STORE_ID_PROPERTY_KEY);
+        graph.commit();
+
+        String stamp = TypeStoreVersion.getStamp(graph);
+        graph.commit();
+        Assert.assertNotNull(stamp);
+        Assert.assertEquals(TypeStoreVersion.getStamp(graph), stamp);
+    }
+
     @Test(dependsOnMethods = "testStore")
     public void testRestoreType() throws Exception {
         TypesDef typesDef = ((GraphBackedTypeStore)typeStore).restoreType("Manager");
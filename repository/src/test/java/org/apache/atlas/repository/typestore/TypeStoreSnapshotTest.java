@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.typestore;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+public class TypeStoreSnapshotTest {
+    private static final String CONTENT = "{\"classTypes\":[{\"typeName\":\"hive_table\"}]}";
+
+    private File dir;
+    private TypeStoreSnapshot snapshot;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("typestore").toFile();
+        snapshot = new TypeStoreSnapshot(new File(new File(dir, "typesystem"), "types.snapshot"));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        File[] files = snapshot.getFile().getParentFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        snapshot.getFile().getParentFile().delete();
+        dir.delete();
+    }
+
+    @Test
+    public void testReadWithoutSnapshot() {
+        assertNull(snapshot.read("store.1"));
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        snapshot.write("store.1", CONTENT);
+
+        assertEquals(snapshot.read("store.1"), CONTENT);
+        assertFalse(new File(snapshot.getFile().getParentFile(), "types.snapshot.tmp").exists());
+    }
+
+    @Test
+    public void testReadWithDifferentStamp() {
+        snapshot.write("store.1", CONTENT);
+
+        assertNull(snapshot.read("store.2"));
+        assertNull(snapshot.read("other.1"));
+    }
+
+    @Test
+    public void testReadCorruptSnapshot() throws Exception {
+        snapshot.write("store.1", CONTENT);
+
+        try (RandomAccessFile file = new RandomAccessFile(snapshot.getFile(), "rw")) {
+            file.seek(file.length() - 12);
+            file.write(0xff);
+        }
+
+        assertNull(snapshot.read("store.1"));
+    }
+}
@@ -41,7 +41,9 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.EntityAuditEvent;
@@ -51,11 +53,15 @@ import org.apache.atlas.TestUtils;
 import org.apache.atlas.discovery.graph.GraphBackedDiscoveryService;
 import org.apache.atlas.listener.EntityChangeListener;
 import org.apache.atlas.query.QueryParams;
+import org.apache.atlas.repository.MetadataRepository;
+import org.apache.atlas.repository.audit.EntityAuditListener;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
 import org.apache.atlas.repository.audit.HBaseBasedAuditRepository;
 import org.apache.atlas.repository.audit.HBaseTestUtils;
+import org.apache.atlas.repository.audit.InMemoryEntityAuditRepository;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.services.MetadataService;
+import org.apache.atlas.services.TraitAssociationResult;
 import org.apache.atlas.typesystem.IReferenceableInstance;
 import org.apache.atlas.typesystem.IStruct;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
@@ -77,10 +83,13 @@ import org.apache.atlas.typesystem.types.TypeSystem;
 import org.apache.atlas.typesystem.types.ValueConversionException;
 import org.apache.atlas.typesystem.types.utils.TypesUtil;
 import org.apache.atlas.utils.ParamChecker;
+import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang.RandomStringUtils;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeTest;
@@ -93,6 +102,10 @@ import com.google.inject.Inject;
 
 @Guice(modules = RepositoryMetadataModule.class)
 public class DefaultMetadataServiceTest {
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultMetadataServiceTest.class);
+
+    private static final String TRAITS_BATCH_SIZE = "atlas.entity.traits.batchSize";
+
     @Inject
     private MetadataService metadataService;
 
@@ -102,6 +115,9 @@ public class DefaultMetadataServiceTest {
     @Inject
     private GraphBackedDiscoveryService discoveryService;
 
+    @Inject
+    private MetadataRepository repository;
+
     private Referenceable db = createDBEntity();
 
     private Referenceable table;
@@ -275,6 +291,147 @@ public class DefaultMetadataServiceTest {
         assertEquals(traits.get(0), PII);
     }
 
+    @Test
+    public void testBulkAddDeleteTrait() throws Exception {
+        String id1 = TestUtils.createInstance(metadataService, createDBEntity());
+        String id2 = TestUtils.createInstance(metadataService, createDBEntity());
+        String tagged = TestUtils.createInstance(metadataService, createDBEntity());
+        String tag = InstanceSerialization.toJson(new Struct(TestUtils.PII), true);
+        metadataService.addTrait(tagged, tag);
+
+        RequestContext.createContext();
+        TraitAssociationResult result = metadataService.addTrait(Arrays.asList(id1, id2, tagged, "unknown"), tag);
+        assertEquals(result.getUpdated(), Arrays.asList(id1, id2));
+        assertEquals(result.getFailed().keySet(), ImmutableSet.of(tagged, "unknown"));
+        assertEquals(metadataService.getTraitNames(id2), Arrays.asList(PII));
+        assertAuditEvents(id1, EntityAuditEvent.EntityAuditAction.TAG_ADD);
+
+        RequestContext.createContext();
+        result = metadataService.deleteTrait(Arrays.asList(id1, id2, tagged, id1), PII);
+        assertEquals(result.getUpdated(), Arrays.asList(id1, id2, tagged));
+        assertTrue(result.getFailed().isEmpty());
+        assertTrue(metadataService.getTraitNames(tagged).isEmpty());
+        assertAuditEvents(id1, EntityAuditEvent.EntityAuditAction.TAG_DELETE);
+
+        RequestContext.createContext();
+        result = metadataService.deleteTrait(Arrays.asList(id1), PII);
+        assertTrue(result.getUpdated().isEmpty());
+        assertEquals(result.getFailed().keySet(), ImmutableSet.of(id1));
+    }
+
+    @Test
+    public void testBulkTraitWithDuplicateGuids() throws Exception {
+        String id1 = TestUtils.createInstance(metadataService, createDBEntity());
+        String id2 = TestUtils.createInstance(metadataService, createDBEntity());
+        String tag = InstanceSerialization.toJson(new Struct(TestUtils.PII), true);
+
+        RequestContext.createContext();
+        TraitAssociationResult result = metadataService.addTrait(Arrays.asList(id1, id1, id2), tag);
+        assertEquals(result.getUpdated(), Arrays.asList(id1, id2));
+        assertTrue(result.getFailed().isEmpty());
+
+        // the repository doesn't rely on the service to remove the duplicates
+        Map<String, String> failed = repository.deleteTrait(Arrays.asList(id2, id2), PII);
+        assertTrue(failed.isEmpty(), failed.toString());
+        failed = repository.addTrait(Arrays.asList(id2, id2),
+                metadataService.createTraitInstance(new Struct(TestUtils.PII)));
+        assertTrue(failed.isEmpty(), failed.toString());
+        assertEquals(metadataService.getTraitNames(id2), Arrays.asList(PII));
+    }
+
+    @Test
+    public void testBulkAddTraitNotifiesOncePerBatch() throws Exception {
+        final int count = 100;
+        final int batchSize = 40;
+        JSONArray entities = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            entities.put(InstanceSerialization.toJson(createDBEntity(), true));
+        }
+        RequestContext.createContext();
+        List<String> ids = metadataService.createEntities(entities.toString());
+        String tag = InstanceSerialization.toJson(new Struct(TestUtils.PII), true);
+
+        final List<Integer> notified = new ArrayList<>();
+        final List<Integer> audited = new ArrayList<>();
+        EntityChangeListener listener = new EntitiesChangeListener() {
+            @Override
+            public void onTraitAdded(Collection<ITypedReferenceableInstance> entities, IStruct trait) {
+                notified.add(entities.size());
+            }
+        };
+        EntityChangeListener auditListener = new EntityAuditListener(new InMemoryEntityAuditRepository() {
+            @Override
+            public void putEvents(List<EntityAuditEvent> events) throws AtlasException {
+                audited.add(events.size());
+                super.putEvents(events);
+            }
+        });
+        Configuration configuration = ApplicationProperties.get();
+        Object previousBatchSize = configuration.getProperty(TRAITS_BATCH_SIZE);
+        configuration.setProperty(TRAITS_BATCH_SIZE, batchSize);
+        metadataService.registerListener(listener);
+        metadataService.registerListener(auditListener);
+        try {
+            List<String> singleIds = ids.subList(0, count / 2);
+            long start = System.nanoTime();
+            for (String id : singleIds) {
+                RequestContext.createContext();
+                metadataService.addTrait(id, tag);
+            }
+            long singleNanos = System.nanoTime() - start;
+            assertEquals(notified.size(), singleIds.size());
+            notified.clear();
+            audited.clear();
+
+            List<String> bulkIds = ids.subList(count / 2, count);
+            start = System.nanoTime();
+            RequestContext.createContext();
+            TraitAssociationResult result = metadataService.addTrait(bulkIds, tag);
+            long bulkNanos = System.nanoTime() - start;
+
+            assertEquals(result.getUpdated(), bulkIds);
+            assertEquals(notified, Arrays.asList(batchSize, count / 2 - batchSize));
+            assertEquals(audited, notified);
+            LOG.info("Added trait to {} entities one at a time in {} ms, in bulk in {} ms", count / 2,
+                    TimeUnit.NANOSECONDS.toMillis(singleNanos), TimeUnit.NANOSECONDS.toMillis(bulkNanos));
+        } finally {
+            metadataService.unregisterListener(auditListener);
+            metadataService.unregisterListener(listener);
+            if (previousBatchSize == null) {
+                configuration.clearProperty(TRAITS_BATCH_SIZE);
+            } else {
+                configuration.setProperty(TRAITS_BATCH_SIZE, previousBatchSize);
+            }
+        }
+    }
+
+    @Test
+    public void testBulkAddTraitReportsListenerFailures() throws Exception {
+        String id1 = TestUtils.createInstance(metadataService, createDBEntity());
+        String id2 = TestUtils.createInstance(metadataService, createDBEntity());
+        String tag = InstanceSerialization.toJson(new Struct(TestUtils.PII), true);
+
+        EntityChangeListener listener = new EntitiesChangeListener() {
+            @Override
+            public void onTraitAdded(Collection<ITypedReferenceableInstance> entities, IStruct trait)
+                throws AtlasException {
+                throw new AtlasException("notification failed");
+            }
+        };
+        metadataService.registerListener(listener);
+        try {
+            RequestContext.createContext();
+            TraitAssociationResult result = metadataService.addTrait(Arrays.asList(id1, id2), tag);
+            assertEquals(result.getUpdated(), Arrays.asList(id1, id2));
+            assertTrue(result.getFailed().isEmpty());
+            assertEquals(result.getNotificationFailed().keySet(), ImmutableSet.of(id1, id2));
+            assertEquals(result.getNotificationFailed().get(id1), "notification failed");
+            assertEquals(metadataService.getTraitNames(id2), Arrays.asList(PII));
+        } finally {
+            metadataService.unregisterListener(listener);
+        }
+    }
+
     @Test
     public void testEntityAudit() throws Exception {
         //create entity
@@ -347,6 +504,84 @@ public class DefaultMetadataServiceTest {
         assertAuditEvents(dbId, 1);
     }
 
+    @Test
+    public void testCreateEntityWithUniqueAttributeReference() throws Exception {
+        Referenceable db = createDBEntity();
+        String dbId = TestUtils.createInstance(metadataService, db);
+
+        //the db is sent with only its unique attribute, as hooks do for entities that didn't change
+        Referenceable dbReference = new Referenceable(TestUtils.DATABASE_TYPE);
+        dbReference.set(NAME, db.get(NAME));
+        Referenceable table = createTableEntity(dbId);
+        table.set("database", dbReference);
+
+        RequestContext.createContext();
+        JSONArray entitiesJson = new JSONArray();
+        entitiesJson.put(InstanceSerialization.toJson(dbReference, true));
+        entitiesJson.put(InstanceSerialization.toJson(table, true));
+        metadataService.createEntities(entitiesJson.toString());
+
+        Referenceable actualDb = InstanceSerialization.fromJsonReferenceable(
+                metadataService.getEntityDefinition(TestUtils.DATABASE_TYPE, NAME, (String) db.get(NAME)), true);
+        assertEquals(actualDb.getId()._getId(), dbId);
+        assertEquals(actualDb.get("description"), db.get("description"));
+
+        Referenceable actualTable = InstanceSerialization.fromJsonReferenceable(
+                metadataService.getEntityDefinition(TestUtils.TABLE_TYPE, NAME, (String) table.get(NAME)), true);
+        assertEquals(((Id) actualTable.get("database"))._getId(), dbId);
+
+        //the db is only linked to, not written again
+        assertAuditEvents(dbId, 1);
+    }
+
+    @Test
+    public void testCreateEntityWithNestedUniqueAttributeReference() throws Exception {
+        Referenceable db = createDBEntity();
+        String dbId = TestUtils.createInstance(metadataService, db);
+
+        //the reference only appears where the table refers to the db
+        Referenceable dbReference = new Referenceable(TestUtils.DATABASE_TYPE);
+        dbReference.set(NAME, db.get(NAME));
+        Referenceable table = createTableEntity(dbId);
+        table.set("database", dbReference);
+
+        RequestContext.createContext();
+        JSONArray entitiesJson = new JSONArray();
+        entitiesJson.put(InstanceSerialization.toJson(table, true));
+        List<String> guids = metadataService.createEntities(entitiesJson.toString());
+        assertEquals(guids.size(), 1);
+
+        Referenceable actualTable = InstanceSerialization.fromJsonReferenceable(
+                metadataService.getEntityDefinition(TestUtils.TABLE_TYPE, NAME, (String) table.get(NAME)), true);
+        assertEquals(((Id) actualTable.get("database"))._getId(), dbId);
+        assertAuditEvents(dbId, 1);
+    }
+
+    @Test
+    public void testUpdateEntitiesWithUniqueAttributeReferenceId() throws Exception {
+        Referenceable db = createDBEntity();
+        String dbId = TestUtils.createInstance(metadataService, db);
+
+        //the table refers to the reference by the unassigned id of the request
+        Referenceable dbReference = new Referenceable(TestUtils.DATABASE_TYPE);
+        dbReference.set(NAME, db.get(NAME));
+        Referenceable table = createTableEntity(dbId);
+        table.set("database", dbReference.getId());
+
+        RequestContext.createContext();
+        JSONArray entitiesJson = new JSONArray();
+        entitiesJson.put(InstanceSerialization.toJson(dbReference, true));
+        entitiesJson.put(InstanceSerialization.toJson(table, true));
+        AtlasClient.EntityResult result = metadataService.updateEntities(entitiesJson.toString());
+        assertEquals(result.getCreatedEntities().size(), 1);
+        assertTrue(result.getUpdateEntities().isEmpty());
+
+        Referenceable actualTable = InstanceSerialization.fromJsonReferenceable(
+                metadataService.getEntityDefinition(TestUtils.TABLE_TYPE, NAME, (String) table.get(NAME)), true);
+        assertEquals(((Id) actualTable.get("database"))._getId(), dbId);
+        assertAuditEvents(dbId, 1);
+    }
+
     @Test
     public void testUpdateEntityByUniqueAttribute() throws Exception {
         final List<String> colNameList = ImmutableList.of("col1", "col2");
@@ -1150,12 +1385,12 @@ public class DefaultMetadataServiceTest {
         }
 
         @Override
-        public void onTraitAdded(ITypedReferenceableInstance entity, IStruct trait)
+        public void onTraitAdded(Collection<ITypedReferenceableInstance> entities, IStruct trait)
             throws AtlasException {
         }
 
         @Override
-        public void onTraitDeleted(ITypedReferenceableInstance entity, String traitName)
+        public void onTraitDeleted(Collection<ITypedReferenceableInstance> entities, String traitName)
             throws AtlasException {
         }
 
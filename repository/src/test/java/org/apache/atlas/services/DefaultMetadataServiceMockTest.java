@@ -148,4 +148,29 @@ public class DefaultMetadataServiceMockTest {
         verify(typeSystem, times(1)).createTransientTypeSystem(typesDef, true);
         verify(typeSystem, times(1)).commitTypes(typesAdded);
     }
+
+    @Test
+    public void testShouldNotRestoreTypeSystemOnServerActiveIfCurrentOnStandby() throws AtlasException {
+        when(configuration.containsKey(HAConfiguration.ATLAS_SERVER_HA_ENABLED_KEY)).thenReturn(true);
+        when(configuration.getBoolean(HAConfiguration.ATLAS_SERVER_HA_ENABLED_KEY)).thenReturn(true);
+
+        TypesDef typesDef = mock(TypesDef.class);
+        when(typeStore.restore()).thenReturn(typesDef);
+        when(typeStore.getVersion()).thenReturn(5L);
+        when(typeSystem.isRegistered(any(String.class))).thenReturn(true);
+
+        DefaultMetadataService defaultMetadataService = new DefaultMetadataService(metadataRepository,
+                typeStore,
+                typesRegistrar, new ArrayList<Provider<TypesChangeListener>>(),
+                new ArrayList<Provider<EntityChangeListener>>(), typeSystem, configuration, null);
+
+        defaultMetadataService.instanceIsStandby();
+        defaultMetadataService.instanceIsStandby();
+        defaultMetadataService.instanceIsActive();
+
+        verify(typeStore, times(1)).restore();
+        verify(typeSystem, times(1)).defineTypes(typesDef);
+        verify(typesRegistrar, times(1)).
+                registerTypes(ReservedTypesRegistrar.getTypesDir(), typeSystem, defaultMetadataService);
+    }
 }
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -43,6 +44,7 @@ public class RequestContext {
 
     private String user;
     private long requestTime;
+    private long modificationCount;
 
     TypeSystem typeSystem = TypeSystem.getInstance();
 
@@ -94,8 +96,14 @@ public class RequestContext {
     }
 
     public void recordEntityDelete(String entityId, String typeName) throws AtlasException {
+        recordEntityDelete(entityId, typeName, Collections.<String>emptyList());
+    }
+
+    public void recordEntityDelete(String entityId, String typeName, Collection<String> traitNames)
+        throws AtlasException {
         ClassType type = typeSystem.getDataType(ClassType.class, typeName);
-        ITypedReferenceableInstance entity = type.createInstance(new Id(entityId, 0, typeName));
+        ITypedReferenceableInstance entity = type.createInstance(new Id(entityId, 0, typeName),
+                traitNames.toArray(new String[traitNames.size()]));
         if (deletedEntityIds.add(entityId)) {
             deletedEntities.add(entity);
         }
@@ -120,6 +128,14 @@ public class RequestContext {
     public long getRequestTime() {
         return requestTime;
     }
+
+    /**
+     * @return the number of the next modification made by the request, to order the modifications that share its
+     * request time
+     */
+    public long nextModificationSequence() {
+        return modificationCount++;
+    }
     
     public boolean isDeletedEntity(String entityGuid) {
         return deletedEntityIds.contains(entityGuid);
@@ -48,24 +48,24 @@ public interface EntityChangeListener {
     void onEntitiesUpdated(Collection<ITypedReferenceableInstance> entities) throws AtlasException;
 
     /**
-     * This is upon adding a new trait to a typed instance.
+     * This is upon adding a new trait to typed instances.
      *
-     * @param entity        the entity
-     * @param trait     trait that needs to be added to entity
+     * @param entities      the entities the trait was added to
+     * @param trait     trait that was added to the entities
      *
      * @throws AtlasException if the listener notification fails
      */
-    void onTraitAdded(ITypedReferenceableInstance entity, IStruct trait) throws AtlasException;
+    void onTraitAdded(Collection<ITypedReferenceableInstance> entities, IStruct trait) throws AtlasException;
 
     /**
-     * This is upon deleting a trait from a typed instance.
+     * This is upon deleting a trait from typed instances.
      *
-     * @param entity        the entity
-     * @param traitName     trait name for the instance that needs to be deleted from entity
+     * @param entities      the entities the trait was deleted from
+     * @param traitName     name of the trait that was deleted from the entities
      *
      * @throws AtlasException if the listener notification fails
      */
-    void onTraitDeleted(ITypedReferenceableInstance entity, String traitName) throws AtlasException;
+    void onTraitDeleted(Collection<ITypedReferenceableInstance> entities, String traitName) throws AtlasException;
     
     /**
      * This is upon deleting entities from the repository.
@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.listener;
+
+import org.apache.atlas.AtlasException;
+
+/**
+ * An interface that can be implemented by {@link ActiveStateChangeHandler}s that are able to prepare their state
+ * while this instance of Atlas server is passive, so that becoming active is cheap.
+ *
+ * Implementors must only read shared state on this callback, since another instance is the active writer.
+ */
+public interface WarmStandbyHandler {
+
+    /**
+     * Callback that is invoked periodically on an implementor while this instance of Atlas server is passive.
+     *
+     * Any state that can be loaded or refreshed ahead of a possible failover, like caches and connections,
+     * should be refreshed on this callback.
+     *
+     * @throws {@link AtlasException} if anything is wrong while refreshing state
+     */
+    void instanceIsStandby() throws AtlasException;
+}
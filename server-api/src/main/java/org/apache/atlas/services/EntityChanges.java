@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.services;
+
+import java.util.List;
+
+/**
+ * A page of the entities modified after a position of the change feed, in the order they were modified.
+ */
+public class EntityChanges {
+    private final List<EntityVersion> changes;
+    private final String cursor;
+    private final boolean hasMore;
+
+    public EntityChanges(List<EntityVersion> changes, String cursor, boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @return the modified entities, ordered by modification time and guid
+     */
+    public List<EntityVersion> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the position after the last of these changes, from which the next page is read
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return true if more changes may be read right away from the cursor
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.services;
+
+/**
+ * The identity of an entity and the properties that change whenever its definition changes, read without loading
+ * the definition. The modification timestamp also covers the entities the entity owns through composite
+ * attributes.
+ */
+public class EntityVersion {
+    private final String guid;
+    private final String typeName;
+    private final long modificationTimestamp;
+    private final int version;
+    private final String state;
+
+    public EntityVersion(String guid, String typeName, long modificationTimestamp, int version, String state) {
+        this.guid = guid;
+        this.typeName = typeName;
+        this.modificationTimestamp = modificationTimestamp;
+        this.version = version;
+        this.state = state;
+    }
+
+    public String getGuid() {
+        return guid;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public long getModificationTimestamp() {
+        return modificationTimestamp;
+    }
+
+    /**
+     * @return version of the entity's id, which is not incremented when the entity is updated
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * @return the properties that change whenever the definition changes, leaving out the id version
+     */
+    @Override
+    public String toString() {
+        return guid + "-" + modificationTimestamp + "-" + state;
+    }
+}
@@ -119,6 +119,45 @@ public interface MetadataService {
      */
     String getEntityDefinition(String entityType, String attribute, String value) throws AtlasException;
 
+    /**
+     * Return the definition for the given guid, for callers that serialize it themselves.
+     *
+     * @param guid guid
+     * @return entity definition
+     */
+    ITypedReferenceableInstance getEntityDefinitionReference(String guid) throws AtlasException;
+
+    /**
+     * Return the version of the definition for the given guid, without loading the definition.
+     *
+     * @param guid guid
+     * @return version of the entity definition
+     */
+    EntityVersion getEntityVersion(String guid) throws AtlasException;
+
+    /**
+     * Return the entities modified after a position of the change feed, in the order they were modified.
+     *
+     * @param since modification time to start from, in milliseconds, used when there is no cursor
+     * @param cursor cursor returned with the previous page, or null
+     * @param typeNames names of the types of the entities to return, with their subtypes, or null for all types
+     * @param limit maximum number of entities to return
+     * @return the modified entities and the cursor of the next page
+     */
+    EntityChanges getEntityChanges(long since, String cursor, List<String> typeNames, int limit)
+            throws AtlasException;
+
+    /**
+     * Return the definition given type and unique attribute, for callers that serialize it themselves.
+     * @param entityType - type name
+     * @param attribute - attribute name
+     * @param value - attribute value
+     * @return entity definition
+     * @throws AtlasException
+     */
+    ITypedReferenceableInstance getEntityDefinitionReference(String entityType, String attribute, String value)
+            throws AtlasException;
+
     /**
      * Return the list of entity names for the given type in the repository.
      *
@@ -198,6 +237,18 @@ public interface MetadataService {
      */
     void addTrait(String guid, ITypedStruct traitInstance) throws AtlasException;
 
+    /**
+     * Adds a new trait to existing entities, a batch of entities per transaction. Entities that don't exist or
+     * already have the trait are reported as failed, and don't keep the trait from being added to the others. If the
+     * listeners fail to be notified of a batch, its entities are reported as updated with the notification failure.
+     *
+     * @param guids                   globally unique identifiers of the entities
+     * @param traitInstanceDefinition trait instance that needs to be added to the entities
+     * @return the entities that were updated and those that were not
+     * @throws AtlasException if the trait instance is invalid
+     */
+    TraitAssociationResult addTrait(List<String> guids, String traitInstanceDefinition) throws AtlasException;
+
     /**
      * Create a typed trait instance.
      *
@@ -225,6 +276,19 @@ public interface MetadataService {
      */
     void deleteTrait(String guid, String traitNameToBeDeleted) throws AtlasException;
 
+    /**
+     * Deletes a given trait from existing entities, a batch of entities per transaction. Entities that don't exist
+     * or don't have the trait are reported as failed, and don't keep the trait from being deleted from the others.
+     * If the listeners fail to be notified of a batch, its entities are reported as updated with the notification
+     * failure.
+     *
+     * @param guids                globally unique identifiers of the entities
+     * @param traitNameToBeDeleted name of the trait
+     * @return the entities that were updated and those that were not
+     * @throws AtlasException if the trait type doesn't exist
+     */
+    TraitAssociationResult deleteTrait(List<String> guids, String traitNameToBeDeleted) throws AtlasException;
+
     /**
      * Delete the specified entities from the repository
      * 
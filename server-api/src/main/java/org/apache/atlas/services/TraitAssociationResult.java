@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of adding a trait to, or deleting a trait from, a number of entities.
+ */
+public class TraitAssociationResult {
+    private final List<String> updated;
+    private final Map<String, String> failed;
+    private final Map<String, String> notificationFailed;
+
+    public TraitAssociationResult(List<String> updated, Map<String, String> failed) {
+        this(updated, failed, Collections.<String, String>emptyMap());
+    }
+
+    public TraitAssociationResult(List<String> updated, Map<String, String> failed,
+                                  Map<String, String> notificationFailed) {
+        this.updated = updated;
+        this.failed = failed;
+        this.notificationFailed = notificationFailed;
+    }
+
+    /**
+     * @return guids of the entities that were updated
+     */
+    public List<String> getUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return reasons of the failures, by guid of the entities that were not updated
+     */
+    public Map<String, String> getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return reasons the entity change listeners failed, by guid of the entities that were updated regardless
+     */
+    public Map<String, String> getNotificationFailed() {
+        return notificationFailed;
+    }
+}
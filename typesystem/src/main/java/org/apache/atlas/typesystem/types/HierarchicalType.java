@@ -118,6 +118,11 @@ public abstract class HierarchicalType<ST extends HierarchicalType, T> extends A
      * @throws AtlasException
      */
     public boolean isSubType(String typeName) throws AtlasException {
+        Boolean isSubType = typeSystem.isSubType(getName(), typeName);
+        if (isSubType != null) {
+            return isSubType;
+        }
+
         HierarchicalType cType = typeSystem.getDataType(HierarchicalType.class, typeName);
         return (cType == this || cType.superTypePaths.containsKey(getName()));
     }
@@ -437,7 +442,7 @@ public abstract class HierarchicalType<ST extends HierarchicalType, T> extends A
     }
 
     public Set<String> getAllSuperTypeNames() {
-        return superTypePaths.keySet();
+        return superTypePaths != null ? superTypePaths.keySet() : ImmutableSet.<String>of();
     }
 
     public Iterator<Path> pathIterator() {
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.typesystem.types;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns a dense id to every committed class and trait type, and keeps for each type a bitset with the ids of
+ * the type itself and all its subtypes. Subtype checks then take a single bit test.
+ *
+ * The index is copy-on-write: types are added to a copy, which is then published with a single reference swap.
+ */
+@SuppressWarnings("rawtypes")
+final class TypeHierarchyIndex {
+    private volatile Snapshot snapshot = new Snapshot();
+
+    /**
+     * Adds the given types to the index. Supertypes of a type can't change once defined, so the bitsets of existing
+     * types only ever gain bits for newly added subtypes.
+     */
+    synchronized void addTypes(Collection<IDataType> types) {
+        Snapshot next = new Snapshot(snapshot);
+        List<HierarchicalType> added = new ArrayList<>();
+
+        for (IDataType type : types) {
+            if (type instanceof HierarchicalType && !next.ids.containsKey(type.getName())) {
+                int id = next.names.size();
+
+                next.ids.put(type.getName(), id);
+                next.names.add(type.getName());
+
+                BitSet subTypes = new BitSet();
+                subTypes.set(id);
+                next.subTypes.add(subTypes);
+
+                added.add((HierarchicalType) type);
+            }
+        }
+
+        for (HierarchicalType type : added) {
+            int id = next.ids.get(type.getName());
+
+            for (Object superTypeName : type.getAllSuperTypeNames()) {
+                Integer superTypeId = next.ids.get(superTypeName);
+
+                if (superTypeId != null) {
+                    next.subTypes.get(superTypeId).set(id);
+                }
+            }
+        }
+
+        snapshot = next;
+    }
+
+    synchronized void clear() {
+        snapshot = new Snapshot();
+    }
+
+    /**
+     * @return true if typeName is superTypeName or one of its subtypes, null if either type is not indexed
+     */
+    Boolean isSubType(String superTypeName, String typeName) {
+        Snapshot current = snapshot;
+        Integer superTypeId = current.ids.get(superTypeName);
+        Integer typeId = current.ids.get(typeName);
+
+        if (superTypeId == null || typeId == null) {
+            return null;
+        }
+
+        return current.subTypes.get(superTypeId).get(typeId);
+    }
+
+    /**
+     * @return names of the given type and all its subtypes, null if the type is not indexed
+     */
+    Set<String> getSubTypeNames(String typeName) {
+        Snapshot current = snapshot;
+        Integer id = current.ids.get(typeName);
+
+        if (id == null) {
+            return null;
+        }
+
+        BitSet subTypes = current.subTypes.get(id);
+        Set<String> ret = new HashSet<>();
+        for (int i = subTypes.nextSetBit(0); i >= 0; i = subTypes.nextSetBit(i + 1)) {
+            ret.add(current.names.get(i));
+        }
+
+        return Collections.unmodifiableSet(ret);
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Integer> ids;
+        private final List<String> names;
+        private final List<BitSet> subTypes;
+
+        Snapshot() {
+            ids = new HashMap<>();
+            names = new ArrayList<>();
+            subTypes = new ArrayList<>();
+        }
+
+        Snapshot(Snapshot other) {
+            ids = new HashMap<>(other.ids);
+            names = new ArrayList<>(other.names);
+            subTypes = new ArrayList<>(other.subTypes.size());
+
+            for (BitSet bitSet : other.subTypes) {
+                subTypes.add((BitSet) bitSet.clone());
+            }
+        }
+    }
+}
@@ -40,6 +40,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Singleton
 @InterfaceAudience.Private
@@ -57,8 +58,11 @@ public class TypeSystem {
     };
 
     private TypeCache typeCache  = new DefaultTypeCache();
+    private final TypeHierarchyIndex hierarchyIndex = new TypeHierarchyIndex();
     private IdType idType;
     private Map<String, IDataType> coreTypes;
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
 
     public TypeSystem() {
         initialize();
@@ -75,13 +79,59 @@ public class TypeSystem {
     public TypeSystem reset() {
 
         typeCache.clear(); // clear all entries in cache
+        hierarchyIndex.clear();
         initialize();
+        typesChanged();
 
         return this;
     }
 
     public void setTypeCache(TypeCache typeCache) {
         this.typeCache = typeCache;
+        typesChanged();
+    }
+
+    /**
+     * @return a number that is incremented whenever types are committed to this type system
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return the time types were last committed to this type system, or the time it was created
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    private void typesChanged() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns the names of the given class or trait type and all its subtypes.
+     *
+     * The hierarchy is only complete when all types are committed through this type system; with a type cache
+     * that loads types on demand, subtypes that were not loaded yet would be missed.
+     * @param typeName name of a class or trait type
+     * @return names of the type and its subtypes, or null if they can't be determined from the committed types
+     */
+    public Set<String> getSubTypeNames(String typeName) {
+        if (typeCache.getClass() != DefaultTypeCache.class) {
+            return null;
+        }
+
+        return hierarchyIndex.getSubTypeNames(typeName);
+    }
+
+    /**
+     * @return true if typeName is superTypeName or one of its subtypes, null if either is not a committed
+     * class or trait type
+     */
+    Boolean isSubType(String superTypeName, String typeName) {
+        return hierarchyIndex.isSubType(superTypeName, typeName);
     }
 
     private void initialize() {
@@ -313,6 +363,7 @@ public class TypeSystem {
 
         EnumType eT = new EnumType(this, eDef.name, eDef.description, eDef.version, eDef.enumValues);
         typeCache.put(eT);
+        typesChanged();
         return eT;
     }
 
@@ -353,11 +404,10 @@ public class TypeSystem {
      * @throws AtlasException
      */
     public void commitTypes(Map<String, IDataType> typesAdded) throws AtlasException {
-        for (Map.Entry<String, IDataType> typeEntry : typesAdded.entrySet()) {
-            IDataType type = typeEntry.getValue();
-            //Add/replace the new type in the typesystem
-            typeCache.put(type);
-        }
+        //Add/replace the new types in the typesystem
+        typeCache.putAll(typesAdded.values());
+        hierarchyIndex.addTypes(typesAdded.values());
+        typesChanged();
     }
 
     public class TransientTypeSystem extends TypeSystem {
@@ -667,6 +717,15 @@ public class TypeSystem {
             return TypeSystem.this.getDataType(cls, name);
         }
 
+        /*
+         * Supertypes of a type can't be changed by an update, so the hierarchy of the committed types applies to
+         * their transient versions as well.
+         */
+        @Override
+        Boolean isSubType(String superTypeName, String typeName) {
+            return TypeSystem.this.isSubType(superTypeName, typeName);
+        }
+
         @Override
         public StructType defineStructType(String name, boolean errorIfExists, AttributeDefinition... attrDefs)
         throws AtlasException {
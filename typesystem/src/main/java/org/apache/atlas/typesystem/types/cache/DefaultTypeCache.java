@@ -33,9 +33,14 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -47,6 +52,7 @@ public class DefaultTypeCache implements TypeCache {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultTypeCache.class);
 
     private Map<String, IDataType> types_ = new ConcurrentHashMap<>();
+    private volatile TypeIndex typeIndex = new TypeIndex(Collections.<IDataType>emptyList());
     private static final List<TypeCategory> validTypeFilterCategories =
             Arrays.asList(TypeCategory.CLASS, TypeCategory.TRAIT, TypeCategory.ENUM, TypeCategory.STRUCT);
     private static final List<TypeCategory> validSupertypeFilterCategories =
@@ -130,47 +136,17 @@ public class DefaultTypeCache implements TypeCache {
     public Collection<String> getTypeNames(Map<TYPE_FILTER, String> filterMap) throws AtlasException {
         assertFilter(filterMap);
 
+        TypeIndex index = typeIndex;
+
         List<String> typeNames = new ArrayList<>();
-        for (IDataType type : types_.values()) {
-            if (shouldIncludeType(type, filterMap)) {
-                typeNames.add(type.getName());
+        for (String typeName : index.getCandidates(filterMap)) {
+            if (index.shouldIncludeType(typeName, filterMap)) {
+                typeNames.add(typeName);
             }
         }
         return typeNames;
     }
 
-    private boolean shouldIncludeType(IDataType type, Map<TYPE_FILTER, String> filterMap) {
-        if (filterMap == null) {
-            return true;
-        }
-
-        for (Entry<TYPE_FILTER, String> filterEntry : filterMap.entrySet()) {
-            switch (filterEntry.getKey()) {
-            case CATEGORY:
-                if (!filterEntry.getValue().equals(type.getTypeCategory().name())) {
-                    return false;
-                }
-                break;
-
-            case SUPERTYPE:
-                if (!validSupertypeFilterCategories.contains(type.getTypeCategory()) ||
-                        !((HierarchicalType) type).getAllSuperTypeNames().contains(filterEntry.getValue())) {
-                    return false;
-                }
-                break;
-
-            case NOT_SUPERTYPE:
-                if (!validSupertypeFilterCategories.contains(type.getTypeCategory()) ||
-                        type.getName().equals(filterEntry.getValue()) ||
-                        ((HierarchicalType) type).getAllSuperTypeNames().contains(filterEntry.getValue())) {
-                    return false;
-                }
-                break;
-            }
-        }
-        return true;
-    }
-
 
     private void assertFilter(Map<TYPE_FILTER, String> filterMap) throws AtlasException {
         if (filterMap == null) {
@@ -216,10 +192,11 @@ public class DefaultTypeCache implements TypeCache {
      * .atlas.typesystem.types.IDataType)
      */
     @Override
-    public void put(IDataType type) throws AtlasException {
+    public synchronized void put(IDataType type) throws AtlasException {
 
         assertValidType(type);
         types_.put(type.getName(), type);
+        reindex();
     }
 
     private void assertValidType(IDataType type) throws
@@ -247,11 +224,15 @@ public class DefaultTypeCache implements TypeCache {
      * .util.Collection)
      */
     @Override
-    public void putAll(Collection<IDataType> types) throws AtlasException {
+    public synchronized void putAll(Collection<IDataType> types) throws AtlasException {
 
-        for (IDataType type : types) {
-            assertValidType(type);
-            types_.put(type.getName(), type);
+        try {
+            for (IDataType type : types) {
+                assertValidType(type);
+                types_.put(type.getName(), type);
+            }
+        } finally {
+            reindex();
         }
     }
 
@@ -262,9 +243,10 @@ public class DefaultTypeCache implements TypeCache {
      * .lang.String)
      */
     @Override
-    public void remove(String typeName) throws AtlasException {
+    public synchronized void remove(String typeName) throws AtlasException {
 
         types_.remove(typeName);
+        reindex();
     }
 
     /* (non-Javadoc)
@@ -284,9 +266,10 @@ public class DefaultTypeCache implements TypeCache {
      * @see org.apache.atlas.typesystem.types.cache.TypeCache#clear()
      */
     @Override
-    public void clear() {
+    public synchronized void clear() {
 
         types_.clear();
+        reindex();
     }
 
     @Override
@@ -294,4 +277,120 @@ public class DefaultTypeCache implements TypeCache {
 
         return null;
     }
+
+    /*
+     * Rebuilds the index used to filter type names. The index is replaced as a whole, so that
+     * getTypeNames() never sees a partially updated index.
+     */
+    private void reindex() {
+        typeIndex = new TypeIndex(types_.values());
+    }
+
+    /**
+     * Immutable index of type names by category and by supertype.
+     */
+    private static final class TypeIndex {
+        private final Set<String>                    allTypeNames;
+        private final Map<TypeCategory, Set<String>> typeNamesByCategory = new EnumMap<>(TypeCategory.class);
+        private final Map<String, Set<String>>       subTypeNames        = new HashMap<>();
+        private final Set<String>                    hierarchicalNames   = new HashSet<>();
+
+        TypeIndex(Collection<IDataType> types) {
+            Set<String> names = new HashSet<>();
+            for (IDataType type : types) {
+                String typeName = type.getName();
+                names.add(typeName);
+                addTo(typeNamesByCategory, type.getTypeCategory(), typeName);
+
+                if (validSupertypeFilterCategories.contains(type.getTypeCategory())) {
+                    hierarchicalNames.add(typeName);
+                    for (String superTypeName : ((HierarchicalType<?, ?>) type).getAllSuperTypeNames()) {
+                        addTo(subTypeNames, superTypeName, typeName);
+                    }
+                }
+            }
+            allTypeNames = names;
+        }
+
+        private static <K> void addTo(Map<K, Set<String>> index, K key, String typeName) {
+            Set<String> typeNames = index.get(key);
+            if (typeNames == null) {
+                typeNames = new HashSet<>();
+                index.put(key, typeNames);
+            }
+            typeNames.add(typeName);
+        }
+
+        private Set<String> getTypeNames(String category) {
+            Set<String> ret = typeNamesByCategory.get(TypeCategory.valueOf(category));
+            return ret != null ? ret : Collections.<String>emptySet();
+        }
+
+        private Set<String> getSubTypeNames(String superTypeName) {
+            Set<String> ret = subTypeNames.get(superTypeName);
+            return ret != null ? ret : Collections.<String>emptySet();
+        }
+
+        /*
+         * Picks the smallest of the indexed sets that can satisfy the filter, so that the types to be
+         * checked are proportional to the result rather than to the whole type system.
+         */
+        Collection<String> getCandidates(Map<TYPE_FILTER, String> filterMap) {
+            if (filterMap == null) {
+                return allTypeNames;
+            }
+
+            Collection<String> ret = allTypeNames;
+            for (Entry<TYPE_FILTER, String> filterEntry : filterMap.entrySet()) {
+                Collection<String> candidates;
+                switch (filterEntry.getKey()) {
+                case CATEGORY:
+                    candidates = getTypeNames(filterEntry.getValue());
+                    break;
+
+                case SUPERTYPE:
+                    candidates = getSubTypeNames(filterEntry.getValue());
+                    break;
+
+                default:
+                    candidates = hierarchicalNames;
+                    break;
+                }
+                if (candidates.size() < ret.size()) {
+                    ret = candidates;
+                }
+            }
+            return ret;
+        }
+
+        boolean shouldIncludeType(String typeName, Map<TYPE_FILTER, String> filterMap) {
+            if (filterMap == null) {
+                return true;
+            }
+
+            for (Entry<TYPE_FILTER, String> filterEntry : filterMap.entrySet()) {
+                switch (filterEntry.getKey()) {
+                case CATEGORY:
+                    if (!getTypeNames(filterEntry.getValue()).contains(typeName)) {
+                        return false;
+                    }
+                    break;
+
+                case SUPERTYPE:
+                    if (!getSubTypeNames(filterEntry.getValue()).contains(typeName)) {
+                        return false;
+                    }
+                    break;
+
+                case NOT_SUPERTYPE:
+                    if (!hierarchicalNames.contains(typeName) || typeName.equals(filterEntry.getValue())
+                            || getSubTypeNames(filterEntry.getValue()).contains(typeName)) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -323,6 +323,14 @@ object InstanceSerialization {
     _toJson(value, withBigDecimals)
   }
 
+  /**
+   * The JSON tree [[toJson]] renders, for callers that write it out themselves.
+   */
+  def toJsonValue(value: IStruct, withBigDecimals : Boolean = false): JValue = {
+    implicit val formats = buildFormat(withBigDecimals)
+    Extraction.decompose(asScala(value))
+  }
+
   def fromJsonStruct(jsonStr: String, withBigDecimals : Boolean = false): Struct = {
     implicit val formats = buildFormat(withBigDecimals)
     val _s = read[_Struct](jsonStr)
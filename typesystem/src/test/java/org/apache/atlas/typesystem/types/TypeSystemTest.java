@@ -305,4 +305,30 @@ public class TypeSystemTest extends BaseTest {
         DataTypes.DATE_TYPE.output(new Date(TEST_DATE_IN_LONG), buf, "", new HashSet<Date>());
         Assert.assertEquals(buf.toString(), TEST_DATE_STRING);
     }
+
+    @Test
+    public void testSubTypes() throws Exception {
+        TypeSystem typeSystem = getTypeSystem();
+        typeSystem.defineClassType(createClassTypeDef("sub_A", ImmutableSet.<String>of()));
+        typeSystem.defineClassType(createClassTypeDef("sub_B", ImmutableSet.of("sub_A")));
+        typeSystem.defineClassType(createClassTypeDef("sub_C", ImmutableSet.of("sub_B")));
+        typeSystem.defineClassType(createClassTypeDef("sub_D", ImmutableSet.<String>of()));
+
+        Assert.assertEquals(typeSystem.getSubTypeNames("sub_A"), ImmutableSet.of("sub_A", "sub_B", "sub_C"));
+        Assert.assertEquals(typeSystem.getSubTypeNames("sub_C"), ImmutableSet.of("sub_C"));
+        Assert.assertNull(typeSystem.getSubTypeNames("sub_unknown"));
+
+        ClassType typeA = typeSystem.getDataType(ClassType.class, "sub_A");
+        ClassType typeB = typeSystem.getDataType(ClassType.class, "sub_B");
+        assertTrue(typeA.isSubType("sub_C"));
+        assertTrue(typeB.isSubType("sub_B"));
+        Assert.assertFalse(typeB.isSubType("sub_A"));
+        Assert.assertFalse(typeA.isSubType("sub_D"));
+
+        // subtypes added later are reflected in the existing supertypes
+        typeSystem.defineClassType(createClassTypeDef("sub_E", ImmutableSet.of("sub_B", "sub_D")));
+        Assert.assertEquals(typeSystem.getSubTypeNames("sub_A"), ImmutableSet.of("sub_A", "sub_B", "sub_C", "sub_E"));
+        Assert.assertEquals(typeSystem.getSubTypeNames("sub_D"), ImmutableSet.of("sub_D", "sub_E"));
+        assertTrue(typeA.isSubType("sub_E"));
+    }
 }
@@ -39,6 +39,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.testng.Assert.assertEquals;
@@ -447,4 +448,27 @@ public class DefaultTypeCacheTest {
         }});
         assertTrue(results.containsAll(Arrays.asList("A", "A1", "B", "C")), "Results: " + results);
     }
+
+    @Test
+    public void testGetTypesByFilterAfterRemove() throws Exception {
+        TypeSystem ts = TypeSystem.getInstance().reset();
+
+        ts.defineClassType(TypesUtil.createClassTypeDef("P", ImmutableSet.<String>of()));
+        ClassType p1 = ts.defineClassType(TypesUtil.createClassTypeDef("P1", ImmutableSet.of("P")));
+        ClassType p2 = ts.defineClassType(TypesUtil.createClassTypeDef("P2", ImmutableSet.of("P1")));
+
+        cache.putAll(Arrays.<IDataType>asList(p1, p2));
+
+        HashMap<TypeCache.TYPE_FILTER, String> filter = new HashMap<TypeCache.TYPE_FILTER, String>() {{
+            put(TypeCache.TYPE_FILTER.CATEGORY, TypeCategory.CLASS.name());
+            put(TypeCache.TYPE_FILTER.SUPERTYPE, "P");
+        }};
+        assertEquals(new HashSet<>(cache.getTypeNames(filter)), new HashSet<>(Arrays.asList("P1", "P2")));
+
+        cache.remove("P2");
+        assertEquals(new ArrayList<>(cache.getTypeNames(filter)), Arrays.asList("P1"));
+
+        cache.clear();
+        assertTrue(cache.getTypeNames(filter).isEmpty());
+    }
 }
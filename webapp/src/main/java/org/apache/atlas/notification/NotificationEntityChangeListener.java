@@ -33,7 +33,6 @@ import org.apache.atlas.typesystem.types.TraitType;
 import org.apache.atlas.typesystem.types.TypeSystem;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -77,13 +76,14 @@ public class NotificationEntityChangeListener implements EntityChangeListener {
     }
 
     @Override
-    public void onTraitAdded(ITypedReferenceableInstance entity, IStruct trait) throws AtlasException {
-        notifyOfEntityEvent(Collections.singleton(entity), EntityNotification.OperationType.TRAIT_ADD);
+    public void onTraitAdded(Collection<ITypedReferenceableInstance> entities, IStruct trait) throws AtlasException {
+        notifyOfEntityEvent(entities, EntityNotification.OperationType.TRAIT_ADD);
     }
 
     @Override
-    public void onTraitDeleted(ITypedReferenceableInstance entity, String traitName) throws AtlasException {
-        notifyOfEntityEvent(Collections.singleton(entity), EntityNotification.OperationType.TRAIT_DELETE);
+    public void onTraitDeleted(Collection<ITypedReferenceableInstance> entities, String traitName)
+            throws AtlasException {
+        notifyOfEntityEvent(entities, EntityNotification.OperationType.TRAIT_DELETE);
     }
 
     @Override
@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.filters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of requests of one endpoint group that are processed at the same time. Requests over the limit
+ * wait for a limited time in a bounded queue; once the queue is full, requests are turned away right away instead of
+ * tying up more server threads. This keeps one group of slow requests, say lineage queries, from taking all the
+ * threads of the server and starving the others.
+ *
+ * Request counts, queue depth and latencies are exposed via JMX.
+ */
+public class Bulkhead implements BulkheadMBean {
+    private static final Logger LOG = LoggerFactory.getLogger(Bulkhead.class);
+
+    public enum Admission {
+        ADMITTED, QUEUE_FULL, TIMED_OUT
+    }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutMs;
+    private final Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, long queueTimeoutMs) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Waits for the request to be admitted. A request that is admitted must be followed by a call to
+     * {@link #release(long)} once it has been processed.
+     */
+    public Admission acquire() throws InterruptedException {
+        if (!permits.tryAcquire()) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.incrementAndGet();
+                return Admission.QUEUE_FULL;
+            }
+
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+            } finally {
+                queued.decrementAndGet();
+                waited.incrementAndGet();
+                totalWaitNanos.addAndGet(System.nanoTime() - start);
+            }
+
+            if (!acquired) {
+                timedOut.incrementAndGet();
+                return Admission.TIMED_OUT;
+            }
+        }
+
+        active.incrementAndGet();
+        admitted.incrementAndGet();
+        return Admission.ADMITTED;
+    }
+
+    /**
+     * Makes room for the next request, recording the time taken to process this one.
+     */
+    public void release(long latencyNanos) {
+        active.decrementAndGet();
+        permits.release();
+
+        completed.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+
+        long max = maxLatencyNanos.get();
+        while (latencyNanos > max && !maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+            max = maxLatencyNanos.get();
+        }
+    }
+
+    public void register() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.apache.atlas:type=Bulkhead,name=" + name);
+
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+
+            mBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            LOG.warn("Failed to register JMX bean for the {} bulkhead", name, e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @Override
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    @Override
+    public int getActiveRequests() {
+        return active.get();
+    }
+
+    @Override
+    public int getQueuedRequests() {
+        return queued.get();
+    }
+
+    @Override
+    public long getAdmittedRequests() {
+        return admitted.get();
+    }
+
+    @Override
+    public long getRejectedRequests() {
+        return rejected.get();
+    }
+
+    @Override
+    public long getTimedOutRequests() {
+        return timedOut.get();
+    }
+
+    @Override
+    public double getAverageLatencyMs() {
+        return average(totalLatencyNanos.get(), completed.get());
+    }
+
+    @Override
+    public long getMaxLatencyMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    @Override
+    public double getAverageQueueWaitMs() {
+        return average(totalWaitNanos.get(), waited.get());
+    }
+
+    private static double average(long totalNanos, long count) {
+        return count == 0 ? 0 : (double) totalNanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
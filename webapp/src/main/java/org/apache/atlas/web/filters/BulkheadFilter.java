@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.filters;
+
+import com.google.inject.Singleton;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.web.service.EmbeddedServer;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.HttpMethod;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A servlet {@link Filter} that gives each group of endpoints its own {@link Bulkhead}, so that a burst of expensive
+ * requests of one group, say lineage queries, can't take all the threads of the server and starve the others; the
+ * admin endpoints have their own group too, except for the status check, which is never limited. Requests over the
+ * limit of their group wait for a while in a bounded queue, and are answered right away with 429 (Too Many Requests)
+ * once the queue is full, or with 503 (Service Unavailable) when they waited too long. Both responses carry a
+ * Retry-After header.
+ *
+ * The limits are set per group with the properties atlas.server.bulkhead.&lt;group&gt;.maxConcurrent, .maxQueued and
+ * .queueTimeoutMs; a group with a maxConcurrent of 0 or less is not limited. Requests that belong to no group are not
+ * limited either. A queued request holds a server thread while it waits, so the concurrent and queued requests of
+ * all the groups should add up to less than atlas.webserver.maxThreads, leaving threads for the other requests; a
+ * warning is logged at startup when they don't.
+ */
+@Singleton
+public class BulkheadFilter implements Filter {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    public static final String CONF_PREFIX = "atlas.server.bulkhead.";
+    public static final String ENABLED = CONF_PREFIX + "enabled";
+
+    static final int SC_TOO_MANY_REQUESTS = 429;
+    static final String RETRY_AFTER = "Retry-After";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    public enum Group {
+        SEARCH(20, 20), LINEAGE(10, 10), WRITE(40, 40), ADMIN(5, 5);
+
+        private final int defaultMaxConcurrent;
+        private final int defaultMaxQueued;
+
+        Group(int defaultMaxConcurrent, int defaultMaxQueued) {
+            this.defaultMaxConcurrent = defaultMaxConcurrent;
+            this.defaultMaxQueued = defaultMaxQueued;
+        }
+
+        public String getName() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static final long DEFAULT_QUEUE_TIMEOUT_MS = 5000;
+
+    private static final String API_PREFIX = "/" + AtlasClient.BASE_URI;
+
+    private final Map<Group, Bulkhead> bulkheads;
+
+    public BulkheadFilter() {
+        this(getConfiguration());
+    }
+
+    BulkheadFilter(Configuration configuration) {
+        Map<Group, Bulkhead> bulkheads = new EnumMap<>(Group.class);
+
+        if (configuration.getBoolean(ENABLED, true)) {
+            for (Group group : Group.values()) {
+                String prefix = CONF_PREFIX + group.getName() + ".";
+                int maxConcurrent = configuration.getInt(prefix + "maxConcurrent", group.defaultMaxConcurrent);
+                int maxQueued = configuration.getInt(prefix + "maxQueued", group.defaultMaxQueued);
+                long queueTimeoutMs = configuration.getLong(prefix + "queueTimeoutMs", DEFAULT_QUEUE_TIMEOUT_MS);
+
+                if (maxConcurrent > 0) {
+                    bulkheads.put(group, new Bulkhead(group.getName(), maxConcurrent, Math.max(maxQueued, 0),
+                            queueTimeoutMs));
+                    LOG.info("Requests of group {} are limited to {} at a time, with {} more waiting", group.getName(),
+                            maxConcurrent, maxQueued);
+                }
+            }
+        }
+
+        this.bulkheads = Collections.unmodifiableMap(bulkheads);
+
+        int maxThreads = configuration.getInt(EmbeddedServer.MAX_THREADS, EmbeddedServer.DEFAULT_MAX_THREADS);
+        int threads = getMaxThreads();
+        if (threads >= maxThreads) {
+            LOG.warn("Requests of all groups may hold up to {} threads, with the queued ones, but the server has {};"
+                    + " other requests are starved when the groups are full", threads, maxThreads);
+        }
+    }
+
+    /**
+     * @return the number of threads the limited requests may hold, queued requests included
+     */
+    int getMaxThreads() {
+        int ret = 0;
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            ret += bulkhead.getMaxConcurrent() + bulkhead.getMaxQueued();
+        }
+        return ret;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            bulkhead.register();
+        }
+        LOG.info("BulkheadFilter initialized");
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain filterChain)
+    throws IOException, ServletException {
+        Group group = getGroup((HttpServletRequest) request);
+        Bulkhead bulkhead = group != null ? bulkheads.get(group) : null;
+
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Bulkhead.Admission admission;
+        try {
+            admission = bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject((HttpServletResponse) response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, group);
+            return;
+        }
+
+        switch (admission) {
+        case QUEUE_FULL:
+            reject((HttpServletResponse) response, SC_TOO_MANY_REQUESTS, group);
+            return;
+
+        case TIMED_OUT:
+            reject((HttpServletResponse) response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, group);
+            return;
+
+        default:
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.release(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    Bulkhead getBulkhead(Group group) {
+        return bulkheads.get(group);
+    }
+
+    /**
+     * @return the group the request belongs to, or null if it belongs to none
+     */
+    static Group getGroup(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (path == null) {
+            return null;
+        }
+        if (contextPath != null && !contextPath.equals("/") && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        if (!path.startsWith(API_PREFIX)) {
+            return null;
+        }
+
+        path = path.substring(API_PREFIX.length());
+
+        if (path.startsWith("admin/status")) {
+            // load balancers and monitors must get an answer however busy the server is
+            return null;
+        }
+        if (path.startsWith("admin/")) {
+            return Group.ADMIN;
+        }
+        if (path.startsWith("lineage/")) {
+            return Group.LINEAGE;
+        }
+        if (path.startsWith("discovery/")) {
+            return Group.SEARCH;
+        }
+
+        String method = request.getMethod();
+        if (HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method) || HttpMethod.DELETE.equals(method)) {
+            return Group.WRITE;
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, int status, Group group) throws IOException {
+        LOG.debug("Rejecting request of group {} with status {}", group.getName(), status);
+
+        response.setHeader(RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.sendError(status, "Too many concurrent " + group.getName() + " requests");
+    }
+
+    private static Configuration getConfiguration() {
+        try {
+            return ApplicationProperties.get();
+        } catch (AtlasException e) {
+            LOG.warn("Could not load application configuration, using the default bulkhead limits", e);
+            return new PropertiesConfiguration();
+        }
+    }
+}
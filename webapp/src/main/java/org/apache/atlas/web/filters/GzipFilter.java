@@ -0,0 +1,364 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.filters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A servlet {@link Filter} that compresses responses with gzip for clients that accept it. The start of the response
+ * is held back until it reaches the minimum size; smaller responses are sent as they are, since compressing them
+ * saves little. Only textual content, like JSON, HTML and scripts, is compressed.
+ */
+public class GzipFilter implements Filter {
+    private static final Logger LOG = LoggerFactory.getLogger(GzipFilter.class);
+
+    private static final String GZIP = "gzip";
+
+    private final int minSize;
+
+    public GzipFilter(int minSize) {
+        this.minSize = minSize;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        LOG.info("GzipFilter initialized, compressing responses of {} bytes or more", minSize);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain filterChain)
+    throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+
+        if (!acceptsGzip(httpRequest) || HttpMethod.HEAD.equals(httpRequest.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        GzipResponse gzipResponse = new GzipResponse((HttpServletResponse) response, minSize);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, gzipResponse);
+            completed = true;
+        } finally {
+            if (completed) {
+                gzipResponse.finish();
+            } else {
+                gzipResponse.abort();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String encoding : acceptEncoding.split(",")) {
+            String[] parts = encoding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].replace(" ", "");
+                    if (param.startsWith("q=") && !isAcceptable(param.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A quality value that can't be read is taken as not acceptable, so that the response is sent as it is.
+     */
+    private static boolean isAcceptable(String quality) {
+        try {
+            return Double.parseDouble(quality) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.startsWith("application/json")
+                || type.startsWith("application/javascript") || type.startsWith("application/xml")
+                || type.contains("+json") || type.contains("+xml");
+    }
+
+    /**
+     * Holds back the body until it is known whether it's large enough to compress.
+     */
+    static class GzipResponse extends HttpServletResponseWrapper {
+        private final int minSize;
+        private final BufferedStream stream = new BufferedStream();
+        private PrintWriter writer;
+        private long contentLength = -1;
+        private boolean noCompression = false;
+
+        GzipResponse(HttpServletResponse response, int minSize) {
+            super(response);
+            this.minSize = minSize;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+            if (stream.target != null && !stream.compressing) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                checkContentEncoding(name);
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                checkContentEncoding(name);
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            setHeader(name, String.valueOf(value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            addHeader(name, String.valueOf(value));
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            stream.flush();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (stream.target != null) {
+                throw new IllegalStateException("Response is already committed");
+            }
+            stream.buffer.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            contentLength = -1;
+            noCompression = false;
+            super.reset();
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return stream.target != null || super.isCommitted();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            stream.finish();
+        }
+
+        /**
+         * Ends the body of a request that failed. A body that has been started is ended, so that a compressed one is
+         * still readable; one that hasn't is dropped, leaving the response to the error handling of the container.
+         */
+        void abort() {
+            if (stream.target != null) {
+                try {
+                    finish();
+                } catch (IOException e) {
+                    LOG.debug("Unable to end the response of a failed request", e);
+                }
+            }
+        }
+
+        private void checkContentEncoding(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                noCompression = true;
+            }
+        }
+
+        private class BufferedStream extends ServletOutputStream {
+            private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            private OutputStream target;
+            private boolean compressing;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (target == null) {
+                    if (contentLength >= 0) {
+                        start(contentLength >= minSize);
+                    } else if (buffer.size() + len < minSize) {
+                        buffer.write(b, off, len);
+                        return;
+                    } else {
+                        start(true);
+                    }
+                }
+                target.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                // the start of the response is held back until it's known whether it will be compressed
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+            }
+
+            @Override
+            public boolean isReady() {
+                try {
+                    // writes are only buffered until the response starts
+                    return target == null || getResponse().getOutputStream().isReady();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                try {
+                    getResponse().getOutputStream().setWriteListener(writeListener);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            void finish() throws IOException {
+                if (target == null) {
+                    if (buffer.size() == 0) {
+                        return;
+                    }
+                    start(false);
+                }
+
+                if (compressing) {
+                    ((GZIPOutputStream) target).finish();
+                }
+                target.flush();
+            }
+
+            private void start(boolean large) throws IOException {
+                HttpServletResponse response = (HttpServletResponse) getResponse();
+                boolean compressible = isCompressible(response.getContentType());
+
+                if (compressible) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+
+                compressing = large && compressible && !noCompression;
+                if (compressing) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                    target = new GZIPOutputStream(response.getOutputStream(), true);
+                } else {
+                    if (contentLength >= 0) {
+                        response.setContentLengthLong(contentLength);
+                    } else if (!large) {
+                        response.setContentLength(buffer.size());
+                    }
+                    target = response.getOutputStream();
+                }
+
+                buffer.writeTo(target);
+                buffer.reset();
+            }
+        }
+    }
+}
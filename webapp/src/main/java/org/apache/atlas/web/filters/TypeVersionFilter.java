@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.filters;
+
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.typesystem.types.TypeSystem;
+import org.apache.atlas.web.util.Servlets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * A servlet {@link Filter} for conditional requests to the type endpoints. Type definitions only change when types
+ * are committed, so all of them share an entity tag made of the versions of the type system and the type registry.
+ * Requests whose If-None-Match or If-Modified-Since header shows the client has the current types get 304 (Not
+ * Modified) without reaching the resource; successful responses carry the entity tag and modification time.
+ */
+@Singleton
+public class TypeVersionFilter implements Filter {
+    private static final Logger LOG = LoggerFactory.getLogger(TypeVersionFilter.class);
+
+    // tags of a restarted server must not match those handed out before
+    private final long epoch = System.currentTimeMillis();
+
+    private final TypeSystem typeSystem;
+    private final AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    public TypeVersionFilter(TypeSystem typeSystem, AtlasTypeRegistry typeRegistry) {
+        this.typeSystem = typeSystem;
+        this.typeRegistry = typeRegistry;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        LOG.info("TypeVersionFilter initialized");
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain filterChain)
+    throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+
+        if (!HttpMethod.GET.equals(httpRequest.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // read the versions before the types, so that a change in between gives a tag older than the response
+        String entityTag = getEntityTag();
+        long lastModified = Math.max(typeSystem.getLastModified(), typeRegistry.getLastModified());
+
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        if (Servlets.isNotModified(httpRequest, entityTag, lastModified)) {
+            httpResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            httpResponse.setHeader(HttpHeaders.ETAG, entityTag);
+            return;
+        }
+
+        filterChain.doFilter(request, new TaggedResponse(httpResponse, entityTag, lastModified));
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    String getEntityTag() {
+        return Servlets.getWeakEntityTag("types-" + epoch + "-" + typeSystem.getVersion() + "-"
+                + typeRegistry.getVersion());
+    }
+
+    /**
+     * Adds the entity tag and modification time to successful responses, once their body is written.
+     */
+    private static class TaggedResponse extends HttpServletResponseWrapper {
+        private final String entityTag;
+        private final long lastModified;
+        private boolean tagged = false;
+
+        TaggedResponse(HttpServletResponse response, String entityTag, long lastModified) {
+            super(response);
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            tag();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            tag();
+            return super.getWriter();
+        }
+
+        private void tag() {
+            if (!tagged && getStatus() == HttpServletResponse.SC_OK) {
+                setHeader(HttpHeaders.ETAG, entityTag);
+                setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            }
+            tagged = true;
+        }
+    }
+}
@@ -35,6 +35,8 @@ import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.service.Services;
 import org.apache.atlas.web.filters.ActiveServerFilter;
 import org.apache.atlas.web.filters.AuditFilter;
+import org.apache.atlas.web.filters.BulkheadFilter;
+import org.apache.atlas.web.filters.TypeVersionFilter;
 import org.apache.atlas.web.service.ActiveInstanceElectorModule;
 import org.apache.atlas.web.service.ServiceModule;
 import org.apache.commons.collections.iterators.EnumerationIterator;
@@ -94,6 +96,9 @@ public class GuiceServletConfig extends GuiceServletContextListener {
                         protected void configureServlets() {
                             filter("/*").through(AuditFilter.class);
                             configureActiveServerFilterIfNecessary();
+                            filter("/*").through(BulkheadFilter.class);
+                            filter("/" + AtlasClient.BASE_URI + "types", "/" + AtlasClient.BASE_URI + "types/*",
+                                    "/" + AtlasClient.BASE_URI + "v2/types/*").through(TypeVersionFilter.class);
 
                             Map<String, String> initParams     = new HashMap<>();
                             Enumeration<String> initParamNames = getServletContext().getInitParameterNames();
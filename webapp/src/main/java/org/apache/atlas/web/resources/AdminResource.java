@@ -20,17 +20,29 @@ package org.apache.atlas.web.resources;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Singleton;
+import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.apache.atlas.AtlasClient;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.discovery.QueryExecutionManager;
+import org.apache.atlas.discovery.RunningQuery;
+import org.apache.atlas.metrics.Counter;
+import org.apache.atlas.metrics.Gauge;
+import org.apache.atlas.metrics.MetricsRegistry;
+import org.apache.atlas.metrics.Timer;
+import org.apache.atlas.repository.stats.EntityStatistics;
+import org.apache.atlas.repository.stats.EntityStatisticsService;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.atlas.web.filters.AtlasCSRFPreventionFilter;
 import org.apache.atlas.web.service.ServiceState;
@@ -38,9 +50,11 @@ import org.apache.atlas.web.util.Servlets;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.lang.StringUtils;
+import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -53,6 +67,7 @@ import com.google.inject.Inject;
 @Path("admin")
 @Singleton
 public class AdminResource {
+    private static final Logger LOG = LoggerFactory.getLogger(AdminResource.class);
     private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("rest.AdminResource");
 
     private static final String isCSRF_ENABLED = "atlas.rest-csrf.enabled";
@@ -60,13 +75,19 @@ public class AdminResource {
     private static final String CUSTOM_METHODS_TO_IGNORE_PARAM = "atlas.rest-csrf.methods-to-ignore";
     private static final String CUSTOM_HEADER_PARAM = "atlas.rest-csrf.custom-header";
     private static final String isTaxonomyEnabled = "atlas.feature.taxonomy.enable";
+    private static final String LAST_ACTIVATION_TIME = "LastActivationTimeMs";
     
     private Response version;
     private ServiceState serviceState;
+    private QueryExecutionManager queryExecutionManager;
+    private EntityStatisticsService statisticsService;
 
     @Inject
-    public AdminResource(ServiceState serviceState) {
+    public AdminResource(ServiceState serviceState, QueryExecutionManager queryExecutionManager,
+                         EntityStatisticsService statisticsService) {
         this.serviceState = serviceState;
+        this.queryExecutionManager = queryExecutionManager;
+        this.statisticsService = statisticsService;
     }
 
     /**
@@ -160,6 +181,9 @@ public class AdminResource {
             JSONObject responseData = new JSONObject();
             try {
                 responseData.put(AtlasClient.STATUS, serviceState.getState().toString());
+                if (serviceState.getLastActivationTime() >= 0) {
+                    responseData.put(LAST_ACTIVATION_TIME, serviceState.getLastActivationTime());
+                }
                 Response response = Response.ok(responseData).build();
                 return response;
             } catch (JSONException e) {
@@ -212,4 +236,180 @@ public class AdminResource {
             AtlasPerfTracer.log(perf);
         }
     }
+
+    /**
+     * Lists the Gremlin and DSL queries currently running, longest running first.
+     *
+     * @return json with the id, type, text, user and elapsed time of each query.
+     */
+    @GET
+    @Path("queries")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response getRunningQueries() {
+        AtlasPerfTracer perf = null;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "AdminResource.getRunningQueries()");
+            }
+
+            JSONArray queries = new JSONArray();
+            for (RunningQuery runningQuery : queryExecutionManager.getRunningQueries()) {
+                JSONObject query = new JSONObject();
+                query.put("id", runningQuery.getId());
+                query.put(AtlasClient.QUERY_TYPE, runningQuery.getQueryType());
+                query.put(AtlasClient.QUERY, runningQuery.getQuery());
+                query.put("user", runningQuery.getUser());
+                query.put("startTime", runningQuery.getStartTime());
+                query.put("elapsedTime", runningQuery.getElapsedTime());
+                if (runningQuery.isTerminated()) {
+                    query.put("terminationReason", runningQuery.getTerminationReason());
+                }
+                queries.put(query);
+            }
+
+            JSONObject response = new JSONObject();
+            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            response.put(AtlasClient.RESULTS, queries);
+            response.put(AtlasClient.COUNT, queries.length());
+            return Response.ok(response).build();
+        } catch (JSONException e) {
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Kills a running query. The query stops at its next cancellation check.
+     *
+     * @param queryId id of the query, as listed by {@link #getRunningQueries()}
+     */
+    @DELETE
+    @Path("queries/{id}")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response killQuery(@PathParam("id") long queryId) {
+        AtlasPerfTracer perf = null;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "AdminResource.killQuery(" + queryId + ")");
+            }
+
+            String user = RequestContext.get().getUser();
+            if (!queryExecutionManager.kill(queryId, user)) {
+                throw new WebApplicationException(Servlets.getErrorResponse("No running query with id " + queryId,
+                        Response.Status.NOT_FOUND));
+            }
+            LOG.info("Query {} killed by {}", queryId, user);
+
+            JSONObject response = new JSONObject();
+            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            response.put("id", queryId);
+            return Response.ok(response).build();
+        } catch (JSONException e) {
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Returns entity counts by type and trait, and the estimated number of distinct values of unique and indexed
+     * attributes, as maintained by the {@link EntityStatisticsService}.
+     *
+     * @return json with the active and deleted counts of each type and trait, and the distinct values of each
+     * attribute named typeName.attributeName.
+     */
+    @GET
+    @Path("stats")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response getStatistics() {
+        AtlasPerfTracer perf = null;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "AdminResource.getStatistics()");
+            }
+
+            EntityStatistics statistics = statisticsService.getStatistics();
+
+            JSONObject response = new JSONObject();
+            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            response.put("types", toJson(statistics.getTypeCounts()));
+            response.put("traits", toJson(statistics.getTraitCounts()));
+            response.put("attributes", new JSONObject(statistics.getDistinctValues()));
+            response.put("rebuilding", statisticsService.isRebuilding());
+            response.put("lastPersisted", statisticsService.getLastPersisted());
+            return Response.ok(response).build();
+        } catch (JSONException e) {
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Returns the timers, counters and gauges of the {@link MetricsRegistry}. Timers measure the REST calls and graph
+     * transactions traced with {@link AtlasPerfTracer}, since the server started.
+     *
+     * @return json with the count, mean, maximum and percentiles in milliseconds of each timer, and the value of each
+     * counter and gauge.
+     */
+    @GET
+    @Path("metrics")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response getMetrics() {
+        AtlasPerfTracer perf = null;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "AdminResource.getMetrics()");
+            }
+
+            JSONObject timers = new JSONObject();
+            for (Map.Entry<String, Timer> entry : MetricsRegistry.getTimers().entrySet()) {
+                Timer timer = entry.getValue();
+                JSONObject value = new JSONObject();
+                value.put("count", timer.getCount());
+                value.put("meanMs", timer.getMeanMs());
+                value.put("maxMs", timer.getMaxMs());
+                value.put("p50Ms", timer.getP50Ms());
+                value.put("p75Ms", timer.getP75Ms());
+                value.put("p95Ms", timer.getP95Ms());
+                value.put("p99Ms", timer.getP99Ms());
+                value.put("p999Ms", timer.getP999Ms());
+                timers.put(entry.getKey(), value);
+            }
+
+            JSONObject counters = new JSONObject();
+            for (Map.Entry<String, Counter> entry : MetricsRegistry.getCounters().entrySet()) {
+                counters.put(entry.getKey(), entry.getValue().getCount());
+            }
+
+            JSONObject gauges = new JSONObject();
+            for (Map.Entry<String, Gauge> entry : MetricsRegistry.getGauges().entrySet()) {
+                gauges.put(entry.getKey(), entry.getValue().getValue());
+            }
+
+            JSONObject response = new JSONObject();
+            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            response.put("enabled", MetricsRegistry.isEnabled());
+            response.put("timers", timers);
+            response.put("counters", counters);
+            response.put("gauges", gauges);
+            return Response.ok(response).build();
+        } catch (JSONException e) {
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    private static JSONObject toJson(Map<String, EntityStatistics.Counts> counts) throws JSONException {
+        JSONObject ret = new JSONObject();
+        for (Map.Entry<String, EntityStatistics.Counts> entry : counts.entrySet()) {
+            JSONObject value = new JSONObject();
+            value.put("active", entry.getValue().getActive());
+            value.put("deleted", entry.getValue().getDeleted());
+            ret.put(entry.getKey(), value);
+        }
+        return ret;
+    }
 }
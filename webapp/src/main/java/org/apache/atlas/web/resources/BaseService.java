@@ -18,15 +18,26 @@
 
 package org.apache.atlas.web.resources;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import javax.xml.bind.annotation.XmlRootElement;
 
+import org.apache.atlas.catalog.CollectionRequest;
 import org.apache.atlas.catalog.JsonSerializer;
 import org.apache.atlas.catalog.Request;
 import org.apache.atlas.catalog.ResourceProvider;
@@ -37,6 +48,7 @@ import org.apache.atlas.catalog.exception.InvalidPayloadException;
 import org.apache.atlas.catalog.exception.InvalidQueryException;
 import org.apache.atlas.catalog.exception.ResourceNotFoundException;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +59,10 @@ import com.google.gson.JsonSyntaxException;
  * Base class for all v1 API services.
  */
 public abstract class BaseService {
+    public static final String PAGE_SIZE_PARAM = "pageSize";
+    public static final String CURSOR_PARAM = "cursor";
+    private static final Pattern CURSOR_PATTERN = Pattern.compile("\\d+(:[\\w-]+)?");
+
     private static final Gson gson = new Gson();
     private final Logger LOG = LoggerFactory.getLogger(getClass());
     private final static JsonSerializer serializer = new JsonSerializer();
@@ -116,6 +132,113 @@ public abstract class BaseService {
         return (qsBegin == -1) ? null : uri.substring(qsBegin + 1);
     }
 
+    /**
+     * Create a collection request from the query string of the request uri.
+     * The paging parameters are removed from the query string before it is used as the resource query.
+     *
+     * @param queryProperties  query properties of the request
+     * @param ui               uri info of the request
+     * @return collection request limited to the requested page
+     * @throws CatalogException if the paging parameters are invalid or the query string can't be decoded
+     */
+    protected CollectionRequest createCollectionRequest(Map<String, Object> queryProperties, UriInfo ui)
+            throws CatalogException {
+
+        int pageSize = 0;
+        String cursor = null;
+        List<String> queryParams = new ArrayList<>();
+        String queryString = getQueryString(ui);
+        if (queryString != null) {
+            for (String param : queryString.split("&", -1)) {
+                if (param.startsWith(PAGE_SIZE_PARAM + "=")) {
+                    pageSize = parsePageParameter(param.substring(PAGE_SIZE_PARAM.length() + 1), PAGE_SIZE_PARAM);
+                } else if (param.startsWith(CURSOR_PARAM + "=")) {
+                    cursor = parseCursor(param.substring(CURSOR_PARAM.length() + 1));
+                } else {
+                    queryParams.add(param);
+                }
+            }
+            queryString = queryParams.isEmpty() ? null : StringUtils.join(queryParams, '&');
+        }
+
+        CollectionRequest request = new CollectionRequest(queryProperties, decode(queryString));
+        request.setPage(pageSize, cursor);
+        // unpaged results are read from the graph while the response is written
+        request.setStreamed(true);
+        return request;
+    }
+
+    protected Response buildResponse(Result result, UriInfo ui) {
+        return buildResponse(result, null, ui);
+    }
+
+    /**
+     * Build the response for a result, streaming the serialized result to the client.
+     * If the request returned a page and more resources follow, a 'Link' header refers to the next page.
+     *
+     * @param result   result to return
+     * @param request  request which produced the result
+     * @param ui       uri info of the request
+     * @return response
+     */
+    protected Response buildResponse(final Result result, Request request, final UriInfo ui) {
+        Response.ResponseBuilder builder = Response.status(Response.Status.OK).entity(new StreamingOutput() {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                try {
+                    Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+                    getSerializer().serialize(result, ui, writer);
+                    writer.flush();
+                } finally {
+                    // a streamed result which wasn't read to the end, because the client went away or the
+                    // serializer failed, still holds its graph transaction
+                    result.close();
+                }
+            }
+        });
+
+        if (request != null && request.getNextPageCursor() != null) {
+            builder.header("Link", String.format("<%s>; rel=\"next\"", getNextPageUri(ui, request)));
+        }
+        return builder.build();
+    }
+
+    private String getNextPageUri(UriInfo ui, Request request) {
+        String uri = ui.getRequestUri().toASCIIString();
+        int qsBegin = uri.indexOf("?");
+        StringBuilder nextUri = new StringBuilder(qsBegin == -1 ? uri : uri.substring(0, qsBegin)).append('?');
+        if (qsBegin != -1) {
+            for (String param : uri.substring(qsBegin + 1).split("&", -1)) {
+                if (! param.startsWith(CURSOR_PARAM + "=") && ! param.startsWith(PAGE_SIZE_PARAM + "=")) {
+                    nextUri.append(param).append('&');
+                }
+            }
+        }
+        return nextUri.append(PAGE_SIZE_PARAM).append('=').append(request.getPageSize()).append('&').
+                append(CURSOR_PARAM).append('=').append(request.getNextPageCursor()).toString();
+    }
+
+    // a cursor is either an offset or the creation time and guid of the last resource of the previous page
+    private String parseCursor(String value) throws InvalidQueryException {
+        if (! CURSOR_PATTERN.matcher(value).matches()) {
+            throw new InvalidQueryException(String.format("Invalid value for '%s': %s", CURSOR_PARAM, value));
+        }
+        return value;
+    }
+
+    private int parsePageParameter(String value, String name) throws InvalidQueryException {
+        int intValue;
+        try {
+            intValue = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidQueryException(String.format("Invalid value for '%s': %s", name, value));
+        }
+        if (intValue < 0) {
+            throw new InvalidQueryException(String.format("Invalid value for '%s': %s", name, value));
+        }
+        return intValue;
+    }
+
     protected <T extends Map> T parsePayload(String body) throws InvalidPayloadException {
         T properties;
 
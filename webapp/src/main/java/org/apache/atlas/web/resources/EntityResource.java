@@ -24,7 +24,15 @@ import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasConstants;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.EntityAuditEvent;
+import org.apache.atlas.discovery.DiscoveryException;
+import org.apache.atlas.discovery.DiscoveryService;
+import org.apache.atlas.query.JsonHelper;
+import org.apache.atlas.query.QueryParams;
+import org.apache.atlas.services.EntityChanges;
+import org.apache.atlas.services.EntityVersion;
 import org.apache.atlas.services.MetadataService;
+import org.apache.atlas.services.TraitAssociationResult;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.IStruct;
 import org.apache.atlas.typesystem.Referenceable;
 import org.apache.atlas.typesystem.exception.EntityExistsException;
@@ -35,8 +43,10 @@ import org.apache.atlas.typesystem.json.InstanceSerialization;
 import org.apache.atlas.typesystem.types.ValueConversionException;
 import org.apache.atlas.utils.ParamChecker;
 import org.apache.atlas.utils.AtlasPerfTracer;
+import org.apache.atlas.web.util.JsonStreamingOutput;
 import org.apache.atlas.web.util.Servlets;
 import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
@@ -58,13 +68,18 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 
@@ -83,20 +98,37 @@ public class EntityResource {
 
     private static final String TRAIT_NAME = "traitName";
 
+    private static final String GUID = "guid";
+    private static final String STATE = "state";
+    private static final String VERSION = "version";
+    private static final String MODIFICATION_TIMESTAMP = "modificationTimestamp";
+    private static final String CURSOR = "cursor";
+    private static final String HAS_MORE = "hasMore";
+    private static final int MAX_CHANGES_LIMIT = 1000;
+
+    private static final String TRAIT = "trait";
+    private static final String GUIDS = "guids";
+    private static final String UPDATED = "updated";
+    private static final String FAILED = "failed";
+    private static final String NOTIFICATION_FAILED = "notificationFailed";
+
     private final MetadataService metadataService;
+    private final DiscoveryService discoveryService;
 
     @Context
     UriInfo uriInfo;
 
     /**
      * Created by the Guice ServletModule and injected with the
-     * configured MetadataService.
+     * configured MetadataService and DiscoveryService.
      *
      * @param metadataService metadata service handle
+     * @param discoveryService discovery service handle
      */
     @Inject
-    public EntityResource(MetadataService metadataService) {
+    public EntityResource(MetadataService metadataService, DiscoveryService discoveryService) {
         this.metadataService = metadataService;
+        this.discoveryService = discoveryService;
     }
 
     /**
@@ -454,14 +486,16 @@ public class EntityResource {
     }
 
     /**
-     * Fetch the complete definition of an entity given its GUID.
+     * Fetch the complete definition of an entity given its GUID. The response carries an entity tag and the
+     * modification time of the entity; a request whose If-None-Match or If-Modified-Since header shows the client
+     * has the current definition gets 304 (Not Modified) without the definition being loaded.
      *
      * @param guid GUID for the entity
      */
     @GET
     @Path("{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
-    public Response getEntityDefinition(@PathParam("guid") String guid) {
+    public Response getEntityDefinition(@Context HttpServletRequest request, @PathParam("guid") String guid) {
         AtlasPerfTracer perf = null;
         try {
             if(AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
@@ -470,21 +504,28 @@ public class EntityResource {
 
             LOG.debug("Fetching entity definition for guid={} ", guid);
             guid = ParamChecker.notEmpty(guid, "guid cannot be null");
-            final String entityDefinition = metadataService.getEntityDefinition(guid);
 
-            JSONObject response = new JSONObject();
-            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            final EntityVersion version = metadataService.getEntityVersion(guid);
+            final String entityTag = Servlets.getWeakEntityTag(version.toString());
+            if (Servlets.isNotModified(request, entityTag, version.getModificationTimestamp())) {
+                return Response.notModified().header(HttpHeaders.ETAG, entityTag).build();
+            }
 
-            Response.Status status = Response.Status.NOT_FOUND;
-            if (entityDefinition != null) {
-                response.put(AtlasClient.DEFINITION, new JSONObject(entityDefinition));
-                status = Response.Status.OK;
-            } else {
-                response.put(AtlasClient.ERROR,
-                        Servlets.escapeJsonString(String.format("An entity with GUID={%s} does not exist", guid)));
+            final ITypedReferenceableInstance entity = metadataService.getEntityDefinitionReference(guid);
+
+            if (entity != null) {
+                return Response.ok(new DefinitionStreamingOutput(entity))
+                        .header(HttpHeaders.ETAG, entityTag)
+                        .lastModified(new Date(version.getModificationTimestamp()))
+                        .build();
             }
 
-            return Response.status(status).entity(response).build();
+            JSONObject response = new JSONObject();
+            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            response.put(AtlasClient.ERROR,
+                    Servlets.escapeJsonString(String.format("An entity with GUID={%s} does not exist", guid)));
+
+            return Response.status(Response.Status.NOT_FOUND).entity(response).build();
 
         } catch (EntityNotFoundException e) {
             LOG.error("An entity with GUID={} does not exist ", guid, e);
@@ -569,21 +610,19 @@ public class EntityResource {
             attribute  = ParamChecker.notEmpty(attribute, "attribute name cannot be null");
             value      = ParamChecker.notEmpty(value, "attribute value cannot be null");
 
-            final String entityDefinition = metadataService.getEntityDefinition(entityType, attribute, value);
+            final ITypedReferenceableInstance entity =
+                    metadataService.getEntityDefinitionReference(entityType, attribute, value);
+
+            if (entity != null) {
+                return Response.ok(new DefinitionStreamingOutput(entity)).build();
+            }
 
             JSONObject response = new JSONObject();
             response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            response.put(AtlasClient.ERROR, Servlets.escapeJsonString(String.format("An entity with type={%s}, " +
+                    "qualifiedName={%s} does not exist", entityType, value)));
 
-            Response.Status status = Response.Status.NOT_FOUND;
-            if (entityDefinition != null) {
-                response.put(AtlasClient.DEFINITION, new JSONObject(entityDefinition));
-                status = Response.Status.OK;
-            } else {
-                response.put(AtlasClient.ERROR, Servlets.escapeJsonString(String.format("An entity with type={%s}, " +
-                        "qualifiedName={%s} does not exist", entityType, value)));
-            }
-
-            return Response.status(status).entity(response).build();
+            return Response.status(Response.Status.NOT_FOUND).entity(response).build();
 
         } catch (EntityNotFoundException e) {
             LOG.error("An entity with type={} and qualifiedName={} does not exist", entityType, value, e);
@@ -597,6 +636,53 @@ public class EntityResource {
         }
     }
 
+    /**
+     * Fetch the complete definitions of the entities of a type with the given values of a unique attribute, in one
+     * call. Values that no entity has are skipped.
+     *
+     * @param entityType
+     * @param attribute
+     * @param values
+     */
+    @GET
+    @Path("qualifiedName")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response getEntitiesByAttribute(@QueryParam("type") String entityType,
+                                           @QueryParam("property") String attribute,
+                                           @QueryParam("value") List<String> values) {
+        AtlasPerfTracer perf = null;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityResource.getEntitiesByAttribute(" + entityType
+                        + ", " + attribute + ", " + (values == null ? 0 : values.size()) + " values)");
+            }
+
+            entityType = ParamChecker.notEmpty(entityType, "Entity type cannot be null");
+            attribute  = ParamChecker.notEmpty(attribute, "attribute name cannot be null");
+            if (values == null || values.isEmpty()) {
+                throw new IllegalArgumentException("attribute values cannot be empty");
+            }
+
+            List<ITypedReferenceableInstance> entities = new ArrayList<>();
+            for (String value : new LinkedHashSet<>(values)) {
+                try {
+                    entities.add(metadataService.getEntityDefinitionReference(entityType, attribute, value));
+                } catch (EntityNotFoundException e) {
+                    LOG.debug("An entity with type={} and {}={} does not exist", entityType, attribute, value);
+                }
+            }
+
+            return Response.ok(new DefinitionsStreamingOutput(entities)).build();
+        } catch (AtlasException | IllegalArgumentException e) {
+            LOG.error("Bad type={}, attribute={}", entityType, attribute, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
+        } catch (Throwable e) {
+            LOG.error("Unable to get instance definitions for type={}, attribute={}", entityType, attribute, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
 
     // Trait management functions
 
@@ -764,6 +850,123 @@ public class EntityResource {
         }
     }
 
+    /**
+     * Adds a new trait to a number of existing entities: those listed in the guids of the request, or those returned
+     * by its DSL query. The trait is added to a batch of entities per transaction, and the entities that don't exist
+     * or already have the trait are reported with the reason of the failure rather than failing the request.
+     *
+     * The request holds the trait instance as trait, and either guids or query.
+     */
+    @POST
+    @Path("traits")
+    @Consumes({Servlets.JSON_MEDIA_TYPE, MediaType.APPLICATION_JSON})
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response addTraits(@Context HttpServletRequest request) {
+        String traitDefinition = null;
+        AtlasPerfTracer perf = null;
+        try {
+            if(AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityResource.addTraits()");
+            }
+
+            JSONObject body = new JSONObject(Servlets.getRequestPayload(request));
+            JSONObject trait = body.getJSONObject(TRAIT);
+            traitDefinition = trait.toString();
+
+            List<String> guids = getEntityGuids(body.optJSONArray(GUIDS), body.optString(AtlasClient.QUERY, null));
+            LOG.info("Adding trait={} to {} entities", traitDefinition, guids.size());
+
+            TraitAssociationResult result = guids.isEmpty() ? new TraitAssociationResult(guids,
+                    Collections.<String, String>emptyMap()) : metadataService.addTrait(guids, traitDefinition);
+
+            return Response.ok(getTraitAssociationResponse(trait.optString(AtlasClient.TYPENAME), result)).build();
+        } catch (TypeNotFoundException e) {
+            LOG.error("Unable to add trait to entities traitDef={}", traitDefinition, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.NOT_FOUND));
+        } catch (AtlasException | JSONException | IllegalArgumentException e) {
+            LOG.error("Unable to add trait to entities traitDef={}", traitDefinition, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
+        } catch (Throwable e) {
+            LOG.error("Unable to add trait to entities traitDef={}", traitDefinition, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Deletes a given trait from a number of existing entities: those listed in the guid parameters, or those
+     * returned by the DSL query parameter. The trait is deleted from a batch of entities per transaction, and the
+     * entities that don't exist or don't have the trait are reported with the reason of the failure rather than
+     * failing the request.
+     *
+     * @param guids     globally unique identifiers of the entities
+     * @param query     DSL query returning the entities
+     * @param traitName name of the trait
+     */
+    @DELETE
+    @Path("traits/{traitName}")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response deleteTraits(@QueryParam("guid") List<String> guids, @QueryParam(AtlasClient.QUERY) String query,
+                                 @PathParam(TRAIT_NAME) String traitName) {
+        AtlasPerfTracer perf = null;
+        try {
+            if(AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityResource.deleteTraits(" + traitName + ")");
+            }
+
+            List<String> entityGuids = getEntityGuids(guids != null && !guids.isEmpty() ? new JSONArray(guids) : null,
+                    query);
+            LOG.info("Deleting trait={} from {} entities", traitName, entityGuids.size());
+
+            TraitAssociationResult result = entityGuids.isEmpty() ? new TraitAssociationResult(entityGuids,
+                    Collections.<String, String>emptyMap()) : metadataService.deleteTrait(entityGuids, traitName);
+
+            return Response.ok(getTraitAssociationResponse(traitName, result)).build();
+        } catch (TypeNotFoundException e) {
+            LOG.error("Unable to delete trait name={} from entities", traitName, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.NOT_FOUND));
+        } catch (AtlasException | JSONException | IllegalArgumentException e) {
+            LOG.error("Unable to delete trait name={} from entities", traitName, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
+        } catch (Throwable e) {
+            LOG.error("Unable to delete trait name={} from entities", traitName, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * @return the guids listed, or those of the entities returned by the DSL query, read from the entity vertices
+     * in a single run of the query
+     */
+    private List<String> getEntityGuids(JSONArray guids, String dslQuery) throws JSONException, DiscoveryException {
+        Preconditions.checkArgument(guids == null ^ StringUtils.isBlank(dslQuery),
+                "Either guids or query should be specified");
+
+        if (guids == null) {
+            return discoveryService.searchGuidsByDSL(dslQuery, new QueryParams(Integer.MAX_VALUE, 0));
+        }
+
+        List<String> ret = new ArrayList<>();
+        for (int i = 0; i < guids.length(); i++) {
+            ret.add(ParamChecker.notEmpty(guids.getString(i), "entity id"));
+        }
+        return ret;
+    }
+
+    private JSONObject getTraitAssociationResponse(String traitName, TraitAssociationResult result)
+            throws JSONException {
+        JSONObject response = new JSONObject();
+        response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+        response.put(TRAIT_NAME, traitName);
+        response.put(UPDATED, new JSONArray(result.getUpdated()));
+        response.put(FAILED, new JSONObject(result.getFailed()));
+        response.put(NOTIFICATION_FAILED, new JSONObject(result.getNotificationFailed()));
+        return response;
+    }
+
     /**
      * Deletes a given trait from an existing entity represented by a guid.
      *
@@ -847,6 +1050,78 @@ public class EntityResource {
         }
     }
 
+    /**
+     * Returns the entities modified after a point in time, in the order they were modified, for clients that keep a
+     * copy of the catalog in sync. Each page comes with a cursor, from which the next page is read; once a page comes
+     * with hasMore false, the client is up to date and can poll again later with the same cursor. Entities modified
+     * again while the client reads the pages show up again further on; hard deleted entities don't show up.
+     *
+     * @param since modification time to start from, in milliseconds since the epoch, when no cursor is given
+     * @param cursor cursor returned with the previous page
+     * @param types names of the types of the entities to return, with their subtypes; all types by default
+     * @param limit maximum number of entities to return
+     */
+    @GET
+    @Path("changes")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response getEntityChanges(@QueryParam("since") @DefaultValue("0") long since,
+                                     @QueryParam("cursor") String cursor,
+                                     @QueryParam("types") List<String> types,
+                                     @QueryParam("limit") @DefaultValue("100") int limit) {
+        LOG.debug("Entity changes request since {}, cursor {}, types {}, limit {}", since, cursor, types, limit);
+        AtlasPerfTracer perf = null;
+        try {
+            if(AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityResource.getEntityChanges(" + since + ", " + cursor + ", " + types + ", " + limit + ")");
+            }
+
+            List<String> typeNames = new ArrayList<>();
+            if (types != null) {
+                for (String type : types) {
+                    for (String typeName : type.split(",")) {
+                        if (StringUtils.isNotBlank(typeName)) {
+                            typeNames.add(typeName.trim());
+                        }
+                    }
+                }
+            }
+
+            EntityChanges changes = metadataService.getEntityChanges(since, StringUtils.trimToNull(cursor),
+                    typeNames, Math.min(limit, MAX_CHANGES_LIMIT));
+
+            JSONArray results = new JSONArray();
+            for (EntityVersion change : changes.getChanges()) {
+                JSONObject result = new JSONObject();
+                result.put(GUID, change.getGuid());
+                result.put(AtlasClient.TYPENAME, change.getTypeName());
+                result.put(STATE, change.getState());
+                result.put(VERSION, change.getVersion());
+                result.put(MODIFICATION_TIMESTAMP, change.getModificationTimestamp());
+                results.put(result);
+            }
+
+            JSONObject response = new JSONObject();
+            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            response.put(AtlasClient.RESULTS, results);
+            response.put(AtlasClient.COUNT, results.length());
+            response.put(CURSOR, changes.getCursor());
+            response.put(HAS_MORE, changes.hasMore());
+            return Response.ok(response).build();
+        } catch (TypeNotFoundException e) {
+            LOG.error("Unable to get entity changes since {}, cursor {}", since, cursor, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            LOG.error("Unable to get entity changes since {}, cursor {}", since, cursor, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
+        } catch (Throwable e) {
+            // a failure to read the graph is not the client's fault
+            LOG.error("Unable to get entity changes since {}, cursor {}", since, cursor, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
     private <T> JSONArray getJSONArray(Collection<T> elements) throws JSONException {
         JSONArray jsonArray = new JSONArray();
         for(T element : elements) {
@@ -854,4 +1129,47 @@ public class EntityResource {
         }
         return jsonArray;
     }
+
+    /**
+     * Writes an entity definition in the form of {@link InstanceSerialization#toJson}, without rendering it to a
+     * string first.
+     */
+    private static class DefinitionStreamingOutput extends JsonStreamingOutput {
+
+        private final ITypedReferenceableInstance entity;
+
+        DefinitionStreamingOutput(ITypedReferenceableInstance entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        protected void write(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            generator.writeFieldName(AtlasClient.DEFINITION);
+            JsonHelper.write(InstanceSerialization.toJsonValue(entity, true), generator);
+            generator.writeEndObject();
+        }
+    }
+
+    private static class DefinitionsStreamingOutput extends JsonStreamingOutput {
+
+        private final List<ITypedReferenceableInstance> entities;
+
+        DefinitionsStreamingOutput(List<ITypedReferenceableInstance> entities) {
+            this.entities = entities;
+        }
+
+        @Override
+        protected void write(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+            generator.writeArrayFieldStart(AtlasClient.DEFINITIONS);
+            for (ITypedReferenceableInstance entity : entities) {
+                JsonHelper.write(InstanceSerialization.toJsonValue(entity, true), generator);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
 }
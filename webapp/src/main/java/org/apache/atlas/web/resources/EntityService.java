@@ -59,12 +59,10 @@ public class EntityService extends BaseService {
                 perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityService.getEntities()");
             }
 
-            String queryString = decode(getQueryString(ui));
-
-            BaseRequest request = new CollectionRequest(Collections.<String, Object>emptyMap(), queryString);
+            BaseRequest request = createCollectionRequest(Collections.<String, Object>emptyMap(), ui);
             Result result = getResources(entityResourceProvider, request);
 
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, request, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -85,7 +83,7 @@ public class EntityService extends BaseService {
             BaseRequest request = new InstanceRequest(Collections.<String, Object>singletonMap("id", entityId));
             Result result = getResource(entityResourceProvider, request);
 
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -109,7 +107,7 @@ public class EntityService extends BaseService {
             properties.put("name", tagName);
             Result result = getResource(entityTagResourceProvider, new InstanceRequest(properties));
 
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -127,11 +125,11 @@ public class EntityService extends BaseService {
                 perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityService.getEntityTags(" + entityGuid + ")");
             }
 
-            BaseRequest request = new CollectionRequest(Collections.<String, Object>singletonMap("id", entityGuid),
-                    decode(getQueryString(ui)));
+            BaseRequest request = createCollectionRequest(
+                    Collections.<String, Object>singletonMap("id", entityGuid), ui);
             Result result = getResources(entityTagResourceProvider, request);
 
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, request, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
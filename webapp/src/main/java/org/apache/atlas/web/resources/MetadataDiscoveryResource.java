@@ -22,15 +22,25 @@ import com.google.common.base.Preconditions;
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasProperties;
 import org.apache.atlas.classification.InterfaceAudience;
+import org.apache.atlas.discovery.DSLResultHandler;
 import org.apache.atlas.discovery.DiscoveryException;
 import org.apache.atlas.discovery.DiscoveryService;
+import org.apache.atlas.discovery.QueryExecutionManager;
+import org.apache.atlas.discovery.RunningQuery;
+import org.apache.atlas.query.GremlinQueryResult;
+import org.apache.atlas.query.JsonHelper;
 import org.apache.atlas.query.QueryParams;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.atlas.utils.ParamChecker;
+import org.apache.atlas.web.util.JsonStreamingOutput;
 import org.apache.atlas.web.util.Servlets;
+import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.server.HttpChannel;
+import org.json4s.JsonAST.JValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +54,11 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -61,6 +76,9 @@ public class MetadataDiscoveryResource {
     private static final String QUERY_TYPE_FULLTEXT = "full-text";
     private static final String LIMIT_OFFSET_DEFAULT = "-1";
 
+    // rows of a DSL result converted before its response is started
+    static final int FIRST_PAGE_SIZE = 100;
+
     private final DiscoveryService discoveryService;
 
     /**
@@ -97,10 +115,10 @@ public class MetadataDiscoveryResource {
         boolean dslQueryFailed = false;
         Response response = null;
         try {
-            response = searchUsingQueryDSL(query, limit, offset);
-            if (response.getStatus() != Response.Status.OK.getStatusCode()) {
-                dslQueryFailed = true;
-            }
+            // the DSL result is written to a buffer first, to fall back to full text if the query fails
+            ByteArrayOutputStream dslResult = new ByteArrayOutputStream();
+            ((StreamingOutput) searchUsingQueryDSL(query, limit, offset).getEntity()).write(dslResult);
+            response = Response.ok(dslResult.toByteArray()).build();
         } catch (Exception e) {
             LOG.debug("Error while running DSL. Switching to fulltext for query {}", query, e);
             dslQueryFailed = true;
@@ -132,26 +150,56 @@ public class MetadataDiscoveryResource {
     public Response searchUsingQueryDSL(@QueryParam("query") String dslQuery,
                                         @DefaultValue(LIMIT_OFFSET_DEFAULT) @QueryParam("limit") int limit,
                                         @DefaultValue(LIMIT_OFFSET_DEFAULT) @QueryParam("offset") int offset) {
+        try {
+            dslQuery = ParamChecker.notEmpty(dslQuery, "dslQuery cannot be null");
+            QueryParams queryParams = validateQueryParams(limit, offset);
+
+            return Response.ok(new DSLStreamingOutput(dslQuery, queryParams)).build();
+        } catch (IllegalArgumentException e) {
+            LOG.error("Unable to get entity list for dslQuery {}", dslQuery, e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
+        }
+    }
+
+    /**
+     * Explains how a DSL query is executed, to help rewrite slow queries.
+     *
+     * @param dslQuery search query in DSL format.
+     * @param limit number of rows to be returned in the result, as for search/dsl
+     * @param offset offset to the results returned, as for search/dsl
+     * @param profile when true, the query is run once per step to report element counts and timings
+     * @return JSON with the parsed expression, the generated gremlin, the index used to find the starting vertices,
+     * how each predicate is evaluated and, when profiling, the profile of each step.
+     */
+    @GET
+    @Path("search/dsl/explain")
+    @Consumes(Servlets.JSON_MEDIA_TYPE)
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response explainQueryDSL(@QueryParam("query") String dslQuery,
+                                    @DefaultValue(LIMIT_OFFSET_DEFAULT) @QueryParam("limit") int limit,
+                                    @DefaultValue(LIMIT_OFFSET_DEFAULT) @QueryParam("offset") int offset,
+                                    @DefaultValue("false") @QueryParam("profile") boolean profile) {
         AtlasPerfTracer perf = null;
         try {
             if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
-                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "MetadataDiscoveryResource.searchUsingQueryDSL(" + dslQuery + ", " + limit + ", " + offset + ")");
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "MetadataDiscoveryResource.explainQueryDSL(" + dslQuery + ", " + limit + ", " + offset + ", " + profile + ")");
             }
 
             dslQuery = ParamChecker.notEmpty(dslQuery, "dslQuery cannot be null");
             QueryParams queryParams = validateQueryParams(limit, offset);
-            final String jsonResultStr = discoveryService.searchByDSL(dslQuery, queryParams);
-
-            JSONObject response = new DSLJSONResponseBuilder().results(jsonResultStr).query(dslQuery).build();
+            QueryExecutionManager.setConnectionProbe(getConnectionProbe());
+            JSONObject response = new JSONObject(discoveryService.explainDSL(dslQuery, queryParams, profile));
+            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
 
             return Response.ok(response).build();
         } catch (DiscoveryException | IllegalArgumentException e) {
-            LOG.error("Unable to get entity list for dslQuery {}", dslQuery, e);
+            LOG.error("Unable to explain dslQuery {}", dslQuery, e);
             throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
         } catch (Throwable e) {
-            LOG.error("Unable to get entity list for dslQuery {}", dslQuery, e);
+            LOG.error("Unable to explain dslQuery {}", dslQuery, e);
             throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
         } finally {
+            QueryExecutionManager.clearConnectionProbe();
             AtlasPerfTracer.log(perf);
         }
     }
@@ -197,6 +245,7 @@ public class MetadataDiscoveryResource {
             }
 
             gremlinQuery = ParamChecker.notEmpty(gremlinQuery, "gremlinQuery cannot be null or empty");
+            QueryExecutionManager.setConnectionProbe(getConnectionProbe());
             final List<Map<String, String>> results = discoveryService.searchByGremlin(gremlinQuery);
 
             JSONObject response = new JSONObject();
@@ -219,10 +268,29 @@ public class MetadataDiscoveryResource {
             LOG.error("Unable to get entity list for gremlinQuery {}", gremlinQuery, e);
             throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
         } finally {
+            QueryExecutionManager.clearConnectionProbe();
             AtlasPerfTracer.log(perf);
         }
     }
 
+    /**
+     * Lets long running queries notice when the connection of the current request has been closed.
+     */
+    private static RunningQuery.ConnectionProbe getConnectionProbe() {
+        HttpChannel<?> channel = HttpChannel.getCurrentHttpChannel();
+        if (channel == null) {
+            return null;
+        }
+
+        final EndPoint endPoint = channel.getEndPoint();
+        return new RunningQuery.ConnectionProbe() {
+            @Override
+            public boolean isConnected() {
+                return endPoint.isOpen();
+            }
+        };
+    }
+
     /**
      * Search using full text search.
      *
@@ -302,35 +370,92 @@ public class MetadataDiscoveryResource {
         }
     }
 
-    private class DSLJSONResponseBuilder extends JsonResponseBuilder {
-
-        DSLJSONResponseBuilder() {
-            super();
-        }
-
-        private JSONObject dslResults;
+    /**
+     * Runs a DSL query when the response is written, and writes the rows of its result as they are converted from
+     * the graph. The query and the conversion of the first page of rows run before anything is written, so their
+     * failures are returned as error responses. A later row that can't be converted ends the results, and the
+     * failure is reported in the error field of the response, since its status has already been sent.
+     */
+    private class DSLStreamingOutput extends JsonStreamingOutput {
 
-        public DSLJSONResponseBuilder results(JSONObject dslResults) {
-            this.dslResults = dslResults;
-            return this;
-        }
+        private final String dslQuery;
+        private final QueryParams queryParams;
 
-        public DSLJSONResponseBuilder results(String dslResults) throws JSONException {
-            return results(new JSONObject(dslResults));
+        DSLStreamingOutput(String dslQuery, QueryParams queryParams) {
+            this.dslQuery = dslQuery;
+            this.queryParams = queryParams;
         }
 
         @Override
-        public JSONObject build() throws JSONException {
-            Preconditions.checkNotNull(dslResults);
-            JSONArray rowsJsonArr = dslResults.getJSONArray(AtlasClient.ROWS);
-            count(rowsJsonArr.length());
-            queryType(QUERY_TYPE_DSL);
-            JSONObject response = super.build();
-            response.put(AtlasClient.RESULTS, rowsJsonArr);
-            response.put(AtlasClient.DATATYPE, dslResults.get(AtlasClient.DATATYPE));
-            return response;
+        protected void write(final JsonGenerator generator) throws IOException {
+            AtlasPerfTracer perf = null;
+            try {
+                if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                    perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "MetadataDiscoveryResource.searchUsingQueryDSL(" + dslQuery + ", " + queryParams.limit() + ", " + queryParams.offset() + ")");
+                }
+
+                QueryExecutionManager.setConnectionProbe(getConnectionProbe());
+                discoveryService.searchByDSL(dslQuery, queryParams, new DSLResultHandler() {
+                    @Override
+                    public void handle(GremlinQueryResult result) throws IOException {
+                        Iterator<JValue> rows = JsonHelper.jsonRows(result);
+                        List<JValue> firstPage = new ArrayList<>();
+                        while (firstPage.size() < FIRST_PAGE_SIZE && rows.hasNext()) {
+                            firstPage.add(rows.next());
+                        }
+
+                        generator.writeStartObject();
+                        generator.writeStringField(AtlasClient.REQUEST_ID, Servlets.getRequestId());
+                        generator.writeStringField(AtlasClient.QUERY, dslQuery);
+                        generator.writeStringField(AtlasClient.QUERY_TYPE, QUERY_TYPE_DSL);
+                        generator.writeNumberField(AtlasClient.COUNT, result.rows().size());
+                        generator.writeFieldName(AtlasClient.DATATYPE);
+                        JsonHelper.writeDataType(result, generator);
+                        generator.writeFieldName(AtlasClient.RESULTS);
+                        generator.writeStartArray();
+                        for (JValue row : firstPage) {
+                            JsonHelper.write(row, generator);
+                        }
+                        writeRemainingRows(rows, generator);
+                        generator.writeEndObject();
+                    }
+                });
+            } catch (DiscoveryException | IllegalArgumentException e) {
+                LOG.error("Unable to get entity list for dslQuery {}", dslQuery, e);
+                throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
+            } catch (IOException e) {
+                throw e;
+            } catch (Throwable e) {
+                LOG.error("Unable to get entity list for dslQuery {}", dslQuery, e);
+                throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+            } finally {
+                QueryExecutionManager.clearConnectionProbe();
+                AtlasPerfTracer.log(perf);
+            }
         }
 
+        /**
+         * Writes the rows after the first page and ends the results. A row that can't be converted ends them early,
+         * and its failure is written to the error field.
+         */
+        private void writeRemainingRows(Iterator<JValue> rows, JsonGenerator generator) throws IOException {
+            RuntimeException failure = null;
+            try {
+                while (rows.hasNext()) {
+                    JsonHelper.write(rows.next(), generator);
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Unable to convert the results of dslQuery {}", dslQuery, e);
+                failure = e;
+            }
+            generator.writeEndArray();
+
+            if (failure != null) {
+                String message = failure.getMessage() == null ? "Failed with " + failure.getClass().getName()
+                        : failure.getMessage();
+                generator.writeStringField(AtlasClient.ERROR, message);
+            }
+        }
     }
 
     private class FullTextJSonResponseBuilder extends JsonResponseBuilder {
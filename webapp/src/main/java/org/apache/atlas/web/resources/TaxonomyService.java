@@ -70,7 +70,7 @@ public class TaxonomyService extends BaseService {
             Map<String, Object> properties = new HashMap<>();
             properties.put("name", taxonomyName);
             Result result = getResource(taxonomyResourceProvider, new InstanceRequest(properties));
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -85,10 +85,9 @@ public class TaxonomyService extends BaseService {
                 perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TaxonomyService.getTaxonomies()");
             }
 
-            String queryString = decode(getQueryString(ui));
-            Request request = new CollectionRequest(Collections.<String, Object>emptyMap(), queryString);
+            Request request = createCollectionRequest(Collections.<String, Object>emptyMap(), ui);
             Result result = getResources(taxonomyResourceProvider, request);
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, request, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -186,7 +185,7 @@ public class TaxonomyService extends BaseService {
             properties.put("termPath", termPath);
             Result result = getResource(termResourceProvider, new InstanceRequest(properties));
 
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -204,13 +203,12 @@ public class TaxonomyService extends BaseService {
                 perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TaxonomyService.getTaxonomyTerms(" + taxonomyName + ")");
             }
 
-            String queryString = decode(getQueryString(ui));
             TermPath termPath = new TermPath(taxonomyName, null);
-            Request request = new CollectionRequest(
-                    Collections.<String, Object>singletonMap("termPath", termPath), queryString);
+            Request request = createCollectionRequest(
+                    Collections.<String, Object>singletonMap("termPath", termPath), ui);
             Result result = getResources(termResourceProvider, request);
 
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, request, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -231,9 +229,9 @@ public class TaxonomyService extends BaseService {
             }
 
             Result result;
+            Request request;
             String termName = String.format("%s%s", rootTerm,
                     remainder.replaceAll("/?terms/?([.]*)", "$1."));
-            String queryString = decode(getQueryString(ui));
             TermPath termPath = new TermPath(taxonomyName, termName);
 
             Map<String, Object> properties = new HashMap<>();
@@ -243,12 +241,14 @@ public class TaxonomyService extends BaseService {
             int lastIndex = pathSegments.size() - 1;
             String lastSegment = pathSegments.get(lastIndex).getPath();
             if (lastSegment.equals("terms") || (lastSegment.isEmpty() && pathSegments.get(lastIndex - 1).getPath().equals("terms"))) {
-                result = getResources(termResourceProvider, new CollectionRequest(properties, queryString));
+                request = createCollectionRequest(properties, ui);
+                result = getResources(termResourceProvider, request);
             } else {
-                result = getResource(termResourceProvider, new InstanceRequest(properties));
+                request = new InstanceRequest(properties);
+                result = getResource(termResourceProvider, request);
             }
 
-            return Response.status(Response.Status.OK).entity(getSerializer().serialize(result, ui)).build();
+            return buildResponse(result, request, ui);
         } finally {
             AtlasPerfTracer.log(perf);
         }
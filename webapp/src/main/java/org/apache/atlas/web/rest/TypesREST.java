@@ -32,6 +32,7 @@ import org.apache.atlas.model.typedef.AtlasStructDef.AtlasStructDefs;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.store.AtlasTypeDefStore;
 import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.atlas.web.util.Servlets;
 import org.apache.http.annotation.Experimental;
 import org.slf4j.Logger;
@@ -58,6 +59,7 @@ import javax.ws.rs.core.Response;
 @Singleton
 public class TypesREST {
     private static final Logger LOG = LoggerFactory.getLogger(TypesREST.class);
+    private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("rest.TypesREST");
 
     private AtlasTypeDefStore typeDefStore;
 
@@ -76,27 +78,57 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEnumDef createEnumDef(AtlasEnumDef enumDef) throws AtlasBaseException {
-        AtlasEnumDef ret = typeDefStore.createEnumDef(enumDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.createEnumDef()");
+            }
+
+            AtlasEnumDef ret = typeDefStore.createEnumDef(enumDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/enumdef/name/{name}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEnumDef getEnumDefByName(@PathParam("name") String name) throws AtlasBaseException {
-        AtlasEnumDef ret = typeDefStore.getEnumDefByName(name);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getEnumDefByName(" + name + ")");
+            }
+
+            AtlasEnumDef ret = typeDefStore.getEnumDefByName(name);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/enumdef/guid/{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEnumDef getEnumDefByGuid(@PathParam("guid") String guid) throws AtlasBaseException {
-        AtlasEnumDef ret = typeDefStore.getEnumDefByGuid(guid);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getEnumDefByGuid(" + guid + ")");
+            }
+
+            AtlasEnumDef ret = typeDefStore.getEnumDefByGuid(guid);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @PUT
@@ -104,9 +136,19 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEnumDef updateEnumDefByName(@PathParam("name") String name, AtlasEnumDef enumDef) throws AtlasBaseException {
-        AtlasEnumDef ret = typeDefStore.updateEnumDefByName(name, enumDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateEnumDefByName(" + name + ")");
+            }
+
+            AtlasEnumDef ret = typeDefStore.updateEnumDefByName(name, enumDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @PUT
@@ -114,36 +156,76 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEnumDef updateEnumDefByGuid(@PathParam("guid") String guid, AtlasEnumDef enumDef) throws AtlasBaseException {
-        AtlasEnumDef ret = typeDefStore.updateEnumDefByGuid(guid, enumDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateEnumDefByGuid(" + guid + ")");
+            }
+
+            AtlasEnumDef ret = typeDefStore.updateEnumDefByGuid(guid, enumDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @DELETE
     @Path("/enumdef/name/{name}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public void deleteEnumDefByName(@PathParam("name") String name) throws AtlasBaseException {
-        typeDefStore.deleteEnumDefByName(name);
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteEnumDefByName(" + name + ")");
+            }
+
+            typeDefStore.deleteEnumDefByName(name);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @DELETE
     @Path("/enumdef/guid/{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public void deleteEnumDefByGuid(@PathParam("guid") String guid) throws AtlasBaseException {
-        typeDefStore.deleteEnumDefByGuid(guid);
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteEnumDefByGuid(" + guid + ")");
+            }
+
+            typeDefStore.deleteEnumDefByGuid(guid);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/enumdef")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEnumDefs searchEnumDefs() throws AtlasBaseException {
-        AtlasEnumDefs ret = null;
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.searchEnumDefs()");
+            }
 
-        SearchFilter filter = getSearchFilter();
+            AtlasEnumDefs ret = null;
 
-        ret = typeDefStore.searchEnumDefs(filter);
+            SearchFilter filter = getSearchFilter();
 
-        return ret;
+            ret = typeDefStore.searchEnumDefs(filter);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
 
@@ -154,27 +236,57 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasStructDef createStructDef(AtlasStructDef structDef) throws AtlasBaseException {
-        AtlasStructDef ret = typeDefStore.createStructDef(structDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.createStructDef()");
+            }
+
+            AtlasStructDef ret = typeDefStore.createStructDef(structDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/structdef/name/{name}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasStructDef getStructDefByName(@PathParam("name") String name) throws AtlasBaseException {
-        AtlasStructDef ret = typeDefStore.getStructDefByName(name);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getStructDefByName(" + name + ")");
+            }
+
+            AtlasStructDef ret = typeDefStore.getStructDefByName(name);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/structdef/guid/{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasStructDef getStructDefByGuid(@PathParam("guid") String guid) throws AtlasBaseException {
-        AtlasStructDef ret = typeDefStore.getStructDefByGuid(guid);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getStructDefByGuid(" + guid + ")");
+            }
+
+            AtlasStructDef ret = typeDefStore.getStructDefByGuid(guid);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @PUT
@@ -182,9 +294,19 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasStructDef updateStructDefByName(@PathParam("name") String name, AtlasStructDef structDef) throws AtlasBaseException {
-        AtlasStructDef ret = typeDefStore.updateStructDefByName(name, structDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateStructDefByName(" + name + ")");
+            }
+
+            AtlasStructDef ret = typeDefStore.updateStructDefByName(name, structDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @PUT
@@ -192,33 +314,73 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasStructDef updateStructDefByGuid(@PathParam("guid") String guid, AtlasStructDef structDef) throws AtlasBaseException {
-        AtlasStructDef ret = typeDefStore.updateStructDefByGuid(guid, structDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateStructDefByGuid(" + guid + ")");
+            }
+
+            AtlasStructDef ret = typeDefStore.updateStructDefByGuid(guid, structDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @DELETE
     @Path("/structdef/name/{name}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public void deleteStructDefByName(@PathParam("name") String name) throws AtlasBaseException {
-        typeDefStore.deleteStructDefByName(name);
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteStructDefByName(" + name + ")");
+            }
+
+            typeDefStore.deleteStructDefByName(name);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @DELETE
     @Path("/structdef/guid/{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public void deleteStructDefByGuid(@PathParam("guid") String guid) throws AtlasBaseException {
-        typeDefStore.deleteStructDefByGuid(guid);
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteStructDefByGuid(" + guid + ")");
+            }
+
+            typeDefStore.deleteStructDefByGuid(guid);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/structdef")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasStructDefs searchStructDefs() throws AtlasBaseException {
-        SearchFilter filter = getSearchFilter();
-        AtlasStructDefs ret = typeDefStore.searchStructDefs(filter);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.searchStructDefs()");
+            }
+
+            SearchFilter filter = getSearchFilter();
+            AtlasStructDefs ret = typeDefStore.searchStructDefs(filter);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     /******* ClassificationDef REST calls *******/
@@ -228,27 +390,57 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasClassificationDef createClassificationDef(AtlasClassificationDef classificationDef) throws AtlasBaseException {
-        AtlasClassificationDef ret = typeDefStore.createClassificationDef(classificationDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.createClassificationDef()");
+            }
+
+            AtlasClassificationDef ret = typeDefStore.createClassificationDef(classificationDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/classificationdef/name/{name}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasClassificationDef getClassificationDefByName(@PathParam("name") String name) throws AtlasBaseException {
-        AtlasClassificationDef ret = typeDefStore.getClassificationDefByName(name);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getClassificationDefByName(" + name + ")");
+            }
+
+            AtlasClassificationDef ret = typeDefStore.getClassificationDefByName(name);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/classificationdef/guid/{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasClassificationDef getClassificationDefByGuid(@PathParam("guid") String guid) throws AtlasBaseException {
-        AtlasClassificationDef ret = typeDefStore.getClassificationDefByGuid(guid);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getClassificationDefByGuid(" + guid + ")");
+            }
+
+            AtlasClassificationDef ret = typeDefStore.getClassificationDefByGuid(guid);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @PUT
@@ -256,9 +448,19 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasClassificationDef updateClassificationDefByName(@PathParam("name") String name, AtlasClassificationDef classificationDef) throws AtlasBaseException {
-        AtlasClassificationDef ret = typeDefStore.updateClassificationDefByName(name, classificationDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateClassificationDefByName(" + name + ")");
+            }
+
+            AtlasClassificationDef ret = typeDefStore.updateClassificationDefByName(name, classificationDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @PUT
@@ -266,23 +468,53 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasClassificationDef updateClassificationDefByGuid(@PathParam("guid") String guid, AtlasClassificationDef classificationDef) throws AtlasBaseException {
-        AtlasClassificationDef ret = typeDefStore.updateClassificationDefByGuid(guid, classificationDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateClassificationDefByGuid(" + guid + ")");
+            }
+
+            AtlasClassificationDef ret = typeDefStore.updateClassificationDefByGuid(guid, classificationDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @DELETE
     @Path("/classificationdef/name/{name}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public void deleteClassificationDefByName(@PathParam("name") String name) throws AtlasBaseException {
-        typeDefStore.deleteClassificationDefByName(name);
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteClassificationDefByName(" + name + ")");
+            }
+
+            typeDefStore.deleteClassificationDefByName(name);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @DELETE
     @Path("/classificationdef/guid/{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public void deleteClassificationDefByGuid(@PathParam("guid") String guid) throws AtlasBaseException {
-        typeDefStore.deleteClassificationDefByGuid(guid);
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteClassificationDefByGuid(" + guid + ")");
+            }
+
+            typeDefStore.deleteClassificationDefByGuid(guid);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
@@ -290,11 +522,21 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasClassificationDefs searchClassificationDefs() throws AtlasBaseException {
-        SearchFilter filter = getSearchFilter();
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.searchClassificationDefs()");
+            }
 
-        AtlasClassificationDefs ret = typeDefStore.searchClassificationDefs(filter);
+            SearchFilter filter = getSearchFilter();
 
-        return ret;
+            AtlasClassificationDefs ret = typeDefStore.searchClassificationDefs(filter);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     /******* EntityDef REST calls *******/
@@ -304,13 +546,23 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEntityDef createEntityDef(AtlasEntityDef entityDef) throws AtlasBaseException {
-        AtlasEntityDef ret = typeDefStore.createEntityDef(entityDef);
+        AtlasPerfTracer perf = null;
 
         try {
-            ret = typeDefStore.createEntityDef(entityDef);
-            return ret;
-        } catch (AtlasBaseException ex) {
-            throw new WebApplicationException(Servlets.getErrorResponse(ex, Response.Status.BAD_REQUEST));
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.createEntityDef()");
+            }
+
+            AtlasEntityDef ret = typeDefStore.createEntityDef(entityDef);
+
+            try {
+                ret = typeDefStore.createEntityDef(entityDef);
+                return ret;
+            } catch (AtlasBaseException ex) {
+                throw new WebApplicationException(Servlets.getErrorResponse(ex, Response.Status.BAD_REQUEST));
+            }
+        } finally {
+            AtlasPerfTracer.log(perf);
         }
     }
 
@@ -318,18 +570,38 @@ public class TypesREST {
     @Path("/entitydef/name/{name}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEntityDef getEntityDefByName(@PathParam("name") String name) throws AtlasBaseException {
-        AtlasEntityDef ret = typeDefStore.getEntityDefByName(name);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getEntityDefByName(" + name + ")");
+            }
+
+            AtlasEntityDef ret = typeDefStore.getEntityDefByName(name);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/entitydef/guid/{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEntityDef getEntityDefByGuid(@PathParam("guid") String guid) throws AtlasBaseException {
-        AtlasEntityDef ret = typeDefStore.getEntityDefByGuid(guid);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getEntityDefByGuid(" + guid + ")");
+            }
+
+            AtlasEntityDef ret = typeDefStore.getEntityDefByGuid(guid);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @PUT
@@ -338,11 +610,21 @@ public class TypesREST {
     @Produces(Servlets.JSON_MEDIA_TYPE)
     @Experimental
     public AtlasEntityDef updateEntityDefByName(@PathParam("name") String name, AtlasEntityDef entityDef) throws Exception {
-        AtlasEntityDef ret = null;
+        AtlasPerfTracer perf = null;
 
-        ret = typeDefStore.updateEntityDefByName(name, entityDef);
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateEntityDefByName(" + name + ")");
+            }
 
-        return ret;
+            AtlasEntityDef ret = null;
+
+            ret = typeDefStore.updateEntityDefByName(name, entityDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @PUT
@@ -351,11 +633,21 @@ public class TypesREST {
     @Produces(Servlets.JSON_MEDIA_TYPE)
     @Experimental
     public AtlasEntityDef updateEntityDefByGuid(@PathParam("guid") String guid, AtlasEntityDef entityDef) throws Exception {
-        AtlasEntityDef ret = null;
+        AtlasPerfTracer perf = null;
 
-        ret = typeDefStore.updateEntityDefByGuid(guid, entityDef);
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateEntityDefByGuid(" + guid + ")");
+            }
 
-        return ret;
+            AtlasEntityDef ret = null;
+
+            ret = typeDefStore.updateEntityDefByGuid(guid, entityDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @DELETE
@@ -363,7 +655,17 @@ public class TypesREST {
     @Produces(Servlets.JSON_MEDIA_TYPE)
     @Experimental
     public void deleteEntityDef(@PathParam("name") String name) throws Exception {
-        typeDefStore.deleteEntityDefByName(name);
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteEntityDef(" + name + ")");
+            }
+
+            typeDefStore.deleteEntityDefByName(name);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @DELETE
@@ -371,17 +673,37 @@ public class TypesREST {
     @Produces(Servlets.JSON_MEDIA_TYPE)
     @Experimental
     public void deleteEntityDefByGuid(@PathParam("guid") String guid) throws Exception {
-        typeDefStore.deleteEntityDefByGuid(guid);
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteEntityDefByGuid(" + guid + ")");
+            }
+
+            typeDefStore.deleteEntityDefByGuid(guid);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     @GET
     @Path("/entitydef")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasEntityDefs searchEntityDefs() throws AtlasBaseException {
-        SearchFilter filter = getSearchFilter();
-        AtlasEntityDefs ret = typeDefStore.searchEntityDefs(filter);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.searchEntityDefs()");
+            }
+
+            SearchFilter filter = getSearchFilter();
+            AtlasEntityDefs ret = typeDefStore.searchEntityDefs(filter);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     /******************************************************************/
@@ -398,11 +720,21 @@ public class TypesREST {
     @Path("/typedefs")
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasTypesDef getAllTypeDefs() throws AtlasBaseException {
-        SearchFilter searchFilter = getSearchFilter();
+        AtlasPerfTracer perf = null;
 
-        AtlasTypesDef typesDef = typeDefStore.searchTypesDef(searchFilter);
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.getAllTypeDefs()");
+            }
+
+            SearchFilter searchFilter = getSearchFilter();
+
+            AtlasTypesDef typesDef = typeDefStore.searchTypesDef(searchFilter);
 
-        return typesDef;
+            return typesDef;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     /**
@@ -418,9 +750,19 @@ public class TypesREST {
     @Consumes(Servlets.JSON_MEDIA_TYPE)
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public AtlasTypesDef createAtlasTypeDefs(final AtlasTypesDef typesDef) throws AtlasBaseException {
-        AtlasTypesDef ret = typeDefStore.createTypesDef(typesDef);
+        AtlasPerfTracer perf = null;
 
-        return ret;
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.createAtlasTypeDefs()");
+            }
+
+            AtlasTypesDef ret = typeDefStore.createTypesDef(typesDef);
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     /**
@@ -435,15 +777,25 @@ public class TypesREST {
     @Produces(Servlets.JSON_MEDIA_TYPE)
     @Experimental
     public AtlasTypesDef updateAtlasTypeDefs(final AtlasTypesDef typesDef) throws Exception {
-        AtlasTypesDef ret = null;
+        AtlasPerfTracer perf = null;
 
         try {
-            ret = typeDefStore.updateTypesDef(typesDef);
-        } catch (AtlasBaseException ex) {
-            throw new WebApplicationException(Servlets.getErrorResponse(ex, Response.Status.NOT_MODIFIED));
-        }
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.updateAtlasTypeDefs()");
+            }
 
-        return ret;
+            AtlasTypesDef ret = null;
+
+            try {
+                ret = typeDefStore.updateTypesDef(typesDef);
+            } catch (AtlasBaseException ex) {
+                throw new WebApplicationException(Servlets.getErrorResponse(ex, Response.Status.NOT_MODIFIED));
+            }
+
+            return ret;
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
     }
 
     /**
@@ -457,10 +809,20 @@ public class TypesREST {
     @Produces(Servlets.JSON_MEDIA_TYPE)
     @Experimental
     public void deleteAtlasTypeDefs(final AtlasTypesDef typesDef) {
+        AtlasPerfTracer perf = null;
+
         try {
-            typeDefStore.deleteTypesDef(typesDef);
-        } catch (AtlasBaseException ex) {
-            throw new WebApplicationException(Servlets.getErrorResponse(ex, Response.Status.NOT_MODIFIED));
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "TypesREST.deleteAtlasTypeDefs()");
+            }
+
+            try {
+                typeDefStore.deleteTypesDef(typesDef);
+            } catch (AtlasBaseException ex) {
+                throw new WebApplicationException(Servlets.getErrorResponse(ex, Response.Status.NOT_MODIFIED));
+            }
+        } finally {
+            AtlasPerfTracer.log(perf);
         }
     }
 
@@ -49,19 +49,35 @@ public class AtlasADAuthenticationProvider extends
     private String adReferral;
     private String adDefaultRole;
     private boolean groupsFromUGI;
+    private AtlasAuthenticationCache authenticationCache;
 
     @PostConstruct
     public void setup() {
         setADProperties();
+        if (authenticationCache == null) {
+            authenticationCache = AtlasAuthenticationCache.create(null, "ad");
+        }
     }
 
     @Override
     public Authentication authenticate(Authentication authentication)
             throws AuthenticationException {
+        Authentication cachedAuthentication = authenticationCache.get(authentication);
+        if (cachedAuthentication != null) {
+            return cachedAuthentication;
+        }
+
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
-            return getADBindAuthentication(authentication);
+            Authentication result = getADBindAuthentication(authentication);
+            authenticationCache.put(authentication, result);
+            success = true;
+            return result;
         } catch (Exception e) {
             throw new AtlasAuthenticationException(e.getMessage(), e.getCause());
+        } finally {
+            authenticationCache.recordDirectoryRequest(System.nanoTime() - startTime, success);
         }
     }
 
@@ -114,6 +130,7 @@ public class AtlasADAuthenticationProvider extends
             this.adReferral = configuration.getString("atlas.authentication.method.ldap.ad.referral");
             this.adDefaultRole = configuration.getString("atlas.authentication.method.ldap.ad.default.role");
             this.groupsFromUGI = configuration.getBoolean("atlas.authentication.method.ldap.ugi-groups", true);
+            this.authenticationCache = AtlasAuthenticationCache.create(configuration, "ad");
 
         } catch (Exception e) {
             LOG.error("Exception while setADProperties", e);
@@ -0,0 +1,278 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.web.security;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of successful directory (LDAP/AD) authentications and the granted authorities of the user.
+ * Entries are keyed by user name and a salted hash of the credential, so a cached entry is only used when the
+ * same credential is presented again. The salt is generated per process and the credential itself is not stored.
+ * Directory latency and cache hit/miss counts are exposed via JMX.
+ */
+public class AtlasAuthenticationCache implements AtlasAuthenticationCacheMBean {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasAuthenticationCache.class);
+
+    public static final String CACHE_ENABLED = "atlas.authentication.method.ldap.cache.enabled";
+    public static final String CACHE_TTL_SECONDS = "atlas.authentication.method.ldap.cache.ttl.seconds";
+    public static final String CACHE_MAX_SIZE = "atlas.authentication.method.ldap.cache.max.size";
+
+    public static final boolean DEFAULT_CACHE_ENABLED = true;
+    public static final long DEFAULT_CACHE_TTL_SECONDS = 300;
+    public static final long DEFAULT_CACHE_MAX_SIZE = 1000;
+
+    private static final int SALT_LENGTH = 16;
+
+    private final Cache<CacheKey, CacheEntry> cache;
+    private final byte[] salt = new byte[SALT_LENGTH];
+    private final AtomicLong directoryRequests = new AtomicLong();
+    private final AtomicLong directoryFailures = new AtomicLong();
+    private final AtomicLong directoryLatencyNanos = new AtomicLong();
+    private final AtomicLong maxDirectoryLatencyNanos = new AtomicLong();
+
+    public AtlasAuthenticationCache(boolean enabled, long ttlSeconds, long maxSize) {
+        if (enabled && ttlSeconds > 0 && maxSize > 0) {
+            cache = CacheBuilder.newBuilder().expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                    .maximumSize(maxSize).recordStats().build();
+            new SecureRandom().nextBytes(salt);
+        } else {
+            cache = null;
+        }
+    }
+
+    public static AtlasAuthenticationCache create(Configuration configuration, String name) {
+        AtlasAuthenticationCache ret;
+
+        if (configuration == null) {
+            ret = new AtlasAuthenticationCache(DEFAULT_CACHE_ENABLED, DEFAULT_CACHE_TTL_SECONDS, DEFAULT_CACHE_MAX_SIZE);
+        } else {
+            ret = new AtlasAuthenticationCache(configuration.getBoolean(CACHE_ENABLED, DEFAULT_CACHE_ENABLED),
+                    configuration.getLong(CACHE_TTL_SECONDS, DEFAULT_CACHE_TTL_SECONDS),
+                    configuration.getLong(CACHE_MAX_SIZE, DEFAULT_CACHE_MAX_SIZE));
+        }
+
+        ret.register(name);
+
+        return ret;
+    }
+
+    /**
+     * Get a new authenticated token for a previously successful authentication with the same credential.
+     *
+     * @param authentication  authentication request
+     * @return authenticated token or null if there is no valid cache entry
+     */
+    public Authentication get(Authentication authentication) {
+        if (cache == null || authentication.getName() == null || authentication.getCredentials() == null) {
+            return null;
+        }
+
+        CacheEntry entry = cache.getIfPresent(createKey(authentication));
+
+        if (entry == null) {
+            return null;
+        }
+
+        // a new token per request, the caller may set details or erase credentials on it
+        UsernamePasswordAuthenticationToken ret = new UsernamePasswordAuthenticationToken(entry.principal,
+                authentication.getCredentials(), entry.authorities);
+        ret.setDetails(authentication.getDetails());
+
+        return ret;
+    }
+
+    /**
+     * Cache the result of a successful authentication.
+     *
+     * @param authentication  authentication request
+     * @param result          authenticated token returned by the directory
+     */
+    public void put(Authentication authentication, Authentication result) {
+        if (cache != null && result != null && result.isAuthenticated()
+                && authentication.getName() != null && authentication.getCredentials() != null) {
+            cache.put(createKey(authentication),
+                    new CacheEntry(result.getPrincipal(), new ArrayList<GrantedAuthority>(result.getAuthorities())));
+        }
+    }
+
+    public void recordDirectoryRequest(long elapsedNanos, boolean success) {
+        directoryRequests.incrementAndGet();
+        directoryLatencyNanos.addAndGet(elapsedNanos);
+
+        if (!success) {
+            directoryFailures.incrementAndGet();
+        }
+
+        long max = maxDirectoryLatencyNanos.get();
+
+        while (elapsedNanos > max && !maxDirectoryLatencyNanos.compareAndSet(max, elapsedNanos)) {
+            max = maxDirectoryLatencyNanos.get();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    @Override
+    public long getSize() {
+        return cache != null ? cache.size() : 0;
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache != null ? cache.stats().hitCount() : 0;
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache != null ? cache.stats().missCount() : 0;
+    }
+
+    @Override
+    public long getDirectoryRequestCount() {
+        return directoryRequests.get();
+    }
+
+    @Override
+    public long getDirectoryFailureCount() {
+        return directoryFailures.get();
+    }
+
+    @Override
+    public double getAverageDirectoryLatencyMillis() {
+        long count = directoryRequests.get();
+
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(directoryLatencyNanos.get()) / 1000.0 / count;
+    }
+
+    @Override
+    public long getMaxDirectoryLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDirectoryLatencyNanos.get());
+    }
+
+    @Override
+    public void invalidate(String userName) {
+        if (cache != null && userName != null) {
+            for (Iterator<CacheKey> iter = cache.asMap().keySet().iterator(); iter.hasNext(); ) {
+                if (userName.equals(iter.next().userName)) {
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private void register(String name) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("org.apache.atlas:type=AuthenticationCache,name=" + name);
+
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+
+            mBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            LOG.warn("Failed to register JMX bean for authentication cache {}", name, e);
+        }
+    }
+
+    private CacheKey createKey(Authentication authentication) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            digest.update(salt);
+            digest.update(authentication.getCredentials().toString().getBytes(StandardCharsets.UTF_8));
+
+            return new CacheKey(authentication.getName(), digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class CacheKey {
+        private final String userName;
+        private final byte[] credentialHash;
+
+        CacheKey(String userName, byte[] credentialHash) {
+            this.userName = userName;
+            this.credentialHash = credentialHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+
+            CacheKey that = (CacheKey) o;
+
+            return userName.equals(that.userName) && MessageDigest.isEqual(credentialHash, that.credentialHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * userName.hashCode() + Arrays.hashCode(credentialHash);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Object principal;
+        private final Collection<? extends GrantedAuthority> authorities;
+
+        CacheEntry(Object principal, Collection<? extends GrantedAuthority> authorities) {
+            this.principal = principal;
+            this.authorities = authorities;
+        }
+    }
+}
@@ -55,19 +55,35 @@ public class AtlasLdapAuthenticationProvider extends
     private String ldapReferral;
     private String ldapBase;
     private boolean groupsFromUGI;
+    private AtlasAuthenticationCache authenticationCache;
 
     @PostConstruct
     public void setup() {
         setLdapProperties();
+        if (authenticationCache == null) {
+            authenticationCache = AtlasAuthenticationCache.create(null, "ldap");
+        }
     }
 
     @Override
     public Authentication authenticate(Authentication authentication)
             throws AuthenticationException {
+        Authentication cachedAuthentication = authenticationCache.get(authentication);
+        if (cachedAuthentication != null) {
+            return cachedAuthentication;
+        }
+
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
-            return getLdapBindAuthentication(authentication);
+            Authentication result = getLdapBindAuthentication(authentication);
+            authenticationCache.put(authentication, result);
+            success = true;
+            return result;
         } catch (Exception e) {
             throw new AtlasAuthenticationException(e.getMessage(), e.getCause());
+        } finally {
+            authenticationCache.recordDirectoryRequest(System.nanoTime() - startTime, success);
         }
     }
 
@@ -146,6 +162,7 @@ public class AtlasLdapAuthenticationProvider extends
             ldapReferral = configuration.getString("atlas.authentication.method.ldap.ad.referral");
             ldapBase = configuration.getString("atlas.authentication.method.ldap.base.dn");
             groupsFromUGI = configuration.getBoolean("atlas.authentication.method.ldap.ugi-groups", true);
+            authenticationCache = AtlasAuthenticationCache.create(configuration, "ldap");
 
         } catch (Exception e) {
             LOG.error("Exception while setLdapProperties", e);
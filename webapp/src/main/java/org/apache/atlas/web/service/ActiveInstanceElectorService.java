@@ -18,6 +18,7 @@
 
 package org.apache.atlas.web.service;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -26,6 +27,7 @@ import org.apache.atlas.AtlasException;
 import org.apache.atlas.ha.AtlasServerIdSelector;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.WarmStandbyHandler;
 import org.apache.atlas.service.Service;
 import org.apache.commons.configuration.Configuration;
 import org.apache.curator.framework.recipes.leader.LeaderLatch;
@@ -36,6 +38,9 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A service that implements leader election to determine whether this Atlas server is Active.
@@ -46,6 +51,9 @@ import java.util.Collection;
  * active Atlas instance and calls {@link ActiveStateChangeHandler}s to activate them. Conversely,
  * on being removed from leadership, this instance is treated as a passive instance and calls
  * {@link ActiveStateChangeHandler}s to deactivate them.
+ *
+ * While this instance is passive, handlers that also implement {@link WarmStandbyHandler} are
+ * periodically called to keep their state warm, so that a failover only needs to flip state.
  */
 @Singleton
 public class ActiveInstanceElectorService implements Service, LeaderLatchListener {
@@ -60,6 +68,7 @@ public class ActiveInstanceElectorService implements Service, LeaderLatchListene
     private CuratorFactory curatorFactory;
     private LeaderLatch leaderLatch;
     private String serverId;
+    private ScheduledExecutorService warmStandbyExecutor;
 
     /**
      * Create a new instance of {@link ActiveInstanceElectorService}
@@ -103,9 +112,48 @@ public class ActiveInstanceElectorService implements Service, LeaderLatchListene
         }
         cacheActiveStateChangeHandlers();
         serverId = AtlasServerIdSelector.selectServerId(configuration);
+        startWarmStandby();
         joinElection();
     }
 
+    private void startWarmStandby() {
+        if (!HAConfiguration.isWarmStandbyEnabled(configuration)) {
+            LOG.info("Warm standby is not enabled, state will be initialized only on becoming active");
+            return;
+        }
+        long interval = configuration.getLong(HAConfiguration.ATLAS_SERVER_HA_WARM_STANDBY_INTERVAL_MS,
+                HAConfiguration.DEFAULT_WARM_STANDBY_INTERVAL_MILLIS);
+        LOG.info("Starting warm standby for {} with refresh interval {} ms", serverId, interval);
+        warmStandbyExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("atlas-warm-standby-%d").setDaemon(true).build());
+        warmStandbyExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                warmUpHandlers();
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Call all registered {@link WarmStandbyHandler}s while this instance is passive.
+     *
+     * Errors are only logged, since the handlers will be initialized again on becoming active.
+     */
+    void warmUpHandlers() {
+        for (ActiveStateChangeHandler handler : activeStateChangeHandlers) {
+            if (serviceState.getState() != ServiceState.ServiceStateValue.PASSIVE) {
+                return;
+            }
+            if (handler instanceof WarmStandbyHandler) {
+                try {
+                    ((WarmStandbyHandler) handler).instanceIsStandby();
+                } catch (Exception e) {
+                    LOG.warn("Error while refreshing warm standby state of {}", handler.getClass().getSimpleName(), e);
+                }
+            }
+        }
+    }
+
     private void joinElection() {
         LOG.info("Starting leader election for {}", serverId);
         String zkRoot = HAConfiguration.getZookeeperProperties(configuration).getZkRoot();
@@ -131,6 +179,9 @@ public class ActiveInstanceElectorService implements Service, LeaderLatchListene
             LOG.info("HA is not enabled, no need to stop leader election service");
             return;
         }
+        if (warmStandbyExecutor != null) {
+            warmStandbyExecutor.shutdownNow();
+        }
         try {
             leaderLatch.close();
             curatorFactory.close();
@@ -19,17 +19,22 @@
 package org.apache.atlas.web.service;
 
 import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.web.filters.GzipFilter;
 import org.apache.commons.configuration.Configuration;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.DispatcherType;
 import java.io.IOException;
+import java.util.EnumSet;
 
 /**
  * This class embeds a Jetty server and a connector.
@@ -38,8 +43,12 @@ public class EmbeddedServer {
     public static final Logger LOG = LoggerFactory.getLogger(EmbeddedServer.class);
 
     private static final int DEFAULT_BUFFER_SIZE = 16192;
+    private static final int DEFAULT_MIN_THREADS = 10;
+    public static final String MAX_THREADS = "atlas.webserver.maxThreads";
+    public static final int DEFAULT_MAX_THREADS = 200;
+    private static final int DEFAULT_GZIP_MIN_SIZE = 2048;
 
-    protected final Server server = new Server();
+    protected final Server server = new Server(getThreadPool());
 
     public EmbeddedServer(int port, String path) throws IOException {
         Connector connector = getConnector(port);
@@ -52,9 +61,31 @@ public class EmbeddedServer {
     protected WebAppContext getWebAppContext(String path) {
         WebAppContext application = new WebAppContext(path, "/");
         application.setClassLoader(Thread.currentThread().getContextClassLoader());
+        addGzipFilter(application);
         return application;
     }
 
+    /**
+     * Compresses responses of at least atlas.webserver.gzip.minSize bytes for clients that accept gzip, unless
+     * atlas.webserver.gzip.enabled is false.
+     */
+    protected void addGzipFilter(WebAppContext application) {
+        boolean enabled = true;
+        int minSize = DEFAULT_GZIP_MIN_SIZE;
+        try {
+            Configuration configuration = ApplicationProperties.get();
+            enabled = configuration.getBoolean("atlas.webserver.gzip.enabled", true);
+            minSize = configuration.getInt("atlas.webserver.gzip.minSize", DEFAULT_GZIP_MIN_SIZE);
+        } catch (Exception e) {
+            // do nothing
+        }
+
+        if (enabled) {
+            application.addFilter(new FilterHolder(new GzipFilter(minSize)), "/*",
+                    EnumSet.of(DispatcherType.REQUEST));
+        }
+    }
+
     public static EmbeddedServer newServer(int port, String path, boolean secure) throws IOException {
         if (secure) {
             return new SecureEmbeddedServer(port, path);
@@ -89,6 +120,24 @@ public class EmbeddedServer {
         return DEFAULT_BUFFER_SIZE;
     }
 
+    /**
+     * The threads that serve requests; the bulkheads of the endpoint groups are carved out of these, so the sum of
+     * their limits, queued requests included, should stay below the maximum.
+     */
+    protected static QueuedThreadPool getThreadPool() {
+        int minThreads = DEFAULT_MIN_THREADS;
+        int maxThreads = DEFAULT_MAX_THREADS;
+        try {
+            Configuration configuration = ApplicationProperties.get();
+            minThreads = configuration.getInt("atlas.webserver.minThreads", DEFAULT_MIN_THREADS);
+            maxThreads = configuration.getInt(MAX_THREADS, DEFAULT_MAX_THREADS);
+        } catch (Exception e) {
+            // do nothing
+        }
+
+        return new QueuedThreadPool(maxThreads, Math.min(minThreads, maxThreads));
+    }
+
     public void start() throws Exception {
         server.start();
         server.join();
@@ -47,6 +47,8 @@ public class ServiceState {
 
     private Configuration configuration;
     private volatile ServiceStateValue state;
+    private volatile long becomingActiveTime = 0;
+    private volatile long lastActivationTime = -1;
 
     public ServiceState() throws AtlasException {
         this(ApplicationProperties.get());
@@ -65,6 +67,7 @@ public class ServiceState {
     public void becomingActive() {
         LOG.warn("Instance becoming active from {}", state);
         setState(ServiceStateValue.BECOMING_ACTIVE);
+        becomingActiveTime = System.currentTimeMillis();
     }
 
     private void setState(ServiceStateValue newState) {
@@ -74,7 +77,12 @@ public class ServiceState {
     }
 
     public void setActive() {
-        LOG.warn("Instance is active from {}", state);
+        if (state == ServiceStateValue.BECOMING_ACTIVE) {
+            lastActivationTime = System.currentTimeMillis() - becomingActiveTime;
+            LOG.warn("Instance is active from {} after {} ms", state, lastActivationTime);
+        } else {
+            LOG.warn("Instance is active from {}", state);
+        }
         setState(ServiceStateValue.ACTIVE);
     }
 
@@ -88,6 +96,14 @@ public class ServiceState {
         setState(ServiceStateValue.PASSIVE);
     }
 
+    /**
+     * Return the time taken by the last transition of this instance from passive to active.
+     * @return time in milliseconds, or -1 if this instance has not been activated yet
+     */
+    public long getLastActivationTime() {
+        return lastActivationTime;
+    }
+
     public boolean isInstanceInTransition() {
         ServiceStateValue state = getState();
         return state == ServiceStateValue.BECOMING_ACTIVE
@@ -32,6 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
@@ -53,6 +54,8 @@ public final class Servlets {
 
     public static final String JSON_MEDIA_TYPE = MediaType.APPLICATION_JSON + "; charset=UTF-8";
 
+    private static final String WEAK_TAG_PREFIX = "W/";
+
     /**
      * Returns the user of the given request.
      *
@@ -171,6 +174,44 @@ public final class Servlets {
         return writer.toString();
     }
 
+    /**
+     * Returns true if the client already has the current representation of the requested resource, according to the
+     * If-None-Match header of the request or, without one, its If-Modified-Since header.
+     *
+     * @param request request with the conditions
+     * @param entityTag the current entity tag of the resource, quoted, weak or strong
+     * @param lastModified the time the resource was last modified, in milliseconds
+     */
+    public static boolean isNotModified(HttpServletRequest request, String entityTag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String opaqueTag = StringUtils.removeStart(entityTag, WEAK_TAG_PREFIX);
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = StringUtils.removeStart(tag.trim(), WEAK_TAG_PREFIX);
+                if (tag.equals("*") || tag.equals(opaqueTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // HTTP dates have a precision of one second
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * @return a weak entity tag made of the given value
+     */
+    public static String getWeakEntityTag(String value) {
+        return WEAK_TAG_PREFIX + '"' + value + '"';
+    }
+
     public static String getRequestId() {
         return Thread.currentThread().getName();
     }
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.filters;
+
+import org.apache.atlas.web.service.EmbeddedServer;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.HttpMethod;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class BulkheadFilterTest {
+
+    @Test
+    public void testRequestsAreGrouped() {
+        assertNull(BulkheadFilter.getGroup(request(HttpMethod.GET, "/api/atlas/admin/status")));
+        assertEquals(BulkheadFilter.getGroup(request(HttpMethod.GET, "/api/atlas/admin/metrics")),
+                BulkheadFilter.Group.ADMIN);
+        assertEquals(BulkheadFilter.getGroup(request(HttpMethod.GET, "/api/atlas/lineage/1234/inputs/graph")),
+                BulkheadFilter.Group.LINEAGE);
+        assertEquals(BulkheadFilter.getGroup(request(HttpMethod.GET, "/api/atlas/discovery/search/dsl")),
+                BulkheadFilter.Group.SEARCH);
+        assertEquals(BulkheadFilter.getGroup(request(HttpMethod.POST, "/api/atlas/entities")),
+                BulkheadFilter.Group.WRITE);
+        assertEquals(BulkheadFilter.getGroup(request(HttpMethod.DELETE, "/api/atlas/v2/types/typedefs")),
+                BulkheadFilter.Group.WRITE);
+        assertNull(BulkheadFilter.getGroup(request(HttpMethod.GET, "/api/atlas/entities/1234")));
+        assertNull(BulkheadFilter.getGroup(request(HttpMethod.GET, "/index.html")));
+    }
+
+    @Test
+    public void testRequestsOverTheLimitAreRejected() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.setProperty(BulkheadFilter.CONF_PREFIX + "lineage.maxConcurrent", 1);
+        configuration.setProperty(BulkheadFilter.CONF_PREFIX + "lineage.maxQueued", 0);
+        final BulkheadFilter filter = new BulkheadFilter(configuration);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final FilterChain slowChain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                started.countDown();
+                finish.await();
+                return null;
+            }
+        }).when(slowChain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        Thread slowRequest = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    filter.doFilter(request(HttpMethod.GET, "/api/atlas/lineage/1/inputs/graph"),
+                            mock(HttpServletResponse.class), slowChain);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        slowRequest.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // the lineage group is full, other groups are not affected
+        FilterChain chain = mock(FilterChain.class);
+        HttpServletResponse rejected = mock(HttpServletResponse.class);
+        HttpServletRequest lineageRequest = request(HttpMethod.GET, "/api/atlas/lineage/2/inputs/graph");
+        filter.doFilter(lineageRequest, rejected, chain);
+        verify(chain, never()).doFilter(lineageRequest, rejected);
+        verify(rejected).setHeader(eq(BulkheadFilter.RETRY_AFTER), anyString());
+        verify(rejected).sendError(eq(BulkheadFilter.SC_TOO_MANY_REQUESTS), anyString());
+
+        HttpServletResponse admitted = mock(HttpServletResponse.class);
+        HttpServletRequest adminRequest = request(HttpMethod.GET, "/api/atlas/admin/metrics");
+        filter.doFilter(adminRequest, admitted, chain);
+        verify(chain).doFilter(adminRequest, admitted);
+
+        finish.countDown();
+        slowRequest.join();
+
+        Bulkhead lineage = filter.getBulkhead(BulkheadFilter.Group.LINEAGE);
+        assertEquals(lineage.getActiveRequests(), 0);
+        assertEquals(lineage.getAdmittedRequests(), 1);
+        assertEquals(lineage.getRejectedRequests(), 1);
+    }
+
+    @Test
+    public void testDefaultLimitsLeaveThreadsForOtherRequests() {
+        BulkheadFilter filter = new BulkheadFilter(new PropertiesConfiguration());
+
+        assertTrue(filter.getMaxThreads() < EmbeddedServer.DEFAULT_MAX_THREADS);
+    }
+
+    @Test
+    public void testQueuedRequestsTimeOut() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 10);
+
+        assertEquals(bulkhead.acquire(), Bulkhead.Admission.ADMITTED);
+        assertEquals(bulkhead.acquire(), Bulkhead.Admission.TIMED_OUT);
+        assertEquals(bulkhead.getTimedOutRequests(), 1);
+        assertEquals(bulkhead.getQueuedRequests(), 0);
+
+        bulkhead.release(TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(bulkhead.acquire(), Bulkhead.Admission.ADMITTED);
+        assertEquals(bulkhead.getMaxLatencyMs(), 5);
+    }
+
+    @Test
+    public void testDisabledFilterPassesAllRequests() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.setProperty(BulkheadFilter.ENABLED, false);
+        BulkheadFilter filter = new BulkheadFilter(configuration);
+
+        assertNull(filter.getBulkhead(BulkheadFilter.Group.SEARCH));
+
+        FilterChain chain = mock(FilterChain.class);
+        HttpServletRequest request = request(HttpMethod.GET, "/api/atlas/discovery/search/dsl");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        filter.doFilter(request, response, chain);
+        verify(chain).doFilter(request, response);
+    }
+
+    private static HttpServletRequest request(String method, String uri) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getContextPath()).thenReturn("");
+        return request;
+    }
+}
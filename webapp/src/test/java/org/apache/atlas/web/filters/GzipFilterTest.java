@@ -0,0 +1,225 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.filters;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class GzipFilterTest {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @BeforeMethod
+    public void setUp() {
+        body.reset();
+    }
+
+    @Test
+    public void testLargeResponsesAreCompressed() throws Exception {
+        HttpServletResponse response = response("application/json; charset=UTF-8");
+        byte[] content = content(4096);
+
+        new GzipFilter(1024).doFilter(request("gzip, deflate"), response, writing(content));
+
+        verify(response).setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        verify(response).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        assertTrue(body.size() < content.length);
+        assertTrue(Arrays.equals(gunzip(body.toByteArray()), content));
+    }
+
+    @Test
+    public void testSmallResponsesAreNotCompressed() throws Exception {
+        HttpServletResponse response = response("application/json");
+        byte[] content = content(100);
+
+        new GzipFilter(1024).doFilter(request("gzip"), response, writing(content));
+
+        verify(response, never()).setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        verify(response).setContentLength(100);
+        assertTrue(Arrays.equals(body.toByteArray(), content));
+    }
+
+    @Test
+    public void testBinaryResponsesAreNotCompressed() throws Exception {
+        HttpServletResponse response = response("image/png");
+        byte[] content = content(4096);
+
+        new GzipFilter(1024).doFilter(request("gzip"), response, writing(content));
+
+        verify(response, never()).setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        assertTrue(Arrays.equals(body.toByteArray(), content));
+    }
+
+    @Test
+    public void testResponsesAreNotCompressedUnlessAccepted() throws Exception {
+        HttpServletResponse response = response("application/json");
+        FilterChain chain = mock(FilterChain.class);
+        HttpServletRequest request = request("identity");
+
+        new GzipFilter(1024).doFilter(request, response, chain);
+        verify(chain).doFilter(request, response);
+
+        assertTrue(GzipFilter.acceptsGzip(request("deflate, gzip;q=0.5")));
+        assertFalse(GzipFilter.acceptsGzip(request("gzip;q=0")));
+        assertFalse(GzipFilter.acceptsGzip(request(null)));
+    }
+
+    @Test
+    public void testMalformedQualityIsNotAccepted() throws Exception {
+        HttpServletResponse response = response("application/json");
+        FilterChain chain = mock(FilterChain.class);
+        HttpServletRequest request = request("gzip;q=abc");
+
+        assertFalse(GzipFilter.acceptsGzip(request));
+
+        new GzipFilter(1024).doFilter(request, response, chain);
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void testStartedResponseIsEndedWhenChainFails() throws Exception {
+        HttpServletResponse response = response("application/json");
+        byte[] content = content(4096);
+
+        try {
+            new GzipFilter(1024).doFilter(request("gzip"), response, writing(content, new IOException("failed")));
+            fail("Expected the failure of the chain");
+        } catch (IOException e) {
+            assertEquals(e.getMessage(), "failed");
+        }
+
+        verify(response).setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        assertTrue(Arrays.equals(gunzip(body.toByteArray()), content));
+    }
+
+    @Test
+    public void testBufferedResponseIsDroppedWhenChainFails() throws Exception {
+        HttpServletResponse response = response("application/json");
+
+        try {
+            new GzipFilter(1024).doFilter(request("gzip"), response, writing(content(100), new IOException("failed")));
+            fail("Expected the failure of the chain");
+        } catch (IOException e) {
+            assertEquals(e.getMessage(), "failed");
+        }
+
+        verify(response, never()).setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        assertEquals(body.size(), 0);
+    }
+
+    private HttpServletRequest request(String acceptEncoding) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn(HttpMethod.GET);
+        when(request.getHeader(HttpHeaders.ACCEPT_ENCODING)).thenReturn(acceptEncoding);
+        return request;
+    }
+
+    private HttpServletResponse response(String contentType) throws IOException {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getContentType()).thenReturn(contentType);
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+        return response;
+    }
+
+    private static FilterChain writing(byte[] content) throws Exception {
+        return writing(content, null);
+    }
+
+    private static FilterChain writing(final byte[] content, final IOException failure) throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ServletResponse response = (ServletResponse) invocation.getArguments()[1];
+                // written in pieces, like a streamed response
+                for (int i = 0; i < content.length; i += 64) {
+                    response.getOutputStream().write(content, i, Math.min(64, content.length - i));
+                    response.flushBuffer();
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        return chain;
+    }
+
+    private static byte[] content(int size) {
+        StringBuilder content = new StringBuilder();
+        while (content.length() < size) {
+            content.append("{\"name\":\"table").append(content.length()).append("\"},");
+        }
+        return content.substring(0, size).getBytes();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[1024];
+            for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.filters;
+
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.typesystem.types.EnumValue;
+import org.apache.atlas.typesystem.types.TypeSystem;
+import org.testng.annotations.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertNotEquals;
+
+public class TypeVersionFilterTest {
+
+    @Test
+    public void testUnchangedTypesAreNotSentAgain() throws Exception {
+        TypeSystem typeSystem = new TypeSystem();
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+        TypeVersionFilter filter = new TypeVersionFilter(typeSystem, typeRegistry);
+        String entityTag = filter.getEntityTag();
+
+        FilterChain chain = mock(FilterChain.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        filter.doFilter(request(entityTag), response, chain);
+
+        verify(chain, never()).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response).setHeader(HttpHeaders.ETAG, entityTag);
+    }
+
+    @Test
+    public void testChangedTypesAreSent() throws Exception {
+        TypeSystem typeSystem = new TypeSystem();
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+        TypeVersionFilter filter = new TypeVersionFilter(typeSystem, typeRegistry);
+        String entityTag = filter.getEntityTag();
+
+        typeSystem.defineEnumType("version_enum", new EnumValue("ONE", 1));
+        assertNotEquals(filter.getEntityTag(), entityTag);
+
+        FilterChain chain = mock(FilterChain.class);
+        HttpServletRequest request = request(entityTag);
+        filter.doFilter(request, mock(HttpServletResponse.class), chain);
+
+        verify(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        String registryTag = filter.getEntityTag();
+        typeRegistry.commitTransientTypeRegistry(typeRegistry.createTransientTypeRegistry());
+        assertNotEquals(filter.getEntityTag(), registryTag);
+    }
+
+    private static HttpServletRequest request(String ifNoneMatch) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn(HttpMethod.GET);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(ifNoneMatch);
+        when(request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE)).thenReturn(-1L);
+        return request;
+    }
+}
@@ -18,7 +18,15 @@
 
 package org.apache.atlas.web.resources;
 
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.discovery.QueryExecutionManager;
+import org.apache.atlas.discovery.RunningQuery;
+import org.apache.atlas.metrics.MetricsRegistry;
+import org.apache.atlas.repository.stats.EntityStatistics;
+import org.apache.atlas.repository.stats.EntityStatisticsService;
 import org.apache.atlas.web.service.ServiceState;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 import org.mockito.Mock;
@@ -27,17 +35,28 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class AdminResourceTest {
 
     @Mock
     private ServiceState serviceState;
 
+    @Mock
+    private QueryExecutionManager queryExecutionManager;
+
+    @Mock
+    private EntityStatisticsService statisticsService;
+
     @BeforeMethod
     public void setup() {
         MockitoAnnotations.initMocks(this);
@@ -48,7 +67,7 @@ public class AdminResourceTest {
 
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.ACTIVE);
 
-        AdminResource adminResource = new AdminResource(serviceState);
+        AdminResource adminResource = new AdminResource(serviceState, queryExecutionManager, statisticsService);
         Response response = adminResource.getStatus();
         assertEquals(response.getStatus(), HttpServletResponse.SC_OK);
         JSONObject entity = (JSONObject) response.getEntity();
@@ -59,7 +78,7 @@ public class AdminResourceTest {
     public void testResourceGetsValueFromServiceState() throws JSONException {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
 
-        AdminResource adminResource = new AdminResource(serviceState);
+        AdminResource adminResource = new AdminResource(serviceState, queryExecutionManager, statisticsService);
         Response response = adminResource.getStatus();
 
         verify(serviceState).getState();
@@ -67,4 +86,72 @@ public class AdminResourceTest {
         assertEquals(entity.get("Status"), "PASSIVE");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testListAndKillRunningQuery() throws JSONException {
+        QueryExecutionManager manager = new QueryExecutionManager(new PropertiesConfiguration());
+        RunningQuery runningQuery = manager.start("gremlin", "g.V.out.out.out.toList()");
+
+        try {
+            AdminResource adminResource = new AdminResource(serviceState, manager, statisticsService);
+            JSONObject entity = (JSONObject) adminResource.getRunningQueries().getEntity();
+            assertEquals(entity.getInt(AtlasClient.COUNT), 1);
+            JSONArray queries = entity.getJSONArray(AtlasClient.RESULTS);
+            assertEquals(queries.getJSONObject(0).getLong("id"), runningQuery.getId());
+            assertEquals(queries.getJSONObject(0).getString(AtlasClient.QUERY), "g.V.out.out.out.toList()");
+
+            Response response = adminResource.killQuery(runningQuery.getId());
+            assertEquals(response.getStatus(), HttpServletResponse.SC_OK);
+            assertTrue(runningQuery.isTerminated());
+        } finally {
+            manager.finish(runningQuery);
+            manager.stop();
+        }
+    }
+
+    @Test
+    public void testKillUnknownQuery() {
+        AdminResource adminResource = new AdminResource(serviceState, queryExecutionManager, statisticsService);
+        try {
+            adminResource.killQuery(42);
+            fail("Expected query not found");
+        } catch (WebApplicationException e) {
+            assertEquals(e.getResponse().getStatus(), HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    @Test
+    public void testStatistics() throws JSONException {
+        EntityStatistics statistics = new EntityStatistics();
+        statistics.entityAdded("hive_table", Arrays.asList("PII"));
+        statistics.entityAdded("hive_table", Collections.<String>emptyList());
+        statistics.entityDeleted("hive_table", Arrays.asList("PII"), true);
+        statistics.valueAdded("hive_table.name", "sales");
+        when(statisticsService.getStatistics()).thenReturn(statistics);
+
+        AdminResource adminResource = new AdminResource(serviceState, queryExecutionManager, statisticsService);
+        JSONObject entity = (JSONObject) adminResource.getStatistics().getEntity();
+
+        JSONObject table = entity.getJSONObject("types").getJSONObject("hive_table");
+        assertEquals(table.getLong("active"), 1);
+        assertEquals(table.getLong("deleted"), 1);
+        JSONObject pii = entity.getJSONObject("traits").getJSONObject("PII");
+        assertEquals(pii.getLong("active"), 0);
+        assertEquals(pii.getLong("deleted"), 1);
+        assertEquals(entity.getJSONObject("attributes").getLong("hive_table.name"), 1);
+    }
+
+    @Test
+    public void testMetrics() throws JSONException {
+        MetricsRegistry.setEnabled(true);
+        AdminResource adminResource = new AdminResource(serviceState, queryExecutionManager, statisticsService);
+        when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.ACTIVE);
+        adminResource.getStatus();
+        adminResource.getStatus();
+
+        JSONObject entity = (JSONObject) adminResource.getMetrics().getEntity();
+        JSONObject timer = entity.getJSONObject("timers").getJSONObject("AdminResource.getStatus");
+        assertTrue(timer.getLong("count") >= 2);
+        assertTrue(timer.getDouble("p99Ms") <= timer.getDouble("maxMs"));
+    }
+}
@@ -17,17 +17,54 @@
  */
 package org.apache.atlas.web.resources;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
+import com.google.common.collect.ImmutableSet;
+import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasClient.EntityResult;
+import org.apache.atlas.discovery.DiscoveryService;
+import org.apache.atlas.query.QueryParams;
+import org.apache.atlas.repository.RepositoryException;
+import org.apache.atlas.services.EntityChanges;
+import org.apache.atlas.services.EntityVersion;
 import org.apache.atlas.services.MetadataService;
+import org.apache.atlas.services.TraitAssociationResult;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.typesystem.exception.EntityNotFoundException;
+import org.apache.atlas.typesystem.exception.TypeNotFoundException;
+import org.apache.atlas.typesystem.json.InstanceSerialization;
+import org.apache.atlas.typesystem.types.ClassType;
+import org.apache.atlas.typesystem.types.DataTypes;
+import org.apache.atlas.typesystem.types.Multiplicity;
+import org.apache.atlas.typesystem.types.TypeSystem;
+import org.apache.atlas.typesystem.types.utils.TypesUtil;
+import org.apache.atlas.web.util.Servlets;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jettison.json.JSONObject;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -35,6 +72,7 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+
 /**
  *   Unit test of {@link EntityResource}
  */
@@ -45,6 +83,9 @@ public class EntityResourceTest {
     @Mock
     MetadataService mockService;
 
+    @Mock
+    DiscoveryService mockDiscoveryService;
+
     @BeforeMethod
     public void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -60,7 +101,7 @@ public class EntityResourceTest {
         when(mockService.deleteEntities(guids)).thenReturn(entityResult);
 
         // Create EntityResource with mock MetadataService.
-        EntityResource entityResource = new EntityResource(mockService);
+        EntityResource entityResource = new EntityResource(mockService, mockDiscoveryService);
 
         Response response = entityResource.deleteEntities(guids, null, null, null);
 
@@ -71,4 +112,193 @@ public class EntityResourceTest {
         EntityResult resultFromEntityResource = EntityResult.fromString(response.getEntity().toString());
         Assert.assertTrue(resultFromEntityResource.getDeletedEntities().contains(DELETED_GUID));
     }
+
+    @Test
+    public void testGetEntityDefinitionStreamsSerializedInstance() throws Exception {
+        TypeSystem typeSystem = TypeSystem.getInstance();
+        typeSystem.reset();
+        typeSystem.defineTraitType(TypesUtil.createTraitTypeDef("stream_tag", ImmutableSet.<String>of(),
+                TypesUtil.createOptionalAttrDef("level", DataTypes.INT_TYPE)));
+        ClassType tableType = typeSystem.defineClassType(TypesUtil.createClassTypeDef("stream_table",
+                ImmutableSet.<String>of(),
+                TypesUtil.createUniqueRequiredAttrDef("name", DataTypes.STRING_TYPE),
+                TypesUtil.createOptionalAttrDef("created", DataTypes.DATE_TYPE),
+                TypesUtil.createOptionalAttrDef("size", DataTypes.BIGDECIMAL_TYPE),
+                TypesUtil.createOptionalAttrDef("columns", DataTypes.arrayTypeName(DataTypes.STRING_TYPE))));
+
+        Referenceable table = new Referenceable("stream_table", "stream_tag");
+        table.set("name", "sales \"fact\" / \u00e9t\u00e9\n");
+        table.set("created", new Date());
+        table.set("size", new BigDecimal("12345678901234567890.5"));
+        table.set("columns", Collections.singletonList("id"));
+        ITypedReferenceableInstance instance = tableType.convert(table, Multiplicity.REQUIRED);
+        when(mockService.getEntityDefinitionReference("guid")).thenReturn(instance);
+        when(mockService.getEntityVersion("guid"))
+                .thenReturn(new EntityVersion("guid", "stream_table", 1000L, 0, "ACTIVE"));
+
+        Response response =
+                new EntityResource(mockService, mockDiscoveryService).getEntityDefinition(mock(HttpServletRequest.class), "guid");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode streamed = mapper.readTree(out.toString("UTF-8"));
+        Assert.assertEquals(streamed.get(AtlasClient.REQUEST_ID).getTextValue(), Thread.currentThread().getName());
+        Assert.assertEquals(streamed.get(AtlasClient.DEFINITION),
+                mapper.readTree(InstanceSerialization.toJson(instance, true)));
+    }
+
+    @Test
+    public void testGetEntitiesByAttributeSkipsMissingEntities() throws Exception {
+        TypeSystem typeSystem = TypeSystem.getInstance();
+        typeSystem.reset();
+        ClassType tableType = typeSystem.defineClassType(TypesUtil.createClassTypeDef("lookup_table",
+                ImmutableSet.<String>of(), TypesUtil.createUniqueRequiredAttrDef("name", DataTypes.STRING_TYPE)));
+        Referenceable table = new Referenceable("lookup_table");
+        table.set("name", "sales");
+        ITypedReferenceableInstance instance = tableType.convert(table, Multiplicity.REQUIRED);
+        when(mockService.getEntityDefinitionReference("lookup_table", "name", "sales")).thenReturn(instance);
+        when(mockService.getEntityDefinitionReference("lookup_table", "name", "missing"))
+                .thenThrow(new EntityNotFoundException("missing"));
+
+        Response response = new EntityResource(mockService, mockDiscoveryService).getEntitiesByAttribute(
+                "lookup_table", "name", Arrays.asList("sales", "missing", "sales"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode definitions = mapper.readTree(out.toString("UTF-8")).get(AtlasClient.DEFINITIONS);
+        Assert.assertEquals(definitions.size(), 1);
+        Assert.assertEquals(definitions.get(0), mapper.readTree(InstanceSerialization.toJson(instance, true)));
+        verify(mockService).getEntityDefinitionReference("lookup_table", "name", "sales");
+    }
+
+    @Test
+    public void testGetEntityDefinitionIsNotLoadedWhenUnchanged() throws Exception {
+        EntityVersion version = new EntityVersion("guid", "stream_table", 1000L, 0, "ACTIVE");
+        when(mockService.getEntityVersion("guid")).thenReturn(version);
+        String entityTag = Servlets.getWeakEntityTag(version.toString());
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(entityTag);
+        Response response = new EntityResource(mockService, mockDiscoveryService).getEntityDefinition(request, "guid");
+
+        Assert.assertEquals(response.getStatus(), Response.Status.NOT_MODIFIED.getStatusCode());
+        Assert.assertEquals(response.getMetadata().getFirst(HttpHeaders.ETAG), entityTag);
+        verify(mockService, never()).getEntityDefinitionReference(Matchers.anyString());
+
+        // an update of the entity changes its tag
+        when(mockService.getEntityVersion("guid"))
+                .thenReturn(new EntityVersion("guid", "stream_table", 2000L, 0, "ACTIVE"));
+        when(mockService.getEntityDefinitionReference("guid")).thenReturn(null);
+        response = new EntityResource(mockService, mockDiscoveryService).getEntityDefinition(request, "guid");
+        Assert.assertEquals(response.getStatus(), Response.Status.NOT_FOUND.getStatusCode());
+    }
+
+    @Test
+    public void testGetEntityChanges() throws Exception {
+        EntityVersion version = new EntityVersion("guid", "stream_table", 1000L, 2, "ACTIVE");
+        when(mockService.getEntityChanges(0, "500", Arrays.asList("stream_table", "stream_view"), 1000))
+                .thenReturn(new EntityChanges(Collections.singletonList(version), "1000:guid", true));
+
+        Response response = new EntityResource(mockService, mockDiscoveryService).getEntityChanges(0, " 500 ",
+                Collections.singletonList("stream_table, stream_view"), 5000);
+
+        JSONObject json = (JSONObject) response.getEntity();
+        Assert.assertEquals(json.getInt(AtlasClient.COUNT), 1);
+        Assert.assertEquals(json.getString("cursor"), "1000:guid");
+        Assert.assertTrue(json.getBoolean("hasMore"));
+
+        JSONObject change = json.getJSONArray(AtlasClient.RESULTS).getJSONObject(0);
+        Assert.assertEquals(change.getString("guid"), "guid");
+        Assert.assertEquals(change.getString(AtlasClient.TYPENAME), "stream_table");
+        Assert.assertEquals(change.getLong("modificationTimestamp"), 1000L);
+        Assert.assertEquals(change.getInt("version"), 2);
+    }
+
+    @Test
+    public void testGetEntityChangesErrors() throws Exception {
+        EntityResource resource = new EntityResource(mockService, mockDiscoveryService);
+        List<String> unknownType = Collections.singletonList("unknown_type");
+        when(mockService.getEntityChanges(0, null, unknownType, 100))
+                .thenThrow(new TypeNotFoundException("unknown_type"));
+        when(mockService.getEntityChanges(0, "bad", Collections.<String>emptyList(), 100))
+                .thenThrow(new IllegalArgumentException("Invalid cursor bad"));
+        when(mockService.getEntityChanges(0, null, Collections.<String>emptyList(), 100))
+                .thenThrow(new RepositoryException("backend unavailable"));
+
+        assertEntityChangesStatus(resource, null, unknownType, Response.Status.NOT_FOUND);
+        assertEntityChangesStatus(resource, "bad", null, Response.Status.BAD_REQUEST);
+        assertEntityChangesStatus(resource, null, null, Response.Status.INTERNAL_SERVER_ERROR);
+    }
+
+    private void assertEntityChangesStatus(EntityResource resource, String cursor, List<String> types,
+                                           Response.Status status) {
+        try {
+            resource.getEntityChanges(0, cursor, types, 100);
+            Assert.fail("Expected the request to fail with " + status);
+        } catch (WebApplicationException e) {
+            Assert.assertEquals(e.getResponse().getStatus(), status.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testAddTraitsToQueryResult() throws Exception {
+        when(mockDiscoveryService.searchGuidsByDSL(eq("stream_table"), any(QueryParams.class)))
+                .thenReturn(Arrays.asList("guid1", "guid2"));
+
+        String trait = "{\"jsonClass\":\"org.apache.atlas.typesystem.json.InstanceSerialization$_Struct\","
+                + "\"typeName\":\"stream_tag\",\"values\":{}}";
+        when(mockService.addTrait(Arrays.asList("guid1", "guid2"), new JSONObject(trait).toString())).thenReturn(
+                new TraitAssociationResult(Collections.singletonList("guid1"),
+                        Collections.singletonMap("guid2", "trait=stream_tag is already defined for entity=guid2")));
+
+        HttpServletRequest request = requestWithPayload("{\"trait\":" + trait + ",\"query\":\"stream_table\"}");
+        Response response = new EntityResource(mockService, mockDiscoveryService).addTraits(request);
+
+        JSONObject json = (JSONObject) response.getEntity();
+        Assert.assertEquals(json.getString("traitName"), "stream_tag");
+        Assert.assertEquals(json.getJSONArray("updated").getString(0), "guid1");
+        Assert.assertEquals(json.getJSONObject("failed").getString("guid2"),
+                "trait=stream_tag is already defined for entity=guid2");
+        Assert.assertEquals(json.getJSONObject("notificationFailed").length(), 0);
+    }
+
+    @Test
+    public void testDeleteTraitsRequiresGuidsOrQuery() throws Exception {
+        try {
+            new EntityResource(mockService, mockDiscoveryService).deleteTraits(Collections.<String>emptyList(), null,
+                    "stream_tag");
+            Assert.fail("Expected the request to be rejected");
+        } catch (WebApplicationException e) {
+            Assert.assertEquals(e.getResponse().getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+        }
+        verify(mockService, never()).deleteTrait(Matchers.anyListOf(String.class), Matchers.anyString());
+    }
+
+    private static HttpServletRequest requestWithPayload(String payload) throws IOException {
+        final ByteArrayInputStream in = new ByteArrayInputStream(payload.getBytes("UTF-8"));
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getInputStream()).thenReturn(new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+        });
+        return request;
+    }
 }
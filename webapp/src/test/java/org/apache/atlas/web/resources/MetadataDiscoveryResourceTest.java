@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.resources;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+import java.io.ByteArrayOutputStream;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.discovery.DSLResultHandler;
+import org.apache.atlas.discovery.DiscoveryException;
+import org.apache.atlas.discovery.DiscoveryService;
+import org.apache.atlas.query.GremlinQueryResult;
+import org.apache.atlas.query.JsonHelper;
+import org.apache.atlas.query.QueryParams;
+import org.apache.atlas.typesystem.types.DataTypes;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import scala.collection.JavaConversions;
+
+/**
+ *   Unit test of {@link MetadataDiscoveryResource}
+ */
+public class MetadataDiscoveryResourceTest {
+
+    private static final String QUERY = "hive_table select name";
+
+    @Mock
+    DiscoveryService mockService;
+
+    @BeforeMethod
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testSearchUsingQueryDSLStreamsResult() throws Exception {
+        GremlinQueryResult result = new GremlinQueryResult(QUERY, DataTypes.STRING_TYPE,
+                JavaConversions.asScalaBuffer(Arrays.<Object>asList("sales_fact", "time \"dim\" / été")));
+        returnResult(result);
+
+        Response response = new MetadataDiscoveryResource(mockService).searchUsingQueryDSL(QUERY, 10, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode streamed = mapper.readTree(out.toString("UTF-8"));
+        JsonNode expected = mapper.readTree(JsonHelper.toJson(result));
+        Assert.assertEquals(streamed.get(AtlasClient.QUERY).getTextValue(), QUERY);
+        Assert.assertEquals(streamed.get(AtlasClient.QUERY_TYPE).getTextValue(), "dsl");
+        Assert.assertEquals(streamed.get(AtlasClient.COUNT).getIntValue(), 2);
+        Assert.assertEquals(streamed.get(AtlasClient.RESULTS), expected.get(AtlasClient.ROWS));
+        Assert.assertEquals(streamed.get(AtlasClient.DATATYPE), expected.get(AtlasClient.DATATYPE));
+    }
+
+    @Test
+    public void testSearchUsingQueryDSLConversionFailureIsError() throws Exception {
+        returnResult(new GremlinQueryResult(QUERY, DataTypes.STRING_TYPE,
+                JavaConversions.asScalaBuffer(rowsFailingAt(0, 10))));
+
+        Response response = new MetadataDiscoveryResource(mockService).searchUsingQueryDSL(QUERY, 10, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ((StreamingOutput) response.getEntity()).write(out);
+            Assert.fail("Expected the conversion failure to be reported");
+        } catch (WebApplicationException e) {
+            Assert.assertEquals(e.getResponse().getStatus(),
+                    Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        }
+        Assert.assertEquals(out.size(), 0);
+    }
+
+    @Test
+    public void testSearchUsingQueryDSLLateConversionFailureIsReportedInResponse() throws Exception {
+        int failingRow = MetadataDiscoveryResource.FIRST_PAGE_SIZE + 2;
+        returnResult(new GremlinQueryResult(QUERY, DataTypes.STRING_TYPE,
+                JavaConversions.asScalaBuffer(rowsFailingAt(failingRow, failingRow + 5))));
+
+        Response response = new MetadataDiscoveryResource(mockService).searchUsingQueryDSL(QUERY, 10, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+
+        JsonNode streamed = new ObjectMapper().readTree(out.toString("UTF-8"));
+        Assert.assertEquals(streamed.get(AtlasClient.RESULTS).size(), failingRow);
+        Assert.assertEquals(streamed.get(AtlasClient.ERROR).getTextValue(), "Unable to read row " + failingRow);
+    }
+
+    @Test
+    public void testSearchUsingQueryDSLFailureIsBadRequest() throws Exception {
+        doThrow(new DiscoveryException("Invalid expression")).when(mockService)
+                .searchByDSL(eq(QUERY), any(QueryParams.class), any(DSLResultHandler.class));
+
+        Response response = new MetadataDiscoveryResource(mockService).searchUsingQueryDSL(QUERY, 10, 0);
+        try {
+            ((StreamingOutput) response.getEntity()).write(new ByteArrayOutputStream());
+            Assert.fail("Expected the query failure to be reported");
+        } catch (WebApplicationException e) {
+            Assert.assertEquals(e.getResponse().getStatus(), Response.Status.BAD_REQUEST.getStatusCode());
+        }
+    }
+
+    private void returnResult(final GremlinQueryResult result) throws Exception {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ((DSLResultHandler) invocation.getArguments()[2]).handle(result);
+                return null;
+            }
+        }).when(mockService).searchByDSL(eq(QUERY), any(QueryParams.class), any(DSLResultHandler.class));
+    }
+
+    /**
+     * Rows that are converted when they are read, as those of a query are, and whose conversion fails at a row.
+     */
+    private static List<Object> rowsFailingAt(final int failingRow, final int size) {
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+                if (index == failingRow) {
+                    throw new IllegalStateException("Unable to read row " + index);
+                }
+                return "row" + index;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -23,16 +23,23 @@ import org.apache.atlas.AtlasException;
 import org.apache.atlas.catalog.*;
 import org.apache.atlas.services.MetadataService;
 import org.easymock.Capture;
+import org.easymock.IAnswer;
 import org.testng.annotations.Test;
 
 import static org.easymock.EasyMock.*;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import javax.ws.rs.core.PathSegment;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.URI;
 import java.util.*;
 
@@ -58,7 +65,8 @@ public class TaxonomyServiceTest {
 
         expect(taxonomyResourceProvider.getResourceById(capture(requestCapture))).andReturn(result);
         expect(metadataService.getTypeDefinition(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE)).andReturn(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE + "-definition");
-        expect(serializer.serialize(result, uriInfo)).andReturn("Taxonomy Get Response");
+        serializer.serialize(eq(result), eq(uriInfo), anyObject(Writer.class));
+        expectLastCall().andAnswer(new WriteResponseAnswer("Taxonomy Get Response"));
         replay(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
 
         TestTaxonomyService service = new TestTaxonomyService(
@@ -73,7 +81,7 @@ public class TaxonomyServiceTest {
         assertEquals(requestProperties.get("name"), taxonomyName);
 
         assertEquals(response.getStatus(), 200);
-        assertEquals(response.getEntity(), "Taxonomy Get Response");
+        assertEquals(getResponseBody(response), "Taxonomy Get Response");
 
         verify(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
     }
@@ -97,7 +105,8 @@ public class TaxonomyServiceTest {
         // set mock expectations
         expect(uriInfo.getRequestUri()).andReturn(uri);
         expect(taxonomyResourceProvider.getResources(capture(requestCapture))).andReturn(result);
-        expect(serializer.serialize(result, uriInfo)).andReturn("Taxonomy Get Response");
+        serializer.serialize(eq(result), eq(uriInfo), anyObject(Writer.class));
+        expectLastCall().andAnswer(new WriteResponseAnswer("Taxonomy Get Response"));
         expect(metadataService.getTypeDefinition(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE)).andReturn(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE + "-definition");
         replay(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
 
@@ -113,7 +122,85 @@ public class TaxonomyServiceTest {
         assertEquals(request.getQueryString(), "name:testTaxonomy");
 
         assertEquals(response.getStatus(), 200);
-        assertEquals(response.getEntity(), "Taxonomy Get Response");
+        assertEquals(getResponseBody(response), "Taxonomy Get Response");
+
+        verify(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
+    }
+
+    @Test
+    public void testGetTaxonomies_resultClosedWhenWriteFails() throws Exception {
+        MetadataService metadataService = createStrictMock(MetadataService.class);
+        ResourceProvider taxonomyResourceProvider = createStrictMock(ResourceProvider.class);
+        ResourceProvider termResourceProvider = createStrictMock(ResourceProvider.class);
+        UriInfo uriInfo = createNiceMock(UriInfo.class);
+        URI uri = new URI("http://localhost:21000/api/atlas/v1/taxonomies");
+        JsonSerializer serializer = createStrictMock(JsonSerializer.class);
+
+        ClosablePropertyMaps resultPropertyMaps = new ClosablePropertyMaps();
+        Result result = new Result(resultPropertyMaps);
+
+        // set mock expectations
+        expect(uriInfo.getRequestUri()).andReturn(uri);
+        expect(taxonomyResourceProvider.getResources(anyObject(Request.class))).andReturn(result);
+        serializer.serialize(eq(result), eq(uriInfo), anyObject(Writer.class));
+        expectLastCall().andThrow(new RuntimeException("Broken pipe"));
+        expect(metadataService.getTypeDefinition(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE)).andReturn(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE + "-definition");
+        replay(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
+
+        // instantiate service and invoke method being tested
+        TestTaxonomyService service = new TestTaxonomyService(
+                metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
+        Response response = service.getTaxonomies(null, uriInfo);
+
+        try {
+            getResponseBody(response);
+            fail("expected exception");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        // the result, which may still hold its graph transaction, is closed
+        assertTrue(resultPropertyMaps.closed);
+
+        verify(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
+    }
+
+    @Test
+    public void testGetTaxonomies_page() throws Exception {
+        MetadataService metadataService = createStrictMock(MetadataService.class);
+        ResourceProvider taxonomyResourceProvider = createStrictMock(ResourceProvider.class);
+        ResourceProvider termResourceProvider = createStrictMock(ResourceProvider.class);
+        UriInfo uriInfo = createNiceMock(UriInfo.class);
+        URI uri = new URI("http://localhost:21000/api/atlas/v1/taxonomies?name:testTaxonomy&pageSize=10&cursor=20");
+        JsonSerializer serializer = createStrictMock(JsonSerializer.class);
+        final Capture<Request> requestCapture = newCapture();
+
+        final Result result = new Result(Collections.<Map<String, Object>>emptyList());
+
+        // set mock expectations
+        expect(uriInfo.getRequestUri()).andReturn(uri).anyTimes();
+        expect(taxonomyResourceProvider.getResources(capture(requestCapture))).andAnswer(new IAnswer<Result>() {
+            @Override
+            public Result answer() throws Throwable {
+                requestCapture.getValue().setNextPageCursor("1480000000000:guid30");
+                return result;
+            }
+        });
+        expect(metadataService.getTypeDefinition(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE)).andReturn(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE + "-definition");
+        replay(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
+
+        // instantiate service and invoke method being tested
+        TestTaxonomyService service = new TestTaxonomyService(
+                metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
+        Response response = service.getTaxonomies(null, uriInfo);
+
+        Request request = requestCapture.getValue();
+        assertEquals(request.getQueryString(), "name:testTaxonomy");
+        assertEquals(request.getPageSize(), 10);
+        assertEquals(request.getPageCursor(), "20");
+
+        assertEquals(response.getStatus(), 200);
+        assertEquals(response.getMetadata().getFirst("Link"),
+                "<http://localhost:21000/api/atlas/v1/taxonomies?name:testTaxonomy&pageSize=10&cursor=1480000000000:guid30>; rel=\"next\"");
 
         verify(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
     }
@@ -208,7 +295,8 @@ public class TaxonomyServiceTest {
         Result result = new Result(resultPropertyMaps);
 
         expect(termResourceProvider.getResourceById(capture(requestCapture))).andReturn(result);
-        expect(serializer.serialize(result, uriInfo)).andReturn("Taxonomy Term Get Response");
+        serializer.serialize(eq(result), eq(uriInfo), anyObject(Writer.class));
+        expectLastCall().andAnswer(new WriteResponseAnswer("Taxonomy Term Get Response"));
         expect(metadataService.getTypeDefinition(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE)).andReturn(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE + "-definition");
         replay(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
 
@@ -225,7 +313,7 @@ public class TaxonomyServiceTest {
         assertEquals(termPath.getFullyQualifiedName(), "testTaxonomy.testTaxonomy.termName");
 
         assertEquals(response.getStatus(), 200);
-        assertEquals(response.getEntity(), "Taxonomy Term Get Response");
+        assertEquals(getResponseBody(response), "Taxonomy Term Get Response");
 
         verify(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
     }
@@ -249,7 +337,8 @@ public class TaxonomyServiceTest {
         // set mock expectations
         expect(uriInfo.getRequestUri()).andReturn(uri);
         expect(termResourceProvider.getResources(capture(requestCapture))).andReturn(result);
-        expect(serializer.serialize(result, uriInfo)).andReturn("Taxonomy Term Get Response");
+        serializer.serialize(eq(result), eq(uriInfo), anyObject(Writer.class));
+        expectLastCall().andAnswer(new WriteResponseAnswer("Taxonomy Term Get Response"));
         expect(metadataService.getTypeDefinition(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE)).andReturn(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE + "-definition");
         replay(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
 
@@ -267,7 +356,7 @@ public class TaxonomyServiceTest {
         assertEquals(request.getQueryString(), "name:testTaxonomy.testTerm");
 
         assertEquals(response.getStatus(), 200);
-        assertEquals(response.getEntity(), "Taxonomy Term Get Response");
+        assertEquals(getResponseBody(response), "Taxonomy Term Get Response");
 
         verify(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer);
     }
@@ -278,7 +367,6 @@ public class TaxonomyServiceTest {
         ResourceProvider taxonomyResourceProvider = createStrictMock(ResourceProvider.class);
         ResourceProvider termResourceProvider = createStrictMock(ResourceProvider.class);
         UriInfo uriInfo = createNiceMock(UriInfo.class);
-        URI uri = new URI("http://localhost:21000/api/atlas/v1/taxonomies/testTaxonomy/terms/testTerm/terms/testTerm2");
         JsonSerializer serializer = createStrictMock(JsonSerializer.class);
         PathSegment segment1 = createNiceMock(PathSegment.class);
         PathSegment segment2 = createNiceMock(PathSegment.class);
@@ -293,11 +381,11 @@ public class TaxonomyServiceTest {
         Result result = new Result(resultPropertyMaps);
 
         // set mock expectations
-        expect(uriInfo.getRequestUri()).andReturn(uri);
         expect(uriInfo.getPathSegments()).andReturn(Arrays.asList(segment1, segment2, segment3));
         expect(segment3.getPath()).andReturn("testTerm2");
         expect(termResourceProvider.getResourceById(capture(requestCapture))).andReturn(result);
-        expect(serializer.serialize(result, uriInfo)).andReturn("Taxonomy Term Get Response");
+        serializer.serialize(eq(result), eq(uriInfo), anyObject(Writer.class));
+        expectLastCall().andAnswer(new WriteResponseAnswer("Taxonomy Term Get Response"));
         expect(metadataService.getTypeDefinition(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE)).andReturn(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE + "-definition");
         replay(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer,
                 segment1, segment2, segment3);
@@ -316,7 +404,7 @@ public class TaxonomyServiceTest {
         assertNull(request.getQueryString());
 
         assertEquals(response.getStatus(), 200);
-        assertEquals(response.getEntity(), "Taxonomy Term Get Response");
+        assertEquals(getResponseBody(response), "Taxonomy Term Get Response");
 
         verify(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer,
                 segment1, segment2, segment3);
@@ -349,7 +437,8 @@ public class TaxonomyServiceTest {
         expect(segment3.getPath()).andReturn("terms");
 
         expect(termResourceProvider.getResources(capture(requestCapture))).andReturn(result);
-        expect(serializer.serialize(result, uriInfo)).andReturn("Taxonomy Term Get Response");
+        serializer.serialize(eq(result), eq(uriInfo), anyObject(Writer.class));
+        expectLastCall().andAnswer(new WriteResponseAnswer("Taxonomy Term Get Response"));
         expect(metadataService.getTypeDefinition(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE)).andReturn(TaxonomyResourceProvider.TAXONOMY_TERM_TYPE + "-definition");
         replay(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer,
                 segment1, segment2, segment3);
@@ -368,7 +457,7 @@ public class TaxonomyServiceTest {
         assertEquals(request.getQueryString(), "name:testTaxonomy.testTerm.testTerm2.testTerm3");
 
         assertEquals(response.getStatus(), 200);
-        assertEquals(response.getEntity(), "Taxonomy Term Get Response");
+        assertEquals(getResponseBody(response), "Taxonomy Term Get Response");
 
         verify(uriInfo, metadataService, taxonomyResourceProvider, termResourceProvider, serializer,
                 segment1, segment2, segment3);
@@ -567,4 +656,33 @@ public class TaxonomyServiceTest {
             return transactionInitialized;
         }
     }
+
+    private static class ClosablePropertyMaps extends ArrayList<Map<String, Object>> implements Closeable {
+        private boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static String getResponseBody(Response response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+        return out.toString("UTF-8");
+    }
+
+    private static class WriteResponseAnswer implements IAnswer<Object> {
+        private final String body;
+
+        private WriteResponseAnswer(String body) {
+            this.body = body;
+        }
+
+        @Override
+        public Object answer() throws Throwable {
+            ((Writer) getCurrentArguments()[2]).write(body);
+            return null;
+        }
+    }
 }
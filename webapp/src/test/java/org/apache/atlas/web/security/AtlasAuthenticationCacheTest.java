@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.web.security;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasAuthenticationCacheTest {
+    private static final List<GrantedAuthority> AUTHORITIES =
+            Collections.<GrantedAuthority>singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    @Test
+    public void testCachedAuthentication() {
+        AtlasAuthenticationCache cache = new AtlasAuthenticationCache(true, 60, 10);
+        Authentication request = new UsernamePasswordAuthenticationToken("user1", "secret");
+
+        assertNull(cache.get(request));
+        cache.put(request, authenticated("user1", "secret"));
+
+        Authentication cached = cache.get(new UsernamePasswordAuthenticationToken("user1", "secret"));
+        assertNotNull(cached);
+        assertTrue(cached.isAuthenticated());
+        assertEquals(cached.getName(), "user1");
+        assertEquals(cached.getAuthorities(), AUTHORITIES);
+        // every hit returns a new token
+        assertNotSame(cache.get(request), cached);
+
+        assertEquals(cache.getHitCount(), 2);
+        assertEquals(cache.getMissCount(), 1);
+    }
+
+    @Test
+    public void testDifferentCredential() {
+        AtlasAuthenticationCache cache = new AtlasAuthenticationCache(true, 60, 10);
+        cache.put(new UsernamePasswordAuthenticationToken("user1", "secret"), authenticated("user1", "secret"));
+
+        assertNull(cache.get(new UsernamePasswordAuthenticationToken("user1", "wrong")));
+        assertNull(cache.get(new UsernamePasswordAuthenticationToken("user2", "secret")));
+    }
+
+    @Test
+    public void testFailedAuthenticationNotCached() {
+        AtlasAuthenticationCache cache = new AtlasAuthenticationCache(true, 60, 10);
+        Authentication request = new UsernamePasswordAuthenticationToken("user1", "secret");
+
+        cache.put(request, request);
+        assertNull(cache.get(request));
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void testInvalidate() {
+        AtlasAuthenticationCache cache = new AtlasAuthenticationCache(true, 60, 10);
+        Authentication request1 = new UsernamePasswordAuthenticationToken("user1", "secret");
+        Authentication request2 = new UsernamePasswordAuthenticationToken("user2", "secret");
+        cache.put(request1, authenticated("user1", "secret"));
+        cache.put(request2, authenticated("user2", "secret"));
+
+        cache.invalidate("user1");
+        assertNull(cache.get(request1));
+        assertNotNull(cache.get(request2));
+
+        cache.invalidateAll();
+        assertNull(cache.get(request2));
+    }
+
+    @Test
+    public void testDisabled() {
+        AtlasAuthenticationCache cache = new AtlasAuthenticationCache(false, 60, 10);
+        Authentication request = new UsernamePasswordAuthenticationToken("user1", "secret");
+        cache.put(request, authenticated("user1", "secret"));
+
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(request));
+    }
+
+    @Test
+    public void testDirectoryMetrics() {
+        AtlasAuthenticationCache cache = new AtlasAuthenticationCache(true, 60, 10);
+        cache.recordDirectoryRequest(2000000L, true);
+        cache.recordDirectoryRequest(4000000L, false);
+
+        assertEquals(cache.getDirectoryRequestCount(), 2);
+        assertEquals(cache.getDirectoryFailureCount(), 1);
+        assertEquals(cache.getAverageDirectoryLatencyMillis(), 3.0);
+        assertEquals(cache.getMaxDirectoryLatencyMillis(), 4);
+    }
+
+    private Authentication authenticated(String user, String password) {
+        return new UsernamePasswordAuthenticationToken(user, password, AUTHORITIES);
+    }
+}
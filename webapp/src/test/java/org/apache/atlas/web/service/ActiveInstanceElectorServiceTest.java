@@ -23,6 +23,7 @@ import org.apache.atlas.AtlasConstants;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.WarmStandbyHandler;
 import org.apache.commons.configuration.Configuration;
 import org.apache.curator.framework.recipes.leader.LeaderLatch;
 import org.mockito.InOrder;
@@ -38,9 +39,11 @@ import java.util.Collection;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 public class ActiveInstanceElectorServiceTest {
 
@@ -159,6 +162,44 @@ public class ActiveInstanceElectorServiceTest {
         verify(curatorFactory).close();
     }
 
+    @Test
+    public void testWarmStandbyHandlersAreRefreshedOnlyWhenPassive() throws Exception {
+        when(configuration.containsKey(HAConfiguration.ATLAS_SERVER_HA_ENABLED_KEY)).thenReturn(true);
+        when(configuration.getBoolean(HAConfiguration.ATLAS_SERVER_HA_ENABLED_KEY)).thenReturn(true);
+        when(configuration.getStringArray(HAConfiguration.ATLAS_SERVER_IDS)).thenReturn(new String[] {"id1"});
+        when(configuration.getString(HAConfiguration.ATLAS_SERVER_ADDRESS_PREFIX +"id1")).thenReturn("127.0.0.1:21000");
+        when(configuration.getString(
+                HAConfiguration.ATLAS_SERVER_HA_ZK_ROOT_KEY, HAConfiguration.ATLAS_SERVER_ZK_ROOT_DEFAULT)).
+                thenReturn(HAConfiguration.ATLAS_SERVER_ZK_ROOT_DEFAULT);
+
+        LeaderLatch leaderLatch = mock(LeaderLatch.class);
+        when(curatorFactory.leaderLatchInstance("id1", HAConfiguration.ATLAS_SERVER_ZK_ROOT_DEFAULT)).thenReturn(leaderLatch);
+
+        Collection<Provider<ActiveStateChangeHandler>> changeHandlers = new ArrayList();
+        final ActiveStateChangeHandler handler = mock(ActiveStateChangeHandler.class,
+                withSettings().extraInterfaces(WarmStandbyHandler.class));
+
+        changeHandlers.add(new Provider<ActiveStateChangeHandler>() {
+            @Override
+            public ActiveStateChangeHandler get() {
+                return handler;
+            }
+        });
+
+        ActiveInstanceElectorService activeInstanceElectorService =
+                new ActiveInstanceElectorService(configuration, changeHandlers, curatorFactory,
+                        activeInstanceState, serviceState);
+        activeInstanceElectorService.start();
+
+        when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.ACTIVE);
+        activeInstanceElectorService.warmUpHandlers();
+        verify((WarmStandbyHandler) handler, never()).instanceIsStandby();
+
+        when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
+        activeInstanceElectorService.warmUpHandlers();
+        verify((WarmStandbyHandler) handler).instanceIsStandby();
+    }
+
     @Test
     public void testNoActionOnStopIfHAModeIsDisabled() {
 